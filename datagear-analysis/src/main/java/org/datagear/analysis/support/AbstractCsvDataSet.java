@@ -98,7 +98,35 @@ public abstract class AbstractCsvDataSet extends AbstractResolvableDataSet imple
 		try
 		{
 			reader = getCsvReader(paramValues);
+		}
+		catch (DataSetException e)
+		{
+			throw e;
+		}
+		catch (Throwable t)
+		{
+			throw new DataSetSourceParseException(t);
+		}
+
+		return resolveResult(reader, properties, dataSetOption);
+	}
 
+	/**
+	 * 解析结果，此方法会关闭{@code reader}。
+	 * 
+	 * @param reader
+	 * @param properties
+	 *            允许为{@code null}，此时会自动解析
+	 * @param dataSetOption
+	 *            允许为{@code null}
+	 * @return
+	 * @throws DataSetException
+	 */
+	protected ResolvedDataSetResult resolveResult(TemplateResolvedSource<Reader> reader,
+			List<DataSetProperty> properties, DataSetOption dataSetOption) throws DataSetException
+	{
+		try
+		{
 			ResolvedDataSetResult result = resolveResult(reader.getSource(), properties, dataSetOption);
 
 			if (reader.hasResolvedTemplate())
@@ -117,8 +145,7 @@ public abstract class AbstractCsvDataSet extends AbstractResolvableDataSet imple
 		}
 		finally
 		{
-			if (reader != null)
-				IOUtil.close(reader.getSource());
+			IOUtil.close(reader.getSource());
 		}
 	}
 
@@ -184,7 +211,7 @@ public abstract class AbstractCsvDataSet extends AbstractResolvableDataSet imple
 			return resolveResult(propertyNames, ((List) data));
 		else
 		{
-			DataSetResult result = new DataSetResult(listRowsToMapRows(data, properties));
+			DataSetResult result = new ColumnarDataSetResult(listRowsToColumnarRows(data, properties));
 			return new ResolvedDataSetResult(result, properties);
 		}
 	}
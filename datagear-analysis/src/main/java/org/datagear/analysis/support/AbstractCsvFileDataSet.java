@@ -9,10 +9,16 @@ package org.datagear.analysis.support;
 
 import java.io.File;
 import java.io.Reader;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
+import org.datagear.analysis.DataSetException;
+import org.datagear.analysis.DataSetOption;
 import org.datagear.analysis.DataSetProperty;
+import org.datagear.analysis.DataSetResult;
+import org.datagear.analysis.ResolvedDataSetResult;
 import org.datagear.util.IOUtil;
 
 /**
@@ -20,6 +26,9 @@ import org.datagear.util.IOUtil;
  * <p>
  * 注意：此类不支持<code>Freemarker</code>模板语言。
  * </p>
+ * <p>
+ * 如果设置了{@linkplain #getSourceCache()}，{@linkplain #getResult(Map)}仅在CSV文件改变后才重新解析文件。
+ * </p>
  * 
  * @author datagear@163.com
  *
@@ -29,6 +38,9 @@ public abstract class AbstractCsvFileDataSet extends AbstractCsvDataSet
 	/** 文件编码 */
 	private String encoding = IOUtil.CHARSET_UTF_8;
 
+	/** 文件数据集源缓存，为null表示不缓存 */
+	private transient FileDataSetSourceCache sourceCache = null;
+
 	public AbstractCsvFileDataSet()
 	{
 		super();
@@ -54,6 +66,56 @@ public abstract class AbstractCsvFileDataSet extends AbstractCsvDataSet
 		this.encoding = encoding;
 	}
 
+	public FileDataSetSourceCache getSourceCache()
+	{
+		return sourceCache;
+	}
+
+	public void setSourceCache(FileDataSetSourceCache sourceCache)
+	{
+		this.sourceCache = sourceCache;
+	}
+
+	@Override
+	protected ResolvedDataSetResult resolveResult(final Map<String, ?> paramValues,
+			final List<DataSetProperty> properties, final DataSetOption dataSetOption) throws DataSetException
+	{
+		FileDataSetSourceCache sourceCache = this.sourceCache;
+
+		// 仅缓存完整的结果，自动解析属性、限定数目的结果不缓存
+		if (sourceCache == null || properties == null || properties.isEmpty() || dataSetOption != null)
+			return super.resolveResult(paramValues, properties, dataSetOption);
+
+		File file = null;
+
+		try
+		{
+			file = getCsvFile(paramValues);
+		}
+		catch (DataSetException e)
+		{
+			throw e;
+		}
+		catch (Throwable t)
+		{
+			throw new DataSetSourceParseException(t);
+		}
+
+		List<Object> options = Arrays.asList("csv", this.encoding, getNameRow(),
+				FileDataSetSourceCache.toPropertiesSignature(properties), getPropertyDataFormat());
+
+		DataSetResult result = sourceCache.get(file, options, new Callable<DataSetResult>()
+		{
+			@Override
+			public DataSetResult call() throws Exception
+			{
+				return AbstractCsvFileDataSet.super.resolveResult(paramValues, properties, dataSetOption).getResult();
+			}
+		});
+
+		return new ResolvedDataSetResult(result, properties);
+	}
+
 	@Override
 	protected TemplateResolvedSource<Reader> getCsvReader(Map<String, ?> paramValues) throws Throwable
 	{
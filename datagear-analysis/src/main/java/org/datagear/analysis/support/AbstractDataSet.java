@@ -7,9 +7,7 @@
  */
 package org.datagear.analysis.support;
 
-import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -238,24 +236,35 @@ public abstract class AbstractDataSet extends AbstractIdentifiable implements Da
 		if (data == null)
 			return Collections.EMPTY_LIST;
 
-		int plen = properties.size();
+		return listRowsToColumnarRows(data, properties);
+	}
 
-		List<Map<String, Object>> maps = new ArrayList<>(data.size());
+	/**
+	 * 将列表行数据转换为{@linkplain ColumnarRows}。
+	 * 
+	 * @param data
+	 *            允许为{@code null}
+	 * @param properties
+	 * @return
+	 */
+	protected ColumnarRows listRowsToColumnarRows(List<List<Object>> data, List<DataSetProperty> properties)
+	{
+		String[] names = new String[properties.size()];
 
-		for (List<Object> row : data)
-		{
-			Map<String, Object> map = new HashMap<>();
+		for (int i = 0; i < names.length; i++)
+			names[i] = properties.get(i).getName();
 
-			for (int i = 0; i < Math.min(plen, row.size()); i++)
-			{
-				String name = properties.get(i).getName();
-				map.put(name, row.get(i));
-			}
+		ColumnarRows rows = new ColumnarRows(names);
 
-			maps.add(map);
+		if (data != null)
+		{
+			for (List<Object> row : data)
+				rows.addRow(row);
 		}
 
-		return maps;
+		rows.trimToSize();
+
+		return rows;
 	}
 
 	/**
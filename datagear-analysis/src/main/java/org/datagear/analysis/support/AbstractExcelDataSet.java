@@ -7,23 +7,52 @@
  */
 package org.datagear.analysis.support;
 
+import static org.apache.poi.xssf.usermodel.XSSFRelation.NS_SPREADSHEETML;
+
 import java.io.File;
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-
-import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+
+import org.apache.poi.hssf.eventusermodel.AbortableHSSFListener;
+import org.apache.poi.hssf.eventusermodel.FormatTrackingHSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFRequest;
+import org.apache.poi.hssf.eventusermodel.HSSFUserException;
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BlankRecord;
+import org.apache.poi.hssf.record.BoolErrRecord;
+import org.apache.poi.hssf.record.CellValueRecordInterface;
+import org.apache.poi.hssf.record.DateWindow1904Record;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.LabelRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
+import org.apache.poi.hssf.record.MulBlankRecord;
+import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.RowRecord;
+import org.apache.poi.hssf.record.SSTRecord;
+import org.apache.poi.hssf.record.StringRecord;
 import org.apache.poi.hssf.util.CellReference;
 import org.apache.poi.openxml4j.opc.OPCPackage;
 import org.apache.poi.openxml4j.opc.PackageAccess;
 import org.apache.poi.poifs.filesystem.POIFSFileSystem;
-import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellType;
 import org.apache.poi.ss.usermodel.DateUtil;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.apache.poi.util.SAXHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
 import org.datagear.analysis.DataSetException;
 import org.datagear.analysis.DataSetOption;
 import org.datagear.analysis.DataSetProperty;
@@ -37,6 +66,11 @@ import org.datagear.util.IOUtil;
 import org.datagear.util.StringUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
 
 /**
  * 抽象Excel数据集。
@@ -50,11 +84,18 @@ import org.slf4j.LoggerFactory;
  * 通过{@linkplain #setNameRow(int)}可设置名称行。
  * </p>
  * <p>
+ * 此类采用流式方式（{@code xls}为事件模式、{@code xlsx}为SAX模式）读取Excel文件，不会将整个工作簿加载至内存，
+ * 并且在读取到足够的数据（参考{@linkplain DataSetOption#getResultDataMaxCount()}、{@linkplain #setDataRowExp(String)}）后即停止读取。
+ * </p>
+ * <p>
+ * 如果设置了{@linkplain #getSourceCache()}，{@linkplain #getResult(Map)}仅在Excel文件改变后才重新解析文件。
+ * </p>
+ * <p>
  * 注意：此类不支持<code>Freemarker</code>模板语言。
  * </p>
  * 
  * @author datagear@163.com
- *
+ * 
  */
 public abstract class AbstractExcelDataSet extends AbstractResolvableDataSet implements ResolvableDataSet
 {
@@ -82,6 +123,9 @@ public abstract class AbstractExcelDataSet extends AbstractResolvableDataSet imp
 	/** 是否强制作为xls文件处理 */
 	private boolean forceXls = false;
 
+	/** 文件数据集源缓存，为null表示不缓存 */
+	private transient FileDataSetSourceCache sourceCache = null;
+
 	private transient List<IndexRange> _dataRowRanges = null;
 	private transient List<IndexRange> _dataColumnRanges = null;
 
@@ -223,9 +267,19 @@ public abstract class AbstractExcelDataSet extends AbstractResolvableDataSet imp
 		this.forceXls = forceXls;
 	}
 
+	public FileDataSetSourceCache getSourceCache()
+	{
+		return sourceCache;
+	}
+
+	public void setSourceCache(FileDataSetSourceCache sourceCache)
+	{
+		this.sourceCache = sourceCache;
+	}
+
 	@Override
-	protected ResolvedDataSetResult resolveResult(Map<String, ?> paramValues, List<DataSetProperty> properties,
-			DataSetOption dataSetOption) throws DataSetException
+	protected ResolvedDataSetResult resolveResult(final Map<String, ?> paramValues,
+			final List<DataSetProperty> properties, final DataSetOption dataSetOption) throws DataSetException
 	{
 		File file = null;
 
@@ -242,18 +296,56 @@ public abstract class AbstractExcelDataSet extends AbstractResolvableDataSet imp
 			throw new DataSetSourceParseException(t);
 		}
 
-		ResolvedDataSetResult result = null;
+		FileDataSetSourceCache sourceCache = this.sourceCache;
 
+		// 仅缓存完整的结果，自动解析属性、限定数目的结果不缓存
+		if (sourceCache == null || properties == null || properties.isEmpty() || dataSetOption != null)
+			return resolveResult(paramValues, file, properties, dataSetOption);
+
+		List<Object> options = Arrays.asList("excel", this.sheetIndex, this.nameRow, this.dataRowExp,
+				this.dataColumnExp, isXls(file), FileDataSetSourceCache.toPropertiesSignature(properties),
+				getPropertyDataFormat());
+
+		final File excelFile = file;
+
+		DataSetResult result = sourceCache.get(file, options, new Callable<DataSetResult>()
+		{
+			@Override
+			public DataSetResult call() throws Exception
+			{
+				return resolveResult(paramValues, excelFile, properties, dataSetOption).getResult();
+			}
+		});
+
+		return new ResolvedDataSetResult(result, properties);
+	}
+
+	/**
+	 * 解析Excel文件结果。
+	 * 
+	 * @param paramValues
+	 * @param file
+	 * @param properties
+	 *            允许为{@code null}，此时会自动解析
+	 * @param dataSetOption
+	 *            允许为{@code null}
+	 * @return
+	 * @throws DataSetException
+	 */
+	protected ResolvedDataSetResult resolveResult(Map<String, ?> paramValues, File file,
+			List<DataSetProperty> properties, DataSetOption dataSetOption) throws DataSetException
+	{
 		if (isXls(file))
-			result = resolveResultForXls(paramValues, file, properties, dataSetOption);
+			return resolveResultForXls(paramValues, file, properties, dataSetOption);
 		else
-			result = resolveResultForXlsx(paramValues, file, properties, dataSetOption);
-
-		return result;
+			return resolveResultForXlsx(paramValues, file, properties, dataSetOption);
 	}
 
 	/**
 	 * 解析{@code xls}结果。
+	 * <p>
+	 * 此方法采用事件模式流式读取文件，不会将整个工作簿加载至内存，并且在读取到足够的数据后即停止读取。
+	 * </p>
 	 * 
 	 * @param paramValues
 	 * @param file
@@ -268,16 +360,26 @@ public abstract class AbstractExcelDataSet extends AbstractResolvableDataSet imp
 			List<DataSetProperty> properties, DataSetOption dataSetOption) throws DataSetException
 	{
 		POIFSFileSystem poifs = null;
-		HSSFWorkbook wb = null;
 
 		try
 		{
 			poifs = new POIFSFileSystem(file, true);
-			wb = new HSSFWorkbook(poifs.getRoot(), true);
 
-			Sheet sheet = wb.getSheetAt(getSheetIndex() - 1);
+			SheetRowResolver sheetRowResolver = new SheetRowResolver(properties, dataSetOption);
+			XlsSheetListener listener = new XlsSheetListener(sheetRowResolver, getSheetIndex() - 1);
+
+			HSSFRequest request = new HSSFRequest();
+			request.addListenerForAllRecords(listener);
+
+			HSSFEventFactory factory = new HSSFEventFactory();
+			factory.abortableProcessWorkbookEvents(request, poifs);
 
-			return resolveResultForSheet(paramValues, sheet, properties, dataSetOption);
+			if (!listener.isSheetFound())
+				throw new DataSetSourceParseException("No sheet found for index " + getSheetIndex());
+
+			listener.finish();
+
+			return sheetRowResolver.getResult();
 		}
 		catch (DataSetException e)
 		{
@@ -289,13 +391,15 @@ public abstract class AbstractExcelDataSet extends AbstractResolvableDataSet imp
 		}
 		finally
 		{
-			IOUtil.close(wb);
 			IOUtil.close(poifs);
 		}
 	}
 
 	/**
 	 * 解析{@code xlsx}结果。
+	 * <p>
+	 * 此方法采用SAX模式流式读取sheet，不会将整个工作簿加载至内存，并且在读取到足够的数据后即停止读取。
+	 * </p>
 	 * 
 	 * @param paramValues
 	 * @param file
@@ -310,16 +414,36 @@ public abstract class AbstractExcelDataSet extends AbstractResolvableDataSet imp
 			List<DataSetProperty> properties, DataSetOption dataSetOption) throws DataSetException
 	{
 		OPCPackage pkg = null;
-		XSSFWorkbook wb = null;
+		InputStream sheetIn = null;
 
 		try
 		{
 			pkg = OPCPackage.open(file, PackageAccess.READ);
-			wb = new XSSFWorkbook(pkg);
 
-			Sheet sheet = wb.getSheetAt(getSheetIndex() - 1);
+			XSSFReader xssfReader = new XSSFReader(pkg);
+			ReadOnlySharedStringsTable sharedStringsTable = new ReadOnlySharedStringsTable(pkg);
+			StylesTable stylesTable = xssfReader.getStylesTable();
+			boolean date1904 = isXlsxDate1904(xssfReader);
+
+			sheetIn = getXlsxSheetInputStream(xssfReader, getSheetIndex() - 1);
+
+			SheetRowResolver sheetRowResolver = new SheetRowResolver(properties, dataSetOption);
+			XlsxSheetHandler handler = new XlsxSheetHandler(sheetRowResolver, sharedStringsTable, stylesTable,
+					date1904);
+
+			XMLReader sheetParser = SAXHelper.newXMLReader();
+			sheetParser.setContentHandler(handler);
 
-			return resolveResultForSheet(paramValues, sheet, properties, dataSetOption);
+			try
+			{
+				sheetParser.parse(new InputSource(sheetIn));
+			}
+			catch (ReadStoppedException e)
+			{
+				// 已读取足够的数据
+			}
+
+			return sheetRowResolver.getResult();
 		}
 		catch (DataSetException e)
 		{
@@ -331,121 +455,76 @@ public abstract class AbstractExcelDataSet extends AbstractResolvableDataSet imp
 		}
 		finally
 		{
-			IOUtil.close(wb);
+			IOUtil.close(sheetIn);
 			IOUtil.close(pkg);
 		}
 	}
 
 	/**
-	 * 解析sheet结果。
+	 * 获取{@code xlsx}指定sheet的输入流。
 	 * 
-	 * @param paramValues
-	 * @param sheet
-	 * @param properties
-	 *            允许为{@code null}，此时会自动解析
-	 * @param dataSetOption
-	 *            允许为{@code null}
+	 * @param xssfReader
+	 * @param sheetIndex
+	 *            sheet索引（以{@code 0}计数）
 	 * @return
-	 * @throws DataSetException
+	 * @throws Throwable
 	 */
-	protected ResolvedDataSetResult resolveResultForSheet(Map<String, ?> paramValues, Sheet sheet,
-			List<DataSetProperty> properties, DataSetOption dataSetOption) throws DataSetException
+	protected InputStream getXlsxSheetInputStream(XSSFReader xssfReader, int sheetIndex) throws Throwable
 	{
-		boolean resolveProperties = (properties == null || properties.isEmpty());
+		Iterator<InputStream> sheets = xssfReader.getSheetsData();
 
-		if (resolveProperties)
-			properties = new ArrayList<>();
+		int index = 0;
 
-		List<List<Object>> data = new ArrayList<>();
-
-		List<String> propertyNames = null;
-
-		DataSetPropertyValueConverter converter = createDataSetPropertyValueConverter();
-
-		try
+		while (sheets.hasNext())
 		{
-			int rowIdx = 0;
-			int dataRowIdx = 0;
-
-			for (Row row : sheet)
-			{
-				if (isNameRow(rowIdx))
-				{
-					if (resolveProperties)
-						propertyNames = resolveDataSetPropertyNames(row, false);
-				}
-				else if (isDataRow(rowIdx))
-				{
-					if (resolveProperties && dataRowIdx == 0 && propertyNames == null)
-						propertyNames = resolveDataSetPropertyNames(row, true);
-
-					// 名称行不一定在数据行之前，此时可能还无法确定属性名，所以暂时采用列表存储
-					List<Object> rowObj = new ArrayList<>();
-
-					int colIdx = 0;
-					int dataColIdx = 0;
-
-					for (Cell cell : row)
-					{
-						if (isDataColumn(colIdx))
-						{
-							DataSetProperty property = null;
+			InputStream in = sheets.next();
 
-							if (!resolveProperties)
-							{
-								if (dataColIdx >= properties.size())
-									throw new DataSetSourceParseException(
-											"No property defined for column index " + dataColIdx);
+			if (index == sheetIndex)
+				return in;
 
-								property = properties.get(dataColIdx);
-							}
+			IOUtil.close(in);
 
-							Object value = resolvePropertyValue(cell, property, converter);
-
-							if (resolveProperties)
-							{
-								property = resolveDataSetProperty(row, rowIdx, dataRowIdx, cell, colIdx, dataColIdx,
-										value, properties);
-							}
-
-							rowObj.add(value);
-
-							dataColIdx++;
-						}
+			index++;
+		}
 
-						colIdx++;
-					}
+		throw new DataSetSourceParseException("No sheet found for index " + (sheetIndex + 1));
+	}
 
-					boolean reachMaxCount = isReachResultDataMaxCount(dataSetOption, data.size());
-					boolean breakLoop = (reachMaxCount && (!resolveProperties || isAfterNameRow(rowIdx)));
+	/**
+	 * {@code xlsx}工作簿是否采用1904日期系统。
+	 * 
+	 * @param xssfReader
+	 * @return
+	 * @throws Throwable
+	 */
+	protected boolean isXlsxDate1904(XSSFReader xssfReader) throws Throwable
+	{
+		InputStream in = null;
 
-					if (!reachMaxCount)
-						data.add(rowObj);
+		try
+		{
+			in = xssfReader.getWorkbookData();
 
-					dataRowIdx++;
+			XlsxWorkbookPrHandler handler = new XlsxWorkbookPrHandler();
 
-					if (breakLoop)
-						break;
-				}
+			XMLReader workbookParser = SAXHelper.newXMLReader();
+			workbookParser.setContentHandler(handler);
 
-				rowIdx++;
+			try
+			{
+				workbookParser.parse(new InputSource(in));
 			}
+			catch (ReadStoppedException e)
+			{
+				// 已读取到workbookPr元素
+			}
+
+			return handler.isDate1904();
 		}
-		catch (DataSetException e)
-		{
-			throw e;
-		}
-		catch (Throwable t)
+		finally
 		{
-			throw new DataSetSourceParseException(t);
+			IOUtil.close(in);
 		}
-
-		if (resolveProperties)
-			inflateDataSetProperties(properties, propertyNames);
-
-		DataSetResult result = new DataSetResult(listRowsToMapRows(data, properties));
-
-		return new ResolvedDataSetResult(result, properties);
 	}
 
 	protected void inflateDataSetProperties(List<DataSetProperty> properties, List<String> propertyNames)
@@ -463,18 +542,16 @@ public abstract class AbstractExcelDataSet extends AbstractResolvableDataSet imp
 	/**
 	 * 解析{@linkplain DataSetProperty}并写入{@code properties}。
 	 * 
-	 * @param row
 	 * @param rowIdx
 	 * @param dataRowIdx
-	 * @param cell
 	 * @param colIdx
 	 * @param dataColIdx
 	 * @param cellValue
 	 * @param properties
 	 * @return
 	 */
-	protected DataSetProperty resolveDataSetProperty(Row row, int rowIdx, int dataRowIdx, Cell cell, int colIdx,
-			int dataColIdx, Object cellValue, List<DataSetProperty> properties)
+	protected DataSetProperty resolveDataSetProperty(int rowIdx, int dataRowIdx, int colIdx, int dataColIdx,
+			Object cellValue, List<DataSetProperty> properties)
 	{
 		DataSetProperty property = null;
 
@@ -501,40 +578,34 @@ public abstract class AbstractExcelDataSet extends AbstractResolvableDataSet imp
 	/**
 	 * 解析属性名。
 	 * 
-	 * @param nameRow
+	 * @param nameRowValues
+	 *            名称行的单元格值列表
+	 * @param forceColumnString
 	 * @return
 	 */
-	protected List<String> resolveDataSetPropertyNames(Row nameRow, boolean forceColumnString)
+	protected List<String> resolveDataSetPropertyNames(List<Object> nameRowValues, boolean forceColumnString)
 	{
 		List<String> propertyNames = new ArrayList<>();
 
-		int colIdx = 0;
-		for (Cell cell : nameRow)
+		for (int colIdx = 0, len = nameRowValues.size(); colIdx < len; colIdx++)
 		{
 			if (isDataColumn(colIdx))
 			{
 				String name = null;
 
-				if (forceColumnString)
-					name = CellReference.convertNumToColString(colIdx);
-				else
+				if (!forceColumnString)
 				{
-					try
-					{
-						name = cell.getStringCellValue();
-					}
-					catch (Throwable t)
-					{
-					}
+					Object value = nameRowValues.get(colIdx);
 
-					if (StringUtil.isEmpty(name))
-						name = CellReference.convertNumToColString(colIdx);
+					if (value instanceof String)
+						name = (String) value;
 				}
 
+				if (StringUtil.isEmpty(name))
+					name = CellReference.convertNumToColString(colIdx);
+
 				propertyNames.add(name);
 			}
-
-			colIdx++;
 		}
 
 		return propertyNames;
@@ -543,7 +614,8 @@ public abstract class AbstractExcelDataSet extends AbstractResolvableDataSet imp
 	/**
 	 * 解析单元格属性值。
 	 * 
-	 * @param cell
+	 * @param cellValue
+	 *            单元格值，允许为{@code null}
 	 * @param property
 	 *            允许为{@code null}
 	 * @param converter
@@ -551,55 +623,10 @@ public abstract class AbstractExcelDataSet extends AbstractResolvableDataSet imp
 	 * @throws DataSetSourceParseException
 	 * @throws DataSetException
 	 */
-	protected Object resolvePropertyValue(Cell cell, DataSetProperty property, DataSetPropertyValueConverter converter)
-			throws DataSetSourceParseException, DataSetException
+	protected Object resolvePropertyValue(Object cellValue, DataSetProperty property,
+			DataSetPropertyValueConverter converter) throws DataSetSourceParseException, DataSetException
 	{
-		CellType cellType = cell.getCellTypeEnum();
-
-		Object cellValue = null;
-
-		try
-		{
-			if (CellType.BLANK.equals(cellType))
-			{
-				cellValue = null;
-			}
-			else if (CellType.BOOLEAN.equals(cellType))
-			{
-				cellValue = cell.getBooleanCellValue();
-			}
-			else if (CellType.ERROR.equals(cellType))
-			{
-				cellValue = cell.getErrorCellValue();
-			}
-			else if (CellType.FORMULA.equals(cellType))
-			{
-				cellValue = cell.getCellFormula();
-			}
-			else if (CellType.NUMERIC.equals(cellType))
-			{
-				if (DateUtil.isCellDateFormatted(cell))
-					cellValue = cell.getDateCellValue();
-				else
-					cellValue = cell.getNumericCellValue();
-			}
-			else if (CellType.STRING.equals(cellType))
-			{
-				cellValue = cell.getStringCellValue();
-			}
-		}
-		catch (DataSetException e)
-		{
-			throw e;
-		}
-		catch (Throwable t)
-		{
-			throw new DataSetSourceParseException(t);
-		}
-
-		cellValue = convertToPropertyDataType(converter, cellValue, property);
-
-		return cellValue;
+		return convertToPropertyDataType(converter, cellValue, property);
 	}
 
 	/**
@@ -647,6 +674,30 @@ public abstract class AbstractExcelDataSet extends AbstractResolvableDataSet imp
 		return IndexRange.includes(this._dataRowRanges, rowIndex + 1);
 	}
 
+	/**
+	 * 是否在最后一个数据行之后。
+	 * <p>
+	 * 如果数据行范围不限定，应返回{@code false}。
+	 * </p>
+	 * 
+	 * @param rowIndex
+	 *            行索引（以{@code 0}计数）
+	 * @return
+	 */
+	protected boolean isAfterLastDataRow(int rowIndex)
+	{
+		if (this._dataRowRanges == null || this._dataRowRanges.isEmpty())
+			return false;
+
+		for (IndexRange range : this._dataRowRanges)
+		{
+			if (range.getTo() < 0 || (rowIndex + 1) <= range.getTo())
+				return false;
+		}
+
+		return true;
+	}
+
 	/**
 	 * 是否数据列。
 	 * 
@@ -722,4 +773,709 @@ public abstract class AbstractExcelDataSet extends AbstractResolvableDataSet imp
 	 * @throws Throwable
 	 */
 	protected abstract File getExcelFile(Map<String, ?> paramValues) throws Throwable;
+
+	/**
+	 * sheet行解析器。
+	 * <p>
+	 * 它按顺序接收sheet的每一行单元格值，并依据名称行、数据行、数据列设置构建结果，
+	 * 由{@code xls}、{@code xlsx}流式读取器共用。
+	 * </p>
+	 * 
+	 * @author datagear@163.com
+	 * 
+	 */
+	protected class SheetRowResolver
+	{
+		private final List<DataSetProperty> properties;
+
+		private final boolean resolveProperties;
+
+		private final DataSetOption dataSetOption;
+
+		private final DataSetPropertyValueConverter converter;
+
+		private final List<List<Object>> data = new ArrayList<>();
+
+		private List<String> propertyNames = null;
+
+		// 当前行索引
+		private int _rowIdx = 0;
+		// 当前数据行索引
+		private int _dataRowIdx = 0;
+		// 是否已无需再读取后续行
+		private boolean _finished = false;
+
+		/**
+		 * 创建。
+		 * 
+		 * @param properties
+		 *            允许为{@code null}，此时会自动解析
+		 * @param dataSetOption
+		 *            允许为{@code null}
+		 */
+		public SheetRowResolver(List<DataSetProperty> properties, DataSetOption dataSetOption)
+		{
+			super();
+			this.resolveProperties = (properties == null || properties.isEmpty());
+			this.properties = (this.resolveProperties ? new ArrayList<>() : properties);
+			this.dataSetOption = dataSetOption;
+			this.converter = createDataSetPropertyValueConverter();
+		}
+
+		/**
+		 * 是否已无需再读取后续行。
+		 * 
+		 * @return
+		 */
+		public boolean isFinished()
+		{
+			return _finished;
+		}
+
+		/**
+		 * 解析下一行。
+		 * 
+		 * @param cellValues
+		 *            行内单元格值列表，按单元格在行内的物理顺序排列，空单元格的值为{@code null}
+		 * @return {@code true} 需继续读取后续行；{@code false} 已无需再读取后续行
+		 * @throws DataSetException
+		 */
+		public boolean resolveRow(List<Object> cellValues) throws DataSetException
+		{
+			if (this._finished)
+				return false;
+
+			int rowIdx = this._rowIdx;
+
+			// 后续已没有数据行
+			if (isAfterLastDataRow(rowIdx) && (!this.resolveProperties || isAfterNameRow(rowIdx)))
+			{
+				this._finished = true;
+				return false;
+			}
+
+			if (isNameRow(rowIdx))
+			{
+				if (this.resolveProperties)
+					this.propertyNames = resolveDataSetPropertyNames(cellValues, false);
+			}
+			else if (isDataRow(rowIdx))
+			{
+				if (this.resolveProperties && this._dataRowIdx == 0 && this.propertyNames == null)
+					this.propertyNames = resolveDataSetPropertyNames(cellValues, true);
+
+				// 名称行不一定在数据行之前，此时可能还无法确定属性名，所以暂时采用列表存储
+				List<Object> rowObj = new ArrayList<>();
+
+				int dataColIdx = 0;
+
+				for (int colIdx = 0, len = cellValues.size(); colIdx < len; colIdx++)
+				{
+					if (isDataColumn(colIdx))
+					{
+						DataSetProperty property = null;
+
+						if (!this.resolveProperties)
+						{
+							if (dataColIdx >= this.properties.size())
+								throw new DataSetSourceParseException(
+										"No property defined for column index " + dataColIdx);
+
+							property = this.properties.get(dataColIdx);
+						}
+
+						Object value = resolvePropertyValue(cellValues.get(colIdx), property, this.converter);
+
+						if (this.resolveProperties)
+						{
+							property = resolveDataSetProperty(rowIdx, this._dataRowIdx, colIdx, dataColIdx, value,
+									this.properties);
+						}
+
+						rowObj.add(value);
+
+						dataColIdx++;
+					}
+				}
+
+				boolean reachMaxCount = isReachResultDataMaxCount(this.dataSetOption, this.data.size());
+
+				if (!reachMaxCount)
+					this.data.add(rowObj);
+
+				this._dataRowIdx++;
+
+				if (reachMaxCount && (!this.resolveProperties || isAfterNameRow(rowIdx)))
+					this._finished = true;
+			}
+
+			this._rowIdx++;
+
+			return !this._finished;
+		}
+
+		/**
+		 * 获取结果。
+		 * 
+		 * @return
+		 */
+		public ResolvedDataSetResult getResult()
+		{
+			if (this.resolveProperties)
+				inflateDataSetProperties(this.properties, this.propertyNames);
+
+			DataSetResult result = new ColumnarDataSetResult(listRowsToColumnarRows(this.data, this.properties));
+
+			return new ResolvedDataSetResult(result, this.properties);
+		}
+	}
+
+	/**
+	 * {@code .xls}格式的sheet读取器。
+	 * <p>
+	 * 注意：xls格式的Record记录事件顺序为：全部BoundSheetRecord -> 各sheet的（RowRecord块 -> cell记录块）
+	 * </p>
+	 * <p>
+	 * 行、单元格的计数方式与{@code HSSFSheet}的行、单元格迭代器保持一致：没有单元格但有{@linkplain RowRecord}的行也作为一行，
+	 * {@linkplain MulBlankRecord}中的每一列都作为一个空单元格。
+	 * </p>
+	 * 
+	 * @author datagear@163.com
+	 * 
+	 */
+	protected class XlsSheetListener extends AbortableHSSFListener
+	{
+		private final SheetRowResolver sheetRowResolver;
+
+		/** 要读取的sheet索引（以{@code 0}计数） */
+		private final int sheetIndex;
+
+		private final FormatTrackingHSSFListener formatListener;
+
+		private SSTRecord _sstRecord = null;
+		private boolean _date1904 = false;
+		// 子流嵌套层级，sheet子流为1，sheet内嵌的图表等子流大于1
+		private int _bofDepth = 0;
+		// 当前sheet索引
+		private int _sheetIndex = -1;
+		// 是否在要读取的sheet内
+		private boolean _inSheet = false;
+		private boolean _sheetFound = false;
+		// 尚未解析的RowRecord行号
+		private final TreeSet<Integer> _rowNumbers = new TreeSet<>();
+		// 当前行号
+		private int _rowNumber = -1;
+		// 最后解析的行号
+		private int _lastResolvedRowNumber = -1;
+		private final List<Object> _cellValues = new ArrayList<>();
+		// 等待后续StringRecord的公式单元格索引
+		private int _formulaStringCellIndex = -1;
+		private boolean _finished = false;
+
+		public XlsSheetListener(SheetRowResolver sheetRowResolver, int sheetIndex)
+		{
+			super();
+			this.sheetRowResolver = sheetRowResolver;
+			this.sheetIndex = sheetIndex;
+			this.formatListener = new FormatTrackingHSSFListener(this);
+		}
+
+		/**
+		 * 是否找到了要读取的sheet。
+		 * 
+		 * @return
+		 */
+		public boolean isSheetFound()
+		{
+			return _sheetFound;
+		}
+
+		@Override
+		public short abortableProcessRecord(Record record) throws HSSFUserException
+		{
+			this.formatListener.processRecordInternally(record);
+
+			short sid = record.getSid();
+
+			if (sid == BOFRecord.sid)
+			{
+				this._bofDepth++;
+
+				if (this._bofDepth == 1 && ((BOFRecord) record).getType() != BOFRecord.TYPE_WORKBOOK)
+				{
+					this._sheetIndex++;
+					this._inSheet = (this._sheetIndex == this.sheetIndex);
+
+					if (this._inSheet)
+						this._sheetFound = true;
+				}
+			}
+			else if (sid == EOFRecord.sid)
+			{
+				this._bofDepth--;
+
+				if (this._bofDepth == 0 && this._inSheet)
+					finish();
+			}
+			else if (sid == SSTRecord.sid)
+			{
+				this._sstRecord = (SSTRecord) record;
+			}
+			else if (sid == DateWindow1904Record.sid)
+			{
+				this._date1904 = (((DateWindow1904Record) record).getWindowing() == 1);
+			}
+			else if (this._inSheet && this._bofDepth == 1 && !this._finished)
+			{
+				if (sid == RowRecord.sid)
+				{
+					this._rowNumbers.add(((RowRecord) record).getRowNumber());
+				}
+				else if (sid == StringRecord.sid)
+				{
+					if (this._formulaStringCellIndex >= 0)
+					{
+						this._cellValues.set(this._formulaStringCellIndex, ((StringRecord) record).getString());
+						this._formulaStringCellIndex = -1;
+					}
+				}
+				else if (sid == MulBlankRecord.sid)
+				{
+					processMulBlank((MulBlankRecord) record);
+				}
+				else if (record instanceof CellValueRecordInterface)
+				{
+					processCell((CellValueRecordInterface) record);
+				}
+			}
+
+			return (this._finished ? (short) 1 : (short) 0);
+		}
+
+		/**
+		 * 结束读取，解析剩余的行。
+		 * 
+		 * @throws DataSetException
+		 */
+		public void finish() throws DataSetException
+		{
+			resolveCurrentRow();
+			resolveEmptyRowsBefore(-1);
+
+			this._finished = true;
+		}
+
+		/**
+		 * 开始处理指定行的单元格，如果是新的行，将先解析之前的行。
+		 * 
+		 * @param rowNumber
+		 * @return {@code false}表示已结束读取
+		 * @throws DataSetException
+		 */
+		protected boolean beginCell(int rowNumber) throws DataSetException
+		{
+			if (rowNumber != this._rowNumber)
+			{
+				resolveCurrentRow();
+				resolveEmptyRowsBefore(rowNumber);
+
+				if (this._finished)
+					return false;
+
+				this._rowNumber = rowNumber;
+			}
+
+			return true;
+		}
+
+		/**
+		 * 处理连续的有格式空单元格。
+		 * <p>
+		 * 同一行中连续的有格式空单元格会被合并为一个{@linkplain MulBlankRecord}，这里将其展开为每列一个空值，
+		 * 避免后续单元格与名称行、数据列表达式错位。
+		 * </p>
+		 * 
+		 * @param record
+		 * @throws DataSetException
+		 */
+		protected void processMulBlank(MulBlankRecord record) throws DataSetException
+		{
+			if (!beginCell(record.getRow()))
+				return;
+
+			for (int i = 0, len = record.getNumColumns(); i < len; i++)
+				this._cellValues.add(null);
+		}
+
+		protected void processCell(CellValueRecordInterface cell) throws DataSetException
+		{
+			if (!beginCell(cell.getRow()))
+				return;
+
+			Object value = null;
+
+			if (cell instanceof NumberRecord)
+			{
+				value = resolveNumberValue(cell, ((NumberRecord) cell).getValue());
+			}
+			else if (cell instanceof LabelSSTRecord)
+			{
+				value = this._sstRecord.getString(((LabelSSTRecord) cell).getSSTIndex()).getString();
+			}
+			else if (cell instanceof LabelRecord)
+			{
+				value = ((LabelRecord) cell).getValue();
+			}
+			else if (cell instanceof BoolErrRecord)
+			{
+				BoolErrRecord boolErrRecord = (BoolErrRecord) cell;
+				value = (boolErrRecord.isBoolean() ? (Object) boolErrRecord.getBooleanValue()
+						: (Object) boolErrRecord.getErrorValue());
+			}
+			else if (cell instanceof FormulaRecord)
+			{
+				FormulaRecord formulaRecord = (FormulaRecord) cell;
+
+				// 公式单元格取其缓存的计算结果
+				if (formulaRecord.hasCachedResultString())
+					this._formulaStringCellIndex = this._cellValues.size();
+				else
+				{
+					CellType cellType = CellType.forInt(formulaRecord.getCachedResultType());
+
+					if (CellType.BOOLEAN.equals(cellType))
+						value = formulaRecord.getCachedBooleanValue();
+					else if (CellType.ERROR.equals(cellType))
+						value = (byte) formulaRecord.getCachedErrorValue();
+					else if (CellType.NUMERIC.equals(cellType))
+						value = resolveNumberValue(cell, formulaRecord.getValue());
+				}
+			}
+			else if (cell instanceof BlankRecord)
+			{
+				value = null;
+			}
+
+			this._cellValues.add(value);
+		}
+
+		protected Object resolveNumberValue(CellValueRecordInterface cell, double value)
+		{
+			int formatIndex = this.formatListener.getFormatIndex(cell);
+			String formatString = this.formatListener.getFormatString(cell);
+
+			if (DateUtil.isADateFormat(formatIndex, formatString) && DateUtil.isValidExcelDate(value))
+				return DateUtil.getJavaDate(value, this._date1904);
+			else
+				return value;
+		}
+
+		protected void resolveCurrentRow() throws DataSetException
+		{
+			if (this._rowNumber < 0 || this._finished)
+				return;
+
+			resolveRow(this._cellValues);
+
+			this._lastResolvedRowNumber = this._rowNumber;
+			this._rowNumber = -1;
+			this._cellValues.clear();
+			this._formulaStringCellIndex = -1;
+		}
+
+		/**
+		 * 解析指定行号之前的、没有单元格的行。
+		 * 
+		 * @param rowNumber
+		 *            行号，小于{@code 0}表示全部
+		 * @throws DataSetException
+		 */
+		@SuppressWarnings("unchecked")
+		protected void resolveEmptyRowsBefore(int rowNumber) throws DataSetException
+		{
+			while (!this._finished && !this._rowNumbers.isEmpty()
+					&& (rowNumber < 0 || this._rowNumbers.first() < rowNumber))
+			{
+				int emptyRowNumber = this._rowNumbers.pollFirst();
+
+				if (emptyRowNumber > this._lastResolvedRowNumber)
+				{
+					resolveRow(Collections.EMPTY_LIST);
+					this._lastResolvedRowNumber = emptyRowNumber;
+				}
+			}
+		}
+
+		protected void resolveRow(List<Object> cellValues) throws DataSetException
+		{
+			if (!this.sheetRowResolver.resolveRow(cellValues))
+				this._finished = true;
+		}
+	}
+
+	/**
+	 * {@code .xlsx}格式的sheet读取器。
+	 * <p>
+	 * 单元格格式为：
+	 * </p>
+	 * <p>
+	 * &lt;c&gt;&lt;v&gt;......&lt;/v&gt;&lt;/c&gt;
+	 * </p>
+	 * 或者
+	 * <p>
+	 * &lt;c&gt;&lt;is&gt;&lt;t&gt;......&lt;/t&gt;&lt;/is&gt;&lt;/c&gt;
+	 * </p>
+	 * <p>
+	 * 行、单元格的计数方式与{@code XSSFSheet}的行、单元格迭代器保持一致：每个&lt;row&gt;元素作为一行，每个&lt;c&gt;元素作为一个单元格。
+	 * </p>
+	 * 
+	 * @author datagear@163.com
+	 * 
+	 */
+	protected class XlsxSheetHandler extends DefaultHandler
+	{
+		private final SheetRowResolver sheetRowResolver;
+
+		private final ReadOnlySharedStringsTable sharedStringsTable;
+
+		private final StylesTable stylesTable;
+
+		private final boolean date1904;
+
+		private final List<Object> _cellValues = new ArrayList<>();
+		// 当前单元格类型
+		private XlsxCellType _cellType = XlsxCellType.NUMBER;
+		// 当前单元格样式索引
+		private int _cellStyleIndex = 0;
+		// 当前单元格内容构建器
+		private final StringBuilder _cellContents = new StringBuilder();
+		// 当前单元格是否有内容
+		private boolean _hasCellContents = false;
+		// 是否在单元格内容元素内
+		private boolean _inCellContentElement = false;
+		// 是否在<is>元素内
+		private boolean _inIsElement = false;
+		// 是否在<rPh>元素内
+		private boolean _inRphElement = false;
+		// 样式索引-是否日期格式映射表
+		private final Map<Integer, Boolean> _dateFormatStyles = new HashMap<>();
+
+		public XlsxSheetHandler(SheetRowResolver sheetRowResolver, ReadOnlySharedStringsTable sharedStringsTable,
+				StylesTable stylesTable, boolean date1904)
+		{
+			super();
+			this.sheetRowResolver = sheetRowResolver;
+			this.sharedStringsTable = sharedStringsTable;
+			this.stylesTable = stylesTable;
+			this.date1904 = date1904;
+		}
+
+		@Override
+		public void startElement(String uri, String localName, String name, Attributes attributes) throws SAXException
+		{
+			if (uri != null && !uri.equals(NS_SPREADSHEETML))
+				return;
+
+			if ("row".equals(localName))
+			{
+				this._cellValues.clear();
+			}
+			else if ("c".equals(localName))
+			{
+				String cellType = attributes.getValue("t");
+				String cellStyle = attributes.getValue("s");
+
+				if ("b".equals(cellType))
+					this._cellType = XlsxCellType.BOOLEAN;
+				else if ("e".equals(cellType))
+					this._cellType = XlsxCellType.ERROR;
+				else if ("inlineStr".equals(cellType))
+					this._cellType = XlsxCellType.INLINE_STRING;
+				else if ("s".equals(cellType))
+					this._cellType = XlsxCellType.SST_STRING;
+				else if ("str".equals(cellType) || "d".equals(cellType))
+					this._cellType = XlsxCellType.STRING;
+				else
+					this._cellType = XlsxCellType.NUMBER;
+
+				this._cellStyleIndex = (StringUtil.isEmpty(cellStyle) ? 0 : Integer.parseInt(cellStyle));
+
+				if (this._cellContents.length() > 0)
+					this._cellContents.delete(0, this._cellContents.length());
+
+				this._hasCellContents = false;
+			}
+			else if ("v".equals(localName))
+			{
+				this._inCellContentElement = true;
+				this._hasCellContents = true;
+			}
+			else if ("is".equals(localName))
+			{
+				this._inIsElement = true;
+				this._hasCellContents = true;
+			}
+			else if ("rPh".equals(localName))
+			{
+				this._inRphElement = true;
+			}
+			else if ("t".equals(localName) && this._inIsElement && !this._inRphElement)
+			{
+				this._inCellContentElement = true;
+			}
+		}
+
+		@Override
+		public void endElement(String uri, String localName, String name) throws SAXException
+		{
+			if (uri != null && !uri.equals(NS_SPREADSHEETML))
+				return;
+
+			if ("v".equals(localName) || "t".equals(localName))
+			{
+				this._inCellContentElement = false;
+			}
+			else if ("is".equals(localName))
+			{
+				this._inIsElement = false;
+			}
+			else if ("rPh".equals(localName))
+			{
+				this._inRphElement = false;
+			}
+			else if ("c".equals(localName))
+			{
+				this._cellValues.add(this._hasCellContents ? resolveCellValue() : null);
+			}
+			else if ("row".equals(localName))
+			{
+				if (!this.sheetRowResolver.resolveRow(this._cellValues))
+					throw new ReadStoppedException();
+			}
+		}
+
+		@Override
+		public void characters(char[] ch, int start, int length)
+		{
+			if (this._inCellContentElement)
+				this._cellContents.append(ch, start, length);
+		}
+
+		protected Object resolveCellValue()
+		{
+			String content = this._cellContents.toString();
+
+			if (XlsxCellType.BOOLEAN.equals(this._cellType))
+			{
+				return ("1".equals(content) || "true".equalsIgnoreCase(content));
+			}
+			else if (XlsxCellType.ERROR.equals(this._cellType))
+			{
+				return FormulaError.forString(content).getCode();
+			}
+			else if (XlsxCellType.INLINE_STRING.equals(this._cellType) || XlsxCellType.STRING.equals(this._cellType))
+			{
+				return content;
+			}
+			else if (XlsxCellType.SST_STRING.equals(this._cellType))
+			{
+				return this.sharedStringsTable.getEntryAt(Integer.parseInt(content.trim()));
+			}
+			else
+			{
+				if (content.isEmpty())
+					return null;
+
+				double value = Double.parseDouble(content);
+
+				if (isDateFormatStyle(this._cellStyleIndex) && DateUtil.isValidExcelDate(value))
+					return DateUtil.getJavaDate(value, this.date1904);
+				else
+					return value;
+			}
+		}
+
+		protected boolean isDateFormatStyle(int styleIndex)
+		{
+			Boolean dateFormat = this._dateFormatStyles.get(styleIndex);
+
+			if (dateFormat == null)
+			{
+				XSSFCellStyle style = (this.stylesTable == null || this.stylesTable.getNumCellStyles() <= styleIndex
+						? null : this.stylesTable.getStyleAt(styleIndex));
+
+				dateFormat = (style != null
+						&& DateUtil.isADateFormat(style.getDataFormat(), style.getDataFormatString()));
+
+				this._dateFormatStyles.put(styleIndex, dateFormat);
+			}
+
+			return dateFormat;
+		}
+	}
+
+	/**
+	 * {@code .xlsx}工作簿属性读取器，读取到&lt;workbookPr&gt;元素后即停止。
+	 * 
+	 * @author datagear@163.com
+	 * 
+	 */
+	protected static class XlsxWorkbookPrHandler extends DefaultHandler
+	{
+		private boolean date1904 = false;
+
+		public XlsxWorkbookPrHandler()
+		{
+			super();
+		}
+
+		public boolean isDate1904()
+		{
+			return date1904;
+		}
+
+		@Override
+		public void startElement(String uri, String localName, String name, Attributes attributes) throws SAXException
+		{
+			if (uri != null && !uri.equals(NS_SPREADSHEETML))
+				return;
+
+			if ("workbookPr".equals(localName))
+			{
+				String date1904 = attributes.getValue("date1904");
+				this.date1904 = ("1".equals(date1904) || "true".equalsIgnoreCase(date1904));
+
+				throw new ReadStoppedException();
+			}
+			else if ("sheets".equals(localName))
+			{
+				// <workbookPr>元素在<sheets>之前，到此仍未出现则表明没有
+				throw new ReadStoppedException();
+			}
+		}
+	}
+
+	/**
+	 * 停止读取异常，用于在读取到足够的数据后提前终止SAX解析。
+	 * 
+	 * @author datagear@163.com
+	 * 
+	 */
+	protected static class ReadStoppedException extends SAXException
+	{
+		private static final long serialVersionUID = 1L;
+
+		public ReadStoppedException()
+		{
+			super();
+		}
+	}
+
+	/**
+	 * xlsx单元格类型，参考{@code org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.xssfDataType}。
+	 */
+	protected static enum XlsxCellType
+	{
+		BOOLEAN, ERROR, STRING, INLINE_STRING, SST_STRING, NUMBER
+	}
 }
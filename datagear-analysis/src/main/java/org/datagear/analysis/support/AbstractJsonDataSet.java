@@ -21,20 +21,25 @@ import org.datagear.analysis.DataSetResult;
 import org.datagear.analysis.ResolvableDataSet;
 import org.datagear.analysis.ResolvedDataSetResult;
 import org.datagear.util.IOUtil;
-import org.datagear.util.StringUtil;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.databind.node.ValueNode;
 import com.jayway.jsonpath.Configuration;
-import com.jayway.jsonpath.JsonPath;
 import com.jayway.jsonpath.spi.json.JacksonJsonProvider;
 import com.jayway.jsonpath.spi.mapper.JacksonMappingProvider;
 
 /**
  * 抽象JSON数据集。
+ * <p>
+ * 当数据JSON路径为空或者是简单路径（参考{@linkplain DataJsonPath#isSimple()}）时，
+ * 此类使用{@linkplain JsonParser}流式读取JSON，跳过无关的JSON子树，逐个读取数据对象，并且在达到{@linkplain DataSetOption}限定的数目后即停止读取，
+ * 不会构建整个JSON文档；否则，才读取整个JSON文档并使用{@code JSONPath}读取数据。
+ * </p>
  * 
  * @author datagear@163.com
  *
@@ -100,10 +105,39 @@ public abstract class AbstractJsonDataSet extends AbstractResolvableDataSet impl
 			DataSetOption dataSetOption) throws DataSetException
 	{
 		TemplateResolvedSource<Reader> reader = null;
+
 		try
 		{
 			reader = getJsonReader(paramValues);
+		}
+		catch (DataSetException e)
+		{
+			throw e;
+		}
+		catch (Throwable t)
+		{
+			throw new DataSetSourceParseException(t);
+		}
+
+		return resolveResult(reader, properties, dataSetOption);
+	}
 
+	/**
+	 * 解析结果，此方法会关闭{@code reader}。
+	 * 
+	 * @param reader
+	 * @param properties
+	 *            允许为{@code null}，此时会自动解析
+	 * @param dataSetOption
+	 *            允许为{@code null}
+	 * @return
+	 * @throws DataSetException
+	 */
+	protected ResolvedDataSetResult resolveResult(TemplateResolvedSource<Reader> reader,
+			List<DataSetProperty> properties, DataSetOption dataSetOption) throws DataSetException
+	{
+		try
+		{
 			ResolvedDataSetResult result = resolveResult(reader.getSource(), properties, dataSetOption);
 
 			if (reader.hasResolvedTemplate())
@@ -122,8 +156,7 @@ public abstract class AbstractJsonDataSet extends AbstractResolvableDataSet impl
 		}
 		finally
 		{
-			if (reader != null)
-				IOUtil.close(reader.getSource());
+			IOUtil.close(reader.getSource());
 		}
 	}
 
@@ -154,6 +187,11 @@ public abstract class AbstractJsonDataSet extends AbstractResolvableDataSet impl
 	protected ResolvedDataSetResult resolveResult(Reader jsonReader, List<DataSetProperty> properties,
 			DataSetOption dataSetOption) throws Throwable
 	{
+		DataJsonPath dataJsonPath = getDataJsonPathCompiled();
+
+		if (dataJsonPath == null || dataJsonPath.isSimple())
+			return resolveResultByStream(jsonReader, dataJsonPath, properties, dataSetOption);
+
 		boolean resolveProperties = (properties == null || properties.isEmpty());
 
 		JsonNode jsonNode = getObjectMapperNonStardand().readTree(jsonReader);
@@ -176,6 +214,174 @@ public abstract class AbstractJsonDataSet extends AbstractResolvableDataSet impl
 		return new ResolvedDataSetResult(result, properties);
 	}
 
+	/**
+	 * 流式解析结果。
+	 * 
+	 * @param jsonReader
+	 *            JSON输入流
+	 * @param dataJsonPath
+	 *            允许为{@code null}，不为{@code null}时应是简单路径
+	 * @param properties
+	 *            允许为{@code null}，此时会自动解析
+	 * @param dataSetOption
+	 *            允许为{@code null}
+	 * @return
+	 * @throws Throwable
+	 */
+	protected ResolvedDataSetResult resolveResultByStream(Reader jsonReader, DataJsonPath dataJsonPath,
+			List<DataSetProperty> properties, DataSetOption dataSetOption) throws Throwable
+	{
+		boolean resolveProperties = (properties == null || properties.isEmpty());
+
+		ObjectMapper objectMapper = getObjectMapperNonStardand();
+		DataSetPropertyValueConverter converter = createDataSetPropertyValueConverter();
+
+		JsonParser parser = null;
+		Object data = null;
+
+		try
+		{
+			parser = objectMapper.getFactory().createParser(jsonReader);
+
+			JsonToken token = parser.nextToken();
+
+			if (token != null && token != JsonToken.VALUE_NULL && token != JsonToken.START_OBJECT
+					&& token != JsonToken.START_ARRAY)
+				throw new UnsupportedJsonResultDataException("Result data must be JSON object or array");
+
+			if (token == null || token == JsonToken.VALUE_NULL)
+			{
+				if (resolveProperties)
+					properties = resolveDataSetProperties(null);
+			}
+			else
+			{
+				if (dataJsonPath != null && !dataJsonPath.moveTo(parser))
+					throw new ReadJsonDataPathException(getDataJsonPath(),
+							"No results for path: " + dataJsonPath.getPath());
+
+				token = parser.currentToken();
+
+				boolean wildcard = (dataJsonPath != null && dataJsonPath.isWildcard());
+
+				if (wildcard && token != JsonToken.START_ARRAY && token != JsonToken.START_OBJECT)
+					throw new ReadJsonDataPathException(getDataJsonPath(),
+							"No results for path: " + dataJsonPath.getPath());
+
+				if (token == JsonToken.START_ARRAY || wildcard)
+				{
+					boolean objectValues = (token == JsonToken.START_OBJECT);
+					boolean propertiesResolved = !resolveProperties;
+
+					List<Object> reList = new ArrayList<>();
+
+					while (moveToNextElement(parser, objectValues))
+					{
+						boolean reachMax = isReachResultDataMaxCount(dataSetOption, reList.size());
+
+						if (reachMax && propertiesResolved)
+							break;
+
+						Object ele = objectMapper.readValue(parser, Object.class);
+
+						if (ele != null && !(ele instanceof Map<?, ?>))
+							throw new UnsupportedJsonResultDataException(
+									"Result data must be object or object array/list");
+
+						if (!propertiesResolved)
+						{
+							properties = resolveDataSetProperties(Collections.singletonList(ele));
+							propertiesResolved = true;
+						}
+
+						if (reachMax)
+							break;
+
+						reList.add(convertJsonResultData(ele, properties, null, converter));
+					}
+
+					if (!propertiesResolved)
+						properties = resolveDataSetProperties(reList);
+
+					data = reList;
+				}
+				else
+				{
+					Object value = objectMapper.readValue(parser, Object.class);
+
+					if (resolveProperties)
+						properties = resolveDataSetProperties(value);
+
+					data = convertJsonResultData(value, properties, dataSetOption, converter);
+				}
+			}
+		}
+		finally
+		{
+			IOUtil.close(parser);
+		}
+
+		DataSetResult result = new DataSetResult(data);
+
+		return new ResolvedDataSetResult(result, properties);
+	}
+
+	/**
+	 * 将{@linkplain JsonParser}移至下一个元素的起始标记。
+	 * 
+	 * @param parser
+	 * @param objectValues
+	 *            {@code true}，当前是JSON对象，元素是其属性值；{@code false}，当前是JSON数组，元素是其数组元素
+	 * @return {@code false}表示没有下一个元素
+	 * @throws Throwable
+	 */
+	protected boolean moveToNextElement(JsonParser parser, boolean objectValues) throws Throwable
+	{
+		JsonToken token = parser.nextToken();
+
+		if (objectValues)
+		{
+			if (token != JsonToken.FIELD_NAME)
+				return false;
+
+			parser.nextToken();
+			return true;
+		}
+		else
+			return (token != null && token != JsonToken.END_ARRAY);
+	}
+
+	/**
+	 * 获取已编译的数据JSON路径。
+	 * 
+	 * @return {@code null}表示没有设置数据JSON路径
+	 * @throws ReadJsonDataPathException
+	 */
+	protected DataJsonPath getDataJsonPathCompiled() throws ReadJsonDataPathException
+	{
+		return compileDataJsonPath(getDataJsonPath());
+	}
+
+	/**
+	 * 编译数据JSON路径。
+	 * 
+	 * @param dataJsonPath
+	 *            允许为{@code null}
+	 * @return {@code null}表示{@code dataJsonPath}为空
+	 * @throws ReadJsonDataPathException
+	 */
+	protected DataJsonPath compileDataJsonPath(String dataJsonPath) throws ReadJsonDataPathException
+	{
+		try
+		{
+			return DataJsonPath.valueOf(dataJsonPath);
+		}
+		catch (Throwable t)
+		{
+			throw new ReadJsonDataPathException(dataJsonPath, t);
+		}
+	}
+
 	/**
 	 * 读取指定JSON路径的数据。
 	 * 
@@ -198,26 +404,14 @@ public abstract class AbstractJsonDataSet extends AbstractResolvableDataSet impl
 		if (data == null)
 			return null;
 
-		if (StringUtil.isEmpty(dataJsonPath))
-			return data;
-
-		String stdDataJsonPath = dataJsonPath.trim();
+		DataJsonPath compiled = compileDataJsonPath(dataJsonPath);
 
-		if (StringUtil.isEmpty(stdDataJsonPath))
+		if (compiled == null)
 			return data;
 
-		// 转换"stores[0].books"、"[1].stores"简化模式为规范的JSONPath
-		if (!stdDataJsonPath.startsWith("$"))
-		{
-			if (stdDataJsonPath.startsWith("["))
-				stdDataJsonPath = "$" + stdDataJsonPath;
-			else
-				stdDataJsonPath = "$." + stdDataJsonPath;
-		}
-
 		try
 		{
-			return JsonPath.compile(stdDataJsonPath).read(data, JACKSON_JSON_PATH_CONFIGURATION);
+			return compiled.read(data, JACKSON_JSON_PATH_CONFIGURATION);
 		}
 		catch (Throwable t)
 		{
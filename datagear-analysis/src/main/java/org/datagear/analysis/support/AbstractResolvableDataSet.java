@@ -10,6 +10,7 @@ package org.datagear.analysis.support;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 import org.datagear.analysis.DataSetException;
 import org.datagear.analysis.DataSetOption;
@@ -17,6 +18,7 @@ import org.datagear.analysis.DataSetProperty;
 import org.datagear.analysis.DataSetResult;
 import org.datagear.analysis.ResolvableDataSet;
 import org.datagear.analysis.ResolvedDataSetResult;
+import org.datagear.analysis.support.DataSetResultCache.DataSetResultCacheKey;
 
 /**
  * 抽象{@linkplain ResolvableDataSet}。
@@ -26,6 +28,12 @@ import org.datagear.analysis.ResolvedDataSetResult;
  */
 public abstract class AbstractResolvableDataSet extends AbstractDataSet implements ResolvableDataSet
 {
+	/** 结果缓存，为null表示不缓存、也不合并并发查询 */
+	private transient DataSetResultCache resultCache = null;
+
+	/** 结果缓存秒数，{@code <=0}表示不缓存 */
+	private int cacheTtl = 0;
+
 	public AbstractResolvableDataSet()
 	{
 		super();
@@ -42,17 +50,65 @@ public abstract class AbstractResolvableDataSet extends AbstractDataSet implemen
 		super(id, name, properties);
 	}
 
+	public DataSetResultCache getResultCache()
+	{
+		return resultCache;
+	}
+
+	public void setResultCache(DataSetResultCache resultCache)
+	{
+		this.resultCache = resultCache;
+	}
+
+	/**
+	 * 获取结果缓存秒数。
+	 * 
+	 * @return {@code <=0}表示不缓存
+	 */
+	public int getCacheTtl()
+	{
+		return cacheTtl;
+	}
+
+	public void setCacheTtl(int cacheTtl)
+	{
+		this.cacheTtl = cacheTtl;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * 如果设置了{@linkplain #getResultCache()}，相同参数的并发调用将共享同一次查询的结果，
+	 * 并且，当{@linkplain #getCacheTtl()}大于{@code 0}时，将优先返回缓存结果。
+	 * </p>
+	 */
 	@Override
-	public DataSetResult getResult(Map<String, ?> paramValues) throws DataSetException
+	public DataSetResult getResult(final Map<String, ?> paramValues) throws DataSetException
 	{
-		List<DataSetProperty> properties = getProperties();
+		final List<DataSetProperty> properties = getProperties();
 
 		if (properties == null || properties.isEmpty())
 			throw new DataSetException("[getProperties()] must not be empty");
 
-		ResolvedDataSetResult result = resolveResult(paramValues, properties, null);
+		DataSetResultCache cache = this.resultCache;
+
+		if (cache == null || getId() == null)
+			return resolveResult(paramValues, properties, (DataSetOption) null).getResult();
 
-		return result.getResult();
+		// 模板只解析一次，既用于缓存关键字，也用于加载结果
+		final TemplateResolvedSource<?> cacheTemplate = resolveCacheTemplate(paramValues);
+
+		DataSetResultCacheKey key = DataSetResultCache.createKey(getId(), paramValues,
+				(cacheTemplate == null ? null : cacheTemplate.getResolvedTemplate()));
+
+		return cache.get(key, this.cacheTtl, new Callable<DataSetResult>()
+		{
+			@Override
+			public DataSetResult call() throws Exception
+			{
+				return resolveResult(paramValues, properties, cacheTemplate).getResult();
+			}
+		});
 	}
 
 	@Override
@@ -78,6 +134,44 @@ public abstract class AbstractResolvableDataSet extends AbstractDataSet implemen
 	protected abstract ResolvedDataSetResult resolveResult(Map<String, ?> paramValues, List<DataSetProperty> properties,
 			DataSetOption dataSetOption) throws DataSetException;
 
+	/**
+	 * 使用{@linkplain #resolveCacheTemplate(Map)}的返回值解析结果。
+	 * <p>
+	 * 此方法默认忽略{@code cacheTemplate}，直接调用{@linkplain #resolveResult(Map, List, DataSetOption)}，
+	 * 重写了{@linkplain #resolveCacheTemplate(Map)}的子类也应重写此方法，直接使用已解析的模板，避免重复解析。
+	 * </p>
+	 * 
+	 * @param paramValues
+	 * @param properties
+	 * @param cacheTemplate
+	 *            {@linkplain #resolveCacheTemplate(Map)}的返回值，允许为{@code null}
+	 * @return
+	 * @throws DataSetException
+	 */
+	protected ResolvedDataSetResult resolveResult(Map<String, ?> paramValues, List<DataSetProperty> properties,
+			TemplateResolvedSource<?> cacheTemplate) throws DataSetException
+	{
+		return resolveResult(paramValues, properties, (DataSetOption) null);
+	}
+
+	/**
+	 * 解析用于结果缓存的模板。
+	 * <p>
+	 * 子类如果使用了模板（参考{@linkplain #resolveAsFmkTemplate(String, Map)}），应重写此方法，
+	 * 返回的{@linkplain TemplateResolvedSource#getResolvedTemplate()}将作为缓存关键字的一部分，
+	 * {@linkplain TemplateResolvedSource#getSource()}则是子类自定义的已解析内容，
+	 * 它将被传递给{@linkplain #resolveResult(Map, List, TemplateResolvedSource)}。
+	 * </p>
+	 * 
+	 * @param paramValues
+	 * @return 返回{@code null}表示没有模板
+	 * @throws DataSetException
+	 */
+	protected TemplateResolvedSource<?> resolveCacheTemplate(Map<String, ?> paramValues) throws DataSetException
+	{
+		return null;
+	}
+
 	/**
 	 * 给定数目是否已到达{@linkplain DataSetOption#getResultDataMaxCount()}。
 	 * 
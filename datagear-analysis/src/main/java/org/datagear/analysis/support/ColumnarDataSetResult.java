@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2018 datagear.tech. All Rights Reserved.
+ */
+
+/**
+ * 
+ */
+package org.datagear.analysis.support;
+
+import org.datagear.analysis.DataSetResult;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * 列式存储的{@linkplain DataSetResult}。
+ * <p>
+ * 它的{@linkplain #getData()}是{@linkplain ColumnarRows}，可作为{@code List<Map<String, Object>>}使用。
+ * </p>
+ * 
+ * @author datagear@163.com
+ *
+ */
+public class ColumnarDataSetResult extends DataSetResult
+{
+	public ColumnarDataSetResult(ColumnarRows rows)
+	{
+		super(rows);
+	}
+
+	/**
+	 * 获取列式结果数据。
+	 * 
+	 * @return
+	 */
+	@JsonIgnore
+	public ColumnarRows getRows()
+	{
+		return (ColumnarRows) getData();
+	}
+}
@@ -0,0 +1,723 @@
+/*
+ * Copyright (c) 2018 datagear.tech. All Rights Reserved.
+ */
+
+/**
+ * 
+ */
+package org.datagear.analysis.support;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * 列式存储的数据集结果数据。
+ * <p>
+ * 列名只存储一次，整数、小数列使用基本类型数组存储，重复值较多的字符串列使用字典编码存储，其他类型列使用对象数组存储，
+ * 相比每行一个{@linkplain HashMap}的存储方式，可以大幅减少大结果集的内存占用。
+ * </p>
+ * <p>
+ * 此类同时也是一个行映射表列表视图（{@code List<Map<String, Object>>}），以兼容原有的使用方式，视图中的值与添加时的类型一致；
+ * 输出JSON时（参考{@linkplain ColumnarRowsSerializer}），将直接由列数据写出，不会创建行映射表。
+ * </p>
+ * <p>
+ * 此类不是线程安全的，应在构建完成后再共享使用。
+ * </p>
+ * 
+ * @author datagear@163.com
+ *
+ */
+@JsonSerialize(using = ColumnarRows.ColumnarRowsSerializer.class)
+public class ColumnarRows extends AbstractList<Map<String, Object>>
+{
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/** 列名 */
+	private final String[] names;
+
+	/** 列名索引 */
+	private final Map<String, Integer> nameIndexes;
+
+	/** 列数据 */
+	private final Column[] columns;
+
+	/** 行数 */
+	private int size = 0;
+
+	public ColumnarRows(List<String> names)
+	{
+		this(names.toArray(new String[names.size()]));
+	}
+
+	public ColumnarRows(String[] names)
+	{
+		super();
+		this.names = names;
+		this.nameIndexes = new HashMap<>();
+		this.columns = new Column[names.length];
+
+		for (int i = 0; i < names.length; i++)
+		{
+			this.nameIndexes.put(names[i], i);
+			this.columns[i] = new NullColumn();
+		}
+	}
+
+	/**
+	 * 获取列名数组。
+	 * <p>
+	 * 注意：不应修改返回数组。
+	 * </p>
+	 * 
+	 * @return
+	 */
+	public String[] getNames()
+	{
+		return names;
+	}
+
+	/**
+	 * 获取列数。
+	 * 
+	 * @return
+	 */
+	public int getColumnCount()
+	{
+		return this.names.length;
+	}
+
+	/**
+	 * 添加一行。
+	 * 
+	 * @param values
+	 *            行值数组，按照列名顺序，元素个数小于列数时，其余列值将为{@code null}，多余的元素将被忽略
+	 */
+	public void addRow(Object[] values)
+	{
+		int len = Math.min(values.length, this.columns.length);
+
+		for (int i = 0; i < this.columns.length; i++)
+			this.columns[i] = this.columns[i].add(i < len ? values[i] : null);
+
+		this.size++;
+		this.modCount++;
+	}
+
+	/**
+	 * 添加一行。
+	 * 
+	 * @param values
+	 *            行值列表，按照列名顺序，元素个数小于列数时，其余列值将为{@code null}，多余的元素将被忽略
+	 */
+	public void addRow(List<?> values)
+	{
+		int len = Math.min(values.size(), this.columns.length);
+
+		for (int i = 0; i < this.columns.length; i++)
+			this.columns[i] = this.columns[i].add(i < len ? values.get(i) : null);
+
+		this.size++;
+		this.modCount++;
+	}
+
+	/**
+	 * 获取指定行、列的值。
+	 * 
+	 * @param row
+	 * @param column
+	 * @return
+	 */
+	public Object getValue(int row, int column)
+	{
+		checkRowIndex(row);
+		return this.columns[column].get(row);
+	}
+
+	/**
+	 * 释放列数据中多余的容量，应在添加完所有行后调用。
+	 */
+	public void trimToSize()
+	{
+		for (Column column : this.columns)
+			column.trimToSize();
+	}
+
+	@Override
+	public Map<String, Object> get(int index)
+	{
+		checkRowIndex(index);
+		return new RowMap(index);
+	}
+
+	@Override
+	public int size()
+	{
+		return this.size;
+	}
+
+	protected void checkRowIndex(int index)
+	{
+		if (index < 0 || index >= this.size)
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+	}
+
+	/**
+	 * 行映射表视图。
+	 * 
+	 * @author datagear@163.com
+	 *
+	 */
+	protected class RowMap extends AbstractMap<String, Object>
+	{
+		private final int row;
+
+		public RowMap(int row)
+		{
+			super();
+			this.row = row;
+		}
+
+		@Override
+		public Object get(Object key)
+		{
+			Integer index = nameIndexes.get(key);
+			return (index == null ? null : columns[index].get(this.row));
+		}
+
+		@Override
+		public boolean containsKey(Object key)
+		{
+			return nameIndexes.containsKey(key);
+		}
+
+		@Override
+		public int size()
+		{
+			return names.length;
+		}
+
+		@Override
+		public Set<Entry<String, Object>> entrySet()
+		{
+			return new AbstractSet<Entry<String, Object>>()
+			{
+				@Override
+				public Iterator<Entry<String, Object>> iterator()
+				{
+					return new Iterator<Entry<String, Object>>()
+					{
+						private int column = 0;
+
+						@Override
+						public boolean hasNext()
+						{
+							return this.column < names.length;
+						}
+
+						@Override
+						public Entry<String, Object> next()
+						{
+							if (!hasNext())
+								throw new NoSuchElementException();
+
+							Entry<String, Object> entry = new SimpleImmutableEntry<>(names[this.column],
+									columns[this.column].get(row));
+							this.column++;
+
+							return entry;
+						}
+					};
+				}
+
+				@Override
+				public int size()
+				{
+					return names.length;
+				}
+			};
+		}
+	}
+
+	/**
+	 * 列数据。
+	 * <p>
+	 * {@linkplain #add(Object)}在值类型与当前存储方式不兼容时，将返回一个新的兼容列，调用方应使用返回值替换原列。
+	 * </p>
+	 * 
+	 * @author datagear@163.com
+	 *
+	 */
+	protected static abstract class Column
+	{
+		protected int size = 0;
+
+		public int size()
+		{
+			return this.size;
+		}
+
+		/**
+		 * 添加值。
+		 * 
+		 * @param value
+		 * @return 添加后的列，可能是新的列
+		 */
+		public abstract Column add(Object value);
+
+		public abstract Object get(int index);
+
+		public abstract void write(JsonGenerator gen, SerializerProvider provider, int index) throws IOException;
+
+		public abstract void trimToSize();
+
+		/**
+		 * 转换为{@linkplain ObjectColumn}并添加值。
+		 * 
+		 * @param value
+		 * @return
+		 */
+		protected Column promote(Object value)
+		{
+			ObjectColumn column = new ObjectColumn(Math.max(this.size * 2, DEFAULT_CAPACITY));
+
+			for (int i = 0; i < this.size; i++)
+				column.add(get(i));
+
+			return column.add(value);
+		}
+
+		protected static int newCapacity(int capacity, int minCapacity)
+		{
+			int newCapacity = (capacity < DEFAULT_CAPACITY ? DEFAULT_CAPACITY : capacity + (capacity >> 1));
+			return Math.max(newCapacity, minCapacity);
+		}
+	}
+
+	/**
+	 * 还没有非{@code null}值的列。
+	 */
+	protected static class NullColumn extends Column
+	{
+		public NullColumn()
+		{
+			super();
+		}
+
+		@Override
+		public Column add(Object value)
+		{
+			if (value == null)
+			{
+				this.size++;
+				return this;
+			}
+
+			Column column;
+
+			if (LongColumn.isSupported(value))
+				column = new LongColumn(value.getClass());
+			else if (DoubleColumn.isSupported(value))
+				column = new DoubleColumn(value.getClass());
+			else if (value instanceof String)
+				column = new StringColumn();
+			else
+				column = new ObjectColumn(DEFAULT_CAPACITY);
+
+			for (int i = 0; i < this.size; i++)
+				column = column.add(null);
+
+			return column.add(value);
+		}
+
+		@Override
+		public Object get(int index)
+		{
+			return null;
+		}
+
+		@Override
+		public void write(JsonGenerator gen, SerializerProvider provider, int index) throws IOException
+		{
+			gen.writeNull();
+		}
+
+		@Override
+		public void trimToSize()
+		{
+		}
+	}
+
+	/**
+	 * 整数列，所有非{@code null}值必须是同一种整数类型。
+	 */
+	protected static class LongColumn extends Column
+	{
+		private final Class<?> type;
+
+		private long[] values = new long[DEFAULT_CAPACITY];
+
+		private final BitSet nulls = new BitSet();
+
+		public LongColumn(Class<?> type)
+		{
+			super();
+			this.type = type;
+		}
+
+		public static boolean isSupported(Object value)
+		{
+			return (value instanceof Long || value instanceof Integer || value instanceof Short
+					|| value instanceof Byte);
+		}
+
+		@Override
+		public Column add(Object value)
+		{
+			if (value != null && value.getClass() != this.type)
+				return promote(value);
+
+			if (this.size == this.values.length)
+				this.values = Arrays.copyOf(this.values, newCapacity(this.values.length, this.size + 1));
+
+			if (value == null)
+				this.nulls.set(this.size);
+			else
+				this.values[this.size] = ((Number) value).longValue();
+
+			this.size++;
+
+			return this;
+		}
+
+		@Override
+		public Object get(int index)
+		{
+			if (this.nulls.get(index))
+				return null;
+
+			long value = this.values[index];
+
+			if (this.type == Integer.class)
+				return Integer.valueOf((int) value);
+			else if (this.type == Short.class)
+				return Short.valueOf((short) value);
+			else if (this.type == Byte.class)
+				return Byte.valueOf((byte) value);
+			else
+				return Long.valueOf(value);
+		}
+
+		@Override
+		public void write(JsonGenerator gen, SerializerProvider provider, int index) throws IOException
+		{
+			if (this.nulls.get(index))
+				gen.writeNull();
+			else
+				gen.writeNumber(this.values[index]);
+		}
+
+		@Override
+		public void trimToSize()
+		{
+			if (this.values.length > this.size)
+				this.values = Arrays.copyOf(this.values, this.size);
+		}
+	}
+
+	/**
+	 * 浮点数列，所有非{@code null}值必须是同一种浮点数类型。
+	 */
+	protected static class DoubleColumn extends Column
+	{
+		private final Class<?> type;
+
+		private double[] values = new double[DEFAULT_CAPACITY];
+
+		private final BitSet nulls = new BitSet();
+
+		public DoubleColumn(Class<?> type)
+		{
+			super();
+			this.type = type;
+		}
+
+		public static boolean isSupported(Object value)
+		{
+			return (value instanceof Double || value instanceof Float);
+		}
+
+		@Override
+		public Column add(Object value)
+		{
+			if (value != null && value.getClass() != this.type)
+				return promote(value);
+
+			if (this.size == this.values.length)
+				this.values = Arrays.copyOf(this.values, newCapacity(this.values.length, this.size + 1));
+
+			if (value == null)
+				this.nulls.set(this.size);
+			else
+				this.values[this.size] = ((Number) value).doubleValue();
+
+			this.size++;
+
+			return this;
+		}
+
+		@Override
+		public Object get(int index)
+		{
+			if (this.nulls.get(index))
+				return null;
+
+			double value = this.values[index];
+
+			if (this.type == Float.class)
+				return Float.valueOf((float) value);
+			else
+				return Double.valueOf(value);
+		}
+
+		@Override
+		public void write(JsonGenerator gen, SerializerProvider provider, int index) throws IOException
+		{
+			if (this.nulls.get(index))
+				gen.writeNull();
+			else if (this.type == Float.class)
+				gen.writeNumber((float) this.values[index]);
+			else
+				gen.writeNumber(this.values[index]);
+		}
+
+		@Override
+		public void trimToSize()
+		{
+			if (this.values.length > this.size)
+				this.values = Arrays.copyOf(this.values, this.size);
+		}
+	}
+
+	/**
+	 * 字典编码的字符串列。
+	 * <p>
+	 * 当行数达到{@linkplain #DICTIONARY_CHECK_SIZE}后，如果不重复值所占比例超过{@linkplain #DICTIONARY_MAX_DISTINCT_RATIO}，
+	 * 字典编码将不再节省内存，此时{@linkplain #add(Object)}会转换为{@linkplain ObjectColumn}直接存储字符串。
+	 * </p>
+	 */
+	protected static class StringColumn extends Column
+	{
+		private static final int NULL_CODE = -1;
+
+		/** 开始检查不重复值比例的行数 */
+		private static final int DICTIONARY_CHECK_SIZE = 1024;
+
+		/** 字典编码允许的最大不重复值比例 */
+		private static final double DICTIONARY_MAX_DISTINCT_RATIO = 0.5D;
+
+		private int[] codes = new int[DEFAULT_CAPACITY];
+
+		private final ArrayList<String> dictionary = new ArrayList<>();
+
+		/** 值至编码的映射表，仅添加时使用，{@linkplain #trimToSize()}后将被释放 */
+		private Map<String, Integer> dictionaryCodes = new HashMap<>();
+
+		public StringColumn()
+		{
+			super();
+		}
+
+		@Override
+		public Column add(Object value)
+		{
+			if (value != null && !(value instanceof String))
+				return promote(value);
+
+			if (this.size == this.codes.length)
+				this.codes = Arrays.copyOf(this.codes, newCapacity(this.codes.length, this.size + 1));
+
+			int code = NULL_CODE;
+
+			if (value != null)
+			{
+				if (this.dictionaryCodes == null)
+					this.dictionaryCodes = buildDictionaryCodes();
+
+				Integer myCode = this.dictionaryCodes.get(value);
+
+				if (myCode == null)
+				{
+					myCode = this.dictionary.size();
+					this.dictionary.add((String) value);
+					this.dictionaryCodes.put((String) value, myCode);
+				}
+
+				code = myCode;
+			}
+
+			this.codes[this.size] = code;
+			this.size++;
+
+			if (this.size >= DICTIONARY_CHECK_SIZE
+					&& this.dictionary.size() > this.size * DICTIONARY_MAX_DISTINCT_RATIO)
+				return toObjectColumn();
+
+			return this;
+		}
+
+		/**
+		 * 转换为直接存储字符串的{@linkplain ObjectColumn}。
+		 * 
+		 * @return
+		 */
+		protected ObjectColumn toObjectColumn()
+		{
+			ObjectColumn column = new ObjectColumn(Math.max(this.codes.length, DEFAULT_CAPACITY));
+
+			for (int i = 0; i < this.size; i++)
+				column.add(get(i));
+
+			return column;
+		}
+
+		protected Map<String, Integer> buildDictionaryCodes()
+		{
+			Map<String, Integer> dictionaryCodes = new HashMap<>();
+
+			for (int i = 0, len = this.dictionary.size(); i < len; i++)
+				dictionaryCodes.put(this.dictionary.get(i), i);
+
+			return dictionaryCodes;
+		}
+
+		@Override
+		public Object get(int index)
+		{
+			int code = this.codes[index];
+			return (code == NULL_CODE ? null : this.dictionary.get(code));
+		}
+
+		@Override
+		public void write(JsonGenerator gen, SerializerProvider provider, int index) throws IOException
+		{
+			int code = this.codes[index];
+
+			if (code == NULL_CODE)
+				gen.writeNull();
+			else
+				gen.writeString(this.dictionary.get(code));
+		}
+
+		@Override
+		public void trimToSize()
+		{
+			if (this.codes.length > this.size)
+				this.codes = Arrays.copyOf(this.codes, this.size);
+
+			this.dictionary.trimToSize();
+
+			this.dictionaryCodes = null;
+		}
+	}
+
+	/**
+	 * 对象列。
+	 */
+	protected static class ObjectColumn extends Column
+	{
+		private Object[] values;
+
+		public ObjectColumn(int capacity)
+		{
+			super();
+			this.values = new Object[capacity];
+		}
+
+		@Override
+		public Column add(Object value)
+		{
+			if (this.size == this.values.length)
+				this.values = Arrays.copyOf(this.values, newCapacity(this.values.length, this.size + 1));
+
+			this.values[this.size] = value;
+			this.size++;
+
+			return this;
+		}
+
+		@Override
+		public Object get(int index)
+		{
+			return this.values[index];
+		}
+
+		@Override
+		public void write(JsonGenerator gen, SerializerProvider provider, int index) throws IOException
+		{
+			provider.defaultSerializeValue(this.values[index], gen);
+		}
+
+		@Override
+		public void trimToSize()
+		{
+			if (this.values.length > this.size)
+				this.values = Arrays.copyOf(this.values, this.size);
+		}
+	}
+
+	/**
+	 * {@linkplain ColumnarRows}的JSON序列化器，直接由列数据输出行对象数组，不创建行映射表。
+	 * 
+	 * @author datagear@163.com
+	 *
+	 */
+	public static class ColumnarRowsSerializer extends StdSerializer<ColumnarRows>
+	{
+		private static final long serialVersionUID = 1L;
+
+		public ColumnarRowsSerializer()
+		{
+			super(ColumnarRows.class);
+		}
+
+		@Override
+		public void serialize(ColumnarRows value, JsonGenerator gen, SerializerProvider provider) throws IOException
+		{
+			String[] names = value.names;
+			Column[] columns = value.columns;
+
+			gen.writeStartArray();
+
+			for (int i = 0, len = value.size; i < len; i++)
+			{
+				gen.writeStartObject();
+
+				for (int j = 0; j < names.length; j++)
+				{
+					gen.writeFieldName(names[j]);
+					columns[j].write(gen, provider, i);
+				}
+
+				gen.writeEndObject();
+			}
+
+			gen.writeEndArray();
+		}
+	}
+}
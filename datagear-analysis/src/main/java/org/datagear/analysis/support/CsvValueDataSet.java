@@ -11,6 +11,7 @@ import java.util.Map;
 import org.datagear.analysis.DataSetException;
 import org.datagear.analysis.DataSetOption;
 import org.datagear.analysis.DataSetProperty;
+import org.datagear.analysis.ResolvedDataSetResult;
 import org.datagear.util.IOUtil;
 
 /**
@@ -72,6 +73,24 @@ public class CsvValueDataSet extends AbstractCsvDataSet
 		return (TemplateResolvedDataSetResult) resolveResult(paramValues, null, dataSetOption);
 	}
 
+	@Override
+	protected TemplateResolvedSource<?> resolveCacheTemplate(Map<String, ?> paramValues) throws DataSetException
+	{
+		String csv = resolveAsFmkTemplate(this.value, paramValues);
+		return new TemplateResolvedSource<>(csv, csv);
+	}
+
+	@Override
+	protected ResolvedDataSetResult resolveResult(Map<String, ?> paramValues, List<DataSetProperty> properties,
+			TemplateResolvedSource<?> cacheTemplate) throws DataSetException
+	{
+		if (cacheTemplate == null)
+			return resolveResult(paramValues, properties, (DataSetOption) null);
+
+		String csv = (String) cacheTemplate.getSource();
+		return resolveResult(new TemplateResolvedSource<>(IOUtil.getReader(csv), csv), properties, null);
+	}
+
 	@Override
 	protected TemplateResolvedSource<Reader> getCsvReader(Map<String, ?> paramValues) throws Throwable
 	{
@@ -0,0 +1,718 @@
+/*
+ * Copyright (c) 2018 datagear.tech. All Rights Reserved.
+ */
+
+/**
+ * 
+ */
+package org.datagear.analysis.support;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.datagear.analysis.Chart;
+import org.datagear.analysis.ChartDataSet;
+import org.datagear.analysis.ChartDefinition;
+import org.datagear.analysis.Dashboard;
+import org.datagear.analysis.DataSetException;
+import org.datagear.analysis.DataSetResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 看板数据集结果加载器。
+ * <p>
+ * 如果设置了{@linkplain #getExecutorService()}，此类将使用它并发加载看板所有图表的所有{@linkplain ChartDataSet}，
+ * 看板数据的总耗时将取决于最慢的那个数据集，而不是所有数据集耗时之和；
+ * 否则，将与{@linkplain Dashboard#getDataSetResults()}、{@linkplain Dashboard#getDataSetResults(Set, Map)}一样，在当前线程依次加载。
+ * </p>
+ * <p>
+ * 并发加载时，某个图表数据集加载出错、超时（参考{@linkplain #getChartTimeout()}）、被执行器拒绝或者被取消，对应的结果将是{@linkplain ErrorDataSetResult}，而不会使整个加载失败。
+ * </p>
+ * <p>
+ * 另外，可以通过{@linkplain #setConcurrencyKeyResolver(DataSetConcurrencyKeyResolver)}、{@linkplain #setConcurrencyPerKey(int)}
+ * 限制同一分组（比如同一数据源）的数据集并发加载数，超出限制的数据集将在加载器内排队，直到同一分组的其他数据集加载完成，而不会占用执行器线程。
+ * 此限制仅对并发加载有效。
+ * </p>
+ * <p>
+ * 使用{@linkplain DataSetResultsHandler}的加载方法，每加载完一个图表即交由处理器处理（比如写出），
+ * 并随即释放对其结果的引用，而不会将整个看板的结果都保留在内存中。
+ * </p>
+ * 
+ * @author datagear@163.com
+ *
+ */
+public class DashboardDataSetResultLoader
+{
+	private static final Logger LOGGER = LoggerFactory.getLogger(DashboardDataSetResultLoader.class);
+
+	/** 并发加载执行器，为null表示不并发加载 */
+	private ExecutorService executorService = null;
+
+	/** 单个图表加载超时毫秒数 */
+	private long chartTimeout = -1;
+
+	/** 同一分组的最大并发数 */
+	private int concurrencyPerKey = -1;
+
+	/** 并发分组关键字解析器 */
+	private DataSetConcurrencyKeyResolver concurrencyKeyResolver = null;
+
+	/** 分组任务队列 */
+	private final Map<String, KeyQueue> keyQueues = new HashMap<>();
+
+	private final Object keyLock = new Object();
+
+	public DashboardDataSetResultLoader()
+	{
+		super();
+	}
+
+	public DashboardDataSetResultLoader(ExecutorService executorService)
+	{
+		super();
+		this.executorService = executorService;
+	}
+
+	public ExecutorService getExecutorService()
+	{
+		return executorService;
+	}
+
+	public void setExecutorService(ExecutorService executorService)
+	{
+		this.executorService = executorService;
+	}
+
+	/**
+	 * 获取单个图表加载超时毫秒数。
+	 * 
+	 * @return {@code <=0}表示不超时
+	 */
+	public long getChartTimeout()
+	{
+		return chartTimeout;
+	}
+
+	public void setChartTimeout(long chartTimeout)
+	{
+		this.chartTimeout = chartTimeout;
+	}
+
+	/**
+	 * 获取同一分组的数据集最大并发加载数。
+	 * 
+	 * @return {@code <=0}表示不限制
+	 */
+	public int getConcurrencyPerKey()
+	{
+		return concurrencyPerKey;
+	}
+
+	public void setConcurrencyPerKey(int concurrencyPerKey)
+	{
+		this.concurrencyPerKey = concurrencyPerKey;
+	}
+
+	public DataSetConcurrencyKeyResolver getConcurrencyKeyResolver()
+	{
+		return concurrencyKeyResolver;
+	}
+
+	public void setConcurrencyKeyResolver(DataSetConcurrencyKeyResolver concurrencyKeyResolver)
+	{
+		this.concurrencyKeyResolver = concurrencyKeyResolver;
+	}
+
+	/**
+	 * 加载看板所有图表的默认数据集结果。
+	 * 
+	 * @param dashboard
+	 * @return
+	 * @throws DataSetException
+	 */
+	@SuppressWarnings("unchecked")
+	public Map<String, DataSetResult[]> load(Dashboard dashboard) throws DataSetException
+	{
+		if (this.executorService == null)
+			return dashboard.getDataSetResults();
+
+		List<Chart> charts = dashboard.getCharts();
+
+		if (charts == null || charts.isEmpty())
+			return Collections.EMPTY_MAP;
+
+		List<ChartLoad> chartLoads = new ArrayList<>(charts.size());
+
+		for (Chart chart : charts)
+			chartLoads.add(submit(chart, null, false));
+
+		return collect(chartLoads);
+	}
+
+	/**
+	 * 加载看板指定图表ID集的数据集结果。
+	 * 
+	 * @param dashboard
+	 * @param chartIds
+	 * @param dataSetParamValuess
+	 * @return
+	 * @throws DataSetException
+	 */
+	public Map<String, DataSetResult[]> load(Dashboard dashboard, Set<String> chartIds,
+			Map<String, ? extends List<? extends Map<String, ?>>> dataSetParamValuess) throws DataSetException
+	{
+		if (this.executorService == null)
+			return dashboard.getDataSetResults(chartIds, dataSetParamValuess);
+
+		List<Chart> charts = dashboard.getCharts();
+
+		if (charts == null || charts.isEmpty())
+			return new HashMap<>();
+
+		List<ChartLoad> chartLoads = new ArrayList<>(chartIds.size());
+
+		for (Chart chart : charts)
+		{
+			if (!chartIds.contains(chart.getId()))
+				continue;
+
+			chartLoads.add(submit(chart, dataSetParamValuess.get(chart.getId()), true));
+		}
+
+		return collect(chartLoads);
+	}
+
+	/**
+	 * 加载看板所有图表的默认数据集结果，并按照图表顺序逐个交由{@code handler}处理。
+	 * <p>
+	 * 某个图表数据集加载出错时，对应的结果将是{@linkplain ErrorDataSetResult}。
+	 * </p>
+	 * 
+	 * @param dashboard
+	 * @param handler
+	 * @throws IOException
+	 *             {@code handler}处理出错时
+	 */
+	public void load(Dashboard dashboard, DataSetResultsHandler handler) throws IOException
+	{
+		List<Chart> charts = dashboard.getCharts();
+
+		if (charts == null || charts.isEmpty())
+			return;
+
+		if (this.executorService == null)
+		{
+			for (Chart chart : charts)
+				handler.handle(chart, getResultsInCurrentThread(chart, null, false));
+
+			return;
+		}
+
+		List<ChartLoad> chartLoads = new ArrayList<>(charts.size());
+
+		for (Chart chart : charts)
+			chartLoads.add(submit(chart, null, false));
+
+		collect(chartLoads, handler);
+	}
+
+	/**
+	 * 加载看板指定图表ID集的数据集结果，并按照图表顺序逐个交由{@code handler}处理。
+	 * <p>
+	 * 某个图表数据集加载出错时，对应的结果将是{@linkplain ErrorDataSetResult}。
+	 * </p>
+	 * 
+	 * @param dashboard
+	 * @param chartIds
+	 * @param dataSetParamValuess
+	 * @param handler
+	 * @throws IOException
+	 *             {@code handler}处理出错时
+	 */
+	public void load(Dashboard dashboard, Set<String> chartIds,
+			Map<String, ? extends List<? extends Map<String, ?>>> dataSetParamValuess, DataSetResultsHandler handler)
+			throws IOException
+	{
+		List<Chart> charts = dashboard.getCharts();
+
+		if (charts == null || charts.isEmpty())
+			return;
+
+		List<ChartLoad> chartLoads = new ArrayList<>(chartIds.size());
+
+		for (Chart chart : charts)
+		{
+			if (!chartIds.contains(chart.getId()))
+				continue;
+
+			List<? extends Map<String, ?>> paramValuess = dataSetParamValuess.get(chart.getId());
+
+			if (this.executorService == null)
+				handler.handle(chart, getResultsInCurrentThread(chart, paramValuess, true));
+			else
+				chartLoads.add(submit(chart, paramValuess, true));
+		}
+
+		if (!chartLoads.isEmpty())
+			collect(chartLoads, handler);
+	}
+
+	/**
+	 * 关闭。
+	 */
+	public void shutdown()
+	{
+		if (this.executorService != null)
+			this.executorService.shutdown();
+	}
+
+	protected ChartLoad submit(Chart chart, List<? extends Map<String, ?>> dataSetParamValuess,
+			boolean withParamValues)
+	{
+		ChartDataSet[] chartDataSets = chart.getChartDataSets();
+		int len = (chartDataSets == null ? 0 : chartDataSets.length);
+
+		List<Future<DataSetResult>> futures = new ArrayList<>(len);
+
+		int pvSize = (dataSetParamValuess == null ? 0 : dataSetParamValuess.size());
+
+		for (int i = 0; i < len; i++)
+		{
+			Callable<DataSetResult> task;
+
+			if (withParamValues)
+			{
+				Map<String, ?> paramValues = (i >= pvSize ? null : dataSetParamValuess.get(i));
+				task = new DataSetResultTask(chart, i, paramValues, true);
+			}
+			else
+				task = new DataSetResultTask(chart, i, null, false);
+
+			FutureTask<DataSetResult> future = new FutureTask<>(task);
+
+			try
+			{
+				execute(resolveConcurrencyKey(chartDataSets[i]), future);
+				futures.add(future);
+			}
+			catch (RejectedExecutionException e)
+			{
+				if (LOGGER.isErrorEnabled())
+					LOGGER.error("Load data rejected for chart [" + chart.getId() + "]", e);
+
+				DataSetResult result = new ErrorDataSetResult("Load data rejected");
+				futures.add(CompletableFuture.completedFuture(result));
+			}
+		}
+
+		return new ChartLoad(chart, futures, System.currentTimeMillis());
+	}
+
+	protected Map<String, DataSetResult[]> collect(List<ChartLoad> chartLoads)
+	{
+		Map<String, DataSetResult[]> resultsMap = new HashMap<>();
+
+		for (ChartLoad chartLoad : chartLoads)
+			resultsMap.put(chartLoad.getChart().getId(), getResults(chartLoad));
+
+		return resultsMap;
+	}
+
+	protected void collect(List<ChartLoad> chartLoads, DataSetResultsHandler handler) throws IOException
+	{
+		int i = 0;
+
+		try
+		{
+			for (int len = chartLoads.size(); i < len; i++)
+			{
+				ChartLoad chartLoad = chartLoads.get(i);
+
+				// 释放引用，使处理完的结果可被及时回收
+				chartLoads.set(i, null);
+
+				handler.handle(chartLoad.getChart(), getResults(chartLoad));
+			}
+		}
+		finally
+		{
+			// 处理出错时，取消剩余的加载
+			for (; i < chartLoads.size(); i++)
+			{
+				ChartLoad chartLoad = chartLoads.get(i);
+
+				if (chartLoad == null)
+					continue;
+
+				for (Future<DataSetResult> future : chartLoad.getFutures())
+					future.cancel(true);
+			}
+		}
+	}
+
+	protected DataSetResult[] getResults(ChartLoad chartLoad)
+	{
+		List<Future<DataSetResult>> futures = chartLoad.getFutures();
+		DataSetResult[] results = new DataSetResult[futures.size()];
+
+		for (int i = 0; i < results.length; i++)
+			results[i] = getResult(chartLoad, futures.get(i));
+
+		return results;
+	}
+
+	/**
+	 * 在当前线程依次加载图表的数据集结果，出错的数据集结果将是{@linkplain ErrorDataSetResult}。
+	 * 
+	 * @param chart
+	 * @param dataSetParamValuess
+	 * @param withParamValues
+	 * @return
+	 */
+	protected DataSetResult[] getResultsInCurrentThread(Chart chart, List<? extends Map<String, ?>> dataSetParamValuess,
+			boolean withParamValues)
+	{
+		ChartDataSet[] chartDataSets = chart.getChartDataSets();
+		int len = (chartDataSets == null ? 0 : chartDataSets.length);
+
+		int pvSize = (dataSetParamValuess == null ? 0 : dataSetParamValuess.size());
+
+		DataSetResult[] results = new DataSetResult[len];
+
+		for (int i = 0; i < len; i++)
+		{
+			Map<String, ?> paramValues = (i >= pvSize ? null : dataSetParamValuess.get(i));
+
+			try
+			{
+				results[i] = getDataSetResult(chart, i, paramValues, withParamValues);
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				results[i] = new ErrorDataSetResult("Load data interrupted");
+			}
+			catch (Exception e)
+			{
+				if (LOGGER.isErrorEnabled())
+					LOGGER.error("Load data error for chart [" + chart.getId() + "]", e);
+
+				results[i] = new ErrorDataSetResult(e.getMessage());
+			}
+		}
+
+		return results;
+	}
+
+	protected DataSetResult getResult(ChartLoad chartLoad, Future<DataSetResult> future)
+	{
+		try
+		{
+			if (this.chartTimeout <= 0)
+				return future.get();
+
+			long remaining = chartLoad.getStartTime() + this.chartTimeout - System.currentTimeMillis();
+
+			return future.get(Math.max(remaining, 0), TimeUnit.MILLISECONDS);
+		}
+		catch (TimeoutException e)
+		{
+			future.cancel(true);
+
+			if (LOGGER.isWarnEnabled())
+				LOGGER.warn("Load data timeout for chart [" + chartLoad.getChart().getId() + "] in "
+						+ this.chartTimeout + " ms");
+
+			return new ErrorDataSetResult("Load data timeout in " + this.chartTimeout + " ms");
+		}
+		catch (CancellationException e)
+		{
+			if (LOGGER.isWarnEnabled())
+				LOGGER.warn("Load data cancelled for chart [" + chartLoad.getChart().getId() + "]");
+
+			return new ErrorDataSetResult("Load data cancelled");
+		}
+		catch (InterruptedException e)
+		{
+			future.cancel(true);
+			Thread.currentThread().interrupt();
+
+			return new ErrorDataSetResult("Load data interrupted");
+		}
+		catch (ExecutionException e)
+		{
+			Throwable cause = (e.getCause() == null ? e : e.getCause());
+
+			if (LOGGER.isErrorEnabled())
+				LOGGER.error("Load data error for chart [" + chartLoad.getChart().getId() + "]", cause);
+
+			return new ErrorDataSetResult(cause.getMessage());
+		}
+	}
+
+	/**
+	 * 获取数据集结果。
+	 * 
+	 * @param chart
+	 * @param index
+	 * @param paramValues
+	 * @param withParamValues
+	 * @return
+	 * @throws Exception
+	 */
+	protected DataSetResult getDataSetResult(ChartDefinition chart, int index, Map<String, ?> paramValues,
+			boolean withParamValues) throws Exception
+	{
+		if (withParamValues)
+			return chart.getDataSetResult(index, paramValues);
+		else
+			return chart.getDataSetResult(index);
+	}
+
+	/**
+	 * 解析并发分组关键字。
+	 * 
+	 * @param chartDataSet
+	 * @return 返回{@code null}表示不限制并发数
+	 */
+	protected String resolveConcurrencyKey(ChartDataSet chartDataSet)
+	{
+		if (this.concurrencyPerKey <= 0 || this.concurrencyKeyResolver == null)
+			return null;
+
+		return this.concurrencyKeyResolver.resolve(chartDataSet.getDataSet());
+	}
+
+	/**
+	 * 调度执行任务。
+	 * <p>
+	 * 同一分组正在执行的任务数达到{@linkplain #getConcurrencyPerKey()}时，任务将在分组队列中排队，而不会提交至执行器。
+	 * </p>
+	 * <p>
+	 * 注意：执行器可能会在调用线程中直接执行任务（比如{@linkplain java.util.concurrent.ThreadPoolExecutor.CallerRunsPolicy}），
+	 * 所以不能在锁内提交任务。
+	 * </p>
+	 * 
+	 * @param key
+	 *            分组，允许为{@code null}，为{@code null}时不受{@linkplain #getConcurrencyPerKey()}限制
+	 * @param task
+	 * @throws RejectedExecutionException
+	 */
+	protected void execute(String key, FutureTask<DataSetResult> task) throws RejectedExecutionException
+	{
+		if (key == null)
+		{
+			this.executorService.execute(task);
+			return;
+		}
+
+		synchronized (this.keyLock)
+		{
+			KeyQueue keyQueue = this.keyQueues.get(key);
+
+			if (keyQueue == null)
+			{
+				keyQueue = new KeyQueue();
+				this.keyQueues.put(key, keyQueue);
+			}
+
+			if (keyQueue.running >= this.concurrencyPerKey)
+			{
+				keyQueue.waitings.add(task);
+				return;
+			}
+
+			keyQueue.running++;
+		}
+
+		try
+		{
+			this.executorService.execute(new KeyRunnable(key, task));
+		}
+		catch (RejectedExecutionException e)
+		{
+			afterExecute(key);
+			throw e;
+		}
+	}
+
+	/**
+	 * 任务执行完成后续处理：执行同一分组的下一个排队任务。
+	 * 
+	 * @param key
+	 */
+	protected void afterExecute(String key)
+	{
+		FutureTask<DataSetResult> next = null;
+
+		synchronized (this.keyLock)
+		{
+			KeyQueue keyQueue = this.keyQueues.get(key);
+
+			if (keyQueue == null)
+				return;
+
+			// 跳过排队时已被取消（比如超时）的任务
+			while ((next = keyQueue.waitings.poll()) != null && next.isDone())
+				;
+
+			// 有下一个任务时，它将直接占用当前任务的执行数
+			if (next == null)
+			{
+				keyQueue.running--;
+
+				if (keyQueue.isIdle())
+					this.keyQueues.remove(key);
+			}
+		}
+
+		if (next != null)
+		{
+			try
+			{
+				this.executorService.execute(new KeyRunnable(key, next));
+			}
+			catch (RejectedExecutionException e)
+			{
+				LOGGER.error("execute data set result task error", e);
+
+				next.cancel(false);
+				afterExecute(key);
+			}
+		}
+	}
+
+	protected class DataSetResultTask implements Callable<DataSetResult>
+	{
+		private final ChartDefinition chart;
+
+		private final int index;
+
+		private final Map<String, ?> paramValues;
+
+		private final boolean withParamValues;
+
+		public DataSetResultTask(ChartDefinition chart, int index, Map<String, ?> paramValues,
+				boolean withParamValues)
+		{
+			super();
+			this.chart = chart;
+			this.index = index;
+			this.paramValues = paramValues;
+			this.withParamValues = withParamValues;
+		}
+
+		@Override
+		public DataSetResult call() throws Exception
+		{
+			return getDataSetResult(this.chart, this.index, this.paramValues, this.withParamValues);
+		}
+	}
+
+	/**
+	 * 分组任务队列。
+	 * 
+	 * @author datagear@163.com
+	 *
+	 */
+	protected static class KeyQueue
+	{
+		/** 正在执行（或者已提交至执行器）的任务数 */
+		public int running = 0;
+
+		/** 排队等待的任务 */
+		public final LinkedList<FutureTask<DataSetResult>> waitings = new LinkedList<>();
+
+		public KeyQueue()
+		{
+			super();
+		}
+
+		public boolean isIdle()
+		{
+			return (this.running <= 0 && this.waitings.isEmpty());
+		}
+	}
+
+	/**
+	 * 执行完成后调用{@linkplain DashboardDataSetResultLoader#afterExecute(String)}的任务。
+	 * 
+	 * @author datagear@163.com
+	 *
+	 */
+	protected class KeyRunnable implements Runnable
+	{
+		private final String key;
+
+		private final FutureTask<DataSetResult> task;
+
+		public KeyRunnable(String key, FutureTask<DataSetResult> task)
+		{
+			super();
+			this.key = key;
+			this.task = task;
+		}
+
+		@Override
+		public void run()
+		{
+			try
+			{
+				this.task.run();
+			}
+			finally
+			{
+				afterExecute(this.key);
+			}
+		}
+	}
+
+	protected static class ChartLoad
+	{
+		private final Chart chart;
+
+		private final List<Future<DataSetResult>> futures;
+
+		private final long startTime;
+
+		public ChartLoad(Chart chart, List<Future<DataSetResult>> futures, long startTime)
+		{
+			super();
+			this.chart = chart;
+			this.futures = futures;
+			this.startTime = startTime;
+		}
+
+		public Chart getChart()
+		{
+			return chart;
+		}
+
+		public List<Future<DataSetResult>> getFutures()
+		{
+			return futures;
+		}
+
+		public long getStartTime()
+		{
+			return startTime;
+		}
+	}
+}
@@ -0,0 +1,412 @@
+/*
+ * Copyright (c) 2018 datagear.tech. All Rights Reserved.
+ */
+
+/**
+ * 
+ */
+package org.datagear.analysis.support;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.datagear.util.StringUtil;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.jayway.jsonpath.Configuration;
+import com.jayway.jsonpath.JsonPath;
+
+/**
+ * 数据JSON路径。
+ * <p>
+ * 它是已编译的{@code JSONPath}，由{@linkplain #valueOf(String)}获取的实例会被缓存，避免每次读取数据时都重新编译。
+ * </p>
+ * <p>
+ * 对于仅由属性名（{@code .a}、{@code ['a']}）、非负数组下标（{@code [0]}）组成，且可以{@code [*]}、{@code .*}结尾的简单路径（{@linkplain #isSimple()}），
+ * 还可以使用{@linkplain #moveTo(JsonParser)}在{@linkplain JsonParser}上流式定位至目标值，跳过无关的JSON子树，而无需构建整个JSON文档。
+ * </p>
+ * 
+ * @author datagear@163.com
+ * 
+ */
+public class DataJsonPath
+{
+	/** 缓存的最大数目 */
+	private static final int CACHE_MAXIMUM_SIZE = 500;
+
+	private static final Cache<String, DataJsonPath> CACHE = CacheBuilder.newBuilder().maximumSize(CACHE_MAXIMUM_SIZE)
+			.build();
+
+	/** 规范的JSONPath */
+	private final String path;
+
+	/** 已编译的JSONPath */
+	private final JsonPath jsonPath;
+
+	/** 简单路径的片段，为{@code null}表示不是简单路径 */
+	private final List<Segment> segments;
+
+	/** 简单路径是否以通配符结尾 */
+	private final boolean wildcard;
+
+	protected DataJsonPath(String path, JsonPath jsonPath, List<Segment> segments, boolean wildcard)
+	{
+		super();
+		this.path = path;
+		this.jsonPath = jsonPath;
+		this.segments = segments;
+		this.wildcard = wildcard;
+	}
+
+	public String getPath()
+	{
+		return path;
+	}
+
+	public JsonPath getJsonPath()
+	{
+		return jsonPath;
+	}
+
+	/**
+	 * 是否简单路径。
+	 * 
+	 * @return
+	 */
+	public boolean isSimple()
+	{
+		return (this.segments != null);
+	}
+
+	/**
+	 * 简单路径是否以通配符（{@code [*]}、{@code .*}）结尾。
+	 * 
+	 * @return
+	 */
+	public boolean isWildcard()
+	{
+		return wildcard;
+	}
+
+	/**
+	 * 读取数据。
+	 * 
+	 * @param data
+	 *            {@linkplain java.util.Map}、{@linkplain java.util.List}数据
+	 * @param configuration
+	 * @return
+	 */
+	public Object read(Object data, Configuration configuration)
+	{
+		return this.jsonPath.read(data, configuration);
+	}
+
+	/**
+	 * 将{@linkplain JsonParser}流式定位至此简单路径（不包括结尾通配符）的目标值。
+	 * <p>
+	 * 调用前，{@linkplain JsonParser#currentToken()}应是根JSON值的起始标记；
+	 * 定位成功后，{@linkplain JsonParser#currentToken()}是目标值的起始标记。
+	 * </p>
+	 * 
+	 * @param parser
+	 * @return {@code false}表示没有找到目标值
+	 * @throws IOException
+	 * @throws IllegalStateException
+	 *             当不是简单路径时
+	 */
+	public boolean moveTo(JsonParser parser) throws IOException, IllegalStateException
+	{
+		if (!isSimple())
+			throw new IllegalStateException("[" + this.path + "] is not simple");
+
+		for (Segment segment : this.segments)
+		{
+			boolean found = (segment.isIndex() ? moveToIndex(parser, segment.getIndex())
+					: moveToName(parser, segment.getName()));
+
+			if (!found)
+				return false;
+		}
+
+		return true;
+	}
+
+	protected boolean moveToName(JsonParser parser, String name) throws IOException
+	{
+		if (parser.currentToken() != JsonToken.START_OBJECT)
+			return false;
+
+		JsonToken token = null;
+
+		while ((token = parser.nextToken()) == JsonToken.FIELD_NAME)
+		{
+			String fieldName = parser.getCurrentName();
+
+			parser.nextToken();
+
+			if (name.equals(fieldName))
+				return true;
+
+			parser.skipChildren();
+		}
+
+		return false;
+	}
+
+	protected boolean moveToIndex(JsonParser parser, int index) throws IOException
+	{
+		if (parser.currentToken() != JsonToken.START_ARRAY)
+			return false;
+
+		JsonToken token = null;
+		int i = 0;
+
+		while ((token = parser.nextToken()) != null && token != JsonToken.END_ARRAY)
+		{
+			if (i == index)
+				return true;
+
+			parser.skipChildren();
+			i++;
+		}
+
+		return false;
+	}
+
+	/**
+	 * 获取{@linkplain DataJsonPath}。
+	 * <p>
+	 * 此方法会缓存已编译的实例。
+	 * </p>
+	 * 
+	 * @param dataJsonPath
+	 *            数据JSON路径，比如："stores[0].books"、"[1].stores"、"$['store']['book'][0]"，允许为{@code null}
+	 * @return {@code null}表示{@code dataJsonPath}为空
+	 * @throws com.jayway.jsonpath.InvalidPathException
+	 */
+	public static DataJsonPath valueOf(String dataJsonPath)
+	{
+		String path = toStandardPath(dataJsonPath);
+
+		if (path == null)
+			return null;
+
+		DataJsonPath re = CACHE.getIfPresent(path);
+
+		if (re == null)
+		{
+			re = compile(path);
+			CACHE.put(path, re);
+		}
+
+		return re;
+	}
+
+	/**
+	 * 编译{@linkplain DataJsonPath}。
+	 * 
+	 * @param path
+	 *            规范的JSONPath
+	 * @return
+	 * @throws com.jayway.jsonpath.InvalidPathException
+	 */
+	protected static DataJsonPath compile(String path)
+	{
+		JsonPath jsonPath = JsonPath.compile(path);
+
+		boolean wildcard = false;
+		String definitePath = path;
+
+		if (path.endsWith("[*]"))
+		{
+			wildcard = true;
+			definitePath = path.substring(0, path.length() - 3);
+		}
+		else if (path.endsWith(".*") && !path.endsWith("..*"))
+		{
+			wildcard = true;
+			definitePath = path.substring(0, path.length() - 2);
+		}
+
+		List<Segment> segments = parseSimpleSegments(definitePath);
+
+		return new DataJsonPath(path, jsonPath, segments, (segments == null ? false : wildcard));
+	}
+
+	/**
+	 * 解析简单路径片段。
+	 * 
+	 * @param path
+	 * @return {@code null}表示不是简单路径
+	 */
+	protected static List<Segment> parseSimpleSegments(String path)
+	{
+		if (!path.startsWith("$"))
+			return null;
+
+		List<Segment> segments = new ArrayList<>();
+
+		int i = 1;
+		int len = path.length();
+
+		while (i < len)
+		{
+			char c = path.charAt(i);
+
+			if (c == '.')
+			{
+				int start = i + 1;
+				int end = start;
+
+				while (end < len && isSimpleNameChar(path.charAt(end)))
+					end++;
+
+				if (end == start)
+					return null;
+
+				segments.add(new Segment(path.substring(start, end)));
+				i = end;
+			}
+			else if (c == '[')
+			{
+				int end = path.indexOf(']', i);
+
+				if (end < 0)
+					return null;
+
+				String content = path.substring(i + 1, end);
+
+				if (content.length() > 1 && (content.charAt(0) == '\'' || content.charAt(0) == '"'))
+				{
+					char quote = content.charAt(0);
+
+					if (content.length() < 3 || content.charAt(content.length() - 1) != quote)
+						return null;
+
+					String name = content.substring(1, content.length() - 1);
+
+					if (name.indexOf('\'') > -1 || name.indexOf('"') > -1 || name.indexOf('\\') > -1
+							|| name.indexOf(',') > -1)
+						return null;
+
+					segments.add(new Segment(name));
+				}
+				else
+				{
+					if (content.isEmpty())
+						return null;
+
+					for (int j = 0; j < content.length(); j++)
+					{
+						if (content.charAt(j) < '0' || content.charAt(j) > '9')
+							return null;
+					}
+
+					try
+					{
+						segments.add(new Segment(Integer.parseInt(content)));
+					}
+					catch (NumberFormatException e)
+					{
+						return null;
+					}
+				}
+
+				i = end + 1;
+			}
+			else
+				return null;
+		}
+
+		return Collections.unmodifiableList(segments);
+	}
+
+	protected static boolean isSimpleNameChar(char c)
+	{
+		return (Character.isLetterOrDigit(c) || c == '_' || c == '$' || c == '-');
+	}
+
+	/**
+	 * 转换为规范的JSONPath。
+	 * <p>
+	 * 转换"stores[0].books"、"[1].stores"简化模式为规范的JSONPath。
+	 * </p>
+	 * 
+	 * @param dataJsonPath
+	 *            允许为{@code null}
+	 * @return {@code null}表示{@code dataJsonPath}为空
+	 */
+	public static String toStandardPath(String dataJsonPath)
+	{
+		if (StringUtil.isEmpty(dataJsonPath))
+			return null;
+
+		String stdDataJsonPath = dataJsonPath.trim();
+
+		if (StringUtil.isEmpty(stdDataJsonPath))
+			return null;
+
+		if (!stdDataJsonPath.startsWith("$"))
+		{
+			if (stdDataJsonPath.startsWith("["))
+				stdDataJsonPath = "$" + stdDataJsonPath;
+			else
+				stdDataJsonPath = "$." + stdDataJsonPath;
+		}
+
+		return stdDataJsonPath;
+	}
+
+	/**
+	 * 简单路径片段：属性名或者数组下标。
+	 * 
+	 * @author datagear@163.com
+	 * 
+	 */
+	protected static class Segment
+	{
+		private final String name;
+
+		private final int index;
+
+		public Segment(String name)
+		{
+			super();
+			this.name = name;
+			this.index = -1;
+		}
+
+		public Segment(int index)
+		{
+			super();
+			this.name = null;
+			this.index = index;
+		}
+
+		public boolean isIndex()
+		{
+			return (this.name == null);
+		}
+
+		public String getName()
+		{
+			return name;
+		}
+
+		public int getIndex()
+		{
+			return index;
+		}
+
+		@Override
+		public String toString()
+		{
+			return getClass().getSimpleName() + " [name=" + name + ", index=" + index + "]";
+		}
+	}
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) 2018 datagear.tech. All Rights Reserved.
+ */
+
+/**
+ * 
+ */
+package org.datagear.analysis.support;
+
+import org.datagear.analysis.DataSet;
+
+/**
+ * {@linkplain DataSet}并发分组关键字解析器。
+ * <p>
+ * 相同关键字的{@linkplain DataSet}共享同一个并发数限制，比如：同一个数据源的SQL数据集。
+ * </p>
+ * 
+ * @author datagear@163.com
+ *
+ */
+public interface DataSetConcurrencyKeyResolver
+{
+	/**
+	 * 解析并发分组关键字。
+	 * 
+	 * @param dataSet
+	 * @return 返回{@code null}表示不限制并发数
+	 */
+	String resolve(DataSet dataSet);
+}
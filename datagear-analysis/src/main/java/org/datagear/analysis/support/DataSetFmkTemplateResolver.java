@@ -5,18 +5,19 @@
 package org.datagear.analysis.support;
 
 import java.io.IOException;
-import java.io.Reader;
+import java.io.Serializable;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.util.Map;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 
-import freemarker.cache.TemplateLoader;
 import freemarker.template.Configuration;
 import freemarker.template.Template;
 import freemarker.template.TemplateException;
@@ -27,16 +28,36 @@ import freemarker.template.TemplateException;
  * 此类的{@linkplain #setDataSetTemplateStandardConfig(Configuration)}定义了很多数据集模板规范，
  * 这些规范不应被更改，因为会影响用户已定义数据集的模板。
  * </p>
+ * <p>
+ * 不包含任何Freemarker插值、标签的模板（参考{@linkplain #isPlainTemplate(String)}）将直接作为解析结果返回；
+ * 其他模板编译后的{@linkplain Template}将被缓存（缓存数目受限），相同的模板内容不会被重复编译。
+ * 模板解析的次数、耗时等统计信息可通过{@linkplain #getResolveMetrics()}获取，系统管理员可在{@code /analysis/dataSet/resolveMetrics}查看。
+ * </p>
  * 
  * @author datagear@163.com
  *
  */
 public class DataSetFmkTemplateResolver implements TemplateResolver
 {
-	private NameTemplateLoader nameTemplateLoader;
+	private static final Logger LOGGER = LoggerFactory.getLogger(DataSetFmkTemplateResolver.class);
 
 	private Configuration configuration;
 
+	/** 已编译模板缓存，关键字是模板内容 */
+	private Cache<String, Template> templateCache;
+
+	/** 解析次数 */
+	private final LongAdder resolveCount = new LongAdder();
+
+	/** 无需解析直接返回的次数 */
+	private final LongAdder plainResolveCount = new LongAdder();
+
+	/** 编译模板次数 */
+	private final LongAdder compileCount = new LongAdder();
+
+	/** 解析总耗时纳秒数 */
+	private final LongAdder resolveNanos = new LongAdder();
+
 	public DataSetFmkTemplateResolver()
 	{
 		this(1000);
@@ -45,24 +66,10 @@ public class DataSetFmkTemplateResolver implements TemplateResolver
 	public DataSetFmkTemplateResolver(int cacheCapacity)
 	{
 		super();
-		this.nameTemplateLoader = new NameTemplateLoader(cacheCapacity);
 		this.configuration = new Configuration(Configuration.VERSION_2_3_30);
-		this.configuration.setTemplateLoader(this.nameTemplateLoader);
 		setDataSetTemplateStandardConfig(this.configuration);
-		this.configuration.setCacheStorage(new freemarker.cache.MruCacheStorage(0, cacheCapacity));
-	}
-
-	public NameTemplateLoader getNameTemplateLoader()
-	{
-		return nameTemplateLoader;
-	}
-
-	public void setNameTemplateLoader(NameTemplateLoader nameTemplateLoader)
-	{
-		this.nameTemplateLoader = nameTemplateLoader;
-
-		if (this.configuration != null)
-			this.configuration.setTemplateLoader(this.nameTemplateLoader);
+		this.templateCache = CacheBuilder.newBuilder().maximumSize(cacheCapacity)
+				.expireAfterAccess(60 * 60 * 24, TimeUnit.SECONDS).build();
 	}
 
 	public Configuration getConfiguration()
@@ -75,8 +82,9 @@ public class DataSetFmkTemplateResolver implements TemplateResolver
 		this.configuration = configuration;
 		setDataSetTemplateStandardConfig(this.configuration);
 
-		if (this.nameTemplateLoader != null)
-			this.configuration.setTemplateLoader(this.nameTemplateLoader);
+		// 已编译的模板绑定了旧配置
+		if (this.templateCache != null)
+			this.templateCache.invalidateAll();
 	}
 
 	/**
@@ -95,9 +103,7 @@ public class DataSetFmkTemplateResolver implements TemplateResolver
 		// 数值插值设置为标准格式
 		configuration.setNumberFormat("0.########");
 
-		// 由于此类的模板策略是直接使用模板作为模板名，如果此方法设置为true，
-		// 下面的NameTemplateLoader.findTemplateSource(String)的参数SQL会被加上Locale后缀导致逻辑出错，
-		// 因此这里必须设置为false
+		// 模板直接由模板内容编译，不需要按照Locale查找本地化模板
 		configuration.setLocalizedLookup(false);
 	}
 
@@ -119,14 +125,24 @@ public class DataSetFmkTemplateResolver implements TemplateResolver
 	{
 		String re = null;
 
-		Map<String, ?> values = templateContext.getValues();
+		long startNanos = System.nanoTime();
 
 		try
 		{
-			Template templateObj = this.configuration.getTemplate(template);
-			StringWriter out = new StringWriter();
-			templateObj.process(values, out);
-			re = out.toString();
+			if (isPlainTemplate(template))
+			{
+				this.plainResolveCount.increment();
+				re = template;
+			}
+			else
+			{
+				Map<String, ?> values = templateContext.getValues();
+
+				Template templateObj = getTemplate(template);
+				StringWriter out = new StringWriter();
+				templateObj.process(values, out);
+				re = out.toString();
+			}
 		}
 		catch (IOException e)
 		{
@@ -136,131 +152,175 @@ public class DataSetFmkTemplateResolver implements TemplateResolver
 		{
 			throw new TemplateResolverException(e);
 		}
+		finally
+		{
+			this.resolveCount.increment();
+			this.resolveNanos.add(System.nanoTime() - startNanos);
+		}
 
 		return re;
 	}
 
 	/**
-	 * 直接使用名称作为模板的{@linkplain TemplateLoader}。
+	 * 是否是无需解析的纯文本模板。
+	 * <p>
+	 * 不包含插值（<code>${...}</code>）、标签（<code>&lt;#...&gt;</code>、<code>&lt;@...&gt;</code>及其结束标签）、注释（<code>&lt;#--...--&gt;</code>）的模板，
+	 * 解析结果与模板自身完全相同，因此无需解析。
+	 * </p>
 	 * 
-	 * @author datagear@163.com
-	 *
+	 * @param template
+	 *            允许为{@code null}
+	 * @return
+	 */
+	protected boolean isPlainTemplate(String template)
+	{
+		if (template == null)
+			return false;
+
+		return (template.indexOf("${") < 0 && template.indexOf("<#") < 0 && template.indexOf("</#") < 0
+				&& template.indexOf("<@") < 0 && template.indexOf("</@") < 0);
+	}
+
+	/**
+	 * 获取已编译的{@linkplain Template}，没有则编译并缓存。
+	 * 
+	 * @param template
+	 * @return
+	 * @throws IOException
 	 */
-	public static class NameTemplateLoader implements TemplateLoader
+	protected Template getTemplate(String template) throws IOException
 	{
-		private Cache<String, NameTemplateSource> nameTemplateCache;
+		Template templateObj = this.templateCache.getIfPresent(template);
 
-		public NameTemplateLoader(int cacheCapacity)
+		if (templateObj == null)
 		{
-			this(cacheCapacity, 60 * 60 * 24);
+			long startNanos = System.nanoTime();
+
+			templateObj = new Template(template, new StringReader(template), this.configuration);
+			this.templateCache.put(template, templateObj);
+			this.compileCount.increment();
+
+			if (LOGGER.isDebugEnabled())
+				LOGGER.debug("compile template in {} ms, template length {}",
+						TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos), template.length());
 		}
 
-		public NameTemplateLoader(int cacheCapacity, int cacheExpireSeconds)
+		return templateObj;
+	}
+
+	/**
+	 * 获取模板解析统计信息。
+	 * 
+	 * @return
+	 */
+	public ResolveMetrics getResolveMetrics()
+	{
+		ResolveMetrics metrics = new ResolveMetrics();
+		metrics.setResolveCount(this.resolveCount.sum());
+		metrics.setPlainResolveCount(this.plainResolveCount.sum());
+		metrics.setCompileCount(this.compileCount.sum());
+		metrics.setCachedTemplateCount(this.templateCache.size());
+		metrics.setResolveNanos(this.resolveNanos.sum());
+
+		return metrics;
+	}
+
+	/**
+	 * 模板解析统计信息。
+	 * 
+	 * @author datagear@163.com
+	 *
+	 */
+	public static class ResolveMetrics implements Serializable
+	{
+		private static final long serialVersionUID = 1L;
+
+		/** 解析次数 */
+		private long resolveCount;
+
+		/** 无需解析直接返回的次数 */
+		private long plainResolveCount;
+
+		/** 编译模板次数 */
+		private long compileCount;
+
+		/** 缓存的已编译模板数 */
+		private long cachedTemplateCount;
+
+		/** 解析总耗时纳秒数 */
+		private long resolveNanos;
+
+		public ResolveMetrics()
 		{
 			super();
-
-			this.nameTemplateCache = CacheBuilder.newBuilder().maximumSize(cacheCapacity)
-					.expireAfterAccess(cacheExpireSeconds, TimeUnit.SECONDS).build();
 		}
 
-		protected Cache<String, NameTemplateSource> getSqlDataSetTemplateCache()
+		public long getResolveCount()
 		{
-			return nameTemplateCache;
+			return resolveCount;
 		}
 
-		protected void setSqlDataSetTemplateCache(Cache<String, NameTemplateSource> sqlDataSetTemplateCache)
+		public void setResolveCount(long resolveCount)
 		{
-			this.nameTemplateCache = sqlDataSetTemplateCache;
+			this.resolveCount = resolveCount;
 		}
 
-		@Override
-		public void closeTemplateSource(Object templateSource) throws IOException
+		public long getPlainResolveCount()
 		{
+			return plainResolveCount;
 		}
 
-		@Override
-		public Object findTemplateSource(String name) throws IOException
+		public void setPlainResolveCount(long plainResolveCount)
 		{
-			try
-			{
-				return this.nameTemplateCache.get(name, new Callable<NameTemplateSource>()
-				{
-					@Override
-					public NameTemplateSource call() throws Exception
-					{
-						return new NameTemplateSource(name, System.currentTimeMillis());
-					}
-				});
-			}
-			catch (ExecutionException e)
-			{
-				throw new IOException("find template source in cache exception", e);
-			}
+			this.plainResolveCount = plainResolveCount;
 		}
 
-		@Override
-		public long getLastModified(Object templateSource)
+		public long getCompileCount()
 		{
-			return ((NameTemplateSource) templateSource).getLastModified();
+			return compileCount;
 		}
 
-		@Override
-		public Reader getReader(Object templateSource, String encoding) throws IOException
+		public void setCompileCount(long compileCount)
 		{
-			return new StringReader(((NameTemplateSource) templateSource).getName());
+			this.compileCount = compileCount;
 		}
 
-		protected static class NameTemplateSource
+		public long getCachedTemplateCount()
 		{
-			private final String name;
-
-			private final long lastModified;
+			return cachedTemplateCount;
+		}
 
-			public NameTemplateSource(String name, long lastModified)
-			{
-				super();
-				this.name = name;
-				this.lastModified = lastModified;
-			}
+		public void setCachedTemplateCount(long cachedTemplateCount)
+		{
+			this.cachedTemplateCount = cachedTemplateCount;
+		}
 
-			public String getName()
-			{
-				return name;
-			}
+		public long getResolveNanos()
+		{
+			return resolveNanos;
+		}
 
-			public long getLastModified()
-			{
-				return lastModified;
-			}
+		public void setResolveNanos(long resolveNanos)
+		{
+			this.resolveNanos = resolveNanos;
+		}
 
-			@Override
-			public int hashCode()
-			{
-				final int prime = 31;
-				int result = 1;
-				result = prime * result + ((name == null) ? 0 : name.hashCode());
-				return result;
-			}
+		/**
+		 * 获取平均解析耗时纳秒数。
+		 * 
+		 * @return
+		 */
+		public long getAverageResolveNanos()
+		{
+			return (this.resolveCount == 0 ? 0 : this.resolveNanos / this.resolveCount);
+		}
 
-			@Override
-			public boolean equals(Object obj)
-			{
-				if (this == obj)
-					return true;
-				if (obj == null)
-					return false;
-				if (getClass() != obj.getClass())
-					return false;
-				NameTemplateSource other = (NameTemplateSource) obj;
-				if (name == null)
-				{
-					if (other.name != null)
-						return false;
-				}
-				else if (!name.equals(other.name))
-					return false;
-				return true;
-			}
+		@Override
+		public String toString()
+		{
+			return getClass().getSimpleName() + " [resolveCount=" + resolveCount + ", plainResolveCount="
+					+ plainResolveCount + ", compileCount=" + compileCount + ", cachedTemplateCount="
+					+ cachedTemplateCount + ", resolveNanos=" + resolveNanos + "]";
 		}
 	}
 }
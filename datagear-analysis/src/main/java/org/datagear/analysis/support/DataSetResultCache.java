@@ -0,0 +1,470 @@
+/*
+ * Copyright (c) 2018 datagear.tech. All Rights Reserved.
+ */
+
+/**
+ * 
+ */
+package org.datagear.analysis.support;
+
+import java.io.Serializable;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.datagear.analysis.DataSet;
+import org.datagear.analysis.DataSetException;
+import org.datagear.analysis.DataSetResult;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+
+/**
+ * {@linkplain DataSetResult}缓存。
+ * <p>
+ * 缓存关键字由{@linkplain DataSet#getId()}、规范化的参数值、解析后的模板文本组成，每个缓存值都有自己的过期时间，
+ * 缓存总量按照结果数据的行数计算权重并限制。
+ * </p>
+ * <p>
+ * 另外，{@linkplain #get(DataSetResultCacheKey, int, Callable)}会合并并发的相同关键字请求（即使不缓存）：
+ * 只有一个线程实际执行查询，其他线程等待并共享它的结果。
+ * </p>
+ * <p>
+ * 清除缓存时，在此之前开始执行的查询结果不会再被存入缓存，之后的调用也不会再共享这些查询。
+ * </p>
+ * 
+ * @author datagear@163.com
+ *
+ */
+public class DataSetResultCache
+{
+	/** 缓存值的最大总权重（结果数据行数之和） */
+	private long maximumWeight = 100000;
+
+	private Cache<DataSetResultCacheKey, DataSetResultCacheValue> _cache = null;
+
+	/** 正在执行的查询 */
+	private final ConcurrentMap<DataSetResultCacheKey, FutureTask<DataSetResult>> _inflights = new ConcurrentHashMap<>();
+
+	/** 缓存版本号，每次清除缓存时递增，用于丢弃清除之前开始执行的查询结果 */
+	private final AtomicLong _version = new AtomicLong(0);
+
+	public DataSetResultCache()
+	{
+		super();
+	}
+
+	public long getMaximumWeight()
+	{
+		return maximumWeight;
+	}
+
+	public void setMaximumWeight(long maximumWeight)
+	{
+		this.maximumWeight = maximumWeight;
+	}
+
+	/**
+	 * 初始化。
+	 */
+	public void init()
+	{
+		this._cache = CacheBuilder.newBuilder().maximumWeight(this.maximumWeight)
+				.weigher(new Weigher<DataSetResultCacheKey, DataSetResultCacheValue>()
+				{
+					@Override
+					public int weigh(DataSetResultCacheKey key, DataSetResultCacheValue value)
+					{
+						return value.getWeight();
+					}
+				}).build();
+	}
+
+	/**
+	 * 获取缓存的{@linkplain DataSetResult}。
+	 * 
+	 * @param key
+	 * @return 返回{@code null}表示没有缓存或者已过期
+	 */
+	public DataSetResult get(DataSetResultCacheKey key)
+	{
+		DataSetResultCacheValue value = this._cache.getIfPresent(key);
+
+		if (value == null)
+			return null;
+
+		if (value.isExpired(System.currentTimeMillis()))
+		{
+			this._cache.invalidate(key);
+			return null;
+		}
+
+		return value.getResult();
+	}
+
+	/**
+	 * 将{@linkplain DataSetResult}添加至缓存。
+	 * 
+	 * @param key
+	 * @param result
+	 * @param ttlSeconds
+	 *            缓存秒数，{@code <=0}将不缓存
+	 */
+	public void put(DataSetResultCacheKey key, DataSetResult result, int ttlSeconds)
+	{
+		if (ttlSeconds <= 0)
+			return;
+
+		long expireTime = System.currentTimeMillis() + ttlSeconds * 1000L;
+		this._cache.put(key, new DataSetResultCacheValue(result, expireTime, evalWeight(result)));
+	}
+
+	/**
+	 * 获取{@linkplain DataSetResult}：优先返回缓存结果，没有时，使用{@code loader}加载。
+	 * <p>
+	 * 相同关键字的并发调用只会有一个执行{@code loader}，其他调用将等待并共享它的结果。
+	 * </p>
+	 * 
+	 * @param key
+	 * @param ttlSeconds
+	 *            缓存秒数，{@code <=0}将不缓存，仅合并并发调用
+	 * @param loader
+	 * @return
+	 * @throws DataSetException
+	 */
+	public DataSetResult get(final DataSetResultCacheKey key, final int ttlSeconds,
+			final Callable<DataSetResult> loader) throws DataSetException
+	{
+		if (ttlSeconds > 0)
+		{
+			DataSetResult result = get(key);
+
+			if (result != null)
+				return result;
+		}
+
+		final long version = this._version.get();
+
+		FutureTask<DataSetResult> task = new FutureTask<>(new Callable<DataSetResult>()
+		{
+			@Override
+			public DataSetResult call() throws Exception
+			{
+				DataSetResult result = loader.call();
+
+				// 应在移出正在执行的查询之前存入缓存，避免后续调用重复查询
+				put(key, result, ttlSeconds, version);
+
+				return result;
+			}
+		});
+
+		FutureTask<DataSetResult> inflight = this._inflights.putIfAbsent(key, task);
+
+		if (inflight == null)
+		{
+			inflight = task;
+
+			try
+			{
+				task.run();
+			}
+			finally
+			{
+				this._inflights.remove(key, task);
+			}
+		}
+
+		try
+		{
+			return inflight.get();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new DataSetException(e);
+		}
+		catch (ExecutionException e)
+		{
+			Throwable cause = (e.getCause() == null ? e : e.getCause());
+
+			if (cause instanceof DataSetException)
+				throw (DataSetException) cause;
+			else
+				throw new DataSetException(cause);
+		}
+	}
+
+	/**
+	 * 将加载的{@linkplain DataSetResult}添加至缓存，如果加载期间缓存已被清除，则不添加。
+	 * 
+	 * @param key
+	 * @param result
+	 * @param ttlSeconds
+	 * @param version
+	 *            开始加载时的缓存版本号
+	 */
+	protected void put(DataSetResultCacheKey key, DataSetResult result, int ttlSeconds, long version)
+	{
+		if (ttlSeconds <= 0 || this._version.get() != version)
+			return;
+
+		put(key, result, ttlSeconds);
+
+		// 添加期间缓存被清除了，此时清除操作可能未包含此关键字
+		if (this._version.get() != version)
+			this._cache.invalidate(key);
+	}
+
+	/**
+	 * 清除指定{@linkplain DataSet} ID的所有缓存。
+	 * 
+	 * @param dataSetId
+	 */
+	public void invalidate(String dataSetId)
+	{
+		// 应先递增版本号，使正在执行的查询结果不会再被存入缓存
+		this._version.incrementAndGet();
+
+		for (Iterator<DataSetResultCacheKey> it = this._inflights.keySet().iterator(); it.hasNext();)
+		{
+			if (it.next().getDataSetId().equals(dataSetId))
+				it.remove();
+		}
+
+		ConcurrentMap<DataSetResultCacheKey, DataSetResultCacheValue> map = this._cache.asMap();
+		Set<DataSetResultCacheKey> keys = map.keySet();
+
+		Set<DataSetResultCacheKey> myKeys = new HashSet<>();
+		for (DataSetResultCacheKey key : keys)
+		{
+			if (key.getDataSetId().equals(dataSetId))
+				myKeys.add(key);
+		}
+
+		if (!myKeys.isEmpty())
+			this._cache.invalidateAll(myKeys);
+	}
+
+	/**
+	 * 清除所有缓存。
+	 */
+	public void invalidateAll()
+	{
+		this._version.incrementAndGet();
+		this._inflights.clear();
+		this._cache.invalidateAll();
+	}
+
+	/**
+	 * 计算结果的缓存权重。
+	 * 
+	 * @param result
+	 * @return
+	 */
+	protected int evalWeight(DataSetResult result)
+	{
+		Object data = result.getData();
+
+		int weight = 1;
+
+		if (data instanceof Collection<?>)
+			weight = ((Collection<?>) data).size();
+		else if (data != null && data.getClass().isArray())
+			weight = Array.getLength(data);
+
+		return Math.max(weight, 1);
+	}
+
+	/**
+	 * 创建缓存关键字。
+	 * 
+	 * @param dataSetId
+	 * @param paramValues
+	 *            允许为{@code null}
+	 * @param template
+	 *            解析后的模板文本，允许为{@code null}
+	 * @return
+	 */
+	public static DataSetResultCacheKey createKey(String dataSetId, Map<String, ?> paramValues, String template)
+	{
+		return new DataSetResultCacheKey(dataSetId, normalizeParamValues(paramValues), template);
+	}
+
+	/**
+	 * 规范化参数值映射表：按照名称排序，并将数组转换为列表，使得相同内容的参数值映射表具有相同的{@linkplain Object#equals(Object)}。
+	 * 
+	 * @param paramValues
+	 *            允许为{@code null}
+	 * @return
+	 */
+	protected static Map<String, Object> normalizeParamValues(Map<String, ?> paramValues)
+	{
+		Map<String, Object> re = new TreeMap<>();
+
+		if (paramValues == null)
+			return re;
+
+		for (Map.Entry<String, ?> entry : paramValues.entrySet())
+		{
+			if (entry.getKey() == null)
+				continue;
+
+			re.put(entry.getKey(), normalizeParamValue(entry.getValue()));
+		}
+
+		return re;
+	}
+
+	protected static Object normalizeParamValue(Object value)
+	{
+		if (value == null || !value.getClass().isArray())
+			return value;
+
+		int len = Array.getLength(value);
+		List<Object> list = new ArrayList<>(len);
+
+		for (int i = 0; i < len; i++)
+			list.add(normalizeParamValue(Array.get(value, i)));
+
+		return list;
+	}
+
+	/**
+	 * 缓存关键字。
+	 * 
+	 * @author datagear@163.com
+	 *
+	 */
+	public static class DataSetResultCacheKey implements Serializable
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final String dataSetId;
+		private final Map<String, Object> paramValues;
+		private final String template;
+
+		public DataSetResultCacheKey(String dataSetId, Map<String, Object> paramValues, String template)
+		{
+			super();
+			this.dataSetId = dataSetId;
+			this.paramValues = paramValues;
+			this.template = template;
+		}
+
+		public String getDataSetId()
+		{
+			return dataSetId;
+		}
+
+		public Map<String, Object> getParamValues()
+		{
+			return paramValues;
+		}
+
+		public String getTemplate()
+		{
+			return template;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			final int prime = 31;
+			int result = 1;
+			result = prime * result + ((dataSetId == null) ? 0 : dataSetId.hashCode());
+			result = prime * result + ((paramValues == null) ? 0 : paramValues.hashCode());
+			result = prime * result + ((template == null) ? 0 : template.hashCode());
+			return result;
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (this == obj)
+				return true;
+			if (obj == null)
+				return false;
+			if (getClass() != obj.getClass())
+				return false;
+			DataSetResultCacheKey other = (DataSetResultCacheKey) obj;
+			if (dataSetId == null)
+			{
+				if (other.dataSetId != null)
+					return false;
+			}
+			else if (!dataSetId.equals(other.dataSetId))
+				return false;
+			if (paramValues == null)
+			{
+				if (other.paramValues != null)
+					return false;
+			}
+			else if (!paramValues.equals(other.paramValues))
+				return false;
+			if (template == null)
+			{
+				if (other.template != null)
+					return false;
+			}
+			else if (!template.equals(other.template))
+				return false;
+			return true;
+		}
+
+		@Override
+		public String toString()
+		{
+			return getClass().getSimpleName() + " [dataSetId=" + dataSetId + ", paramValues=" + paramValues
+					+ ", template=" + template + "]";
+		}
+	}
+
+	protected static class DataSetResultCacheValue
+	{
+		private final DataSetResult result;
+		private final long expireTime;
+		private final int weight;
+
+		public DataSetResultCacheValue(DataSetResult result, long expireTime, int weight)
+		{
+			super();
+			this.result = result;
+			this.expireTime = expireTime;
+			this.weight = weight;
+		}
+
+		public DataSetResult getResult()
+		{
+			return result;
+		}
+
+		public long getExpireTime()
+		{
+			return expireTime;
+		}
+
+		public int getWeight()
+		{
+			return weight;
+		}
+
+		public boolean isExpired(long currentTime)
+		{
+			return currentTime >= this.expireTime;
+		}
+	}
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2018 datagear.tech. All Rights Reserved.
+ */
+
+/**
+ * 
+ */
+package org.datagear.analysis.support;
+
+import java.io.IOException;
+
+import org.datagear.analysis.Chart;
+import org.datagear.analysis.DataSetResult;
+
+/**
+ * 图表数据集结果处理器。
+ * <p>
+ * {@linkplain DashboardDataSetResultLoader}每加载完一个图表的数据集结果，就会调用此处理器，
+ * 可用于将结果逐个写出（比如写入HTTP响应），而不必等待整个看板的数据全部加载完成。
+ * </p>
+ * 
+ * @author datagear@163.com
+ *
+ */
+public interface DataSetResultsHandler
+{
+	/**
+	 * 处理图表数据集结果。
+	 * 
+	 * @param chart
+	 * @param results
+	 *            数组元素可能是{@linkplain ErrorDataSetResult}
+	 * @throws IOException
+	 */
+	void handle(Chart chart, DataSetResult[] results) throws IOException;
+}
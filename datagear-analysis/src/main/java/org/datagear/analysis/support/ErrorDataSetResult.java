@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2018 datagear.tech. All Rights Reserved.
+ */
+
+/**
+ * 
+ */
+package org.datagear.analysis.support;
+
+import org.datagear.analysis.DataSetResult;
+
+/**
+ * 出错的{@linkplain DataSetResult}。
+ * <p>
+ * 并发加载看板数据时，某个图表数据集加载出错或者超时，将使用此类作为其结果，而不会使整个看板数据请求失败。
+ * </p>
+ * 
+ * @author datagear@163.com
+ *
+ */
+public class ErrorDataSetResult extends DataSetResult
+{
+	/** 错误信息 */
+	private String errorMessage;
+
+	public ErrorDataSetResult()
+	{
+		super();
+	}
+
+	public ErrorDataSetResult(String errorMessage)
+	{
+		super();
+		this.errorMessage = errorMessage;
+	}
+
+	public String getErrorMessage()
+	{
+		return errorMessage;
+	}
+
+	public void setErrorMessage(String errorMessage)
+	{
+		this.errorMessage = errorMessage;
+	}
+}
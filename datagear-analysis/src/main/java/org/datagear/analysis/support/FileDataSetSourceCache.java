@@ -0,0 +1,324 @@
+/*
+ * Copyright (c) 2018 datagear.tech. All Rights Reserved.
+ */
+
+/**
+ * 
+ */
+package org.datagear.analysis.support;
+
+import java.io.File;
+import java.io.Serializable;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import org.datagear.analysis.DataSetException;
+import org.datagear.analysis.DataSetProperty;
+import org.datagear.analysis.DataSetResult;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * 文件数据集源缓存。
+ * <p>
+ * 它缓存CSV、JSON、Excel等文件数据集解析文件后得到的{@linkplain DataSetResult}，
+ * 缓存关键字由文件绝对路径、最后修改时间、文件大小、解析选项（例如：名称行、sheet号、数据JSON路径、数据集属性）组成，
+ * 因此，只有在文件内容改变后才会重新解析文件，文件数据集不必在每次获取结果时都重新读取、解析文件。
+ * </p>
+ * <p>
+ * 缓存总量按照结果数据的行数计算权重并限制，相同关键字的并发加载只会执行一次。
+ * </p>
+ * 
+ * @author datagear@163.com
+ * 
+ */
+public class FileDataSetSourceCache
+{
+	/** 缓存值的最大总权重（结果数据行数之和） */
+	private long maximumWeight = 500000;
+
+	private Cache<FileDataSetSourceCacheKey, DataSetResult> _cache = null;
+
+	public FileDataSetSourceCache()
+	{
+		super();
+	}
+
+	public long getMaximumWeight()
+	{
+		return maximumWeight;
+	}
+
+	public void setMaximumWeight(long maximumWeight)
+	{
+		this.maximumWeight = maximumWeight;
+	}
+
+	/**
+	 * 初始化。
+	 */
+	public void init()
+	{
+		this._cache = CacheBuilder.newBuilder().maximumWeight(this.maximumWeight)
+				.weigher(new Weigher<FileDataSetSourceCacheKey, DataSetResult>()
+				{
+					@Override
+					public int weigh(FileDataSetSourceCacheKey key, DataSetResult value)
+					{
+						return evalWeight(value);
+					}
+				}).build();
+	}
+
+	/**
+	 * 获取文件的{@linkplain DataSetResult}：文件未改变时返回缓存结果，否则，使用{@code loader}解析。
+	 * 
+	 * @param file
+	 * @param options
+	 *            解析选项，所有影响解析结果的选项都应包含在内，元素应实现{@linkplain Object#equals(Object)}
+	 * @param loader
+	 * @return
+	 * @throws DataSetException
+	 */
+	public DataSetResult get(File file, List<?> options, Callable<DataSetResult> loader) throws DataSetException
+	{
+		FileDataSetSourceCacheKey key = createKey(file, options);
+
+		DataSetResult result = this._cache.getIfPresent(key);
+
+		if (result != null)
+			return result;
+
+		// 清除此文件旧版本的缓存
+		invalidateStale(key);
+
+		try
+		{
+			return this._cache.get(key, loader);
+		}
+		catch (ExecutionException | UncheckedExecutionException | ExecutionError e)
+		{
+			Throwable cause = (e.getCause() == null ? e : e.getCause());
+
+			if (cause instanceof DataSetException)
+				throw (DataSetException) cause;
+			else
+				throw new DataSetSourceParseException(cause);
+		}
+	}
+
+	/**
+	 * 清除指定文件的所有缓存。
+	 * 
+	 * @param file
+	 */
+	public void invalidate(File file)
+	{
+		String path = file.getAbsolutePath();
+
+		Set<FileDataSetSourceCacheKey> myKeys = new HashSet<>();
+		for (FileDataSetSourceCacheKey key : this._cache.asMap().keySet())
+		{
+			if (key.getPath().equals(path))
+				myKeys.add(key);
+		}
+
+		if (!myKeys.isEmpty())
+			this._cache.invalidateAll(myKeys);
+	}
+
+	/**
+	 * 清除所有缓存。
+	 */
+	public void invalidateAll()
+	{
+		this._cache.invalidateAll();
+	}
+
+	/**
+	 * 清除与给定关键字文件相同、但文件版本（最后修改时间、文件大小）不同的缓存。
+	 * 
+	 * @param current
+	 */
+	protected void invalidateStale(FileDataSetSourceCacheKey current)
+	{
+		Set<FileDataSetSourceCacheKey> myKeys = new HashSet<>();
+		for (FileDataSetSourceCacheKey key : this._cache.asMap().keySet())
+		{
+			if (key.getPath().equals(current.getPath()) && (key.getLastModified() != current.getLastModified()
+					|| key.getLength() != current.getLength()))
+				myKeys.add(key);
+		}
+
+		if (!myKeys.isEmpty())
+			this._cache.invalidateAll(myKeys);
+	}
+
+	/**
+	 * 计算结果的缓存权重。
+	 * 
+	 * @param result
+	 * @return
+	 */
+	protected int evalWeight(DataSetResult result)
+	{
+		Object data = result.getData();
+
+		int weight = 1;
+
+		if (data instanceof Collection<?>)
+			weight = ((Collection<?>) data).size();
+		else if (data != null && data.getClass().isArray())
+			weight = Array.getLength(data);
+
+		return Math.max(weight, 1);
+	}
+
+	/**
+	 * 创建缓存关键字。
+	 * 
+	 * @param file
+	 * @param options
+	 * @return
+	 */
+	public static FileDataSetSourceCacheKey createKey(File file, List<?> options)
+	{
+		return new FileDataSetSourceCacheKey(file.getAbsolutePath(), file.lastModified(), file.length(),
+				(options == null ? null : new ArrayList<Object>(options)));
+	}
+
+	/**
+	 * 获取{@linkplain DataSetProperty}列表的签名，用作解析选项。
+	 * <p>
+	 * 签名仅包含影响解析结果的属性名、属性类型。
+	 * </p>
+	 * 
+	 * @param properties
+	 *            允许为{@code null}
+	 * @return
+	 */
+	public static List<String> toPropertiesSignature(List<DataSetProperty> properties)
+	{
+		List<String> signature = new ArrayList<>((properties == null ? 0 : properties.size()));
+
+		if (properties != null)
+		{
+			for (DataSetProperty property : properties)
+				signature.add(property.getName() + ":" + property.getType());
+		}
+
+		return signature;
+	}
+
+	/**
+	 * 缓存关键字。
+	 * 
+	 * @author datagear@163.com
+	 * 
+	 */
+	public static class FileDataSetSourceCacheKey implements Serializable
+	{
+		private static final long serialVersionUID = 1L;
+
+		/** 文件绝对路径 */
+		private final String path;
+
+		/** 文件最后修改时间 */
+		private final long lastModified;
+
+		/** 文件大小 */
+		private final long length;
+
+		/** 解析选项 */
+		private final List<Object> options;
+
+		public FileDataSetSourceCacheKey(String path, long lastModified, long length, List<Object> options)
+		{
+			super();
+			this.path = path;
+			this.lastModified = lastModified;
+			this.length = length;
+			this.options = options;
+		}
+
+		public String getPath()
+		{
+			return path;
+		}
+
+		public long getLastModified()
+		{
+			return lastModified;
+		}
+
+		public long getLength()
+		{
+			return length;
+		}
+
+		public List<Object> getOptions()
+		{
+			return options;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			final int prime = 31;
+			int result = 1;
+			result = prime * result + ((path == null) ? 0 : path.hashCode());
+			result = prime * result + (int) (lastModified ^ (lastModified >>> 32));
+			result = prime * result + (int) (length ^ (length >>> 32));
+			result = prime * result + ((options == null) ? 0 : options.hashCode());
+			return result;
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (this == obj)
+				return true;
+			if (obj == null)
+				return false;
+			if (getClass() != obj.getClass())
+				return false;
+			FileDataSetSourceCacheKey other = (FileDataSetSourceCacheKey) obj;
+			if (path == null)
+			{
+				if (other.path != null)
+					return false;
+			}
+			else if (!path.equals(other.path))
+				return false;
+			if (lastModified != other.lastModified)
+				return false;
+			if (length != other.length)
+				return false;
+			if (options == null)
+			{
+				if (other.options != null)
+					return false;
+			}
+			else if (!options.equals(other.options))
+				return false;
+			return true;
+		}
+
+		@Override
+		public String toString()
+		{
+			return getClass().getSimpleName() + " [path=" + path + ", lastModified=" + lastModified + ", length="
+					+ length + ", options=" + options + "]";
+		}
+	}
+}
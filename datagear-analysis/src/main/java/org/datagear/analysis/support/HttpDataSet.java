@@ -332,13 +332,43 @@ public class HttpDataSet extends AbstractResolvableDataSet
 	@Override
 	protected TemplateResolvedDataSetResult resolveResult(Map<String, ?> paramValues, List<DataSetProperty> properties,
 			DataSetOption dataSetOption) throws DataSetException
+	{
+		String[] templates = resolveTemplates(paramValues);
+		return resolveResult(templates[0], templates[1], templates[2], properties, dataSetOption);
+	}
+
+	@Override
+	protected ResolvedDataSetResult resolveResult(Map<String, ?> paramValues, List<DataSetProperty> properties,
+			TemplateResolvedSource<?> cacheTemplate) throws DataSetException
+	{
+		if (cacheTemplate == null)
+			return resolveResult(paramValues, properties, (DataSetOption) null);
+
+		String[] templates = (String[]) cacheTemplate.getSource();
+		return resolveResult(templates[0], templates[1], templates[2], properties, null);
+	}
+
+	/**
+	 * 解析结果。
+	 * 
+	 * @param uri
+	 *            已解析模板的请求地址
+	 * @param headerContent
+	 *            已解析模板的请求头内容
+	 * @param requestContent
+	 *            已解析模板的请求内容
+	 * @param properties
+	 *            允许为{@code null}
+	 * @param dataSetOption
+	 *            允许为{@code null}
+	 * @return
+	 * @throws DataSetException
+	 */
+	protected TemplateResolvedDataSetResult resolveResult(String uri, String headerContent, String requestContent,
+			List<DataSetProperty> properties, DataSetOption dataSetOption) throws DataSetException
 	{
 		try
 		{
-			String uri = resolveTemplateUri(paramValues);
-			String headerContent = resolveTemplateHeaderContent(paramValues);
-			String requestContent = resolveTemplateRequestContent(paramValues);
-
 			ClassicHttpRequest request = createHttpRequest(uri);
 
 			setHttpHeaders(request, headerContent);
@@ -369,6 +399,41 @@ public class HttpDataSet extends AbstractResolvableDataSet
 		}
 	}
 
+	@Override
+	protected TemplateResolvedSource<?> resolveCacheTemplate(Map<String, ?> paramValues) throws DataSetException
+	{
+		String[] templates = resolveTemplates(paramValues);
+
+		String template = this.requestMethod + " " + templates[0] + System.lineSeparator() + templates[1]
+				+ System.lineSeparator() + templates[2];
+
+		return new TemplateResolvedSource<>(templates, template);
+	}
+
+	/**
+	 * 解析请求地址、请求头内容、请求内容模板。
+	 * 
+	 * @param paramValues
+	 * @return {@code [uri, headerContent, requestContent]}
+	 * @throws DataSetException
+	 */
+	protected String[] resolveTemplates(Map<String, ?> paramValues) throws DataSetException
+	{
+		try
+		{
+			return new String[] { resolveTemplateUri(paramValues), resolveTemplateHeaderContent(paramValues),
+					resolveTemplateRequestContent(paramValues) };
+		}
+		catch (DataSetException e)
+		{
+			throw e;
+		}
+		catch (Throwable t)
+		{
+			throw new DataSetSourceParseException(t);
+		}
+	}
+
 	protected void setHttpHeaders(ClassicHttpRequest request, String headerContent) throws Throwable
 	{
 		if (StringUtil.isEmpty(headerContent))
@@ -14,6 +14,7 @@ import java.util.Map;
 import org.datagear.analysis.DataSetException;
 import org.datagear.analysis.DataSetOption;
 import org.datagear.analysis.DataSetProperty;
+import org.datagear.analysis.ResolvedDataSetResult;
 import org.datagear.util.IOUtil;
 
 /**
@@ -63,6 +64,24 @@ public class JsonValueDataSet extends AbstractJsonDataSet
 		return (TemplateResolvedDataSetResult) resolveResult(paramValues, null, dataSetOption);
 	}
 
+	@Override
+	protected TemplateResolvedSource<?> resolveCacheTemplate(Map<String, ?> paramValues) throws DataSetException
+	{
+		String json = resolveAsFmkTemplate(this.value, paramValues);
+		return new TemplateResolvedSource<>(json, json);
+	}
+
+	@Override
+	protected ResolvedDataSetResult resolveResult(Map<String, ?> paramValues, List<DataSetProperty> properties,
+			TemplateResolvedSource<?> cacheTemplate) throws DataSetException
+	{
+		if (cacheTemplate == null)
+			return resolveResult(paramValues, properties, (DataSetOption) null);
+
+		String json = (String) cacheTemplate.getSource();
+		return resolveResult(new TemplateResolvedSource<>(IOUtil.getReader(json), json), properties, null);
+	}
+
 	@Override
 	protected TemplateResolvedSource<Reader> getJsonReader(Map<String, ?> paramValues) throws Throwable
 	{
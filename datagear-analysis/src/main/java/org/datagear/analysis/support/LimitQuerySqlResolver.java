@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2018 datagear.tech. All Rights Reserved.
+ */
+
+/**
+ * 
+ */
+package org.datagear.analysis.support;
+
+import java.sql.Connection;
+
+import org.datagear.util.Sql;
+
+/**
+ * 限定结果行数的查询SQL解析器。
+ * <p>
+ * {@linkplain SqlDataSet}使用它将{@linkplain org.datagear.analysis.DataSetOption#getResultDataMaxCount()}下推至数据库，
+ * 使数据库只计算、返回需要的行数。
+ * </p>
+ * 
+ * @author datagear@163.com
+ *
+ */
+public interface LimitQuerySqlResolver
+{
+	/**
+	 * 解析限定结果行数的查询SQL。
+	 * 
+	 * @param cn
+	 * @param query
+	 *            原查询SQL
+	 * @param count
+	 *            最大行数，大于{@code 0}
+	 * @return 返回{@code null}表示不支持
+	 * @throws Throwable
+	 */
+	Sql resolve(Connection cn, Sql query, int count) throws Throwable;
+}
@@ -11,9 +11,9 @@ import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Types;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -32,6 +32,8 @@ import org.datagear.util.QueryResultSet;
 import org.datagear.util.Sql;
 import org.datagear.util.SqlType;
 import org.datagear.util.resource.ConnectionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * SQL {@linkplain DataSet}。
@@ -44,12 +46,26 @@ import org.datagear.util.resource.ConnectionFactory;
  */
 public class SqlDataSet extends AbstractResolvableDataSet implements ResolvableDataSet
 {
+	protected static final Logger LOGGER = LoggerFactory.getLogger(SqlDataSet.class);
+
 	protected static final JdbcSupport JDBC_SUPPORT = new JdbcSupport();
 
+	/** 限定结果行数的查询SQL不被支持时，SqlServer返回的错误码：语法错误、派生表不能有ORDER BY、派生表列名缺失或重复 */
+	protected static final int[] SQLSERVER_LIMIT_QUERY_UNSUPPORTED_ERROR_CODES = { 102, 153, 156, 1033, 8155, 8156 };
+
 	private ConnectionFactory connectionFactory;
 
 	private String sql;
 
+	/** 结果集读取行数，小于等于{@code 0}表示使用数据库默认值 */
+	private int fetchSize = 0;
+
+	/** 是否游标读取，参考{@linkplain JdbcSupport#beginCursorFetch(Connection, int, int)} */
+	private boolean cursorFetch = true;
+
+	/** 限定结果行数的查询SQL解析器 */
+	private transient LimitQuerySqlResolver limitQuerySqlResolver = null;
+
 	public SqlDataSet()
 	{
 		super();
@@ -90,6 +106,61 @@ public class SqlDataSet extends AbstractResolvableDataSet implements ResolvableD
 		this.sql = sql;
 	}
 
+	/**
+	 * 获取结果集读取行数。
+	 * 
+	 * @return 小于等于{@code 0}（{@linkplain JdbcSupport#FETCH_SIZE_STREAMING}除外）表示使用数据库默认值，
+	 *         为{@linkplain JdbcSupport#FETCH_SIZE_STREAMING}表示流式读取，参考{@linkplain JdbcSupport#resolveFetchSize(Connection, int, int)}
+	 */
+	public int getFetchSize()
+	{
+		return fetchSize;
+	}
+
+	public void setFetchSize(int fetchSize)
+	{
+		this.fetchSize = fetchSize;
+	}
+
+	public boolean isCursorFetch()
+	{
+		return cursorFetch;
+	}
+
+	/**
+	 * 设置是否游标读取。
+	 * <p>
+	 * 某些驱动程序（比如PostgreSQL）仅在非自动提交时才会按照{@linkplain #getFetchSize()}分批读取结果集，
+	 * 为{@code true}时，查询期间会临时关闭连接的自动提交，并在结果集关闭后、连接释放前恢复。
+	 * </p>
+	 * 
+	 * @param cursorFetch
+	 */
+	public void setCursorFetch(boolean cursorFetch)
+	{
+		this.cursorFetch = cursorFetch;
+	}
+
+	public LimitQuerySqlResolver getLimitQuerySqlResolver()
+	{
+		return limitQuerySqlResolver;
+	}
+
+	/**
+	 * 设置限定结果行数的查询SQL解析器。
+	 * <p>
+	 * 设置后，{@linkplain DataSetOption#getResultDataMaxCount()}将会使用它下推至数据库，
+	 * 否则，仅使用{@linkplain Statement#setMaxRows(int)}限定结果行数。
+	 * </p>
+	 * 
+	 * @param limitQuerySqlResolver
+	 *            允许为{@code null}
+	 */
+	public void setLimitQuerySqlResolver(LimitQuerySqlResolver limitQuerySqlResolver)
+	{
+		this.limitQuerySqlResolver = limitQuerySqlResolver;
+	}
+
 	@Override
 	public TemplateResolvedDataSetResult resolve(Map<String, ?> paramValues, DataSetOption dataSetOption)
 			throws DataSetException
@@ -97,12 +168,46 @@ public class SqlDataSet extends AbstractResolvableDataSet implements ResolvableD
 		return resolveResult(paramValues, null, dataSetOption);
 	}
 
+	@Override
+	protected TemplateResolvedSource<?> resolveCacheTemplate(Map<String, ?> paramValues) throws DataSetException
+	{
+		String sql = resolveAsFmkTemplate(getSql(), paramValues);
+		return new TemplateResolvedSource<>(sql, sql);
+	}
+
+	@Override
+	protected ResolvedDataSetResult resolveResult(Map<String, ?> paramValues, List<DataSetProperty> properties,
+			TemplateResolvedSource<?> cacheTemplate) throws DataSetException
+	{
+		if (cacheTemplate == null)
+			return resolveResult(paramValues, properties, (DataSetOption) null);
+
+		return resolveResult((String) cacheTemplate.getSource(), properties, null);
+	}
+
 	@Override
 	protected TemplateResolvedDataSetResult resolveResult(Map<String, ?> paramValues, List<DataSetProperty> properties,
 			DataSetOption dataSetOption) throws DataSetException
 	{
 		String sql = resolveAsFmkTemplate(getSql(), paramValues);
+		return resolveResult(sql, properties, dataSetOption);
+	}
 
+	/**
+	 * 解析结果。
+	 * 
+	 * @param sql
+	 *            已解析模板的SQL
+	 * @param properties
+	 *            允许为{@code null}
+	 * @param dataSetOption
+	 *            允许为{@code null}
+	 * @return
+	 * @throws DataSetException
+	 */
+	protected TemplateResolvedDataSetResult resolveResult(String sql, List<DataSetProperty> properties,
+			DataSetOption dataSetOption) throws DataSetException
+	{
 		Connection cn = null;
 
 		try
@@ -117,13 +222,13 @@ public class SqlDataSet extends AbstractResolvableDataSet implements ResolvableD
 
 		Sql sqlObj = Sql.valueOf(sql);
 
-		JdbcSupport jdbcSupport = getJdbcSupport();
+		int maxCount = (dataSetOption == null ? -1 : dataSetOption.getResultDataMaxCount());
 
 		QueryResultSet qrs = null;
 
 		try
 		{
-			qrs = jdbcSupport.executeQuery(cn, sqlObj, ResultSet.TYPE_FORWARD_ONLY);
+			qrs = executeQuery(cn, sqlObj, maxCount);
 		}
 		catch (Throwable t)
 		{
@@ -164,6 +269,99 @@ public class SqlDataSet extends AbstractResolvableDataSet implements ResolvableD
 		}
 	}
 
+	/**
+	 * 执行查询。
+	 * <p>
+	 * 如果{@code maxCount}大于{@code 0}，将在数据库端限定结果行数：
+	 * 优先执行{@linkplain #getLimitQuerySqlResolver()}解析的限定结果行数的查询SQL，
+	 * 如果不支持，或者执行时出现{@linkplain #isLimitQueryUnsupported(SQLException)}错误（比如{@code sql}不能作为子查询），则执行原查询SQL。
+	 * 两种情况都会设置{@linkplain Statement#setMaxRows(int)}。
+	 * </p>
+	 * 
+	 * @param cn
+	 * @param sql
+	 * @param maxCount
+	 *            最大行数，小于等于{@code 0}表示不限定
+	 * @return
+	 * @throws Throwable
+	 */
+	protected QueryResultSet executeQuery(Connection cn, Sql sql, int maxCount) throws Throwable
+	{
+		JdbcSupport jdbcSupport = getJdbcSupport();
+
+		if (maxCount <= 0)
+			return jdbcSupport.executeQuery(cn, sql, ResultSet.TYPE_FORWARD_ONLY, getFetchSize(), 0, isCursorFetch());
+
+		Sql limitSql = null;
+
+		if (this.limitQuerySqlResolver != null)
+		{
+			try
+			{
+				limitSql = this.limitQuerySqlResolver.resolve(cn, sql, maxCount);
+			}
+			catch (Throwable t)
+			{
+				limitSql = null;
+
+				if (LOGGER.isDebugEnabled())
+					LOGGER.debug("Resolve limit query SQL error, the original SQL will be used", t);
+			}
+		}
+
+		if (limitSql != null)
+		{
+			try
+			{
+				return jdbcSupport.executeQuery(cn, limitSql, ResultSet.TYPE_FORWARD_ONLY, getFetchSize(), maxCount,
+						isCursorFetch());
+			}
+			catch (SQLException e)
+			{
+				if (!isLimitQueryUnsupported(e))
+					throw e;
+
+				if (LOGGER.isDebugEnabled())
+					LOGGER.debug("Execute limit query SQL [" + limitSql.getSqlValue()
+							+ "] not supported, the original SQL will be used", e);
+			}
+		}
+
+		return jdbcSupport.executeQuery(cn, sql, ResultSet.TYPE_FORWARD_ONLY, getFetchSize(), maxCount,
+				isCursorFetch());
+	}
+
+	/**
+	 * 是否是由于限定结果行数的查询SQL不被支持（比如原查询SQL不能作为子查询）而导致的执行错误。
+	 * <p>
+	 * 它对应{@code SQLState}为{@code 42}类（语法错误或者违反访问规则）的错误，以及SqlServer的语法错误、派生表错误；
+	 * 其他错误（比如连接中断、超时）重新执行原查询SQL无意义，应直接抛出。
+	 * </p>
+	 * 
+	 * @param e
+	 * @return
+	 */
+	protected boolean isLimitQueryUnsupported(SQLException e)
+	{
+		String sqlState = e.getSQLState();
+
+		if (sqlState != null && sqlState.startsWith("42"))
+			return true;
+
+		if (sqlState != null && sqlState.startsWith("S0"))
+		{
+			int errorCode = e.getErrorCode();
+
+			for (int code : SQLSERVER_LIMIT_QUERY_UNSUPPORTED_ERROR_CODES)
+			{
+				if (code == errorCode)
+					return true;
+			}
+		}
+
+		return false;
+	}
+
 	/**
 	 * 解析结果。
 	 * 
@@ -181,8 +379,6 @@ public class SqlDataSet extends AbstractResolvableDataSet implements ResolvableD
 	{
 		boolean resolveProperties = (properties == null || properties.isEmpty());
 
-		List<Map<String, ?>> data = new ArrayList<>();
-
 		JdbcSupport jdbcSupport = getJdbcSupport();
 		DataSetPropertyValueConverter converter = createDataSetPropertyValueConverter();
 
@@ -199,17 +395,22 @@ public class SqlDataSet extends AbstractResolvableDataSet implements ResolvableD
 
 		int maxColumnSize = Math.min(colNames.length, properties.size());
 
+		String[] names = new String[maxColumnSize];
+		for (int i = 0; i < maxColumnSize; i++)
+			names[i] = properties.get(i).getName();
+
+		ColumnarRows data = new ColumnarRows(names);
+		Object[] row = new Object[maxColumnSize];
+
 		int rowIdx = 0;
 
 		while (rs.next())
 		{
-			Map<String, Object> row = new HashMap<>();
-
 			for (int i = 0; i < maxColumnSize; i++)
 			{
 				DataSetProperty property = properties.get(i);
 
-				Object value = jdbcSupport.getColumnValue(cn, rs, colNames[i], sqlTypes[i].getType());
+				Object value = jdbcSupport.getColumnValue(cn, rs, i + 1, sqlTypes[i].getType());
 
 				if (resolveProperties && rowIdx == 0)
 				{
@@ -223,14 +424,14 @@ public class SqlDataSet extends AbstractResolvableDataSet implements ResolvableD
 
 				value = convertToPropertyDataType(converter, value, property);
 
-				row.put(property.getName(), value);
+				row[i] = value;
 			}
 
 			boolean reachMaxCount = isReachResultDataMaxCount(dataSetOption, data.size());
 			boolean breakLoop = reachMaxCount;
 
 			if (!reachMaxCount)
-				data.add(row);
+				data.addRow(row);
 
 			rowIdx++;
 
@@ -238,7 +439,9 @@ public class SqlDataSet extends AbstractResolvableDataSet implements ResolvableD
 				break;
 		}
 
-		DataSetResult result = new DataSetResult(data);
+		data.trimToSize();
+
+		DataSetResult result = new ColumnarDataSetResult(data);
 
 		return new ResolvedDataSetResult(result, properties);
 	}
@@ -25,6 +25,9 @@ public class HtmlChart extends Chart
 
 	private String varName;
 
+	/** 图表部件ID */
+	private String widgetId;
+
 	public HtmlChart()
 	{
 		super();
@@ -80,4 +83,14 @@ public class HtmlChart extends Chart
 	{
 		this.varName = varName;
 	}
+
+	public String getWidgetId()
+	{
+		return widgetId;
+	}
+
+	public void setWidgetId(String widgetId)
+	{
+		this.widgetId = widgetId;
+	}
 }
@@ -114,6 +114,7 @@ public class HtmlChartScriptObjectWriter extends AbstractHtmlScriptObjectWriter
 			setRenderContext(new RefRenderContext(renderContextVarName));
 			setElementId(htmlChart.getElementId());
 			setVarName(htmlChart.getVarName());
+			setWidgetId(htmlChart.getWidgetId());
 		}
 
 		@JsonIgnore
@@ -56,6 +56,7 @@ public class HtmlChartWidget extends ChartWidget
 	public HtmlChart render(RenderContext renderContext) throws RenderException
 	{
 		HtmlChart chart = (HtmlChart) super.render(renderContext);
+		chart.setWidgetId(getId());
 
 		return chart;
 	}
@@ -9,8 +9,10 @@ package org.datagear.analysis.support.html;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.io.StringWriter;
 import java.io.Writer;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.datagear.analysis.Chart;
@@ -22,6 +24,9 @@ import org.datagear.analysis.support.html.HtmlChartRenderAttr.HtmlChartRenderOpt
 import org.datagear.util.IOUtil;
 import org.datagear.util.StringUtil;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 /**
  * 使用原生HTML网页作为模板的{@linkplain HtmlTplDashboardWidget}渲染器。
  * <p>
@@ -62,6 +67,10 @@ import org.datagear.util.StringUtil;
  * <p>
  * <code>div dg-chart-widget</code>：必填，定义图表部件ID（{@linkplain HtmlChartWidget#getId()}）
  * </p>
+ * <p>
+ * 模板解析结果会按照模板资源的最后修改时间缓存（{@linkplain #getCompiledTemplateCacheSize()}），
+ * 渲染时仅需拼接解析结果，而无需再逐字符解析模板。
+ * </p>
  * 
  * @author datagear@163.com
  *
@@ -99,6 +108,11 @@ public class HtmlTplDashboardWidgetHtmlRenderer extends HtmlTplDashboardWidgetRe
 	/** 属性名：图表部件ID */
 	private String attrNameChartWidget = DEFAULT_ATTR_NAME_CHART_WIDGET;
 
+	/** 已解析模板缓存的最大数，小于等于0表示不缓存 */
+	private int compiledTemplateCacheSize = 500;
+
+	private volatile Cache<CompiledTemplateKey, CompiledTemplate> _compiledTemplateCache = null;
+
 	public HtmlTplDashboardWidgetHtmlRenderer()
 	{
 		super();
@@ -170,6 +184,17 @@ public class HtmlTplDashboardWidgetHtmlRenderer extends HtmlTplDashboardWidgetRe
 		this.attrNameChartWidget = attrNameChartWidget;
 	}
 
+	public int getCompiledTemplateCacheSize()
+	{
+		return compiledTemplateCacheSize;
+	}
+
+	public void setCompiledTemplateCacheSize(int compiledTemplateCacheSize)
+	{
+		this.compiledTemplateCacheSize = compiledTemplateCacheSize;
+		this._compiledTemplateCache = null;
+	}
+
 	@Override
 	public String simpleTemplateContent(String htmlCharset, String... chartWidgetId)
 	{
@@ -232,11 +257,156 @@ public class HtmlTplDashboardWidgetHtmlRenderer extends HtmlTplDashboardWidgetRe
 	protected void renderHtmlTplDashboard(RenderContext renderContext, HtmlTplDashboardRenderAttr renderAttr,
 			HtmlTplDashboard dashboard) throws Throwable
 	{
-		Reader in = getResourceReaderNonNull(dashboard.getWidget(), dashboard.getTemplate());
+		CompiledTemplate compiledTemplate = getCompiledTemplate(dashboard.getWidget(), dashboard.getTemplate());
+		renderHtmlTplDashboard(renderContext, renderAttr, dashboard, compiledTemplate);
+	}
+
+	protected DashboardInfo renderHtmlTplDashboard(RenderContext renderContext, HtmlTplDashboardRenderAttr renderAttr,
+			HtmlTplDashboard dashboard, Reader in) throws Exception
+	{
+		CompiledTemplate compiledTemplate = compileTemplate(in);
+		return renderHtmlTplDashboard(renderContext, renderAttr, dashboard, compiledTemplate);
+	}
+
+	/**
+	 * 使用{@linkplain CompiledTemplate}渲染看板。
+	 * 
+	 * @param renderContext
+	 * @param renderAttr
+	 * @param dashboard
+	 * @param compiledTemplate
+	 * @return
+	 * @throws Exception
+	 */
+	protected DashboardInfo renderHtmlTplDashboard(RenderContext renderContext, HtmlTplDashboardRenderAttr renderAttr,
+			HtmlTplDashboard dashboard, CompiledTemplate compiledTemplate) throws Exception
+	{
+		Writer out = renderAttr.getHtmlWriterNonNull(renderContext);
+
+		HtmlTitleHandler htmlTitleHandler = renderAttr.getHtmlTitleHandler(renderContext);
+
+		DashboardInfo dashboardInfo = compiledTemplate.createDashboardInfo(renderAttr);
+
+		for (TemplateSegment segment : compiledTemplate.getSegments())
+		{
+			int type = segment.getType();
+
+			if (type == TemplateSegment.TYPE_TEXT)
+			{
+				out.write(segment.getValue());
+			}
+			else if (type == TemplateSegment.TYPE_DASHBOARD_IMPORT)
+			{
+				writeDashboardImport(renderContext, renderAttr, out, dashboard, dashboardInfo);
+			}
+			else if (type == TemplateSegment.TYPE_TITLE)
+			{
+				if (htmlTitleHandler != null)
+					out.write(htmlTitleHandler.handle(segment.getValue()));
+				else
+					out.write(segment.getValue());
+			}
+			else if (type == TemplateSegment.TYPE_DEFAULT_TITLE)
+			{
+				if (htmlTitleHandler != null)
+				{
+					String titleContent = htmlTitleHandler.handle("");
+
+					out.write("<title>");
+					out.write(titleContent);
+					out.write("</title>");
+				}
+			}
+			else if (type == TemplateSegment.TYPE_CHART_ELEMENT_ID)
+			{
+				ChartInfo chartInfo = dashboardInfo.getChartInfos().get(segment.getChartIndex());
+				out.write(" id=\"" + chartInfo.getElementId() + "\" ");
+			}
+			else if (type == TemplateSegment.TYPE_DASHBOARD_SCRIPT)
+			{
+				writeHtmlTplDashboardScript(renderContext, renderAttr, out, dashboard, dashboardInfo);
+			}
+		}
+
+		return dashboardInfo;
+	}
+
+	/**
+	 * 获取{@linkplain CompiledTemplate}。
+	 * <p>
+	 * 如果模板资源的最后修改时间有效，将使用缓存，模板资源修改后会重新解析。
+	 * </p>
+	 * 
+	 * @param dashboardWidget
+	 * @param template
+	 * @return
+	 * @throws IOException
+	 */
+	protected CompiledTemplate getCompiledTemplate(HtmlTplDashboardWidget dashboardWidget, String template)
+			throws IOException
+	{
+		Cache<CompiledTemplateKey, CompiledTemplate> cache = getCompiledTemplateCache();
+
+		long lastModified = (cache == null ? 0
+				: getTemplateDashboardWidgetResManager().lastModified(dashboardWidget.getId(), template));
+
+		// 最后修改时间无效（比如资源不存在、模板即内容），不使用缓存
+		if (lastModified <= 0)
+			return compileTemplate(dashboardWidget, template);
+
+		CompiledTemplateKey key = new CompiledTemplateKey(dashboardWidget.getId(), template,
+				dashboardWidget.getTemplateEncoding());
+
+		CompiledTemplate compiledTemplate = cache.getIfPresent(key);
+
+		if (compiledTemplate == null || compiledTemplate.getLastModified() != lastModified)
+		{
+			compiledTemplate = compileTemplate(dashboardWidget, template);
+			compiledTemplate.setLastModified(lastModified);
+
+			cache.put(key, compiledTemplate);
+		}
+
+		return compiledTemplate;
+	}
+
+	/**
+	 * 获取{@linkplain CompiledTemplate}缓存。
+	 * 
+	 * @return 返回{@code null}表示不缓存
+	 */
+	protected Cache<CompiledTemplateKey, CompiledTemplate> getCompiledTemplateCache()
+	{
+		if (this.compiledTemplateCacheSize <= 0)
+			return null;
+
+		Cache<CompiledTemplateKey, CompiledTemplate> cache = this._compiledTemplateCache;
+
+		if (cache == null)
+		{
+			synchronized (this)
+			{
+				cache = this._compiledTemplateCache;
+
+				if (cache == null)
+				{
+					cache = CacheBuilder.newBuilder().maximumSize(this.compiledTemplateCacheSize).build();
+					this._compiledTemplateCache = cache;
+				}
+			}
+		}
+
+		return cache;
+	}
+
+	protected CompiledTemplate compileTemplate(HtmlTplDashboardWidget dashboardWidget, String template)
+			throws IOException
+	{
+		Reader in = getResourceReaderNonNull(dashboardWidget, template);
 
 		try
 		{
-			renderHtmlTplDashboard(renderContext, renderAttr, dashboard, in);
+			return compileTemplate(in);
 		}
 		finally
 		{
@@ -244,20 +414,28 @@ public class HtmlTplDashboardWidgetHtmlRenderer extends HtmlTplDashboardWidgetRe
 		}
 	}
 
-	protected DashboardInfo renderHtmlTplDashboard(RenderContext renderContext, HtmlTplDashboardRenderAttr renderAttr,
-			HtmlTplDashboard dashboard, Reader in) throws Exception
+	/**
+	 * 解析模板为{@linkplain CompiledTemplate}。
+	 * <p>
+	 * 模板中的静态内容将被合并为文本片段，看板导入、标题、自动生成的图表元素ID、看板脚本则作为插槽，在渲染时写入。
+	 * </p>
+	 * 
+	 * @param in
+	 * @return
+	 * @throws IOException
+	 */
+	protected CompiledTemplate compileTemplate(Reader in) throws IOException
 	{
-		Writer out = renderAttr.getHtmlWriterNonNull(renderContext);
+		CompiledTemplate compiledTemplate = new CompiledTemplate();
 
-		HtmlTitleHandler htmlTitleHandler = renderAttr.getHtmlTitleHandler(renderContext);
+		Writer out = compiledTemplate.getTextWriter();
 
 		boolean resolvedDashboardInfo = false;
-		boolean wroteDashboardImport = false;
 		boolean wroteDashboardScript = false;
 		boolean inHeadTag = false;
 		boolean handledTitle = false;
 
-		DashboardInfo dashboardInfo = new DashboardInfo();
+		DashboardInfo dashboardInfo = compiledTemplate.getDashboardInfo();
 
 		StringBuilder nameCache = createStringBuilder();
 		StringBuilder valueCache = createStringBuilder();
@@ -302,8 +480,7 @@ public class HtmlTplDashboardWidgetHtmlRenderer extends HtmlTplDashboardWidgetRe
 					if (last != '>')
 						readToTagEnd(in, out);
 
-					if (!wroteDashboardImport)
-						writeDashboardImport(renderContext, renderAttr, out, dashboard, dashboardInfo);
+					compiledTemplate.addSegment(TemplateSegment.TYPE_DASHBOARD_IMPORT, null, -1);
 				}
 				// <title
 				else if (inHeadTag && "title".equalsIgnoreCase(tagName))
@@ -316,18 +493,8 @@ public class HtmlTplDashboardWidgetHtmlRenderer extends HtmlTplDashboardWidgetRe
 					clear(nameCache);
 					last = readToTagStart(in, nameCache);
 
-					if (htmlTitleHandler != null)
-					{
-						String titleContent = htmlTitleHandler.handle(nameCache.toString());
-
-						out.write(titleContent);
-						appendIfValid(out, last);
-					}
-					else
-					{
-						append(out, nameCache);
-						appendIfValid(out, last);
-					}
+					compiledTemplate.addSegment(TemplateSegment.TYPE_TITLE, nameCache.toString(), -1);
+					appendIfValid(out, last);
 
 					handledTitle = true;
 				}
@@ -336,15 +503,7 @@ public class HtmlTplDashboardWidgetHtmlRenderer extends HtmlTplDashboardWidgetRe
 				{
 					if (!handledTitle)
 					{
-						if (htmlTitleHandler != null)
-						{
-							String titleContent = htmlTitleHandler.handle("");
-
-							out.write("<title>");
-							out.write(titleContent);
-							out.write("</title>");
-						}
-
+						compiledTemplate.addSegment(TemplateSegment.TYPE_DEFAULT_TITLE, null, -1);
 						handledTitle = true;
 					}
 
@@ -364,10 +523,25 @@ public class HtmlTplDashboardWidgetHtmlRenderer extends HtmlTplDashboardWidgetRe
 						clear(valueCache);
 						clear(tagContentCache);
 
-						last = resolveDashboardChartInfo(renderContext, renderAttr, dashboard, in, last,
-								tagContentCache, nameCache, valueCache, dashboardInfo);
+						int chartIndex = dashboardInfo.getChartInfos().size();
 
-						append(out, tagContentCache);
+						last = resolveDashboardChartInfo(in, last, tagContentCache, nameCache, valueCache,
+								dashboardInfo);
+
+						List<ChartInfo> chartInfos = dashboardInfo.getChartInfos();
+
+						// 元素没有定义“id”属性，在渲染时生成并插入
+						if (chartInfos.size() > chartIndex
+								&& StringUtil.isEmpty(chartInfos.get(chartIndex).getElementId()))
+						{
+							int insertIdx = findInsertAttrIndex(tagContentCache);
+
+							out.append(tagContentCache, 0, insertIdx);
+							compiledTemplate.addSegment(TemplateSegment.TYPE_CHART_ELEMENT_ID, null, chartIndex);
+							out.append(tagContentCache, insertIdx, tagContentCache.length());
+						}
+						else
+							append(out, tagContentCache);
 					}
 				}
 				// </body
@@ -375,7 +549,7 @@ public class HtmlTplDashboardWidgetHtmlRenderer extends HtmlTplDashboardWidgetRe
 				{
 					if (!wroteDashboardScript)
 					{
-						writeHtmlTplDashboardScript(renderContext, renderAttr, out, dashboard, dashboardInfo);
+						compiledTemplate.addSegment(TemplateSegment.TYPE_DASHBOARD_SCRIPT, null, -1);
 						wroteDashboardScript = true;
 					}
 
@@ -401,7 +575,9 @@ public class HtmlTplDashboardWidgetHtmlRenderer extends HtmlTplDashboardWidgetRe
 				out.write(c);
 		}
 
-		return dashboardInfo;
+		compiledTemplate.finish();
+
+		return compiledTemplate;
 	}
 
 	protected void writeDashboardImport(RenderContext renderContext, HtmlTplDashboardRenderAttr renderAttr, Writer out,
@@ -554,8 +730,22 @@ public class HtmlTplDashboardWidgetHtmlRenderer extends HtmlTplDashboardWidgetRe
 		return c;
 	}
 
-	protected int resolveDashboardChartInfo(RenderContext renderContext, HtmlTplDashboardRenderAttr renderAttr,
-			HtmlTplDashboard dashboard, Reader in, int last, StringBuilder cache, StringBuilder attrName,
+	/**
+	 * 解析{@linkplain ChartInfo}。
+	 * <p>
+	 * 如果元素没有定义“id”属性，添加的{@linkplain ChartInfo#getElementId()}将为空。
+	 * </p>
+	 * 
+	 * @param in
+	 * @param last
+	 * @param cache
+	 * @param attrName
+	 * @param attrValue
+	 * @param dashboardInfo
+	 * @return
+	 * @throws IOException
+	 */
+	protected int resolveDashboardChartInfo(Reader in, int last, StringBuilder cache, StringBuilder attrName,
 			StringBuilder attrValue, DashboardInfo dashboardInfo) throws IOException
 	{
 		ChartInfo chartInfo = null;
@@ -591,18 +781,6 @@ public class HtmlTplDashboardWidgetHtmlRenderer extends HtmlTplDashboardWidgetRe
 		if (chartInfo != null && StringUtil.isEmpty(chartInfo.getWidgetId()))
 			chartInfo = null;
 
-		// 元素没有定义“id”属性
-		if (chartInfo != null && StringUtil.isEmpty(chartInfo.getElementId()))
-		{
-			int chartIndex = dashboardInfo.getChartInfos().size();
-			String elementId = renderAttr.genChartElementId(Integer.toString(chartIndex));
-
-			chartInfo.setElementId(elementId);
-
-			int insertIdx = findInsertAttrIndex(cache);
-			cache.insert(insertIdx, " id=\"" + elementId + "\" ");
-		}
-
 		if (chartInfo != null)
 			dashboardInfo.addChartInfo(chartInfo);
 
@@ -863,4 +1041,260 @@ public class HtmlTplDashboardWidgetHtmlRenderer extends HtmlTplDashboardWidgetRe
 			return getClass().getSimpleName() + " [widgetId=" + widgetId + ", elementId=" + elementId + "]";
 		}
 	}
+
+	/**
+	 * 已解析模板。
+	 * <p>
+	 * 由静态文本片段、插槽片段，以及模板中定义的{@linkplain DashboardInfo}组成，解析完成后不应再修改，可被多个线程共享。
+	 * </p>
+	 * 
+	 * @author datagear@163.com
+	 *
+	 */
+	protected static class CompiledTemplate
+	{
+		private final DashboardInfo dashboardInfo = new DashboardInfo();
+
+		private List<TemplateSegment> segments = new ArrayList<>();
+
+		private StringWriter textWriter = new StringWriter();
+
+		/** 模板资源最后修改时间 */
+		private long lastModified = 0;
+
+		public CompiledTemplate()
+		{
+			super();
+		}
+
+		/**
+		 * 获取模板中定义的{@linkplain DashboardInfo}，其中未定义元素ID的{@linkplain ChartInfo#getElementId()}为空。
+		 * 
+		 * @return
+		 */
+		public DashboardInfo getDashboardInfo()
+		{
+			return dashboardInfo;
+		}
+
+		public List<TemplateSegment> getSegments()
+		{
+			return segments;
+		}
+
+		public long getLastModified()
+		{
+			return lastModified;
+		}
+
+		public void setLastModified(long lastModified)
+		{
+			this.lastModified = lastModified;
+		}
+
+		/**
+		 * 获取用于写入静态文本的输出流，解析时使用。
+		 * 
+		 * @return
+		 */
+		public Writer getTextWriter()
+		{
+			return textWriter;
+		}
+
+		/**
+		 * 添加插槽片段，之前写入的静态文本将作为一个文本片段，解析时使用。
+		 * 
+		 * @param type
+		 * @param value
+		 * @param chartIndex
+		 */
+		public void addSegment(int type, String value, int chartIndex)
+		{
+			addTextSegment();
+			this.segments.add(new TemplateSegment(type, value, chartIndex));
+		}
+
+		/**
+		 * 完成解析。
+		 */
+		public void finish()
+		{
+			addTextSegment();
+
+			this.segments = Collections.unmodifiableList(this.segments);
+			this.textWriter = null;
+		}
+
+		/**
+		 * 为一次渲染创建{@linkplain DashboardInfo}，并为未定义元素ID的图表生成元素ID。
+		 * 
+		 * @param renderAttr
+		 * @return
+		 */
+		public DashboardInfo createDashboardInfo(HtmlTplDashboardRenderAttr renderAttr)
+		{
+			DashboardInfo re = new DashboardInfo(this.dashboardInfo.getDashboardVar());
+			re.setDashboardFactoryVar(this.dashboardInfo.getDashboardFactoryVar());
+			re.setImportExclude(this.dashboardInfo.getImportExclude());
+
+			List<ChartInfo> chartInfos = this.dashboardInfo.getChartInfos();
+
+			for (int i = 0, len = chartInfos.size(); i < len; i++)
+			{
+				ChartInfo chartInfo = chartInfos.get(i);
+				String elementId = chartInfo.getElementId();
+
+				if (StringUtil.isEmpty(elementId))
+					elementId = renderAttr.genChartElementId(Integer.toString(i));
+
+				re.addChartInfo(new ChartInfo(chartInfo.getWidgetId(), elementId));
+			}
+
+			return re;
+		}
+
+		protected void addTextSegment()
+		{
+			StringBuffer text = this.textWriter.getBuffer();
+
+			if (text.length() > 0)
+			{
+				this.segments.add(new TemplateSegment(TemplateSegment.TYPE_TEXT, text.toString(), -1));
+				text.setLength(0);
+			}
+		}
+	}
+
+	/**
+	 * 已解析模板片段。
+	 * 
+	 * @author datagear@163.com
+	 *
+	 */
+	protected static class TemplateSegment
+	{
+		/** 静态文本 */
+		public static final int TYPE_TEXT = 0;
+
+		/** 看板导入内容 */
+		public static final int TYPE_DASHBOARD_IMPORT = 1;
+
+		/** 标题内容 */
+		public static final int TYPE_TITLE = 2;
+
+		/** 模板未定义标题时的默认标题 */
+		public static final int TYPE_DEFAULT_TITLE = 3;
+
+		/** 自动生成的图表元素ID属性 */
+		public static final int TYPE_CHART_ELEMENT_ID = 4;
+
+		/** 看板脚本 */
+		public static final int TYPE_DASHBOARD_SCRIPT = 5;
+
+		private final int type;
+
+		private final String value;
+
+		private final int chartIndex;
+
+		public TemplateSegment(int type, String value, int chartIndex)
+		{
+			super();
+			this.type = type;
+			this.value = value;
+			this.chartIndex = chartIndex;
+		}
+
+		public int getType()
+		{
+			return type;
+		}
+
+		public String getValue()
+		{
+			return value;
+		}
+
+		public int getChartIndex()
+		{
+			return chartIndex;
+		}
+
+		@Override
+		public String toString()
+		{
+			return getClass().getSimpleName() + " [type=" + type + ", value=" + value + ", chartIndex=" + chartIndex
+					+ "]";
+		}
+	}
+
+	protected static class CompiledTemplateKey
+	{
+		private final String widgetId;
+
+		private final String template;
+
+		private final String encoding;
+
+		public CompiledTemplateKey(String widgetId, String template, String encoding)
+		{
+			super();
+			this.widgetId = widgetId;
+			this.template = template;
+			this.encoding = encoding;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			final int prime = 31;
+			int result = 1;
+			result = prime * result + ((widgetId == null) ? 0 : widgetId.hashCode());
+			result = prime * result + ((template == null) ? 0 : template.hashCode());
+			result = prime * result + ((encoding == null) ? 0 : encoding.hashCode());
+			return result;
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (this == obj)
+				return true;
+			if (obj == null)
+				return false;
+			if (getClass() != obj.getClass())
+				return false;
+			CompiledTemplateKey other = (CompiledTemplateKey) obj;
+			if (widgetId == null)
+			{
+				if (other.widgetId != null)
+					return false;
+			}
+			else if (!widgetId.equals(other.widgetId))
+				return false;
+			if (template == null)
+			{
+				if (other.template != null)
+					return false;
+			}
+			else if (!template.equals(other.template))
+				return false;
+			if (encoding == null)
+			{
+				if (other.encoding != null)
+					return false;
+			}
+			else if (!encoding.equals(other.encoding))
+				return false;
+			return true;
+		}
+
+		@Override
+		public String toString()
+		{
+			return getClass().getSimpleName() + " [widgetId=" + widgetId + ", template=" + template + ", encoding="
+					+ encoding + "]";
+		}
+	}
 }
@@ -88,6 +88,8 @@ public abstract class HtmlTplDashboardWidgetRenderer extends TextParserSupport
 
 	public static final String DEFAULT_VERSION_PLACE_HOLDER = "$VERSION";
 
+	public static final String DEFAULT_CHART_PLUGIN_VERSION_PLACE_HOLDER = "$CHARTPLUGINVERSION";
+
 	public static final String DEFAULT_DASHBOARD_VAR_PLACE_HOLDER = "$DASHBOARD";
 
 	public static final String DEFAULT_DASHBOARD_FACTORY_VAR = "dashboardFactory";
@@ -123,6 +125,9 @@ public abstract class HtmlTplDashboardWidgetRenderer extends TextParserSupport
 	/** 应用版本号占位符 */
 	private String versionPlaceholder = DEFAULT_VERSION_PLACE_HOLDER;
 
+	/** 独立渲染的图表插件集合版本号占位符 */
+	private String chartPluginVersionPlaceholder = DEFAULT_CHART_PLUGIN_VERSION_PLACE_HOLDER;
+
 	/** 扩展看板初始化脚本 */
 	private String extDashboardInitScript;
 
@@ -152,6 +157,8 @@ public abstract class HtmlTplDashboardWidgetRenderer extends TextParserSupport
 
 	private ImportHtmlChartPluginVarNameResolver importHtmlChartPluginVarNameResolver;
 
+	private ChartPluginVersionResolver chartPluginVersionResolver;
+
 	/** 换行符 */
 	private String newLine = HtmlChartPlugin.HTML_NEW_LINE;
 
@@ -262,6 +269,16 @@ public abstract class HtmlTplDashboardWidgetRenderer extends TextParserSupport
 		this.versionPlaceholder = versionPlaceholder;
 	}
 
+	public String getChartPluginVersionPlaceholder()
+	{
+		return chartPluginVersionPlaceholder;
+	}
+
+	public void setChartPluginVersionPlaceholder(String chartPluginVersionPlaceholder)
+	{
+		this.chartPluginVersionPlaceholder = chartPluginVersionPlaceholder;
+	}
+
 	public String getExtDashboardInitScript()
 	{
 		return extDashboardInitScript;
@@ -363,6 +380,16 @@ public abstract class HtmlTplDashboardWidgetRenderer extends TextParserSupport
 		this.importHtmlChartPluginVarNameResolver = importHtmlChartPluginVarNameResolver;
 	}
 
+	public ChartPluginVersionResolver getChartPluginVersionResolver()
+	{
+		return chartPluginVersionResolver;
+	}
+
+	public void setChartPluginVersionResolver(ChartPluginVersionResolver chartPluginVersionResolver)
+	{
+		this.chartPluginVersionResolver = chartPluginVersionResolver;
+	}
+
 	public String getNewLine()
 	{
 		return newLine;
@@ -859,6 +886,8 @@ public abstract class HtmlTplDashboardWidgetRenderer extends TextParserSupport
 
 		if (this.dashboardImports != null)
 		{
+			String chartPluginVersion = null;
+
 			for (HtmlTplDashboardImport impt : this.dashboardImports)
 			{
 				String name = impt.getName();
@@ -869,6 +898,14 @@ public abstract class HtmlTplDashboardWidgetRenderer extends TextParserSupport
 				String content = replaceContextPathPlaceholder(impt.getContent(), webContext.getContextPath());
 				content = replaceVersionPlaceholder(content, Global.VERSION);
 
+				if (content != null && content.indexOf(getChartPluginVersionPlaceholder()) > -1)
+				{
+					if (chartPluginVersion == null)
+						chartPluginVersion = resolveChartPluginVersion();
+
+					content = content.replace(getChartPluginVersionPlaceholder(), chartPluginVersion);
+				}
+
 				writeNewLine(out);
 				out.write(content);
 			}
@@ -1099,6 +1136,24 @@ public abstract class HtmlTplDashboardWidgetRenderer extends TextParserSupport
 		return str.replace(getVersionPlaceholder(), version);
 	}
 
+	/**
+	 * 获取独立渲染的{@linkplain HtmlChartPlugin}集合版本号。
+	 * <p>
+	 * 如果{@linkplain #getChartPluginVersionResolver()}为{@code null}，将返回应用版本号。
+	 * </p>
+	 * 
+	 * @return
+	 */
+	protected String resolveChartPluginVersion()
+	{
+		String version = null;
+
+		if (this.chartPluginVersionResolver != null)
+			version = this.chartPluginVersionResolver.resolve(this);
+
+		return (version == null ? Global.VERSION : version);
+	}
+
 	/**
 	 * 替换字符串中的看板变量名占位符为真实的看板变量名。
 	 * 
@@ -1462,6 +1517,30 @@ public abstract class HtmlTplDashboardWidgetRenderer extends TextParserSupport
 		String resolve(HtmlChartWidget chartWidget);
 	}
 
+	/**
+	 * 独立渲染的{@linkplain HtmlChartPlugin}集合版本号处理器。
+	 * <p>
+	 * 独立渲染的{@linkplain HtmlChartPlugin}集合（参考{@linkplain ImportHtmlChartPluginVarNameResolver}）通常作为单独的JS资源引入，
+	 * 此类用于获取它的版本号（比如内容摘要），并替换{@linkplain HtmlTplDashboardWidgetRenderer#getDashboardImports()}中的
+	 * {@linkplain HtmlTplDashboardWidgetRenderer#getChartPluginVersionPlaceholder()}，
+	 * 使引入地址在集合内容不变时保持不变、改变时随之改变，从而可被浏览器长期缓存。
+	 * </p>
+	 * 
+	 * @author datagear@163.com
+	 *
+	 */
+	public static interface ChartPluginVersionResolver
+	{
+		/**
+		 * 获取版本号。
+		 * 
+		 * @param renderer
+		 *            用于获取需加入集合的{@linkplain HtmlTplDashboardWidgetRenderer#getHtmlChartPluginForGetWidgetException()}
+		 * @return
+		 */
+		String resolve(HtmlTplDashboardWidgetRenderer renderer);
+	}
+
 	public static class TemplateImportHtmlChartPluginVarNameResolver implements ImportHtmlChartPluginVarNameResolver
 	{
 		public static final String PLACEHOLDER_CHART_PLUGIN_ID = "$CHART_PLUGIN_ID";
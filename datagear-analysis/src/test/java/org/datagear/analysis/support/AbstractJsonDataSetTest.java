@@ -8,11 +8,13 @@
 package org.datagear.analysis.support;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
+import org.datagear.analysis.DataSetOption;
 import org.datagear.analysis.DataSetProperty;
 import org.junit.Test;
 
@@ -75,4 +77,74 @@ public class AbstractJsonDataSetTest
 			}
 		}
 	}
+
+	@Test
+	public void resolveTest_dataJsonPath_wildcard()
+	{
+		String jsonString = "{ path0: { skip: { a: [1, 2, { b: 3 }] }, path1: [ { path2: [ { name:'aaa', value: 11 }, { name:'bbb', value: 22 } ] } ] } }";
+
+		JsonValueDataSet dataSet = new JsonValueDataSet(JsonValueDataSet.class.getSimpleName(),
+				JsonValueDataSet.class.getSimpleName(), jsonString);
+
+		dataSet.setDataJsonPath("$.path0.path1[0]['path2'][*]");
+
+		TemplateResolvedDataSetResult result = dataSet.resolve(Collections.emptyMap(), null);
+		List<DataSetProperty> properties = result.getProperties();
+		@SuppressWarnings("unchecked")
+		List<Map<String, Object>> data = (List<Map<String, Object>>) result.getResult().getData();
+
+		assertEquals(2, properties.size());
+		assertEquals("name", properties.get(0).getName());
+		assertEquals("value", properties.get(1).getName());
+
+		assertEquals(2, data.size());
+		assertEquals("aaa", data.get(0).get("name"));
+		assertEquals(22, ((Number) data.get(1).get("value")).intValue());
+	}
+
+	@Test
+	public void resolveTest_dataSetOption()
+	{
+		String jsonString = "[ { name:'aaa', value: 11 }, { name:'bbb', value: 22 }, { name:'ccc', value: 33 } ]";
+
+		JsonValueDataSet dataSet = new JsonValueDataSet(JsonValueDataSet.class.getSimpleName(),
+				JsonValueDataSet.class.getSimpleName(), jsonString);
+
+		DataSetOption dataSetOption = new DataSetOption();
+		dataSetOption.setResultDataMaxCount(2);
+
+		TemplateResolvedDataSetResult result = dataSet.resolve(Collections.emptyMap(), dataSetOption);
+		List<DataSetProperty> properties = result.getProperties();
+		@SuppressWarnings("unchecked")
+		List<Map<String, Object>> data = (List<Map<String, Object>>) result.getResult().getData();
+
+		assertEquals(2, properties.size());
+		assertEquals(2, data.size());
+		assertEquals("bbb", data.get(1).get("name"));
+	}
+
+	@Test
+	public void resolveTest_dataJsonPath_notFound()
+	{
+		String jsonString = "{ path0: { path1: [] } }";
+
+		JsonValueDataSet dataSet = new JsonValueDataSet(JsonValueDataSet.class.getSimpleName(),
+				JsonValueDataSet.class.getSimpleName(), jsonString);
+
+		dataSet.setDataJsonPath("path0.path2");
+
+		ReadJsonDataPathException exception = null;
+
+		try
+		{
+			dataSet.resolve(Collections.emptyMap(), null);
+		}
+		catch (ReadJsonDataPathException e)
+		{
+			exception = e;
+		}
+
+		assertNotNull(exception);
+		assertEquals("path0.path2", exception.getDataPath());
+	}
 }
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.analysis.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * {@linkplain ColumnarRows}单元测试类。
+ * 
+ * @author datagear@163.com
+ *
+ */
+public class ColumnarRowsTest
+{
+	@Test
+	public void getTest()
+	{
+		ColumnarRows rows = createRows();
+
+		assertEquals(3, rows.size());
+
+		{
+			Map<String, Object> row = rows.get(0);
+
+			assertEquals(Integer.valueOf(1), row.get("id"));
+			assertEquals("aaa", row.get("name"));
+			assertEquals(Double.valueOf(1.5), row.get("score"));
+			assertEquals(Long.valueOf(10), row.get("mixed"));
+			assertNull(row.get("empty"));
+			assertEquals(5, row.size());
+		}
+
+		{
+			Map<String, Object> row = rows.get(1);
+
+			assertNull(row.get("id"));
+			assertEquals("bbb", row.get("name"));
+			assertNull(row.get("score"));
+			assertEquals(new BigDecimal("2.50"), row.get("mixed"));
+		}
+
+		{
+			Map<String, Object> row = rows.get(2);
+
+			assertEquals(Integer.valueOf(3), row.get("id"));
+			assertEquals("aaa", row.get("name"));
+			assertEquals(Double.valueOf(3.5), row.get("score"));
+			assertNull(row.get("mixed"));
+		}
+	}
+
+	@Test
+	public void serializeTest() throws Exception
+	{
+		ColumnarRows rows = createRows();
+
+		ObjectMapper objectMapper = new ObjectMapper();
+
+		String json = objectMapper.writeValueAsString(rows);
+
+		assertEquals("[{\"id\":1,\"name\":\"aaa\",\"score\":1.5,\"mixed\":10,\"empty\":null},"
+				+ "{\"id\":null,\"name\":\"bbb\",\"score\":null,\"mixed\":2.50,\"empty\":null},"
+				+ "{\"id\":3,\"name\":\"aaa\",\"score\":3.5,\"mixed\":null,\"empty\":null}]", json);
+	}
+
+	@Test
+	public void stringColumnTest()
+	{
+		ColumnarRows.Column repeated = new ColumnarRows.StringColumn();
+		ColumnarRows.Column distinct = new ColumnarRows.StringColumn();
+
+		for (int i = 0; i < 2000; i++)
+		{
+			repeated = repeated.add(i % 3 == 0 ? null : "v" + (i % 10));
+			distinct = distinct.add("v" + i);
+
+			if (i == 500)
+			{
+				repeated.trimToSize();
+				distinct.trimToSize();
+			}
+		}
+
+		repeated.trimToSize();
+		distinct.trimToSize();
+
+		assertTrue(repeated instanceof ColumnarRows.StringColumn);
+		assertTrue(distinct instanceof ColumnarRows.ObjectColumn);
+		assertEquals(2000, repeated.size());
+		assertEquals(2000, distinct.size());
+
+		for (int i = 0; i < 2000; i++)
+		{
+			assertEquals((i % 3 == 0 ? null : "v" + (i % 10)), repeated.get(i));
+			assertEquals("v" + i, distinct.get(i));
+		}
+	}
+
+	protected ColumnarRows createRows()
+	{
+		ColumnarRows rows = new ColumnarRows(new String[] { "id", "name", "score", "mixed", "empty" });
+
+		rows.addRow(new Object[] { 1, "aaa", 1.5D, 10L, null });
+		rows.addRow(new Object[] { null, "bbb", null, new BigDecimal("2.50") });
+		rows.addRow(Arrays.asList(3, "aaa", 3.5D, null, null));
+		rows.trimToSize();
+
+		return rows;
+	}
+}
@@ -0,0 +1,337 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.analysis.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.datagear.analysis.Chart;
+import org.datagear.analysis.ChartDataSet;
+import org.datagear.analysis.Dashboard;
+import org.datagear.analysis.DataSet;
+import org.datagear.analysis.DataSetException;
+import org.datagear.analysis.DataSetProperty;
+import org.datagear.analysis.DataSetResult;
+import org.junit.Test;
+
+/**
+ * {@linkplain DashboardDataSetResultLoader}单元测试类。
+ * 
+ * @author datagear@163.com
+ *
+ */
+public class DashboardDataSetResultLoaderTest
+{
+	@Test
+	public void loadTest()
+	{
+		Dashboard dashboard = createDashboard(0);
+
+		DashboardDataSetResultLoader loader = new DashboardDataSetResultLoader(Executors.newFixedThreadPool(2));
+
+		try
+		{
+			Map<String, DataSetResult[]> resultsMap = loader.load(dashboard);
+
+			assertEquals(2, resultsMap.size());
+
+			DataSetResult[] results0 = resultsMap.get("0");
+			assertEquals(1, results0.length);
+			assertEquals(1, ((List<?>) results0[0].getData()).size());
+
+			DataSetResult[] results1 = resultsMap.get("1");
+			assertEquals(2, results1.length);
+			assertTrue(results1[0] instanceof ErrorDataSetResult);
+			assertEquals("error", ((ErrorDataSetResult) results1[0]).getErrorMessage());
+			assertEquals(1, ((List<?>) results1[1].getData()).size());
+		}
+		finally
+		{
+			loader.shutdown();
+		}
+	}
+
+	@Test
+	public void loadTest_timeout()
+	{
+		Dashboard dashboard = createDashboard(2000);
+
+		DashboardDataSetResultLoader loader = new DashboardDataSetResultLoader(Executors.newFixedThreadPool(2));
+		loader.setChartTimeout(100);
+
+		try
+		{
+			Map<String, DataSetResult[]> resultsMap = loader.load(dashboard);
+
+			DataSetResult[] results1 = resultsMap.get("1");
+			assertTrue(results1[0] instanceof ErrorDataSetResult);
+			assertNull(results1[0].getData());
+		}
+		finally
+		{
+			loader.shutdown();
+		}
+	}
+
+	@Test
+	public void loadTest_handler() throws Exception
+	{
+		Dashboard dashboard = createDashboard(0);
+
+		final List<String> chartIds = new ArrayList<>();
+		final Map<String, DataSetResult[]> resultsMap = new HashMap<>();
+
+		DataSetResultsHandler handler = new DataSetResultsHandler()
+		{
+			@Override
+			public void handle(Chart chart, DataSetResult[] results) throws IOException
+			{
+				chartIds.add(chart.getId());
+				resultsMap.put(chart.getId(), results);
+			}
+		};
+
+		// 顺序加载
+		new DashboardDataSetResultLoader().load(dashboard, handler);
+
+		assertEquals(Arrays.asList("0", "1"), chartIds);
+		assertTrue(resultsMap.get("1")[0] instanceof ErrorDataSetResult);
+		assertEquals(1, ((List<?>) resultsMap.get("1")[1].getData()).size());
+
+		chartIds.clear();
+		resultsMap.clear();
+
+		// 并发加载
+		DashboardDataSetResultLoader loader = new DashboardDataSetResultLoader(Executors.newFixedThreadPool(2));
+
+		try
+		{
+			loader.load(dashboard, handler);
+
+			assertEquals(Arrays.asList("0", "1"), chartIds);
+			assertEquals(1, ((List<?>) resultsMap.get("0")[0].getData()).size());
+			assertTrue(resultsMap.get("1")[0] instanceof ErrorDataSetResult);
+		}
+		finally
+		{
+			loader.shutdown();
+		}
+	}
+
+	@Test
+	public void loadTest_concurrencyPerKey()
+	{
+		List<DataSetProperty> properties = Arrays.asList(new DataSetProperty("name", DataSetProperty.DataType.STRING));
+
+		final CsvValueDataSet csvDataSet = new CsvValueDataSet("csv", "csv", properties, "name \n aaa");
+		csvDataSet.setNameRow(1);
+
+		final AtomicInteger running = new AtomicInteger(0);
+		final AtomicInteger maxRunning = new AtomicInteger(0);
+
+		AbstractDataSet slowDataSet = new AbstractDataSet("slow", "slow", properties)
+		{
+			@Override
+			public DataSetResult getResult(Map<String, ?> paramValues) throws DataSetException
+			{
+				int current = running.incrementAndGet();
+				maxRunning.accumulateAndGet(current, Math::max);
+
+				try
+				{
+					Thread.sleep(50);
+				}
+				catch (InterruptedException e)
+				{
+				}
+				finally
+				{
+					running.decrementAndGet();
+				}
+
+				return csvDataSet.getResult(paramValues);
+			}
+		};
+
+		ChartDataSet[] chartDataSets = new ChartDataSet[4];
+		for (int i = 0; i < chartDataSets.length; i++)
+			chartDataSets[i] = new ChartDataSet(slowDataSet);
+
+		List<Chart> charts = new ArrayList<>();
+		charts.add(new Chart("0", "0", chartDataSets, null, null));
+
+		Dashboard dashboard = new Dashboard("dashboard", null, null);
+		dashboard.setCharts(charts);
+
+		DashboardDataSetResultLoader loader = new DashboardDataSetResultLoader(Executors.newFixedThreadPool(4));
+		loader.setConcurrencyPerKey(1);
+		loader.setConcurrencyKeyResolver(new DataSetConcurrencyKeyResolver()
+		{
+			@Override
+			public String resolve(DataSet dataSet)
+			{
+				return "key";
+			}
+		});
+
+		try
+		{
+			DataSetResult[] results = loader.load(dashboard).get("0");
+
+			assertEquals(4, results.length);
+
+			for (DataSetResult result : results)
+				assertEquals(1, ((List<?>) result.getData()).size());
+
+			assertEquals(1, maxRunning.get());
+		}
+		finally
+		{
+			loader.shutdown();
+		}
+	}
+
+	@Test
+	public void loadTest_rejected()
+	{
+		Dashboard dashboard = createDashboard(0);
+
+		ExecutorService executorService = Executors.newFixedThreadPool(2);
+		executorService.shutdown();
+
+		DashboardDataSetResultLoader loader = new DashboardDataSetResultLoader(executorService);
+
+		Map<String, DataSetResult[]> resultsMap = loader.load(dashboard);
+
+		assertEquals(2, resultsMap.size());
+
+		DataSetResult[] results0 = resultsMap.get("0");
+		assertTrue(results0[0] instanceof ErrorDataSetResult);
+		assertEquals("Load data rejected", ((ErrorDataSetResult) results0[0]).getErrorMessage());
+
+		DataSetResult[] results1 = resultsMap.get("1");
+		assertEquals(2, results1.length);
+		assertTrue(results1[0] instanceof ErrorDataSetResult);
+		assertTrue(results1[1] instanceof ErrorDataSetResult);
+	}
+
+	@Test
+	public void loadTest_cancelled()
+	{
+		List<DataSetProperty> properties = Arrays.asList(new DataSetProperty("name", DataSetProperty.DataType.STRING));
+
+		final CsvValueDataSet csvDataSet = new CsvValueDataSet("csv", "csv", properties, "name \n aaa");
+		csvDataSet.setNameRow(1);
+
+		AbstractDataSet slowDataSet = new AbstractDataSet("slow", "slow", properties)
+		{
+			@Override
+			public DataSetResult getResult(Map<String, ?> paramValues) throws DataSetException
+			{
+				try
+				{
+					Thread.sleep(100);
+				}
+				catch (InterruptedException e)
+				{
+				}
+
+				return csvDataSet.getResult(paramValues);
+			}
+		};
+
+		ChartDataSet[] chartDataSets = new ChartDataSet[3];
+		for (int i = 0; i < chartDataSets.length; i++)
+			chartDataSets[i] = new ChartDataSet(slowDataSet);
+
+		List<Chart> charts = new ArrayList<>();
+		charts.add(new Chart("0", "0", chartDataSets, null, null));
+
+		Dashboard dashboard = new Dashboard("dashboard", null, null);
+		dashboard.setCharts(charts);
+
+		// 唯一的线程执行完第一个任务前，排队任务提交至执行器时将被拒绝
+		ExecutorService executorService = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+				new SynchronousQueue<Runnable>());
+
+		DashboardDataSetResultLoader loader = new DashboardDataSetResultLoader(executorService);
+		loader.setConcurrencyPerKey(1);
+		loader.setConcurrencyKeyResolver(new DataSetConcurrencyKeyResolver()
+		{
+			@Override
+			public String resolve(DataSet dataSet)
+			{
+				return "key";
+			}
+		});
+
+		try
+		{
+			DataSetResult[] results = loader.load(dashboard).get("0");
+
+			assertEquals(3, results.length);
+			assertEquals(1, ((List<?>) results[0].getData()).size());
+			assertTrue(results[1] instanceof ErrorDataSetResult);
+			assertEquals("Load data cancelled", ((ErrorDataSetResult) results[1]).getErrorMessage());
+			assertTrue(results[2] instanceof ErrorDataSetResult);
+		}
+		finally
+		{
+			loader.shutdown();
+		}
+	}
+
+	protected Dashboard createDashboard(final long errorDataSetSleep)
+	{
+		List<DataSetProperty> properties = Arrays.asList(new DataSetProperty("name", DataSetProperty.DataType.STRING));
+
+		CsvValueDataSet csvDataSet = new CsvValueDataSet("csv", "csv", properties, "name \n aaa");
+		csvDataSet.setNameRow(1);
+
+		AbstractDataSet errorDataSet = new AbstractDataSet("error", "error", properties)
+		{
+			@Override
+			public DataSetResult getResult(Map<String, ?> paramValues) throws DataSetException
+			{
+				if (errorDataSetSleep > 0)
+				{
+					try
+					{
+						Thread.sleep(errorDataSetSleep);
+					}
+					catch (InterruptedException e)
+					{
+					}
+				}
+
+				throw new DataSetException("error");
+			}
+		};
+
+		List<Chart> charts = new ArrayList<>();
+		charts.add(new Chart("0", "0", new ChartDataSet[] { new ChartDataSet(csvDataSet) }, null, null));
+		charts.add(new Chart("1", "1", new ChartDataSet[] { new ChartDataSet(errorDataSet), new ChartDataSet(csvDataSet) },
+				null, null));
+
+		Dashboard dashboard = new Dashboard("dashboard", null, null);
+		dashboard.setCharts(charts);
+
+		return dashboard;
+	}
+}
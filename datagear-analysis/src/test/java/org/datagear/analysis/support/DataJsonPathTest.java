@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2018 datagear.tech. All Rights Reserved.
+ */
+
+/**
+ * 
+ */
+package org.datagear.analysis.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * {@linkplain DataJsonPath}单元测试用例。
+ * 
+ * @author datagear@163.com
+ *
+ */
+public class DataJsonPathTest
+{
+	@Test
+	public void valueOfTest()
+	{
+		assertNull(DataJsonPath.valueOf(null));
+		assertNull(DataJsonPath.valueOf(" "));
+
+		{
+			DataJsonPath path = DataJsonPath.valueOf("stores[0].books");
+
+			assertEquals("$.stores[0].books", path.getPath());
+			assertTrue(path.isSimple());
+			assertFalse(path.isWildcard());
+			assertSame(path, DataJsonPath.valueOf("stores[0].books"));
+		}
+
+		{
+			DataJsonPath path = DataJsonPath.valueOf("[1].stores");
+
+			assertEquals("$[1].stores", path.getPath());
+			assertTrue(path.isSimple());
+		}
+
+		{
+			DataJsonPath path = DataJsonPath.valueOf("$['store']['book'][*]");
+
+			assertTrue(path.isSimple());
+			assertTrue(path.isWildcard());
+		}
+
+		{
+			DataJsonPath path = DataJsonPath.valueOf("$.store.*");
+
+			assertTrue(path.isSimple());
+			assertTrue(path.isWildcard());
+		}
+
+		assertFalse(DataJsonPath.valueOf("$.store.book[*].author").isSimple());
+		assertFalse(DataJsonPath.valueOf("$..book[2]").isSimple());
+		assertFalse(DataJsonPath.valueOf("$.store.book[-1]").isSimple());
+		assertFalse(DataJsonPath.valueOf("$.store.book[0,1]").isSimple());
+	}
+
+	@Test
+	public void moveToTest() throws Exception
+	{
+		String json = "{ a: { b: [ 1, { c: 2 } ] }, d: [ { e: 3 }, { f: [ 4, 5 ] } ] }";
+
+		{
+			JsonParser parser = JsonSupport.getObjectMapperNonStardand().getFactory().createParser(json);
+			parser.nextToken();
+
+			assertTrue(DataJsonPath.valueOf("d[1].f").moveTo(parser));
+			assertEquals(JsonToken.START_ARRAY, parser.currentToken());
+			assertEquals(JsonToken.VALUE_NUMBER_INT, parser.nextToken());
+			assertEquals(4, parser.getIntValue());
+		}
+
+		{
+			JsonParser parser = JsonSupport.getObjectMapperNonStardand().getFactory().createParser(json);
+			parser.nextToken();
+
+			assertTrue(DataJsonPath.valueOf("a.b[1].c").moveTo(parser));
+			assertEquals(2, parser.getIntValue());
+		}
+
+		{
+			JsonParser parser = JsonSupport.getObjectMapperNonStardand().getFactory().createParser(json);
+			parser.nextToken();
+
+			assertFalse(DataJsonPath.valueOf("a.b[2]").moveTo(parser));
+		}
+
+		{
+			JsonParser parser = JsonSupport.getObjectMapperNonStardand().getFactory().createParser(json);
+			parser.nextToken();
+
+			assertFalse(DataJsonPath.valueOf("a.x").moveTo(parser));
+		}
+	}
+}
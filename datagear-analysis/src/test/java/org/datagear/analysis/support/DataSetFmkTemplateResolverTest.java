@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2018 datagear.tech. All Rights Reserved.
+ */
+
+/**
+ * 
+ */
+package org.datagear.analysis.support;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.datagear.analysis.support.DataSetFmkTemplateResolver.ResolveMetrics;
+import org.junit.Test;
+
+/**
+ * {@linkplain DataSetFmkTemplateResolver}单元测试用例。
+ * 
+ * @author datagear@163.com
+ *
+ */
+public class DataSetFmkTemplateResolverTest
+{
+	@Test
+	public void resolveTest()
+	{
+		DataSetFmkTemplateResolver resolver = new DataSetFmkTemplateResolver();
+
+		Map<String, Object> paramValues = new HashMap<>();
+		paramValues.put("name", "aaa");
+
+		{
+			String template = "SELECT * FROM T WHERE NAME = 'aaa' AND ID IN (#{1}, [#2])";
+
+			assertEquals(template, resolver.resolve(template, paramValues));
+		}
+
+		{
+			String template = "SELECT * FROM T WHERE NAME = '${name}'";
+
+			assertEquals("SELECT * FROM T WHERE NAME = 'aaa'", resolver.resolve(template, paramValues));
+			assertEquals("SELECT * FROM T WHERE NAME = 'aaa'", resolver.resolve(template, paramValues));
+		}
+
+		ResolveMetrics metrics = resolver.getResolveMetrics();
+
+		assertEquals(3, metrics.getResolveCount());
+		assertEquals(1, metrics.getPlainResolveCount());
+		assertEquals(1, metrics.getCompileCount());
+		assertEquals(1, metrics.getCachedTemplateCount());
+	}
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.analysis.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.datagear.analysis.DataSetParam;
+import org.datagear.analysis.DataSetProperty;
+import org.datagear.analysis.DataSetResult;
+import org.datagear.analysis.support.DataSetResultCache.DataSetResultCacheKey;
+import org.junit.Test;
+
+/**
+ * {@linkplain DataSetResultCache}单元测试类。
+ * 
+ * @author datagear@163.com
+ *
+ */
+public class DataSetResultCacheTest
+{
+	@Test
+	public void getResultTest()
+	{
+		DataSetResultCache cache = new DataSetResultCache();
+		cache.init();
+
+		List<DataSetProperty> properties = Arrays.asList(new DataSetProperty("name", DataSetProperty.DataType.STRING));
+
+		CsvValueDataSet dataSet = new CsvValueDataSet("csv", "csv", properties, "name \n ${name}");
+		dataSet.setNameRow(1);
+		dataSet.setParams(Arrays.asList(new DataSetParam("name", DataSetParam.DataType.STRING, true)));
+		dataSet.setResultCache(cache);
+		dataSet.setCacheTtl(60);
+
+		Map<String, Object> paramValues = new HashMap<>();
+		paramValues.put("name", "aaa");
+
+		DataSetResult result0 = dataSet.getResult(paramValues);
+		DataSetResult result1 = dataSet.getResult(paramValues);
+
+		assertSame(result0, result1);
+
+		paramValues.put("name", "bbb");
+		DataSetResult result2 = dataSet.getResult(paramValues);
+
+		assertNotSame(result0, result2);
+
+		cache.invalidate("csv");
+		paramValues.put("name", "aaa");
+		DataSetResult result3 = dataSet.getResult(paramValues);
+
+		assertNotSame(result0, result3);
+	}
+
+	@Test
+	public void getTest_singleFlight() throws Exception
+	{
+		final DataSetResultCache cache = new DataSetResultCache();
+		cache.init();
+
+		final AtomicInteger loadCount = new AtomicInteger(0);
+		final DataSetResultCacheKey key = DataSetResultCache.createKey("test", null, null);
+
+		final Callable<DataSetResult> loader = new Callable<DataSetResult>()
+		{
+			@Override
+			public DataSetResult call() throws Exception
+			{
+				loadCount.incrementAndGet();
+				Thread.sleep(500);
+				return new DataSetResult();
+			}
+		};
+
+		ExecutorService executorService = Executors.newFixedThreadPool(4);
+
+		try
+		{
+			List<Future<DataSetResult>> futures = new ArrayList<>();
+
+			for (int i = 0; i < 4; i++)
+			{
+				futures.add(executorService.submit(new Callable<DataSetResult>()
+				{
+					@Override
+					public DataSetResult call() throws Exception
+					{
+						return cache.get(key, 0, loader);
+					}
+				}));
+			}
+
+			DataSetResult result = futures.get(0).get();
+
+			for (Future<DataSetResult> future : futures)
+				assertSame(result, future.get());
+
+			assertEquals(1, loadCount.get());
+
+			cache.get(key, 0, loader);
+			assertEquals(2, loadCount.get());
+		}
+		finally
+		{
+			executorService.shutdown();
+		}
+	}
+
+	@Test
+	public void getTest_invalidateWhileLoading() throws Exception
+	{
+		final DataSetResultCache cache = new DataSetResultCache();
+		cache.init();
+
+		final DataSetResultCacheKey key = DataSetResultCache.createKey("test", null, null);
+		final CountDownLatch loading = new CountDownLatch(1);
+		final CountDownLatch invalidated = new CountDownLatch(1);
+
+		ExecutorService executorService = Executors.newFixedThreadPool(1);
+
+		try
+		{
+			Future<DataSetResult> future = executorService.submit(new Callable<DataSetResult>()
+			{
+				@Override
+				public DataSetResult call() throws Exception
+				{
+					return cache.get(key, 60, new Callable<DataSetResult>()
+					{
+						@Override
+						public DataSetResult call() throws Exception
+						{
+							loading.countDown();
+							invalidated.await();
+							return new DataSetResult();
+						}
+					});
+				}
+			});
+
+			loading.await();
+			cache.invalidate("test");
+			invalidated.countDown();
+
+			future.get();
+
+			// 清除之前开始加载的结果不应被缓存
+			assertNull(cache.get(key));
+
+			DataSetResult result = cache.get(key, 60, new Callable<DataSetResult>()
+			{
+				@Override
+				public DataSetResult call() throws Exception
+				{
+					return new DataSetResult();
+				}
+			});
+
+			assertSame(result, cache.get(key));
+		}
+		finally
+		{
+			executorService.shutdown();
+		}
+	}
+}
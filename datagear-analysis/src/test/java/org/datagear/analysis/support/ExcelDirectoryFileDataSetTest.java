@@ -8,6 +8,7 @@
 package org.datagear.analysis.support;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 import java.io.File;
 import java.text.SimpleDateFormat;
@@ -285,6 +286,61 @@ public class ExcelDirectoryFileDataSetTest
 		}
 	}
 
+	/**
+	 * 同一行中连续的有格式空单元格在xls中存储为一个MULBLANK记录，不应使后续单元格错位。
+	 */
+	@Test
+	public void getResultTest_xls_mulBlank()
+	{
+		List<DataSetProperty> properties = new ArrayList<>();
+		properties.add(new DataSetProperty("name", DataSetProperty.DataType.STRING));
+		properties.add(new DataSetProperty("value", DataSetProperty.DataType.NUMBER));
+		properties.add(new DataSetProperty("size", DataSetProperty.DataType.NUMBER));
+		properties.add(new DataSetProperty("date", DataSetProperty.DataType.DATE));
+
+		ExcelDirectoryFileDataSet dataSet = new ExcelDirectoryFileDataSet("a", "a", properties, DIRECTORY,
+				"ExcelDirectoryFileDataSetTest-2.xls");
+		dataSet.setNameRow(1);
+
+		@SuppressWarnings("unchecked")
+		DataSetResult result = dataSet.getResult(Collections.EMPTY_MAP);
+		@SuppressWarnings("unchecked")
+		List<Map<String, Object>> data = (List<Map<String, Object>>) result.getData();
+
+		{
+			assertEquals(3, data.size());
+
+			SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
+
+			{
+				Map<String, Object> row = data.get(0);
+
+				assertEquals("aaa", row.get("name"));
+				assertNull(row.get("value"));
+				assertNull(row.get("size"));
+				assertEquals("2020-08-01", dateFormat.format((Date) row.get("date")));
+			}
+
+			{
+				Map<String, Object> row = data.get(1);
+
+				assertEquals("bbb", row.get("name"));
+				assertEquals(25, ((Number) row.get("value")).intValue());
+				assertNull(row.get("size"));
+				assertNull(row.get("date"));
+			}
+
+			{
+				Map<String, Object> row = data.get(2);
+
+				assertNull(row.get("name"));
+				assertNull(row.get("value"));
+				assertEquals(36, ((Number) row.get("size")).intValue());
+				assertEquals("2020-08-03", dateFormat.format((Date) row.get("date")));
+			}
+		}
+	}
+
 	@Test
 	public void resolveTest_dataRowColumnExp()
 	{
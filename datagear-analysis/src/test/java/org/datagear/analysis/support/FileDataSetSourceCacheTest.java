@@ -0,0 +1,138 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.analysis.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.datagear.analysis.DataSetProperty;
+import org.datagear.analysis.DataSetResult;
+import org.junit.Test;
+
+/**
+ * {@linkplain FileDataSetSourceCache}单元测试类。
+ * 
+ * @author datagear@163.com
+ * 
+ */
+public class FileDataSetSourceCacheTest
+{
+	private static final File DIRECTORY = new File("src/test/resources/org/datagear/analysis/support/");
+
+	@Test
+	public void getTest() throws Exception
+	{
+		FileDataSetSourceCache cache = new FileDataSetSourceCache();
+		cache.init();
+
+		File file = File.createTempFile("FileDataSetSourceCacheTest", ".csv");
+		file.deleteOnExit();
+
+		try
+		{
+			writeFile(file, "name\naaa");
+
+			final AtomicInteger loadCount = new AtomicInteger(0);
+
+			Callable<DataSetResult> loader = new Callable<DataSetResult>()
+			{
+				@Override
+				public DataSetResult call() throws Exception
+				{
+					loadCount.incrementAndGet();
+					return new DataSetResult(Collections.EMPTY_LIST);
+				}
+			};
+
+			DataSetResult result0 = cache.get(file, Arrays.asList(1), loader);
+			DataSetResult result1 = cache.get(file, Arrays.asList(1), loader);
+
+			assertSame(result0, result1);
+			assertEquals(1, loadCount.get());
+
+			// 解析选项不同
+			DataSetResult result2 = cache.get(file, Arrays.asList(2), loader);
+
+			assertNotSame(result0, result2);
+			assertEquals(2, loadCount.get());
+
+			// 文件已改变
+			writeFile(file, "name\naaa\nbbb");
+			file.setLastModified(file.lastModified() + 2000);
+
+			DataSetResult result3 = cache.get(file, Arrays.asList(1), loader);
+
+			assertNotSame(result0, result3);
+			assertEquals(3, loadCount.get());
+
+			cache.invalidate(file);
+			cache.get(file, Arrays.asList(1), loader);
+
+			assertEquals(4, loadCount.get());
+		}
+		finally
+		{
+			file.delete();
+		}
+	}
+
+	@Test
+	public void getResultTest_csvDirectoryFileDataSet()
+	{
+		FileDataSetSourceCache cache = new FileDataSetSourceCache();
+		cache.init();
+
+		List<DataSetProperty> properties = new ArrayList<>();
+		properties.add(new DataSetProperty("name", DataSetProperty.DataType.STRING));
+		properties.add(new DataSetProperty("value", DataSetProperty.DataType.NUMBER));
+		properties.add(new DataSetProperty("尺寸", DataSetProperty.DataType.NUMBER));
+
+		CsvDirectoryFileDataSet dataSet = new CsvDirectoryFileDataSet("a", "a", properties, DIRECTORY,
+				"CsvDirectoryFileDataSetTest-0.csv");
+		dataSet.setNameRow(1);
+		dataSet.setSourceCache(cache);
+
+		@SuppressWarnings("unchecked")
+		DataSetResult result0 = dataSet.getResult(Collections.EMPTY_MAP);
+		@SuppressWarnings("unchecked")
+		DataSetResult result1 = dataSet.getResult(Collections.EMPTY_MAP);
+
+		assertSame(result0, result1);
+
+		// 属性类型不同
+		properties.set(1, new DataSetProperty("value", DataSetProperty.DataType.STRING));
+
+		@SuppressWarnings("unchecked")
+		DataSetResult result2 = dataSet.getResult(Collections.EMPTY_MAP);
+
+		assertNotSame(result0, result2);
+	}
+
+	protected void writeFile(File file, String content) throws IOException
+	{
+		FileOutputStream out = new FileOutputStream(file);
+
+		try
+		{
+			out.write(content.getBytes(StandardCharsets.UTF_8));
+		}
+		finally
+		{
+			out.close();
+		}
+	}
+}
@@ -20,6 +20,7 @@ import org.datagear.analysis.support.SimpleChartWidgetSource;
 import org.datagear.analysis.support.SimpleDashboardThemeSource;
 import org.datagear.analysis.support.html.HtmlTplDashboardRenderAttr.WebContext;
 import org.datagear.analysis.support.html.HtmlTplDashboardWidgetHtmlRenderer.ChartInfo;
+import org.datagear.analysis.support.html.HtmlTplDashboardWidgetHtmlRenderer.CompiledTemplate;
 import org.datagear.analysis.support.html.HtmlTplDashboardWidgetHtmlRenderer.DashboardInfo;
 import org.datagear.analysis.support.html.HtmlTplDashboardWidgetRenderer.AddPrefixHtmlTitleHandler;
 import org.datagear.util.IOUtil;
@@ -85,6 +86,30 @@ public class HtmlTplDashboardWidgetHtmlRendererTest
 		Assert.assertEquals(6, dashboard.getCharts().size());
 	}
 
+	@Test
+	public void getCompiledTemplateTest() throws Exception
+	{
+		HtmlTplDashboardWidget dashboardWidget = createHtmlTplDashboardWidget();
+
+		CompiledTemplate compiledTemplate0 = this.renderer.getCompiledTemplate(dashboardWidget, "index.html");
+		CompiledTemplate compiledTemplate1 = this.renderer.getCompiledTemplate(dashboardWidget, "index.html");
+
+		Assert.assertTrue(compiledTemplate0 == compiledTemplate1);
+		Assert.assertEquals(6, compiledTemplate0.getDashboardInfo().getChartInfos().size());
+
+		// 每次渲染都生成各自的看板
+		{
+			RenderContext renderContext = new DefaultRenderContext();
+			HtmlTplDashboardRenderAttr renderAttr = new HtmlTplDashboardRenderAttr();
+			StringWriter out = new StringWriter();
+			renderAttr.inflate(renderContext, out, new WebContext("", "", ""), SimpleDashboardThemeSource.THEME_LIGHT);
+
+			HtmlTplDashboard dashboard = dashboardWidget.render(renderContext);
+
+			Assert.assertEquals(6, dashboard.getCharts().size());
+		}
+	}
+
 	@Test
 	public void renderHtmlTplDashboardTest() throws Exception
 	{
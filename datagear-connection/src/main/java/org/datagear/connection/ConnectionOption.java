@@ -29,6 +29,9 @@ public class ConnectionOption implements Serializable
 
 	private Properties properties = new Properties();
 
+	/** 连接池选项，为null表示使用默认值 */
+	private PoolOption poolOption = null;
+
 	public ConnectionOption()
 	{
 		super();
@@ -95,6 +98,16 @@ public class ConnectionOption implements Serializable
 		this.properties.put(PROPERTY_NAME_PASSWORD, password);
 	}
 
+	public PoolOption getPoolOption()
+	{
+		return poolOption;
+	}
+
+	public void setPoolOption(PoolOption poolOption)
+	{
+		this.poolOption = poolOption;
+	}
+
 	@SuppressWarnings("unchecked")
 	public <T> T getProperty(String name)
 	{
@@ -113,6 +126,7 @@ public class ConnectionOption implements Serializable
 		int result = 1;
 		result = prime * result + ((properties == null) ? 0 : properties.hashCode());
 		result = prime * result + ((url == null) ? 0 : url.hashCode());
+		result = prime * result + ((poolOption == null) ? 0 : poolOption.hashCode());
 		return result;
 	}
 
@@ -140,6 +154,13 @@ public class ConnectionOption implements Serializable
 		}
 		else if (!url.equals(other.url))
 			return false;
+		if (poolOption == null)
+		{
+			if (other.poolOption != null)
+				return false;
+		}
+		else if (!poolOption.equals(other.poolOption))
+			return false;
 		return true;
 	}
 
@@ -4,6 +4,7 @@
 
 package org.datagear.connection;
 
+import java.io.File;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.Driver;
@@ -11,8 +12,11 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -24,6 +28,8 @@ import javax.sql.DataSource;
 import org.apache.commons.dbcp2.BasicDataSource;
 import org.apache.commons.dbcp2.ConnectionFactory;
 import org.apache.commons.dbcp2.DriverConnectionFactory;
+import org.apache.commons.dbcp2.PoolableConnection;
+import org.apache.commons.pool2.impl.GenericObjectPool;
 import org.datagear.util.JDBCCompatiblity;
 import org.datagear.util.JdbcUtil;
 import org.slf4j.Logger;
@@ -37,6 +43,15 @@ import com.google.common.cache.RemovalNotification;
 /**
  * 默认{@linkplain ConnectionSource}实现。
  * <p>
+ * 它为每个连接标识（URL、连接参数）、连接池选项（{@linkplain ConnectionOption#getPoolOption()}）创建一个内置连接池数据源，
+ * 内置数据源的最大数目可通过{@linkplain #setMaxInternalDataSourceCount(int)}设置，
+ * 内置数据源的运行指标可通过{@linkplain #getInternalDataSourceMetrics()}获取。
+ * </p>
+ * <p>
+ * 它使用{@linkplain DriverEntityUrlIndex}记录接受各JDBC子协议的驱动，查找首选驱动时优先只加载它们，
+ * 可通过{@linkplain #setDriverEntityUrlIndexFile(File)}将此索引持久化，使得重启后仍然有效。
+ * </p>
+ * <p>
  * 注意：此类实例不再使用后，应该调用。
  * </p>
  * 
@@ -47,18 +62,38 @@ public class DefaultConnectionSource implements ConnectionSource
 {
 	private static Logger LOGGER = LoggerFactory.getLogger(DefaultConnectionSource.class);
 
+	/** 默认内置数据源最大数目 */
+	public static final int DEFAULT_MAX_INTERNAL_DATA_SOURCE_COUNT = 50;
+
+	/** 空闲连接回收任务的最大执行间隔毫秒数 */
+	protected static final long MAX_EVICTION_RUN_INTERVAL_MILLIS = 60 * 1000;
+
+	/** 查找首选驱动时，检查驱动库变化的最小间隔毫秒数 */
+	protected static final long MIN_DRIVER_ENTITY_URL_INDEX_REFRESH_INTERVAL_MILLIS = 60 * 1000;
+
 	private DriverEntityManager driverEntityManager;
 
 	private DriverChecker driverChecker = new SimpleDriverChecker();
 
 	private PropertiesProcessor propertiesProcessor = null;
 
-	private Cache<ConnectionIdentity, InternalDataSourceHolder> internalDataSourceCache;
+	private int maxInternalDataSourceCount = DEFAULT_MAX_INTERNAL_DATA_SOURCE_COUNT;
+
+	private Cache<InternalDataSourceKey, InternalDataSourceHolder> internalDataSourceCache;
 
 	private ConcurrentMap<String, PreferedDriverEntityResult> _urlPreferedDriverEntityMap = new ConcurrentHashMap<>();
 
 	private volatile long _driverEntityManagerLastModified = -1;
 
+	/** 驱动URL前缀索引的持久化文件，为null则不持久化 */
+	private File driverEntityUrlIndexFile = null;
+
+	private final DriverEntityUrlIndex _driverEntityUrlIndex = new DriverEntityUrlIndex();
+
+	private boolean _driverEntityUrlIndexLoaded = false;
+
+	private volatile long _driverEntityUrlIndexRefreshTime = 0;
+
 	public DefaultConnectionSource()
 	{
 		this(null);
@@ -68,9 +103,7 @@ public class DefaultConnectionSource implements ConnectionSource
 	{
 		super();
 		this.driverEntityManager = driverEntityManager;
-		this.internalDataSourceCache = CacheBuilder.newBuilder().maximumSize(50)
-				.expireAfterAccess(60 * 24, TimeUnit.MINUTES)
-				.removalListener(new DriverBasicDataSourceRemovalListener()).build();
+		this.internalDataSourceCache = buildInternalDataSourceCache(this.maxInternalDataSourceCount);
 	}
 
 	public DriverEntityManager getDriverEntityManager()
@@ -103,7 +136,50 @@ public class DefaultConnectionSource implements ConnectionSource
 		this.propertiesProcessor = propertiesProcessor;
 	}
 
-	protected Cache<ConnectionIdentity, InternalDataSourceHolder> getInternalDataSourceCache()
+	public int getMaxInternalDataSourceCount()
+	{
+		return maxInternalDataSourceCount;
+	}
+
+	/**
+	 * 设置内置数据源最大数目，超过时将关闭最久未使用的内置数据源。
+	 * <p>
+	 * 当前的内置数据源会保留，仅当其数目超过新的最大数目时，才会关闭其中最久未使用的。
+	 * 此方法应在初始化时调用，调用期间并发创建的内置数据源可能不会被保留。
+	 * </p>
+	 * 
+	 * @param maxInternalDataSourceCount
+	 */
+	public void setMaxInternalDataSourceCount(int maxInternalDataSourceCount)
+	{
+		Cache<InternalDataSourceKey, InternalDataSourceHolder> prevCache = this.internalDataSourceCache;
+		Cache<InternalDataSourceKey, InternalDataSourceHolder> cache = buildInternalDataSourceCache(
+				maxInternalDataSourceCount);
+
+		if (prevCache != null)
+			cache.putAll(prevCache.asMap());
+
+		this.maxInternalDataSourceCount = maxInternalDataSourceCount;
+		this.internalDataSourceCache = cache;
+	}
+
+	public File getDriverEntityUrlIndexFile()
+	{
+		return driverEntityUrlIndexFile;
+	}
+
+	/**
+	 * 设置驱动URL前缀索引的持久化文件。
+	 * 
+	 * @param driverEntityUrlIndexFile
+	 *            为{@code null}则不持久化
+	 */
+	public void setDriverEntityUrlIndexFile(File driverEntityUrlIndexFile)
+	{
+		this.driverEntityUrlIndexFile = driverEntityUrlIndexFile;
+	}
+
+	protected Cache<InternalDataSourceKey, InternalDataSourceHolder> getInternalDataSourceCache()
 	{
 		return this.internalDataSourceCache;
 	}
@@ -117,7 +193,7 @@ public class DefaultConnectionSource implements ConnectionSource
 	 * @param driverBasicDataSourceCache
 	 */
 	protected void setInternalDataSourceCache(
-			Cache<ConnectionIdentity, InternalDataSourceHolder> internalDataSourceCache)
+			Cache<InternalDataSourceKey, InternalDataSourceHolder> internalDataSourceCache)
 	{
 		this.internalDataSourceCache = internalDataSourceCache;
 	}
@@ -148,6 +224,63 @@ public class DefaultConnectionSource implements ConnectionSource
 		this.internalDataSourceCache.invalidateAll();
 	}
 
+	/**
+	 * 获取所有内置数据源的运行指标。
+	 * 
+	 * @return
+	 */
+	public List<InternalDataSourceMetrics> getInternalDataSourceMetrics()
+	{
+		List<InternalDataSourceMetrics> metricses = new ArrayList<>();
+
+		for (Map.Entry<InternalDataSourceKey, InternalDataSourceHolder> entry : this.internalDataSourceCache.asMap()
+				.entrySet())
+		{
+			ConnectionIdentity connectionIdentity = entry.getKey().getConnectionIdentity();
+			InternalDataSourceHolder holder = entry.getValue();
+
+			Object user = connectionIdentity.getProperties().get(ConnectionOption.PROPERTY_NAME_USER);
+
+			InternalDataSourceMetrics metrics = new InternalDataSourceMetrics(connectionIdentity.getUrl(),
+					(user == null ? null : user.toString()));
+
+			DataSource dataSource = holder.getDataSource();
+
+			if (dataSource instanceof DriverBasicDataSource)
+				inflateInternalDataSourceMetrics((DriverBasicDataSource) dataSource, metrics);
+			else
+				metrics.setPooled(false);
+
+			metricses.add(metrics);
+		}
+
+		return metricses;
+	}
+
+	protected void inflateInternalDataSourceMetrics(DriverBasicDataSource dataSource, InternalDataSourceMetrics metrics)
+	{
+		metrics.setMaxTotal(dataSource.getMaxTotal());
+		metrics.setNumActive(dataSource.getNumActive());
+		metrics.setNumIdle(dataSource.getNumIdle());
+
+		GenericObjectPool<PoolableConnection> pool = dataSource.getPool();
+
+		// 连接池在首次获取连接时才会创建
+		if (pool != null)
+		{
+			metrics.setNumWaiters(pool.getNumWaiters());
+			metrics.setBorrowedCount(pool.getBorrowedCount());
+			metrics.setMeanBorrowWaitMillis(pool.getMeanBorrowWaitTimeMillis());
+			metrics.setMaxBorrowWaitMillis(pool.getMaxBorrowWaitTimeMillis());
+		}
+	}
+
+	protected Cache<InternalDataSourceKey, InternalDataSourceHolder> buildInternalDataSourceCache(int maximumSize)
+	{
+		return CacheBuilder.newBuilder().maximumSize(maximumSize).expireAfterAccess(60 * 24, TimeUnit.MINUTES)
+				.removalListener(new DriverBasicDataSourceRemovalListener()).build();
+	}
+
 	/**
 	 * 获取首选{@linkplain Connection}。
 	 * 
@@ -160,10 +293,13 @@ public class DefaultConnectionSource implements ConnectionSource
 	protected Connection getPreferredConnection(ConnectionOption connectionOption)
 			throws UnsupportedGetConnectionException, ConnectionSourceException
 	{
+		boolean refreshed = false;
+
 		if (this.driverEntityManager.getLastModified() > this._driverEntityManagerLastModified)
 		{
 			this._driverEntityManagerLastModified = this.driverEntityManager.getLastModified();
-			this._urlPreferedDriverEntityMap.clear();
+			refreshDriverEntityUrlIndex();
+			refreshed = true;
 		}
 
 		String url = connectionOption.getUrl();
@@ -195,6 +331,11 @@ public class DefaultConnectionSource implements ConnectionSource
 			}
 		}
 
+		// 添加、删除驱动库不会改变getLastModified()，所以这里也需要刷新，但计算签名需读取驱动库文件信息，因而限制刷新频率
+		if (!refreshed && System.currentTimeMillis()
+				- this._driverEntityUrlIndexRefreshTime >= MIN_DRIVER_ENTITY_URL_INDEX_REFRESH_INTERVAL_MILLIS)
+			refreshDriverEntityUrlIndex();
+
 		Connection preferedConnection = null;
 
 		List<DriverEntityDriver> accepted = new ArrayList<>();
@@ -255,6 +396,9 @@ public class DefaultConnectionSource implements ConnectionSource
 	 * <p>
 	 * 越靠前的首选优先级越高。
 	 * </p>
+	 * <p>
+	 * 此方法先只探测{@linkplain DriverEntityUrlIndex}中已知接受此URL前缀的驱动，它们都不接受此URL时，才会探测其他驱动。
+	 * </p>
 	 * 
 	 * @param connectionOption
 	 * @param accepted
@@ -263,8 +407,91 @@ public class DefaultConnectionSource implements ConnectionSource
 	protected void findOrderedAcceptedAndCheckedDriverEntityDrivers(ConnectionOption connectionOption,
 			List<DriverEntityDriver> accepted, List<DriverEntityDriver> checked)
 	{
+		String urlPrefix = this._driverEntityUrlIndex.getUrlPrefix(connectionOption.getUrl());
+
 		List<DriverEntity> driverEntities = this.driverEntityManager.getAll();
 
+		Set<String> indexedAccepted = null;
+
+		if (urlPrefix != null)
+		{
+			synchronized (this._driverEntityUrlIndex)
+			{
+				indexedAccepted = this._driverEntityUrlIndex.getAccepted(urlPrefix);
+			}
+		}
+
+		if (indexedAccepted != null && !indexedAccepted.isEmpty())
+		{
+			List<DriverEntity> indexeds = new ArrayList<>();
+			List<DriverEntity> others = new ArrayList<>();
+
+			for (DriverEntity driverEntity : driverEntities)
+			{
+				if (indexedAccepted.contains(driverEntity.getId()))
+					indexeds.add(driverEntity);
+				else
+					others.add(driverEntity);
+			}
+
+			findAcceptedAndCheckedDriverEntityDrivers(connectionOption, indexeds, null, accepted, checked);
+
+			driverEntities = others;
+		}
+
+		if (accepted.isEmpty())
+		{
+			boolean indexChanged = findAcceptedAndCheckedDriverEntityDrivers(connectionOption, driverEntities,
+					urlPrefix, accepted, checked);
+
+			if (indexChanged)
+			{
+				synchronized (this._driverEntityUrlIndex)
+				{
+					storeDriverEntityUrlIndex();
+				}
+			}
+		}
+
+		Comparator<DriverEntityDriver> comparator = new Comparator<DriverEntityDriver>()
+		{
+			@Override
+			public int compare(DriverEntityDriver o1, DriverEntityDriver o2)
+			{
+				Driver d1 = o1.getDriver();
+				Driver d2 = o2.getDriver();
+
+				if (isHigherVersion(d1, d2))
+					return -1;
+				else if (isHigherVersion(d2, d1))
+					return 1;
+				else
+					return 0;
+			}
+		};
+
+		Collections.sort(accepted, comparator);
+		Collections.sort(checked, comparator);
+	}
+
+	/**
+	 * 查找接受和校验的{@linkplain DriverEntityDriver}。
+	 * 
+	 * @param connectionOption
+	 * @param driverEntities
+	 * @param urlPrefix
+	 *            不为{@code null}时，将把接受此URL的驱动记录至{@linkplain DriverEntityUrlIndex}
+	 * @param accepted
+	 * @param checked
+	 * @return {@linkplain DriverEntityUrlIndex}是否有新记录
+	 */
+	protected boolean findAcceptedAndCheckedDriverEntityDrivers(ConnectionOption connectionOption,
+			List<DriverEntity> driverEntities, String urlPrefix, List<DriverEntityDriver> accepted,
+			List<DriverEntityDriver> checked)
+	{
+		String url = connectionOption.getUrl();
+		boolean indexChanged = false;
+
 		for (DriverEntity driverEntity : driverEntities)
 		{
 			Driver driver = null;
@@ -286,7 +513,7 @@ public class DefaultConnectionSource implements ConnectionSource
 
 				try
 				{
-					accept = acceptsURL(driver, connectionOption.getUrl());
+					accept = acceptsURL(driver, url);
 				}
 				catch (Throwable t)
 				{
@@ -295,6 +522,16 @@ public class DefaultConnectionSource implements ConnectionSource
 								+ "] for getting prefered connection for [" + connectionOption + "] error", t);
 				}
 
+				// 仅记录接受的结果，不接受可能仅是因为此URL格式有误
+				if (accept && urlPrefix != null)
+				{
+					synchronized (this._driverEntityUrlIndex)
+					{
+						if (this._driverEntityUrlIndex.addAccepted(urlPrefix, driverEntity.getId()))
+							indexChanged = true;
+					}
+				}
+
 				if (accept)
 				{
 					DriverEntityDriver driverEntityDriver = new DriverEntityDriver(driverEntity, driver);
@@ -317,25 +554,131 @@ public class DefaultConnectionSource implements ConnectionSource
 			}
 		}
 
-		Comparator<DriverEntityDriver> comparator = new Comparator<DriverEntityDriver>()
+		return indexChanged;
+	}
+
+	/**
+	 * 使用{@linkplain DriverEntityManager}中的最新驱动刷新{@linkplain DriverEntityUrlIndex}，并清除受影响的首选驱动缓存。
+	 */
+	protected void refreshDriverEntityUrlIndex()
+	{
+		this._driverEntityUrlIndexRefreshTime = System.currentTimeMillis();
+
+		List<DriverEntity> driverEntities = this.driverEntityManager.getAll();
+
+		Map<String, String> signatures = new HashMap<>();
+
+		for (DriverEntity driverEntity : driverEntities)
+			signatures.put(driverEntity.getId(), getDriverEntitySignature(driverEntity));
+
+		Set<String> changeds = null;
+
+		synchronized (this._driverEntityUrlIndex)
 		{
-			@Override
-			public int compare(DriverEntityDriver o1, DriverEntityDriver o2)
+			if (!this._driverEntityUrlIndexLoaded)
 			{
-				Driver d1 = o1.getDriver();
-				Driver d2 = o2.getDriver();
+				loadDriverEntityUrlIndex();
+				this._driverEntityUrlIndexLoaded = true;
+			}
 
-				if (isHigherVersion(d1, d2))
-					return -1;
-				else if (isHigherVersion(d2, d1))
-					return 1;
-				else
-					return 0;
+			changeds = this._driverEntityUrlIndex.refresh(signatures);
+
+			if (!changeds.isEmpty())
+				storeDriverEntityUrlIndex();
+		}
+
+		if (changeds.isEmpty())
+			return;
+
+		boolean addedOrModified = false;
+
+		for (String changed : changeds)
+		{
+			if (signatures.containsKey(changed))
+			{
+				addedOrModified = true;
+				break;
 			}
-		};
+		}
 
-		Collections.sort(accepted, comparator);
-		Collections.sort(checked, comparator);
+		// 新增或修改的驱动可能接受任意URL，需要重新查找所有首选驱动；
+		// 仅删除驱动时，只需清除以已删除驱动为首选的缓存
+		if (addedOrModified)
+			this._urlPreferedDriverEntityMap.clear();
+		else
+		{
+			for (Map.Entry<String, PreferedDriverEntityResult> entry : this._urlPreferedDriverEntityMap.entrySet())
+			{
+				PreferedDriverEntityResult result = entry.getValue();
+
+				if (result.hasDriverEntity() && changeds.contains(result.getDriverEntity().getId()))
+					this._urlPreferedDriverEntityMap.remove(entry.getKey(), result);
+			}
+		}
+
+		if (LOGGER.isDebugEnabled())
+			LOGGER.debug("Driver url index refreshed for changed " + DriverEntity.class.getSimpleName() + " "
+					+ changeds);
+	}
+
+	/**
+	 * 获取{@linkplain DriverEntity}的签名，签名不同表示驱动已变化。
+	 * <p>
+	 * 签名由驱动类名、驱动库文件名及大小组成，计算时无需加载驱动类。
+	 * </p>
+	 * 
+	 * @param driverEntity
+	 * @return
+	 */
+	protected String getDriverEntitySignature(DriverEntity driverEntity)
+	{
+		List<DriverLibraryInfo> driverLibraryInfos = this.driverEntityManager.getDriverLibraryInfos(driverEntity);
+
+		List<String> libraries = new ArrayList<>(driverLibraryInfos.size());
+
+		for (DriverLibraryInfo driverLibraryInfo : driverLibraryInfos)
+			libraries.add(driverLibraryInfo.getName() + ":" + driverLibraryInfo.getSize());
+
+		Collections.sort(libraries);
+
+		StringBuilder sb = new StringBuilder(driverEntity.getDriverClassName());
+
+		for (String library : libraries)
+			sb.append("|").append(library);
+
+		return sb.toString();
+	}
+
+	protected void loadDriverEntityUrlIndex()
+	{
+		if (this.driverEntityUrlIndexFile == null)
+			return;
+
+		try
+		{
+			this._driverEntityUrlIndex.load(this.driverEntityUrlIndexFile);
+		}
+		catch (Throwable t)
+		{
+			if (LOGGER.isErrorEnabled())
+				LOGGER.error("Load driver url index from [" + this.driverEntityUrlIndexFile + "] error", t);
+		}
+	}
+
+	protected void storeDriverEntityUrlIndex()
+	{
+		if (this.driverEntityUrlIndexFile == null)
+			return;
+
+		try
+		{
+			this._driverEntityUrlIndex.store(this.driverEntityUrlIndexFile);
+		}
+		catch (Throwable t)
+		{
+			if (LOGGER.isErrorEnabled())
+				LOGGER.error("Store driver url index to [" + this.driverEntityUrlIndexFile + "] error", t);
+		}
 	}
 
 	protected boolean acceptsURL(Driver driver, String url)
@@ -371,7 +714,7 @@ public class DefaultConnectionSource implements ConnectionSource
 
 		try
 		{
-			return getConnection(driver, connectionOption.getUrl(), properties);
+			return getConnection(driver, connectionOption.getUrl(), properties, connectionOption.getPoolOption());
 		}
 		catch (SQLException | ExecutionException e)
 		{
@@ -385,27 +728,37 @@ public class DefaultConnectionSource implements ConnectionSource
 
 	protected Connection getConnection(Driver driver, String url, Properties properties)
 			throws ExecutionException, SQLException, Throwable
+	{
+		return getConnection(driver, url, properties, null);
+	}
+
+	protected Connection getConnection(Driver driver, String url, Properties properties, PoolOption poolOption)
+			throws ExecutionException, SQLException, Throwable
 	{
 		ConnectionIdentity connectionIdentity = ConnectionIdentity.valueOf(url, properties);
+		InternalDataSourceKey key = new InternalDataSourceKey(connectionIdentity, poolOption);
 
 		Connection connection = null;
 		InternalDataSourceHolder dataSourceHolder = null;
 
 		try
 		{
-			dataSourceHolder = this.internalDataSourceCache.get(connectionIdentity,
-					new Callable<InternalDataSourceHolder>()
-					{
-						@Override
-						public InternalDataSourceHolder call() throws Exception
-						{
-							DataSource dataSource = createInternalDataSource(driver, url, properties);
-							InternalDataSourceHolder holder = new InternalDataSourceHolder();
-							holder.setDataSource(dataSource);
+			Callable<InternalDataSourceHolder> holderLoader = new Callable<InternalDataSourceHolder>()
+			{
+				@Override
+				public InternalDataSourceHolder call() throws Exception
+				{
+					DataSource dataSource = createInternalDataSource(driver, url, properties, poolOption);
+					InternalDataSourceHolder holder = new InternalDataSourceHolder();
+					holder.setDataSource(dataSource);
+
+					return holder;
+				}
+			};
 
-							return holder;
-						}
-					});
+			// 连接池选项也作为键，使得连接标识相同、连接池选项不同的数据源各自使用内置数据源，而不会相互重建；
+			// 连接池选项修改后，旧的内置数据源的空闲连接会被回收，并在最久未使用时被关闭
+			dataSourceHolder = this.internalDataSourceCache.get(key, holderLoader);
 
 			// 底层数据源无法支持此驱动时将会创建一个getDataSource()为null的InternalDataSourceHolder
 			if (!dataSourceHolder.hasDataSource())
@@ -447,8 +800,8 @@ public class DefaultConnectionSource implements ConnectionSource
 
 					InternalDataSourceHolder nonDataSourceHolder = new InternalDataSourceHolder();
 					nonDataSourceHolder.setDataSource(null);
-					this.internalDataSourceCache.invalidate(connectionIdentity);
-					this.internalDataSourceCache.put(connectionIdentity, nonDataSourceHolder);
+					this.internalDataSourceCache.invalidate(key);
+					this.internalDataSourceCache.put(key, nonDataSourceHolder);
 
 					LOGGER.debug(
 							"Get connection success without internal DataSource for {}, "
@@ -479,14 +832,62 @@ public class DefaultConnectionSource implements ConnectionSource
 	}
 
 	protected DataSource createInternalDataSource(Driver driver, String url, Properties properties)
+	{
+		return createInternalDataSource(driver, url, properties, null);
+	}
+
+	protected DataSource createInternalDataSource(Driver driver, String url, Properties properties,
+			PoolOption poolOption)
 	{
 		DriverBasicDataSource re = new DriverBasicDataSource(driver, url, properties);
 
+		if (poolOption != null)
+			setPoolOption(re, poolOption);
+
 		LOGGER.debug("Create internal data source for {}", ConnectionIdentity.valueOf(url, properties));
 
 		return re;
 	}
 
+	/**
+	 * 设置内置数据源的连接池选项。
+	 * 
+	 * @param dataSource
+	 * @param poolOption
+	 */
+	protected void setPoolOption(DriverBasicDataSource dataSource, PoolOption poolOption)
+	{
+		if (poolOption.getMaxTotal() > 0)
+		{
+			dataSource.setMaxTotal(poolOption.getMaxTotal());
+
+			if (dataSource.getMaxIdle() > poolOption.getMaxTotal())
+				dataSource.setMaxIdle(poolOption.getMaxTotal());
+		}
+
+		if (poolOption.getMinIdle() > 0)
+			dataSource.setMinIdle(poolOption.getMinIdle());
+
+		if (poolOption.getMaxWaitMillis() > 0)
+			dataSource.setMaxWaitMillis(poolOption.getMaxWaitMillis());
+
+		// 默认不回收空闲连接，设置了空闲时间才启用回收任务
+		if (poolOption.getMaxIdleTimeMillis() > 0)
+		{
+			dataSource.setMinEvictableIdleTimeMillis(poolOption.getMaxIdleTimeMillis());
+			dataSource.setTimeBetweenEvictionRunsMillis(
+					Math.min(poolOption.getMaxIdleTimeMillis(), MAX_EVICTION_RUN_INTERVAL_MILLIS));
+		}
+
+		String validationQuery = poolOption.getValidationQuery();
+
+		if (validationQuery != null && !validationQuery.isEmpty())
+		{
+			dataSource.setValidationQuery(validationQuery);
+			dataSource.setTestWhileIdle(poolOption.getMaxIdleTimeMillis() > 0);
+		}
+	}
+
 	protected String toDriverString(Driver driver)
 	{
 		return driver.getClass().getName() + "[majorVersion=" + driver.getMajorVersion() + ", minorVersion="
@@ -638,6 +1039,16 @@ public class DefaultConnectionSource implements ConnectionSource
 			this.driver = driver;
 		}
 
+		/**
+		 * 获取底层连接池。
+		 * 
+		 * @return 为{@code null}表示连接池还未创建
+		 */
+		public GenericObjectPool<PoolableConnection> getPool()
+		{
+			return getConnectionPool();
+		}
+
 		@Override
 		protected ConnectionFactory createConnectionFactory() throws SQLException
 		{
@@ -655,10 +1066,10 @@ public class DefaultConnectionSource implements ConnectionSource
 	 *
 	 */
 	protected static class DriverBasicDataSourceRemovalListener
-			implements RemovalListener<ConnectionIdentity, InternalDataSourceHolder>
+			implements RemovalListener<InternalDataSourceKey, InternalDataSourceHolder>
 	{
 		@Override
-		public void onRemoval(RemovalNotification<ConnectionIdentity, InternalDataSourceHolder> notification)
+		public void onRemoval(RemovalNotification<InternalDataSourceKey, InternalDataSourceHolder> notification)
 		{
 			InternalDataSourceHolder holder = notification.getValue();
 
@@ -727,5 +1138,84 @@ public class DefaultConnectionSource implements ConnectionSource
 		{
 			this.dataSource = dataSource;
 		}
+
+	}
+
+	/**
+	 * 内置数据源键。
+	 * <p>
+	 * 它由连接标识、连接池选项组成，默认的连接池选项与{@code null}视为相同。
+	 * </p>
+	 * 
+	 * @author datagear@163.com
+	 *
+	 */
+	protected static class InternalDataSourceKey
+	{
+		private final ConnectionIdentity connectionIdentity;
+
+		/** 为{@code null}表示默认连接池选项 */
+		private final PoolOption poolOption;
+
+		public InternalDataSourceKey(ConnectionIdentity connectionIdentity, PoolOption poolOption)
+		{
+			super();
+			this.connectionIdentity = connectionIdentity;
+			this.poolOption = (poolOption == null || poolOption.isDefault() ? null : poolOption);
+		}
+
+		public ConnectionIdentity getConnectionIdentity()
+		{
+			return connectionIdentity;
+		}
+
+		public PoolOption getPoolOption()
+		{
+			return poolOption;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			final int prime = 31;
+			int result = 1;
+			result = prime * result + ((connectionIdentity == null) ? 0 : connectionIdentity.hashCode());
+			result = prime * result + ((poolOption == null) ? 0 : poolOption.hashCode());
+			return result;
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (this == obj)
+				return true;
+			if (obj == null)
+				return false;
+			if (getClass() != obj.getClass())
+				return false;
+			InternalDataSourceKey other = (InternalDataSourceKey) obj;
+			if (connectionIdentity == null)
+			{
+				if (other.connectionIdentity != null)
+					return false;
+			}
+			else if (!connectionIdentity.equals(other.connectionIdentity))
+				return false;
+			if (poolOption == null)
+			{
+				if (other.poolOption != null)
+					return false;
+			}
+			else if (!poolOption.equals(other.poolOption))
+				return false;
+			return true;
+		}
+
+		@Override
+		public String toString()
+		{
+			return getClass().getSimpleName() + " [connectionIdentity=" + connectionIdentity + ", poolOption="
+					+ poolOption + "]";
+		}
 	}
 }
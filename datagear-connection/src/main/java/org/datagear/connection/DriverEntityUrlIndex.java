@@ -0,0 +1,289 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.connection;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.datagear.util.IOUtil;
+
+/**
+ * {@linkplain DriverEntity}的URL前缀索引。
+ * <p>
+ * 它记录每个JDBC子协议URL前缀（比如：{@code jdbc:mysql:}）已知接受此前缀URL的{@linkplain DriverEntity}，
+ * 使得{@linkplain DefaultConnectionSource}查找首选驱动时，可以只为它们加载驱动类。
+ * </p>
+ * <p>
+ * 它仅记录接受的结果：驱动不接受某个URL可能仅是因为此URL格式有误（比如PostgreSQL驱动），不能推广至整个前缀。
+ * </p>
+ * <p>
+ * 探测结果与{@linkplain DriverEntity}签名（参考{@linkplain #refresh(Map)}）绑定，
+ * 有新增或者签名变化的{@linkplain DriverEntity}时，它可能接受任意前缀，所有探测结果都将被清除；仅删除时，只清除已删除的{@linkplain DriverEntity}。
+ * </p>
+ * <p>
+ * 此类不是线程安全的。
+ * </p>
+ * 
+ * @author datagear@163.com
+ *
+ */
+public class DriverEntityUrlIndex
+{
+	protected static final String JDBC_URL_PREFIX = "jdbc:";
+
+	protected static final String KEY_PREFIX_SIGNATURE = "signature.";
+
+	protected static final String KEY_PREFIX_ACCEPTED = "accepted.";
+
+	protected static final String ID_SEPARATOR = ",";
+
+	/** 驱动ID-签名映射表 */
+	private Map<String, String> signatures = new HashMap<>();
+
+	/** URL前缀-接受的驱动ID映射表 */
+	private Map<String, Set<String>> urlPrefixAccepteds = new HashMap<>();
+
+	public DriverEntityUrlIndex()
+	{
+		super();
+	}
+
+	/**
+	 * 获取URL前缀。
+	 * 
+	 * @param url
+	 * @return {@code jdbc:子协议:}格式的前缀，URL不合规范时返回{@code null}
+	 */
+	public String getUrlPrefix(String url)
+	{
+		if (url == null || !url.startsWith(JDBC_URL_PREFIX))
+			return null;
+
+		int end = url.indexOf(':', JDBC_URL_PREFIX.length());
+
+		if (end <= JDBC_URL_PREFIX.length())
+			return null;
+
+		return url.substring(0, end + 1);
+	}
+
+	/**
+	 * 获取已知接受指定前缀URL的{@linkplain DriverEntity}的ID集合。
+	 * 
+	 * @param urlPrefix
+	 * @return 空集合表示还没有记录
+	 */
+	public Set<String> getAccepted(String urlPrefix)
+	{
+		Set<String> accepted = this.urlPrefixAccepteds.get(urlPrefix);
+
+		if (accepted == null)
+			return new HashSet<>();
+
+		return new LinkedHashSet<>(accepted);
+	}
+
+	/**
+	 * 是否已知接受指定前缀的URL。
+	 * 
+	 * @param urlPrefix
+	 * @param driverEntityId
+	 * @return
+	 */
+	public boolean isAccepted(String urlPrefix, String driverEntityId)
+	{
+		Set<String> accepted = this.urlPrefixAccepteds.get(urlPrefix);
+		return (accepted != null && accepted.contains(driverEntityId));
+	}
+
+	/**
+	 * 记录接受指定前缀URL的{@linkplain DriverEntity}。
+	 * 
+	 * @param urlPrefix
+	 * @param driverEntityId
+	 * @return {@code true}表示是新记录
+	 */
+	public boolean addAccepted(String urlPrefix, String driverEntityId)
+	{
+		return getAcceptedSet(this.urlPrefixAccepteds, urlPrefix).add(driverEntityId);
+	}
+
+	/**
+	 * 使用最新的{@linkplain DriverEntity}签名刷新索引。
+	 * <p>
+	 * 有新增、签名变化的{@linkplain DriverEntity}时，将清除所有探测结果；否则，仅清除已删除的{@linkplain DriverEntity}的探测结果。
+	 * </p>
+	 * 
+	 * @param signatures
+	 *            当前所有{@linkplain DriverEntity}的ID-签名映射表
+	 * @return 新增、签名变化、已删除的{@linkplain DriverEntity}的ID集合
+	 */
+	public Set<String> refresh(Map<String, String> signatures)
+	{
+		Set<String> changeds = new HashSet<>();
+		boolean addedOrModified = false;
+
+		for (Map.Entry<String, String> entry : signatures.entrySet())
+		{
+			String oldSignature = this.signatures.get(entry.getKey());
+
+			if (oldSignature == null || !oldSignature.equals(entry.getValue()))
+			{
+				changeds.add(entry.getKey());
+				addedOrModified = true;
+			}
+		}
+
+		for (String id : this.signatures.keySet())
+		{
+			if (!signatures.containsKey(id))
+				changeds.add(id);
+		}
+
+		if (!changeds.isEmpty())
+		{
+			if (addedOrModified)
+				this.urlPrefixAccepteds.clear();
+			else
+			{
+				for (Set<String> accepted : this.urlPrefixAccepteds.values())
+					accepted.removeAll(changeds);
+			}
+
+			this.signatures = new HashMap<>(signatures);
+		}
+
+		return changeds;
+	}
+
+	/**
+	 * 从文件加载。
+	 * <p>
+	 * 文件不存在时不做任何操作。
+	 * </p>
+	 * 
+	 * @param file
+	 * @throws IOException
+	 */
+	public void load(File file) throws IOException
+	{
+		if (!file.exists())
+			return;
+
+		Properties properties = new Properties();
+
+		Reader reader = null;
+
+		try
+		{
+			reader = IOUtil.getReader(file, IOUtil.CHARSET_UTF_8);
+			properties.load(reader);
+		}
+		finally
+		{
+			IOUtil.close(reader);
+		}
+
+		Map<String, String> signatures = new HashMap<>();
+		Map<String, Set<String>> urlPrefixAccepteds = new HashMap<>();
+
+		for (String name : properties.stringPropertyNames())
+		{
+			String value = properties.getProperty(name);
+
+			if (name.startsWith(KEY_PREFIX_SIGNATURE))
+				signatures.put(name.substring(KEY_PREFIX_SIGNATURE.length()), value);
+			else if (name.startsWith(KEY_PREFIX_ACCEPTED))
+				getAcceptedSet(urlPrefixAccepteds, name.substring(KEY_PREFIX_ACCEPTED.length()))
+						.addAll(splitIds(value));
+		}
+
+		this.signatures = signatures;
+		this.urlPrefixAccepteds = urlPrefixAccepteds;
+	}
+
+	/**
+	 * 保存至文件。
+	 * 
+	 * @param file
+	 * @throws IOException
+	 */
+	public void store(File file) throws IOException
+	{
+		Properties properties = new Properties();
+
+		for (Map.Entry<String, String> entry : this.signatures.entrySet())
+			properties.setProperty(KEY_PREFIX_SIGNATURE + entry.getKey(), entry.getValue());
+
+		for (Map.Entry<String, Set<String>> entry : this.urlPrefixAccepteds.entrySet())
+			properties.setProperty(KEY_PREFIX_ACCEPTED + entry.getKey(), joinIds(entry.getValue()));
+
+		Writer writer = null;
+
+		try
+		{
+			writer = IOUtil.getWriter(file, IOUtil.CHARSET_UTF_8);
+			properties.store(writer, DriverEntityUrlIndex.class.getName());
+		}
+		finally
+		{
+			IOUtil.close(writer);
+		}
+	}
+
+	protected Set<String> getAcceptedSet(Map<String, Set<String>> urlPrefixAccepteds, String urlPrefix)
+	{
+		Set<String> accepted = urlPrefixAccepteds.get(urlPrefix);
+
+		if (accepted == null)
+		{
+			accepted = new LinkedHashSet<>();
+			urlPrefixAccepteds.put(urlPrefix, accepted);
+		}
+
+		return accepted;
+	}
+
+	protected List<String> splitIds(String ids)
+	{
+		List<String> re = new ArrayList<>();
+
+		if (ids == null || ids.isEmpty())
+			return re;
+
+		for (String id : ids.split(ID_SEPARATOR))
+		{
+			if (!id.isEmpty())
+				re.add(id);
+		}
+
+		return re;
+	}
+
+	protected String joinIds(Set<String> ids)
+	{
+		StringBuilder sb = new StringBuilder();
+
+		for (String id : ids)
+		{
+			if (sb.length() > 0)
+				sb.append(ID_SEPARATOR);
+
+			sb.append(id);
+		}
+
+		return sb.toString();
+	}
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.connection;
+
+import java.io.Serializable;
+
+/**
+ * 内置数据源（连接池）指标。
+ * <p>
+ * 参考{@linkplain DefaultConnectionSource#getInternalDataSourceMetrics()}。
+ * </p>
+ * 
+ * @author datagear@163.com
+ *
+ */
+public class InternalDataSourceMetrics implements Serializable
+{
+	private static final long serialVersionUID = 1L;
+
+	/** 连接URL */
+	private String url;
+
+	/** 连接用户 */
+	private String user;
+
+	/** 是否使用连接池，为false表示驱动程序不兼容连接池，每次都直接新建连接 */
+	private boolean pooled = true;
+
+	/** 最大连接数 */
+	private int maxTotal = 0;
+
+	/** 活跃连接数 */
+	private int numActive = 0;
+
+	/** 空闲连接数 */
+	private int numIdle = 0;
+
+	/** 等待获取连接的线程数 */
+	private int numWaiters = 0;
+
+	/** 已获取连接总次数 */
+	private long borrowedCount = 0;
+
+	/** 最近获取连接的平均等待毫秒数 */
+	private long meanBorrowWaitMillis = 0;
+
+	/** 获取连接的最大等待毫秒数 */
+	private long maxBorrowWaitMillis = 0;
+
+	public InternalDataSourceMetrics()
+	{
+		super();
+	}
+
+	public InternalDataSourceMetrics(String url, String user)
+	{
+		super();
+		this.url = url;
+		this.user = user;
+	}
+
+	public String getUrl()
+	{
+		return url;
+	}
+
+	public void setUrl(String url)
+	{
+		this.url = url;
+	}
+
+	public String getUser()
+	{
+		return user;
+	}
+
+	public void setUser(String user)
+	{
+		this.user = user;
+	}
+
+	public boolean isPooled()
+	{
+		return pooled;
+	}
+
+	public void setPooled(boolean pooled)
+	{
+		this.pooled = pooled;
+	}
+
+	public int getMaxTotal()
+	{
+		return maxTotal;
+	}
+
+	public void setMaxTotal(int maxTotal)
+	{
+		this.maxTotal = maxTotal;
+	}
+
+	public int getNumActive()
+	{
+		return numActive;
+	}
+
+	public void setNumActive(int numActive)
+	{
+		this.numActive = numActive;
+	}
+
+	public int getNumIdle()
+	{
+		return numIdle;
+	}
+
+	public void setNumIdle(int numIdle)
+	{
+		this.numIdle = numIdle;
+	}
+
+	public int getNumWaiters()
+	{
+		return numWaiters;
+	}
+
+	public void setNumWaiters(int numWaiters)
+	{
+		this.numWaiters = numWaiters;
+	}
+
+	public long getBorrowedCount()
+	{
+		return borrowedCount;
+	}
+
+	public void setBorrowedCount(long borrowedCount)
+	{
+		this.borrowedCount = borrowedCount;
+	}
+
+	public long getMeanBorrowWaitMillis()
+	{
+		return meanBorrowWaitMillis;
+	}
+
+	public void setMeanBorrowWaitMillis(long meanBorrowWaitMillis)
+	{
+		this.meanBorrowWaitMillis = meanBorrowWaitMillis;
+	}
+
+	public long getMaxBorrowWaitMillis()
+	{
+		return maxBorrowWaitMillis;
+	}
+
+	public void setMaxBorrowWaitMillis(long maxBorrowWaitMillis)
+	{
+		this.maxBorrowWaitMillis = maxBorrowWaitMillis;
+	}
+
+	@Override
+	public String toString()
+	{
+		return getClass().getSimpleName() + " [url=" + url + ", user=" + user + ", pooled=" + pooled + ", maxTotal="
+				+ maxTotal + ", numActive=" + numActive + ", numIdle=" + numIdle + ", numWaiters=" + numWaiters
+				+ ", borrowedCount=" + borrowedCount + ", meanBorrowWaitMillis=" + meanBorrowWaitMillis
+				+ ", maxBorrowWaitMillis=" + maxBorrowWaitMillis + "]";
+	}
+}
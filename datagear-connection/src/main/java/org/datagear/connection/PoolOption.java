@@ -0,0 +1,151 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.connection;
+
+import java.io.Serializable;
+
+/**
+ * 连接池选项。
+ * <p>
+ * 数值选项小于等于{@code 0}、字符串选项为空时，表示使用连接池默认值。
+ * </p>
+ * 
+ * @author datagear@163.com
+ *
+ */
+public class PoolOption implements Serializable
+{
+	private static final long serialVersionUID = 1L;
+
+	/** 最大连接数 */
+	private int maxTotal = 0;
+
+	/** 最小空闲连接数 */
+	private int minIdle = 0;
+
+	/** 获取连接最大等待毫秒数 */
+	private long maxWaitMillis = 0;
+
+	/** 空闲连接最大保留毫秒数，超过后将被回收 */
+	private long maxIdleTimeMillis = 0;
+
+	/** 连接校验SQL */
+	private String validationQuery = null;
+
+	public PoolOption()
+	{
+		super();
+	}
+
+	public int getMaxTotal()
+	{
+		return maxTotal;
+	}
+
+	public void setMaxTotal(int maxTotal)
+	{
+		this.maxTotal = maxTotal;
+	}
+
+	public int getMinIdle()
+	{
+		return minIdle;
+	}
+
+	public void setMinIdle(int minIdle)
+	{
+		this.minIdle = minIdle;
+	}
+
+	public long getMaxWaitMillis()
+	{
+		return maxWaitMillis;
+	}
+
+	public void setMaxWaitMillis(long maxWaitMillis)
+	{
+		this.maxWaitMillis = maxWaitMillis;
+	}
+
+	public long getMaxIdleTimeMillis()
+	{
+		return maxIdleTimeMillis;
+	}
+
+	public void setMaxIdleTimeMillis(long maxIdleTimeMillis)
+	{
+		this.maxIdleTimeMillis = maxIdleTimeMillis;
+	}
+
+	public String getValidationQuery()
+	{
+		return validationQuery;
+	}
+
+	public void setValidationQuery(String validationQuery)
+	{
+		this.validationQuery = validationQuery;
+	}
+
+	/**
+	 * 是否所有选项都是默认值。
+	 * 
+	 * @return
+	 */
+	public boolean isDefault()
+	{
+		return (this.maxTotal <= 0 && this.minIdle <= 0 && this.maxWaitMillis <= 0 && this.maxIdleTimeMillis <= 0
+				&& (this.validationQuery == null || this.validationQuery.isEmpty()));
+	}
+
+	@Override
+	public int hashCode()
+	{
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + maxTotal;
+		result = prime * result + minIdle;
+		result = prime * result + (int) (maxWaitMillis ^ (maxWaitMillis >>> 32));
+		result = prime * result + (int) (maxIdleTimeMillis ^ (maxIdleTimeMillis >>> 32));
+		result = prime * result + ((validationQuery == null) ? 0 : validationQuery.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj)
+	{
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		PoolOption other = (PoolOption) obj;
+		if (maxTotal != other.maxTotal)
+			return false;
+		if (minIdle != other.minIdle)
+			return false;
+		if (maxWaitMillis != other.maxWaitMillis)
+			return false;
+		if (maxIdleTimeMillis != other.maxIdleTimeMillis)
+			return false;
+		if (validationQuery == null)
+		{
+			if (other.validationQuery != null)
+				return false;
+		}
+		else if (!validationQuery.equals(other.validationQuery))
+			return false;
+		return true;
+	}
+
+	@Override
+	public String toString()
+	{
+		return getClass().getSimpleName() + " [maxTotal=" + maxTotal + ", minIdle=" + minIdle + ", maxWaitMillis="
+				+ maxWaitMillis + ", maxIdleTimeMillis=" + maxIdleTimeMillis + ", validationQuery=" + validationQuery
+				+ "]";
+	}
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.connection;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * {@linkplain DriverEntityUrlIndex}单元测试类。
+ * 
+ * @author datagear@163.com
+ *
+ */
+public class DriverEntityUrlIndexTest
+{
+	@Test
+	public void getUrlPrefixTest()
+	{
+		DriverEntityUrlIndex index = new DriverEntityUrlIndex();
+
+		Assert.assertEquals("jdbc:mysql:", index.getUrlPrefix("jdbc:mysql://127.0.0.1:3306/dg_test"));
+		Assert.assertEquals("jdbc:oracle:", index.getUrlPrefix("jdbc:oracle:thin:@127.0.0.1:1521:orcl"));
+		Assert.assertNull(index.getUrlPrefix("jdbc:mysql"));
+		Assert.assertNull(index.getUrlPrefix("http://127.0.0.1"));
+		Assert.assertNull(index.getUrlPrefix(null));
+	}
+
+	@Test
+	public void refreshTest() throws Exception
+	{
+		DriverEntityUrlIndex index = new DriverEntityUrlIndex();
+
+		Map<String, String> signatures = new HashMap<>();
+		signatures.put("mysql", "com.mysql.jdbc.Driver|mysql.jar:100");
+		signatures.put("oracle", "oracle.jdbc.OracleDriver|ojdbc.jar:200");
+
+		Assert.assertEquals(2, index.refresh(signatures).size());
+
+		Assert.assertTrue(index.addAccepted("jdbc:mysql:", "mysql"));
+		Assert.assertFalse(index.addAccepted("jdbc:mysql:", "mysql"));
+		index.addAccepted("jdbc:oracle:", "oracle");
+
+		Assert.assertTrue(index.refresh(signatures).isEmpty());
+		Assert.assertTrue(index.isAccepted("jdbc:mysql:", "mysql"));
+		Assert.assertFalse(index.isAccepted("jdbc:mysql:", "oracle"));
+		Assert.assertTrue(index.isAccepted("jdbc:oracle:", "oracle"));
+		Assert.assertTrue(index.getAccepted("jdbc:postgresql:").isEmpty());
+
+		File file = new File("target/DriverEntityUrlIndexTest.properties");
+
+		index.store(file);
+
+		DriverEntityUrlIndex loaded = new DriverEntityUrlIndex();
+		loaded.load(file);
+
+		Assert.assertTrue(loaded.refresh(signatures).isEmpty());
+		Assert.assertTrue(loaded.isAccepted("jdbc:mysql:", "mysql"));
+		Assert.assertTrue(loaded.isAccepted("jdbc:oracle:", "oracle"));
+
+		signatures.remove("mysql");
+
+		Set<String> changeds = loaded.refresh(signatures);
+
+		Assert.assertEquals(1, changeds.size());
+		Assert.assertTrue(changeds.contains("mysql"));
+		Assert.assertFalse(loaded.isAccepted("jdbc:mysql:", "mysql"));
+		Assert.assertTrue(loaded.isAccepted("jdbc:oracle:", "oracle"));
+
+		// 修改的驱动可能接受任意前缀，所有记录都应清除
+		signatures.put("oracle", "oracle.jdbc.OracleDriver|ojdbc.jar:300");
+
+		changeds = loaded.refresh(signatures);
+
+		Assert.assertEquals(1, changeds.size());
+		Assert.assertTrue(changeds.contains("oracle"));
+		Assert.assertFalse(loaded.isAccepted("jdbc:oracle:", "oracle"));
+	}
+}
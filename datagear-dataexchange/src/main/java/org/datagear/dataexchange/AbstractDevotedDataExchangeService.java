@@ -10,6 +10,7 @@ import java.io.InputStream;
 import java.io.Reader;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.sql.BatchUpdateException;
 import java.sql.Blob;
 import java.sql.Clob;
 import java.sql.Connection;
@@ -19,6 +20,8 @@ import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.SQLXML;
+import java.sql.Savepoint;
+import java.sql.Statement;
 import java.sql.Time;
 import java.sql.Timestamp;
 import java.sql.Types;
@@ -30,10 +33,12 @@ import java.util.Date;
 import java.util.List;
 
 import org.apache.commons.codec.DecoderException;
+import org.datagear.dataexchange.ValueDataImportBatch.BatchRow;
 import org.datagear.meta.Column;
 import org.datagear.meta.resolver.DBMetaResolver;
 import org.datagear.persistence.support.PersistenceSupport;
 import org.datagear.util.IOUtil;
+import org.datagear.util.JDBCCompatiblity;
 import org.datagear.util.JdbcUtil;
 import org.datagear.util.resource.ResourceFactory;
 
@@ -1334,6 +1339,23 @@ public abstract class AbstractDevotedDataExchangeService<T extends DataExchange>
 			exception = wrapToDataExchangeException(t);
 		}
 
+		return resolveImportValueDataResult(dataIndex, exception, exceptionResolve, listener);
+	}
+
+	/**
+	 * 处理一条值数据的导入结果。
+	 * 
+	 * @param dataIndex
+	 * @param exception
+	 *            导入异常，为{@code null}表示导入成功
+	 * @param exceptionResolve
+	 * @param listener
+	 * @return
+	 * @throws DataExchangeException
+	 */
+	protected boolean resolveImportValueDataResult(DataIndex dataIndex, DataExchangeException exception,
+			ExceptionResolve exceptionResolve, ValueDataImportListener listener) throws DataExchangeException
+	{
 		if (exception == null)
 		{
 			if (listener != null)
@@ -1355,6 +1377,313 @@ public abstract class AbstractDevotedDataExchangeService<T extends DataExchange>
 		}
 	}
 
+	/**
+	 * 创建{@linkplain ValueDataImportBatch}。
+	 * 
+	 * @param st
+	 * @param columns
+	 * @param importOption
+	 * @param dataFormatContext
+	 * @param listener
+	 * @return
+	 */
+	protected ValueDataImportBatch createValueDataImportBatch(PreparedStatement st, List<Column> columns,
+			ValueDataImportOption importOption, DataFormatContext dataFormatContext, ValueDataImportListener listener)
+	{
+		return new ValueDataImportBatch(st, columns, importOption, dataFormatContext, listener);
+	}
+
+	/**
+	 * 导入一条值数据。
+	 * <p>
+	 * 如果{@linkplain ValueDataImportBatch#isBatch()}为{@code true}，此方法仅将数据加入批量，达到批量大小时才会批量执行，
+	 * 执行结果将通过{@linkplain ValueDataImportListener}通知；所有数据导入完成后，调用方应调用
+	 * {@linkplain #executeValueDataImportBatch(Connection, ValueDataImportBatch)}执行剩余的数据。
+	 * </p>
+	 * <p>
+	 * 已执行的行数达到{@linkplain ValueDataImportOption#getCommitInterval()}时，将提交事务。
+	 * </p>
+	 * 
+	 * @param cn
+	 * @param batch
+	 * @param columnValues
+	 * @param dataIndex
+	 * @return {@code false}表示导入失败且被忽略
+	 * @throws DataExchangeException
+	 */
+	protected boolean importValueData(Connection cn, ValueDataImportBatch batch, List<? extends Object> columnValues,
+			DataIndex dataIndex) throws DataExchangeException
+	{
+		ValueDataImportOption importOption = batch.getImportOption();
+
+		if (!batch.isBatch())
+		{
+			boolean success = importValueData(cn, batch.getStatement(), batch.getColumns(), columnValues, dataIndex,
+					importOption.isNullForIllegalColumnValue(), importOption.getExceptionResolve(),
+					batch.getDataFormatContext(), batch.getListener());
+
+			if (batch.addUncommittedCount(1))
+				commitValueDataImportBatch(cn, batch);
+
+			return success;
+		}
+
+		PreparedStatement st = batch.getStatement();
+		DataExchangeException exception = null;
+
+		try
+		{
+			setImportParameterValues(cn, st, batch.getColumns(), columnValues, dataIndex,
+					importOption.isNullForIllegalColumnValue(), batch.getDataFormatContext(), batch.getListener());
+
+			addImportPreparedStatementBatch(st, dataIndex);
+		}
+		catch (Throwable t)
+		{
+			exception = wrapToDataExchangeException(t);
+		}
+
+		if (exception != null)
+		{
+			// 先执行此行之前的数据，使出错时的已导入数据与逐行导入一致
+			if (!ExceptionResolve.IGNORE.equals(importOption.getExceptionResolve()))
+				executeValueDataImportBatch(cn, batch);
+
+			return resolveImportValueDataResult(dataIndex, exception, importOption.getExceptionResolve(),
+					batch.getListener());
+		}
+
+		batch.addRow(columnValues, dataIndex);
+
+		if (batch.isFull())
+			executeValueDataImportBatch(cn, batch);
+
+		return true;
+	}
+
+	/**
+	 * 执行{@linkplain ValueDataImportBatch}中还未执行的数据。
+	 * <p>
+	 * 批量执行出错时，将回滚至执行前的保存点（如果数据库支持），然后逐行重新导入，以确定出错的行并按照{@linkplain ExceptionResolve}处理；
+	 * 如果数据库不支持保存点，则依据{@linkplain BatchUpdateException#getUpdateCounts()}仅逐行重新导入未成功的行。
+	 * </p>
+	 * 
+	 * @param cn
+	 * @param batch
+	 * @throws DataExchangeException
+	 */
+	protected void executeValueDataImportBatch(Connection cn, ValueDataImportBatch batch)
+			throws DataExchangeException
+	{
+		if (!batch.hasRow())
+			return;
+
+		List<BatchRow> rows = new ArrayList<>(batch.getRows());
+		batch.getRows().clear();
+
+		PreparedStatement st = batch.getStatement();
+		ValueDataImportListener listener = batch.getListener();
+
+		Savepoint savepoint = setSavepointIfSupports(cn);
+		SQLException exception = null;
+
+		try
+		{
+			st.executeBatch();
+		}
+		catch (SQLException e)
+		{
+			exception = e;
+		}
+		finally
+		{
+			clearBatchSilently(st);
+		}
+
+		if (exception == null)
+		{
+			releaseSavepointSilently(cn, savepoint);
+
+			if (listener != null)
+			{
+				for (BatchRow row : rows)
+					listener.onSuccess(row.getDataIndex());
+			}
+		}
+		else
+		{
+			int[] updateCounts = null;
+
+			if (savepoint == null || !rollbackSilently(cn, savepoint))
+			{
+				if (exception instanceof BatchUpdateException)
+					updateCounts = ((BatchUpdateException) exception).getUpdateCounts();
+			}
+
+			for (int i = 0, len = rows.size(); i < len; i++)
+			{
+				BatchRow row = rows.get(i);
+
+				if (updateCounts != null && i < updateCounts.length && updateCounts[i] != Statement.EXECUTE_FAILED)
+				{
+					if (listener != null)
+						listener.onSuccess(row.getDataIndex());
+				}
+				else
+					reimportValueData(cn, batch, row);
+			}
+		}
+
+		if (batch.addUncommittedCount(rows.size()))
+			commitValueDataImportBatch(cn, batch);
+	}
+
+	/**
+	 * 批量执行出错后，逐行重新导入一条值数据。
+	 * <p>
+	 * 加入批量时已通知过{@linkplain ValueDataImportListener#onSetNullColumnValue(DataIndex, String, Object, DataExchangeException)}，这里不再通知。
+	 * </p>
+	 * 
+	 * @param cn
+	 * @param batch
+	 * @param row
+	 * @return
+	 * @throws DataExchangeException
+	 */
+	protected boolean reimportValueData(Connection cn, ValueDataImportBatch batch, BatchRow row)
+			throws DataExchangeException
+	{
+		ValueDataImportOption importOption = batch.getImportOption();
+		PreparedStatement st = batch.getStatement();
+		DataIndex dataIndex = row.getDataIndex();
+
+		DataExchangeException exception = null;
+
+		try
+		{
+			setImportParameterValues(cn, st, batch.getColumns(), row.getColumnValues(), dataIndex,
+					importOption.isNullForIllegalColumnValue(), batch.getDataFormatContext(), null);
+
+			executeImportPreparedStatement(st, dataIndex);
+		}
+		catch (Throwable t)
+		{
+			exception = wrapToDataExchangeException(t);
+		}
+
+		return resolveImportValueDataResult(dataIndex, exception, importOption.getExceptionResolve(),
+				batch.getListener());
+	}
+
+	/**
+	 * 提交{@linkplain ValueDataImportBatch}已执行的数据。
+	 * 
+	 * @param cn
+	 * @param batch
+	 * @throws DataExchangeException
+	 */
+	protected void commitValueDataImportBatch(Connection cn, ValueDataImportBatch batch) throws DataExchangeException
+	{
+		commit(cn);
+		batch.setUncommittedCount(0);
+	}
+
+	/**
+	 * 加入导入批量。
+	 * 
+	 * @param st
+	 * @param dataIndex
+	 * @throws ExecuteDataImportSqlException
+	 */
+	protected void addImportPreparedStatementBatch(PreparedStatement st, DataIndex dataIndex)
+			throws ExecuteDataImportSqlException
+	{
+		try
+		{
+			st.addBatch();
+		}
+		catch (SQLException e)
+		{
+			throw new ExecuteDataImportSqlException(dataIndex, e);
+		}
+	}
+
+	/**
+	 * 设置保存点。
+	 * 
+	 * @param cn
+	 * @return 返回{@code null}表示不支持
+	 */
+	@JDBCCompatiblity("避免有驱动程序不支持保存点而抛出异常")
+	protected Savepoint setSavepointIfSupports(Connection cn)
+	{
+		try
+		{
+			return cn.setSavepoint();
+		}
+		catch (Throwable t)
+		{
+			return null;
+		}
+	}
+
+	/**
+	 * 回滚至保存点。
+	 * 
+	 * @param cn
+	 * @param savepoint
+	 * @return 是否回滚成功
+	 */
+	protected boolean rollbackSilently(Connection cn, Savepoint savepoint)
+	{
+		try
+		{
+			cn.rollback(savepoint);
+			return true;
+		}
+		catch (Throwable t)
+		{
+			return false;
+		}
+	}
+
+	/**
+	 * 释放保存点。
+	 * 
+	 * @param cn
+	 * @param savepoint
+	 *            允许为{@code null}
+	 */
+	protected void releaseSavepointSilently(Connection cn, Savepoint savepoint)
+	{
+		if (savepoint == null)
+			return;
+
+		try
+		{
+			cn.releaseSavepoint(savepoint);
+		}
+		catch (Throwable t)
+		{
+		}
+	}
+
+	/**
+	 * 清除批量。
+	 * 
+	 * @param st
+	 */
+	protected void clearBatchSilently(Statement st)
+	{
+		try
+		{
+			st.clearBatch();
+		}
+		catch (Throwable t)
+		{
+		}
+	}
+
 	/**
 	 * 执行导入SQL。
 	 * 
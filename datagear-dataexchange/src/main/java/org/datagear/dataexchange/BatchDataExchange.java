@@ -23,6 +23,9 @@ public abstract class BatchDataExchange extends DataExchange
 
 	private BatchDataExchangeResult result;
 
+	/** 并发分组，比如数据源ID */
+	private String concurrencyKey = null;
+
 	public BatchDataExchange()
 	{
 		super();
@@ -54,6 +57,24 @@ public abstract class BatchDataExchange extends DataExchange
 		this.result = result;
 	}
 
+	/**
+	 * 获取并发分组。
+	 * <p>
+	 * 同一分组的子数据交换任务的并发数将受到限制，参考{@linkplain SubDataExchangeScheduler#getConcurrencyPerKey()}。
+	 * </p>
+	 * 
+	 * @return 为{@code null}表示不分组
+	 */
+	public String getConcurrencyKey()
+	{
+		return concurrencyKey;
+	}
+
+	public void setConcurrencyKey(String concurrencyKey)
+	{
+		this.concurrencyKey = concurrencyKey;
+	}
+
 	/**
 	 * 获取子数据交换集合。
 	 * 
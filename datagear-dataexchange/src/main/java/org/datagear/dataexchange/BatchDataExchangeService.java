@@ -5,11 +5,14 @@
 package org.datagear.dataexchange;
 
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 /**
  * 批量数据交换服务。
+ * <p>
+ * 子数据交换任务由{@linkplain SubDataExchangeScheduler}执行，全局并发数受其线程池大小限制，
+ * 同一数据源的并发数受{@linkplain SubDataExchangeScheduler#getConcurrencyPerKey()}限制（参考{@linkplain BatchDataExchange#getConcurrencyKey()}）；
+ * 单个批量数据交换同时提交的任务数受{@linkplain #getMaxRunningCountPerBatch()}限制。
+ * </p>
  * 
  * @author datagear@163.com
  *
@@ -19,7 +22,10 @@ public class BatchDataExchangeService<T extends BatchDataExchange> extends Abstr
 {
 	private DataExchangeService<?> subDataExchangeService;
 
-	private ExecutorService executorService = Executors.newCachedThreadPool();
+	private SubDataExchangeScheduler subDataExchangeScheduler = new SubDataExchangeScheduler();
+
+	/** 单个批量数据交换最大同时提交的子数据交换任务数 */
+	private int maxRunningCountPerBatch = -1;
 
 	public BatchDataExchangeService()
 	{
@@ -42,14 +48,29 @@ public class BatchDataExchangeService<T extends BatchDataExchange> extends Abstr
 		this.subDataExchangeService = subDataExchangeService;
 	}
 
-	public ExecutorService getExecutorService()
+	public SubDataExchangeScheduler getSubDataExchangeScheduler()
+	{
+		return subDataExchangeScheduler;
+	}
+
+	public void setSubDataExchangeScheduler(SubDataExchangeScheduler subDataExchangeScheduler)
+	{
+		this.subDataExchangeScheduler = subDataExchangeScheduler;
+	}
+
+	/**
+	 * 获取单个批量数据交换最大同时提交的子数据交换任务数。
+	 * 
+	 * @return {@code <=0}表示不限制
+	 */
+	public int getMaxRunningCountPerBatch()
 	{
-		return executorService;
+		return maxRunningCountPerBatch;
 	}
 
-	public void setExecutorService(ExecutorService executorService)
+	public void setMaxRunningCountPerBatch(int maxRunningCountPerBatch)
 	{
-		this.executorService = executorService;
+		this.maxRunningCountPerBatch = maxRunningCountPerBatch;
 	}
 
 	@Override
@@ -86,7 +107,7 @@ public class BatchDataExchangeService<T extends BatchDataExchange> extends Abstr
 	 */
 	public void shutdown()
 	{
-		this.executorService.shutdown();
+		this.subDataExchangeScheduler.shutdown();
 	}
 
 	/**
@@ -96,15 +117,17 @@ public class BatchDataExchangeService<T extends BatchDataExchange> extends Abstr
 	 */
 	public boolean isShutdown()
 	{
-		return this.executorService.isShutdown();
+		return this.subDataExchangeScheduler.isShutdown();
 	}
 
 	protected BatchDataExchangeResult createBatchDataExchangeResult(T dataExchange,
 			Set<SubDataExchange> subDataExchanges)
 	{
 		DefaultBatchDataExchangeResult result = new DefaultBatchDataExchangeResult(subDataExchanges,
-				this.subDataExchangeService, this.executorService);
+				this.subDataExchangeService, this.subDataExchangeScheduler);
 		result.setListener(dataExchange.getListener());
+		result.setConcurrencyKey(dataExchange.getConcurrencyKey());
+		result.setMaxRunningCount(this.maxRunningCountPerBatch);
 
 		return result;
 	}
@@ -4,11 +4,14 @@
 
 package org.datagear.dataexchange;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.FutureTask;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -17,6 +20,12 @@ import org.slf4j.LoggerFactory;
 
 /**
  * 默认{@linkplain BatchDataExchangeResult}实现类。
+ * <p>
+ * 子数据交换任务将交由{@linkplain SubDataExchangeScheduler}执行，并受{@linkplain #getConcurrencyKey()}分组并发数限制；
+ * 另外，如果设置了{@linkplain #setMaxRunningCount(int)}，同一时刻最多只会提交这么多个子数据交换任务，
+ * 其余具备执行条件的任务将保留在未提交集合中，直到已提交的任务执行完成（或者取消）后再提交，
+ * 而不会一次性提交所有任务。
+ * </p>
  * 
  * @author datagear@163.com
  *
@@ -27,9 +36,15 @@ public class DefaultBatchDataExchangeResult implements BatchDataExchangeResult
 
 	private final int subTotal;
 	private final DataExchangeService<?> subDataExchangeService;
-	private final ExecutorService executorService;
+	private final SubDataExchangeScheduler subDataExchangeScheduler;
 	private BatchDataExchangeListener listener;
 
+	/** 并发分组，比如数据源ID */
+	private String concurrencyKey = null;
+
+	/** 最大同时提交（已提交但还未完成）的子数据交换任务数 */
+	private int maxRunningCount = -1;
+
 	private Set<SubDataExchange> _unsubmits = new HashSet<SubDataExchange>();
 	private Set<SubDataExchange> _submitFails = new HashSet<SubDataExchange>();
 	private Set<SubDataExchange> _cancelleds = new HashSet<SubDataExchange>();
@@ -37,19 +52,24 @@ public class DefaultBatchDataExchangeResult implements BatchDataExchangeResult
 
 	private Set<SubDataExchangeFutureTask> _submitSuccesses = new HashSet<SubDataExchangeFutureTask>();
 
+	private Map<SubDataExchange, SubDataExchangeTiming> _timings = new HashMap<>();
+
+	// 已提交但还未完成的任务数
+	private int _runningCount = 0;
+
 	private final AtomicBoolean _finishFlag = new AtomicBoolean(false);
 	private final CountDownLatch _finishCountDownLatch = new CountDownLatch(1);
 
 	private final Object _subLock = new Object();
 
 	public DefaultBatchDataExchangeResult(Set<SubDataExchange> subDataExchanges,
-			DataExchangeService<?> subDataExchangeService, ExecutorService executorService)
+			DataExchangeService<?> subDataExchangeService, SubDataExchangeScheduler subDataExchangeScheduler)
 	{
 		super();
 		this.subTotal = subDataExchanges.size();
 		this._unsubmits.addAll(subDataExchanges);
 		this.subDataExchangeService = subDataExchangeService;
-		this.executorService = executorService;
+		this.subDataExchangeScheduler = subDataExchangeScheduler;
 	}
 
 	public int getSubTotal()
@@ -62,9 +82,9 @@ public class DefaultBatchDataExchangeResult implements BatchDataExchangeResult
 		return subDataExchangeService;
 	}
 
-	public ExecutorService getExecutorService()
+	public SubDataExchangeScheduler getSubDataExchangeScheduler()
 	{
-		return executorService;
+		return subDataExchangeScheduler;
 	}
 
 	public BatchDataExchangeListener getListener()
@@ -77,6 +97,31 @@ public class DefaultBatchDataExchangeResult implements BatchDataExchangeResult
 		this.listener = listener;
 	}
 
+	public String getConcurrencyKey()
+	{
+		return concurrencyKey;
+	}
+
+	public void setConcurrencyKey(String concurrencyKey)
+	{
+		this.concurrencyKey = concurrencyKey;
+	}
+
+	/**
+	 * 获取最大同时提交（已提交但还未完成）的子数据交换任务数。
+	 * 
+	 * @return {@code <=0}表示不限制
+	 */
+	public int getMaxRunningCount()
+	{
+		return maxRunningCount;
+	}
+
+	public void setMaxRunningCount(int maxRunningCount)
+	{
+		this.maxRunningCount = maxRunningCount;
+	}
+
 	@Override
 	public void waitForFinish() throws InterruptedException
 	{
@@ -158,6 +203,27 @@ public class DefaultBatchDataExchangeResult implements BatchDataExchangeResult
 		}
 	}
 
+	/**
+	 * 获取已提交的子数据交换任务耗时信息。
+	 * 
+	 * @return
+	 */
+	public List<SubDataExchangeTiming> getSubDataExchangeTimings()
+	{
+		synchronized (this._subLock)
+		{
+			List<SubDataExchangeTiming> timings = new ArrayList<SubDataExchangeTiming>(this._timings.size());
+
+			for (SubDataExchangeTiming timing : this._timings.values())
+			{
+				timings.add(new SubDataExchangeTiming(timing.getSubDataExchange(), timing.getSubmitTime(),
+						timing.getStartTime(), timing.getEndTime()));
+			}
+
+			return timings;
+		}
+	}
+
 	@Override
 	public Set<SubDataExchange> submit()
 	{
@@ -165,8 +231,13 @@ public class DefaultBatchDataExchangeResult implements BatchDataExchangeResult
 
 		synchronized (this._subLock)
 		{
+			int available = (this.maxRunningCount > 0 ? this.maxRunningCount - this._runningCount : -1);
+
 			for (SubDataExchange unsubmit : this._unsubmits)
 			{
+				if (available >= 0 && submits.size() >= available)
+					break;
+
 				boolean canSubmit = false;
 
 				if (!unsubmit.hasDependency())
@@ -192,6 +263,8 @@ public class DefaultBatchDataExchangeResult implements BatchDataExchangeResult
 
 			for (SubDataExchange submit : submits)
 				this._unsubmits.remove(submit);
+
+			this._runningCount += submits.size();
 		}
 
 		submitAll(submits);
@@ -255,6 +328,7 @@ public class DefaultBatchDataExchangeResult implements BatchDataExchangeResult
 			removeDescendants(this._unsubmits, subDataExchange, cancelleds);
 
 			this._cancelleds.addAll(cancelleds);
+			this._runningCount--;
 		}
 
 		if (this.listener != null)
@@ -264,6 +338,23 @@ public class DefaultBatchDataExchangeResult implements BatchDataExchangeResult
 		}
 
 		postProcessIfFinish();
+
+		submit();
+	}
+
+	/**
+	 * 子数据交换任务开始执行处理。
+	 * 
+	 * @param subDataExchange
+	 */
+	protected void forStart(SubDataExchange subDataExchange)
+	{
+		synchronized (this._subLock)
+		{
+			SubDataExchangeTiming timing = this._timings.get(subDataExchange);
+			if (timing != null)
+				timing.setStartTime(System.currentTimeMillis());
+		}
 	}
 
 	/**
@@ -273,11 +364,22 @@ public class DefaultBatchDataExchangeResult implements BatchDataExchangeResult
 	 */
 	protected void forFinish(SubDataExchange subDataExchange)
 	{
+		SubDataExchangeTiming timing = null;
+
 		synchronized (this._subLock)
 		{
 			this._finishes.add(subDataExchange);
+			this._runningCount--;
+
+			timing = this._timings.get(subDataExchange);
+			if (timing != null)
+				timing.setEndTime(System.currentTimeMillis());
 		}
 
+		if (timing != null && LOGGER.isDebugEnabled())
+			LOGGER.debug("finish sub exchange {}, wait {} ms, run {} ms", subDataExchange, timing.getWaitMillis(),
+					timing.getRunMillis());
+
 		postProcessIfFinish();
 
 		submit();
@@ -318,6 +420,7 @@ public class DefaultBatchDataExchangeResult implements BatchDataExchangeResult
 				{
 					submitFails.add(subDataExchange);
 					removeDescendants(this._unsubmits, subDataExchange, submitFails);
+					this._runningCount--;
 				}
 			}
 
@@ -342,13 +445,18 @@ public class DefaultBatchDataExchangeResult implements BatchDataExchangeResult
 	 */
 	protected boolean submit(SubDataExchangeFutureTask task)
 	{
+		SubDataExchange subDataExchange = task.getSubDataExchange();
+
 		try
 		{
-			this.executorService.submit(task);
+			this._timings.put(subDataExchange, new SubDataExchangeTiming(subDataExchange,
+					System.currentTimeMillis(), 0, 0));
+			this.subDataExchangeScheduler.execute(this.concurrencyKey, task);
 			return true;
 		}
 		catch (Throwable t)
 		{
+			this._timings.remove(subDataExchange);
 			LOGGER.error("submit sub exchange task error", t);
 			return false;
 		}
@@ -498,6 +606,10 @@ public class DefaultBatchDataExchangeResult implements BatchDataExchangeResult
 		public void run()
 		{
 			_run.set(true);
+
+			if (!isCancelled())
+				DefaultBatchDataExchangeResult.this.forStart(this.subDataExchange);
+
 			super.run();
 		}
 
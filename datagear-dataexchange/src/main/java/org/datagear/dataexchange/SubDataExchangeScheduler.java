@@ -0,0 +1,325 @@
+/*
+ * Copyright (c) 2018 datagear.org. All Rights Reserved.
+ */
+
+package org.datagear.dataexchange;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 子数据交换任务调度器。
+ * <p>
+ * 它使用固定大小的线程池执行子数据交换任务，以限制全局并发数；
+ * 另外，可以通过{@linkplain #setConcurrencyPerKey(int)}限制同一分组（比如同一数据源）的并发数，
+ * 超出限制的任务将在调度器内排队，直到同一分组的其他任务执行完成，而不会占用线程池线程。
+ * </p>
+ * 
+ * @author datagear@163.com
+ *
+ */
+public class SubDataExchangeScheduler
+{
+	private static final Logger LOGGER = LoggerFactory.getLogger(SubDataExchangeScheduler.class);
+
+	/** 任务执行器 */
+	private ExecutorService executorService;
+
+	/** 同一分组的最大并发数 */
+	private int concurrencyPerKey = -1;
+
+	/** 分组任务队列 */
+	private final Map<String, KeyQueue> keyQueues = new HashMap<>();
+
+	/** 在分组队列中等待的任务数 */
+	private int keyWaitingCount = 0;
+
+	private final Object keyLock = new Object();
+
+	public SubDataExchangeScheduler()
+	{
+		this(10);
+	}
+
+	public SubDataExchangeScheduler(int poolSize)
+	{
+		super();
+		this.executorService = createExecutorService(poolSize);
+	}
+
+	public SubDataExchangeScheduler(ExecutorService executorService)
+	{
+		super();
+		this.executorService = executorService;
+	}
+
+	public ExecutorService getExecutorService()
+	{
+		return executorService;
+	}
+
+	public void setExecutorService(ExecutorService executorService)
+	{
+		this.executorService = executorService;
+	}
+
+	/**
+	 * 获取同一分组的最大并发数。
+	 * 
+	 * @return {@code <=0}表示不限制
+	 */
+	public int getConcurrencyPerKey()
+	{
+		return concurrencyPerKey;
+	}
+
+	public void setConcurrencyPerKey(int concurrencyPerKey)
+	{
+		this.concurrencyPerKey = concurrencyPerKey;
+	}
+
+	/**
+	 * 调度执行任务。
+	 * 
+	 * @param key
+	 *            分组，允许为{@code null}，为{@code null}时不受{@linkplain #getConcurrencyPerKey()}限制
+	 * @param task
+	 * @throws RejectedExecutionException
+	 */
+	public void execute(String key, Runnable task) throws RejectedExecutionException
+	{
+		if (key == null || this.concurrencyPerKey <= 0)
+		{
+			this.executorService.execute(new KeyRunnable(null, task));
+			return;
+		}
+
+		synchronized (this.keyLock)
+		{
+			KeyQueue keyQueue = this.keyQueues.get(key);
+
+			if (keyQueue == null)
+			{
+				keyQueue = new KeyQueue();
+				this.keyQueues.put(key, keyQueue);
+			}
+
+			if (keyQueue.running < this.concurrencyPerKey)
+			{
+				try
+				{
+					this.executorService.execute(new KeyRunnable(key, task));
+				}
+				catch (RejectedExecutionException e)
+				{
+					if (keyQueue.isIdle())
+						this.keyQueues.remove(key);
+
+					throw e;
+				}
+
+				keyQueue.running++;
+			}
+			else
+			{
+				keyQueue.waitings.add(task);
+				this.keyWaitingCount++;
+			}
+		}
+	}
+
+	/**
+	 * 获取排队等待执行的任务数。
+	 * <p>
+	 * 包括在分组队列中等待的任务数，以及在{@linkplain #getExecutorService()}队列中等待的任务数（如果它是{@linkplain ThreadPoolExecutor}）。
+	 * </p>
+	 * 
+	 * @return
+	 */
+	public int getQueueDepth()
+	{
+		int depth = 0;
+
+		synchronized (this.keyLock)
+		{
+			depth = this.keyWaitingCount;
+		}
+
+		if (this.executorService instanceof ThreadPoolExecutor)
+			depth += ((ThreadPoolExecutor) this.executorService).getQueue().size();
+
+		return depth;
+	}
+
+	/**
+	 * 获取正在执行的任务数。
+	 * <p>
+	 * 如果{@linkplain #getExecutorService()}不是{@linkplain ThreadPoolExecutor}，将返回{@code -1}。
+	 * </p>
+	 * 
+	 * @return
+	 */
+	public int getActiveCount()
+	{
+		if (this.executorService instanceof ThreadPoolExecutor)
+			return ((ThreadPoolExecutor) this.executorService).getActiveCount();
+
+		return -1;
+	}
+
+	/**
+	 * 关闭。
+	 */
+	public void shutdown()
+	{
+		this.executorService.shutdown();
+	}
+
+	/**
+	 * 是否已关闭。
+	 * 
+	 * @return
+	 */
+	public boolean isShutdown()
+	{
+		return this.executorService.isShutdown();
+	}
+
+	/**
+	 * 任务执行完成后续处理：执行同一分组的下一个排队任务。
+	 * 
+	 * @param key
+	 */
+	protected void afterExecute(String key)
+	{
+		if (key == null)
+			return;
+
+		List<Runnable> rejecteds = null;
+
+		synchronized (this.keyLock)
+		{
+			KeyQueue keyQueue = this.keyQueues.get(key);
+
+			if (keyQueue == null)
+				return;
+
+			keyQueue.running--;
+
+			Runnable next = null;
+
+			while ((next = keyQueue.waitings.poll()) != null)
+			{
+				this.keyWaitingCount--;
+
+				try
+				{
+					this.executorService.execute(new KeyRunnable(key, next));
+					keyQueue.running++;
+					break;
+				}
+				catch (RejectedExecutionException e)
+				{
+					LOGGER.error("execute sub exchange task error", e);
+
+					if (rejecteds == null)
+						rejecteds = new ArrayList<>();
+
+					rejecteds.add(next);
+				}
+			}
+
+			if (keyQueue.isIdle())
+				this.keyQueues.remove(key);
+		}
+
+		// 取消无法执行的任务，使其能够得到取消处理，取消处理可能会再次提交任务，所以不能在锁内执行
+		if (rejecteds != null)
+		{
+			for (Runnable rejected : rejecteds)
+			{
+				if (rejected instanceof Future<?>)
+					((Future<?>) rejected).cancel(false);
+			}
+		}
+	}
+
+	protected ExecutorService createExecutorService(int poolSize)
+	{
+		ThreadPoolExecutor executorService = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<Runnable>());
+		executorService.allowCoreThreadTimeOut(true);
+
+		return executorService;
+	}
+
+	/**
+	 * 分组任务队列。
+	 * 
+	 * @author datagear@163.com
+	 *
+	 */
+	protected static class KeyQueue
+	{
+		/** 正在执行（或者已提交至执行器）的任务数 */
+		public int running = 0;
+
+		/** 排队等待的任务 */
+		public final LinkedList<Runnable> waitings = new LinkedList<>();
+
+		public KeyQueue()
+		{
+			super();
+		}
+
+		public boolean isIdle()
+		{
+			return (this.running <= 0 && this.waitings.isEmpty());
+		}
+	}
+
+	/**
+	 * 执行完成后调用{@linkplain SubDataExchangeScheduler#afterExecute(String)}的任务。
+	 * 
+	 * @author datagear@163.com
+	 *
+	 */
+	protected class KeyRunnable implements Runnable
+	{
+		private final String key;
+
+		private final Runnable task;
+
+		public KeyRunnable(String key, Runnable task)
+		{
+			super();
+			this.key = key;
+			this.task = task;
+		}
+
+		@Override
+		public void run()
+		{
+			try
+			{
+				this.task.run();
+			}
+			finally
+			{
+				afterExecute(this.key);
+			}
+		}
+	}
+}
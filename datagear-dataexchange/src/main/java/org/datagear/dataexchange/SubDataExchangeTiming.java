@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2018 datagear.org. All Rights Reserved.
+ */
+
+package org.datagear.dataexchange;
+
+/**
+ * 子数据交换任务耗时信息。
+ * 
+ * @author datagear@163.com
+ *
+ */
+public class SubDataExchangeTiming
+{
+	private SubDataExchange subDataExchange;
+
+	/** 提交时间 */
+	private long submitTime = 0;
+
+	/** 开始执行时间，为{@code 0}表示还未开始执行 */
+	private long startTime = 0;
+
+	/** 结束时间，为{@code 0}表示还未结束 */
+	private long endTime = 0;
+
+	public SubDataExchangeTiming()
+	{
+		super();
+	}
+
+	public SubDataExchangeTiming(SubDataExchange subDataExchange, long submitTime, long startTime, long endTime)
+	{
+		super();
+		this.subDataExchange = subDataExchange;
+		this.submitTime = submitTime;
+		this.startTime = startTime;
+		this.endTime = endTime;
+	}
+
+	public SubDataExchange getSubDataExchange()
+	{
+		return subDataExchange;
+	}
+
+	public void setSubDataExchange(SubDataExchange subDataExchange)
+	{
+		this.subDataExchange = subDataExchange;
+	}
+
+	public long getSubmitTime()
+	{
+		return submitTime;
+	}
+
+	public void setSubmitTime(long submitTime)
+	{
+		this.submitTime = submitTime;
+	}
+
+	public long getStartTime()
+	{
+		return startTime;
+	}
+
+	public void setStartTime(long startTime)
+	{
+		this.startTime = startTime;
+	}
+
+	public long getEndTime()
+	{
+		return endTime;
+	}
+
+	public void setEndTime(long endTime)
+	{
+		this.endTime = endTime;
+	}
+
+	/**
+	 * 获取排队等待毫秒数。
+	 * 
+	 * @return 为{@code -1}表示还未开始执行
+	 */
+	public long getWaitMillis()
+	{
+		if (this.startTime <= 0)
+			return -1;
+
+		return (this.startTime - this.submitTime);
+	}
+
+	/**
+	 * 获取执行毫秒数。
+	 * 
+	 * @return 为{@code -1}表示还未执行完成
+	 */
+	public long getRunMillis()
+	{
+		if (this.startTime <= 0 || this.endTime <= 0)
+			return -1;
+
+		return (this.endTime - this.startTime);
+	}
+
+	@Override
+	public String toString()
+	{
+		return getClass().getSimpleName() + " [subDataExchange=" + subDataExchange + ", waitMillis="
+				+ getWaitMillis() + ", runMillis=" + getRunMillis() + "]";
+	}
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2018 datagear.org. All Rights Reserved.
+ */
+
+package org.datagear.dataexchange;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.datagear.meta.Column;
+
+/**
+ * 值数据导入批次。
+ * <p>
+ * 它封装导入{@linkplain PreparedStatement}、导入列，以及已加入{@linkplain PreparedStatement#addBatch()}但还未执行的行数据，
+ * 批量执行出错时，可使用这些行数据逐行重新导入。
+ * </p>
+ * <p>
+ * 参考{@linkplain AbstractDevotedDataExchangeService#importValueData(java.sql.Connection, ValueDataImportBatch, List, DataIndex)}。
+ * </p>
+ * 
+ * @author datagear@163.com
+ *
+ */
+public class ValueDataImportBatch
+{
+	/** 导入语句 */
+	private PreparedStatement statement;
+
+	/** 导入列 */
+	private List<Column> columns;
+
+	/** 导入设置项 */
+	private ValueDataImportOption importOption;
+
+	/** 数据格式上下文 */
+	private DataFormatContext dataFormatContext;
+
+	/** 导入监听器 */
+	private ValueDataImportListener listener;
+
+	/** 已加入批量但还未执行的行 */
+	private List<BatchRow> rows = new ArrayList<>();
+
+	/** 自上次提交后已执行的行数 */
+	private int uncommittedCount = 0;
+
+	public ValueDataImportBatch()
+	{
+		super();
+	}
+
+	public ValueDataImportBatch(PreparedStatement statement, List<Column> columns,
+			ValueDataImportOption importOption, DataFormatContext dataFormatContext,
+			ValueDataImportListener listener)
+	{
+		super();
+		this.statement = statement;
+		this.columns = columns;
+		this.importOption = importOption;
+		this.dataFormatContext = dataFormatContext;
+		this.listener = listener;
+	}
+
+	public PreparedStatement getStatement()
+	{
+		return statement;
+	}
+
+	public void setStatement(PreparedStatement statement)
+	{
+		this.statement = statement;
+	}
+
+	public List<Column> getColumns()
+	{
+		return columns;
+	}
+
+	public void setColumns(List<Column> columns)
+	{
+		this.columns = columns;
+	}
+
+	public ValueDataImportOption getImportOption()
+	{
+		return importOption;
+	}
+
+	public void setImportOption(ValueDataImportOption importOption)
+	{
+		this.importOption = importOption;
+	}
+
+	public DataFormatContext getDataFormatContext()
+	{
+		return dataFormatContext;
+	}
+
+	public void setDataFormatContext(DataFormatContext dataFormatContext)
+	{
+		this.dataFormatContext = dataFormatContext;
+	}
+
+	public ValueDataImportListener getListener()
+	{
+		return listener;
+	}
+
+	public void setListener(ValueDataImportListener listener)
+	{
+		this.listener = listener;
+	}
+
+	public List<BatchRow> getRows()
+	{
+		return rows;
+	}
+
+	public int getUncommittedCount()
+	{
+		return uncommittedCount;
+	}
+
+	public void setUncommittedCount(int uncommittedCount)
+	{
+		this.uncommittedCount = uncommittedCount;
+	}
+
+	/**
+	 * 是否批量导入。
+	 * 
+	 * @return
+	 */
+	public boolean isBatch()
+	{
+		return (this.importOption.getBatchSize() > 1);
+	}
+
+	/**
+	 * 添加已加入批量的行。
+	 * <p>
+	 * 调用方可能复用{@code columnValues}列表读取下一行，所以这里会复制一份。
+	 * </p>
+	 * 
+	 * @param columnValues
+	 * @param dataIndex
+	 */
+	public void addRow(List<? extends Object> columnValues, DataIndex dataIndex)
+	{
+		this.rows.add(new BatchRow(new ArrayList<Object>(columnValues), dataIndex));
+	}
+
+	/**
+	 * 是否已达到批量大小。
+	 * 
+	 * @return
+	 */
+	public boolean isFull()
+	{
+		return (this.rows.size() >= this.importOption.getBatchSize());
+	}
+
+	/**
+	 * 是否有还未执行的行。
+	 * 
+	 * @return
+	 */
+	public boolean hasRow()
+	{
+		return !this.rows.isEmpty();
+	}
+
+	/**
+	 * 增加已执行的行数，并返回是否需要提交。
+	 * <p>
+	 * 当{@linkplain ValueDataImportOption#getExceptionResolve()}为{@linkplain ExceptionResolve#ROLLBACK}时，
+	 * 为了保证出错时可以整体回滚，将始终返回{@code false}。
+	 * </p>
+	 * 
+	 * @param count
+	 * @return
+	 */
+	public boolean addUncommittedCount(int count)
+	{
+		this.uncommittedCount += count;
+
+		int commitInterval = this.importOption.getCommitInterval();
+
+		if (commitInterval <= 0 || ExceptionResolve.ROLLBACK.equals(this.importOption.getExceptionResolve()))
+			return false;
+
+		return (this.uncommittedCount >= commitInterval);
+	}
+
+	/**
+	 * 已加入批量的行。
+	 * 
+	 * @author datagear@163.com
+	 *
+	 */
+	public static class BatchRow
+	{
+		private final List<? extends Object> columnValues;
+
+		private final DataIndex dataIndex;
+
+		public BatchRow(List<? extends Object> columnValues, DataIndex dataIndex)
+		{
+			super();
+			this.columnValues = columnValues;
+			this.dataIndex = dataIndex;
+		}
+
+		public List<? extends Object> getColumnValues()
+		{
+			return columnValues;
+		}
+
+		public DataIndex getDataIndex()
+		{
+			return dataIndex;
+		}
+	}
+}
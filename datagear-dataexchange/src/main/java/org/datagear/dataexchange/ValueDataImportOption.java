@@ -20,6 +20,12 @@ public class ValueDataImportOption extends DataImportOption
 	/** 当列值非法时设置为null */
 	private boolean nullForIllegalColumnValue;
 
+	/** 批量导入的每批行数，小于等于1表示逐行导入 */
+	private int batchSize = 0;
+
+	/** 每导入多少行提交一次，小于等于0表示仅在导入完成时提交 */
+	private int commitInterval = 0;
+
 	public ValueDataImportOption()
 	{
 		super();
@@ -53,11 +59,40 @@ public class ValueDataImportOption extends DataImportOption
 		this.nullForIllegalColumnValue = nullForIllegalColumnValue;
 	}
 
+	public int getBatchSize()
+	{
+		return batchSize;
+	}
+
+	public void setBatchSize(int batchSize)
+	{
+		this.batchSize = batchSize;
+	}
+
+	public int getCommitInterval()
+	{
+		return commitInterval;
+	}
+
+	/**
+	 * 设置每导入多少行提交一次。
+	 * <p>
+	 * 当{@linkplain #getExceptionResolve()}为{@linkplain ExceptionResolve#ROLLBACK}时，此设置无效。
+	 * </p>
+	 * 
+	 * @param commitInterval
+	 */
+	public void setCommitInterval(int commitInterval)
+	{
+		this.commitInterval = commitInterval;
+	}
+
 	@Override
 	public String toString()
 	{
 		return getClass().getSimpleName() + " [exceptionResolve=" + getExceptionResolve() + ", ignoreInexistentColumn="
-				+ ignoreInexistentColumn + ", nullForIllegalColumnValue=" + nullForIllegalColumnValue + "]";
+				+ ignoreInexistentColumn + ", nullForIllegalColumnValue=" + nullForIllegalColumnValue + ", batchSize="
+				+ batchSize + ", commitInterval=" + commitInterval + "]";
 	}
 
 }
@@ -19,6 +19,7 @@ import org.datagear.dataexchange.DataExchangeContext;
 import org.datagear.dataexchange.DataExchangeException;
 import org.datagear.dataexchange.IndexFormatDataExchangeContext;
 import org.datagear.dataexchange.RowDataIndex;
+import org.datagear.dataexchange.ValueDataImportBatch;
 import org.datagear.dataexchange.ValueDataImportOption;
 import org.datagear.meta.Column;
 import org.datagear.meta.resolver.DBMetaResolver;
@@ -60,7 +61,7 @@ public class CsvDataImportService extends AbstractDevotedDBMetaDataExchangeServi
 		JdbcUtil.setAutoCommitIfSupports(cn, false);
 		JdbcUtil.setReadonlyIfSupports(cn, false);
 
-		PreparedStatement st = null;
+		ValueDataImportBatch batch = null;
 
 		List<Column> rawColumns = null;
 		List<Column> noNullColumns = null;
@@ -83,20 +84,23 @@ public class CsvDataImportService extends AbstractDevotedDBMetaDataExchangeServi
 					throw new TableMismatchException(dataExchange.getTable());
 
 				String sql = buildInsertPreparedSql(cn, dataExchange.getTable(), noNullColumns);
-				st = cn.prepareStatement(sql);
+				PreparedStatement st = cn.prepareStatement(sql);
+				batch = createValueDataImportBatch(st, noNullColumns, importOption,
+						importContext.getDataFormatContext(), dataExchange.getListener());
 			}
 			else
 			{
 				List<String> columnValues = resolveCSVRecordValues(dataExchange, csvRecord, rawColumns, noNullColumns);
 
-				importValueData(cn, st, noNullColumns, columnValues, importContext.getDataIndex(),
-						importOption.isNullForIllegalColumnValue(), importOption.getExceptionResolve(),
-						importContext.getDataFormatContext(), dataExchange.getListener());
+				importValueData(cn, batch, columnValues, importContext.getDataIndex());
 			}
 
 			row++;
 		}
 
+		if (batch != null)
+			executeValueDataImportBatch(cn, batch);
+
 		commit(cn);
 	}
 
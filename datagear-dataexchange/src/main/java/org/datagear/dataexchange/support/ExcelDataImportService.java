@@ -8,7 +8,6 @@ import static org.apache.poi.xssf.usermodel.XSSFRelation.NS_SPREADSHEETML;
 
 import java.io.InputStream;
 import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.sql.Types;
 import java.util.ArrayList;
 import java.util.List;
@@ -41,12 +40,12 @@ import org.datagear.dataexchange.AbstractDevotedDBMetaDataExchangeService;
 import org.datagear.dataexchange.DataExchangeContext;
 import org.datagear.dataexchange.DataExchangeException;
 import org.datagear.dataexchange.IndexFormatDataExchangeContext;
+import org.datagear.dataexchange.ValueDataImportBatch;
 import org.datagear.meta.Column;
 import org.datagear.meta.resolver.DBMetaResolver;
 import org.datagear.util.IOUtil;
 import org.datagear.util.JdbcUtil;
 import org.xml.sax.Attributes;
-import org.xml.sax.ContentHandler;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 import org.xml.sax.XMLReader;
@@ -116,11 +115,13 @@ public class ExcelDataImportService extends AbstractDevotedDBMetaDataExchangeSer
 		POIFSFileSystem poifs = new POIFSFileSystem(dataExchange.getFile(), true);
 
 		HSSFRequest req = new HSSFRequest();
-		req.addListenerForAllRecords(
-				new MissingRecordAwareHSSFListener(new XlsEventListener(dataExchange, importContext, cn)));
+		XlsEventListener listener = new XlsEventListener(dataExchange, importContext, cn);
+		req.addListenerForAllRecords(new MissingRecordAwareHSSFListener(listener));
 
 		HSSFEventFactory factory = new HSSFEventFactory();
 		factory.processWorkbookEvents(req, poifs);
+
+		listener.executeBatch();
 	}
 
 	/**
@@ -184,10 +185,12 @@ public class ExcelDataImportService extends AbstractDevotedDBMetaDataExchangeSer
 		InputSource sheetSource = new InputSource(sheetInputStream);
 
 		XMLReader sheetParser = SAXHelper.newXMLReader();
-		ContentHandler handler = new XlsxSheetHandler(dataExchange, importContext, cn, stylesTable, sharedStringsTable,
-				sheetName, sheetIndex);
+		XlsxSheetHandler handler = new XlsxSheetHandler(dataExchange, importContext, cn, stylesTable,
+				sharedStringsTable, sheetName, sheetIndex);
 		sheetParser.setContentHandler(handler);
 		sheetParser.parse(sheetSource);
+
+		handler.executeBatch();
 	}
 
 	protected <T> List<T> createListWithNullElements(int size)
@@ -246,7 +249,7 @@ public class ExcelDataImportService extends AbstractDevotedDBMetaDataExchangeSer
 		private List<Object> _columnValues = null;
 		private List<Column> _columns = null;
 		private List<Column> _noNullColumns = null;
-		private PreparedStatement _statement = null;
+		private ValueDataImportBatch _batch = null;
 
 		public XlsEventListener()
 		{
@@ -292,6 +295,17 @@ public class ExcelDataImportService extends AbstractDevotedDBMetaDataExchangeSer
 			this.connection = connection;
 		}
 
+		/**
+		 * 执行剩余的批量导入数据。
+		 * 
+		 * @throws DataExchangeException
+		 */
+		public void executeBatch() throws DataExchangeException
+		{
+			if (this._batch != null)
+				executeValueDataImportBatch(this.connection, this._batch);
+		}
+
 		@Override
 		public void processRecord(Record record)
 		{
@@ -456,7 +470,17 @@ public class ExcelDataImportService extends AbstractDevotedDBMetaDataExchangeSer
 						throw new TableMismatchException(tableName);
 
 					String sql = buildInsertPreparedSqlUnchecked(this.connection, tableName, this._noNullColumns);
-					this._statement = createPreparedStatementUnchecked(this.connection, sql);
+					ValueDataImportBatch prevBatch = this._batch;
+
+					// 执行上一个sheet剩余的批量数据
+					executeBatch();
+
+					this._batch = createValueDataImportBatch(createPreparedStatementUnchecked(this.connection, sql),
+							this._noNullColumns, this.excelDataImport.getImportOption(),
+							this.importContext.getDataFormatContext(), this.excelDataImport.getListener());
+
+					if (prevBatch != null)
+						this._batch.setUncommittedCount(prevBatch.getUncommittedCount());
 				}
 				// 导入数据
 				else
@@ -471,11 +495,8 @@ public class ExcelDataImportService extends AbstractDevotedDBMetaDataExchangeSer
 
 						this.importContext.setDataIndex(ExcelDataIndex.valueOf(this._sheetIndex, this._rowIndex));
 
-						ExcelDataImportService.this.importValueData(this.connection, this._statement,
-								this._noNullColumns, columnValues, this.importContext.getDataIndex(),
-								this.excelDataImport.getImportOption().isNullForIllegalColumnValue(),
-								this.excelDataImport.getImportOption().getExceptionResolve(),
-								this.importContext.getDataFormatContext(), this.excelDataImport.getListener());
+						ExcelDataImportService.this.importValueData(this.connection, this._batch, columnValues,
+								this.importContext.getDataIndex());
 					}
 				}
 
@@ -531,7 +552,7 @@ public class ExcelDataImportService extends AbstractDevotedDBMetaDataExchangeSer
 		private List<Object> _columnValues = new ArrayList<>();
 		private List<Column> _columns = null;
 		private List<Column> _noNullColumns = null;
-		private PreparedStatement _statement = null;
+		private ValueDataImportBatch _batch = null;
 
 		public XlsxSheetHandler()
 		{
@@ -582,6 +603,17 @@ public class ExcelDataImportService extends AbstractDevotedDBMetaDataExchangeSer
 			this.connection = connection;
 		}
 
+		/**
+		 * 执行剩余的批量导入数据。
+		 * 
+		 * @throws DataExchangeException
+		 */
+		public void executeBatch() throws DataExchangeException
+		{
+			if (this._batch != null)
+				executeValueDataImportBatch(this.connection, this._batch);
+		}
+
 		public StylesTable getStylesTable()
 		{
 			return stylesTable;
@@ -770,7 +802,17 @@ public class ExcelDataImportService extends AbstractDevotedDBMetaDataExchangeSer
 						throw new TableMismatchException(tableName);
 
 					String sql = buildInsertPreparedSqlUnchecked(this.connection, tableName, this._noNullColumns);
-					this._statement = createPreparedStatementUnchecked(this.connection, sql);
+					ValueDataImportBatch prevBatch = this._batch;
+
+					// 执行上一个sheet剩余的批量数据
+					executeBatch();
+
+					this._batch = createValueDataImportBatch(createPreparedStatementUnchecked(this.connection, sql),
+							this._noNullColumns, this.excelDataImport.getImportOption(),
+							this.importContext.getDataFormatContext(), this.excelDataImport.getListener());
+
+					if (prevBatch != null)
+						this._batch.setUncommittedCount(prevBatch.getUncommittedCount());
 				}
 				// 导入数据
 				else
@@ -785,11 +827,8 @@ public class ExcelDataImportService extends AbstractDevotedDBMetaDataExchangeSer
 
 						this.importContext.setDataIndex(ExcelDataIndex.valueOf(this.sheetIndex, this._rowIndex));
 
-						ExcelDataImportService.this.importValueData(this.connection, this._statement,
-								this._noNullColumns, columnValues, this.importContext.getDataIndex(),
-								this.excelDataImport.getImportOption().isNullForIllegalColumnValue(),
-								this.excelDataImport.getImportOption().getExceptionResolve(),
-								this.importContext.getDataFormatContext(), this.excelDataImport.getListener());
+						ExcelDataImportService.this.importValueData(this.connection, this._batch, columnValues,
+								this.importContext.getDataIndex());
 					}
 				}
 
@@ -6,7 +6,6 @@ package org.datagear.dataexchange.support;
 
 import java.io.Reader;
 import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -24,6 +23,7 @@ import org.datagear.dataexchange.DataExchangeContext;
 import org.datagear.dataexchange.DataExchangeException;
 import org.datagear.dataexchange.IndexFormatDataExchangeContext;
 import org.datagear.dataexchange.RowColumnDataIndex;
+import org.datagear.dataexchange.ValueDataImportBatch;
 import org.datagear.meta.Column;
 import org.datagear.meta.resolver.DBMetaResolver;
 import org.datagear.util.JdbcUtil;
@@ -176,7 +176,7 @@ public class JsonDataImportService extends AbstractDevotedDBMetaDataExchangeServ
 
 		List<Column> totalColumns = getColumns(cn, table);
 
-		PreparedStatement prevSt = null;
+		ValueDataImportBatch prevBatch = null;
 		List<Column> prevColumns = null;
 
 		while (p.hasNext())
@@ -203,7 +203,7 @@ public class JsonDataImportService extends AbstractDevotedDBMetaDataExchangeServ
 			{
 				boolean newSql = false;
 
-				if (prevSt == null || prevColumns == null)
+				if (prevBatch == null || prevColumns == null)
 					newSql = true;
 				else if (myColumns.equals(prevColumns))
 					newSql = false;
@@ -212,21 +212,32 @@ public class JsonDataImportService extends AbstractDevotedDBMetaDataExchangeServ
 
 				if (newSql)
 				{
-					JdbcUtil.closeStatement(prevSt);
+					int uncommittedCount = 0;
+
+					if (prevBatch != null)
+					{
+						executeValueDataImportBatch(cn, prevBatch);
+						JdbcUtil.closeStatement(prevBatch.getStatement());
+						uncommittedCount = prevBatch.getUncommittedCount();
+					}
 
 					String sql = buildInsertPreparedSql(cn, table, myColumns);
 
-					prevSt = cn.prepareStatement(sql);
+					prevBatch = createValueDataImportBatch(cn.prepareStatement(sql), myColumns, importOption,
+							context.getDataFormatContext(), dataExchange.getListener());
+					prevBatch.setUncommittedCount(uncommittedCount);
 					prevColumns = myColumns;
 				}
 
-				importValueData(cn, prevSt, prevColumns, myColumnValues, context.getDataIndex(),
-						importOption.isNullForIllegalColumnValue(), importOption.getExceptionResolve(),
-						context.getDataFormatContext(), dataExchange.getListener());
+				importValueData(cn, prevBatch, myColumnValues, context.getDataIndex());
 			}
 		}
 
-		JdbcUtil.closeStatement(prevSt);
+		if (prevBatch != null)
+		{
+			executeValueDataImportBatch(cn, prevBatch);
+			JdbcUtil.closeStatement(prevBatch.getStatement());
+		}
 	}
 
 	/**
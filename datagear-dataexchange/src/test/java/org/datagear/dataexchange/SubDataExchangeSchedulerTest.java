@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2018 datagear.org. All Rights Reserved.
+ */
+
+package org.datagear.dataexchange;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * {@linkplain SubDataExchangeScheduler}单元测试类。
+ * 
+ * @author datagear@163.com
+ *
+ */
+public class SubDataExchangeSchedulerTest
+{
+	@Test
+	public void executeTest() throws Exception
+	{
+		SubDataExchangeScheduler scheduler = new SubDataExchangeScheduler(4);
+		scheduler.setConcurrencyPerKey(2);
+
+		final int taskCount = 10;
+		final AtomicInteger running = new AtomicInteger(0);
+		final AtomicInteger maxRunning = new AtomicInteger(0);
+		final CountDownLatch finishLatch = new CountDownLatch(taskCount);
+
+		try
+		{
+			for (int i = 0; i < taskCount; i++)
+			{
+				scheduler.execute("schema", new Runnable()
+				{
+					@Override
+					public void run()
+					{
+						int myRunning = running.incrementAndGet();
+
+						synchronized (maxRunning)
+						{
+							if (myRunning > maxRunning.get())
+								maxRunning.set(myRunning);
+						}
+
+						try
+						{
+							Thread.sleep(20);
+						}
+						catch (InterruptedException e)
+						{
+						}
+
+						running.decrementAndGet();
+						finishLatch.countDown();
+					}
+				});
+			}
+
+			Assert.assertTrue(scheduler.getQueueDepth() > 0);
+			Assert.assertTrue(finishLatch.await(10, TimeUnit.SECONDS));
+			Assert.assertTrue(maxRunning.get() <= 2);
+		}
+		finally
+		{
+			scheduler.shutdown();
+		}
+	}
+}
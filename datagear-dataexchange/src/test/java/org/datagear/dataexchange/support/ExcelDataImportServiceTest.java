@@ -8,6 +8,11 @@ import static org.junit.Assert.assertEquals;
 
 import java.io.File;
 import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.datagear.dataexchange.ColumnNotFoundException;
@@ -252,6 +257,108 @@ public class ExcelDataImportServiceTest extends DataexchangeTestSupport
 		}
 	}
 
+	/**
+	 * 批量导入多行，且批量执行出错，需逐行重新导入。
+	 * 
+	 * @throws Throwable
+	 */
+	@Test
+	public void exchangeTest_xlsx_batch_reimport() throws Throwable
+	{
+		DataFormat dataFormat = new DataFormat();
+
+		Connection cn = getConnection();
+
+		try
+		{
+			File excelFile = getClasspathFileForTest(
+					"org/datagear/dataexchange/support/ExcelDataImportServiceTest.xlsx");
+
+			ValueDataImportOption valueDataImportOption = new ValueDataImportOption(ExceptionResolve.IGNORE, true,
+					true);
+			valueDataImportOption.setBatchSize(10);
+
+			clearTable(cn, TABLE_NAME_DATA_IMPORT);
+			clearTable(cn, TABLE_NAME_DATA_EXPORT);
+
+			ExcelDataImport impt = new ExcelDataImport(new SimpleConnectionFactory(cn, false), dataFormat,
+					valueDataImportOption, excelFile);
+			impt.setListener(new MockValueDataImportListener());
+
+			this.excelDataImportService.exchange(impt);
+
+			Map<Integer, String> expected = getIdNames(cn, TABLE_NAME_DATA_IMPORT);
+			assertEquals(5, expected.size());
+
+			// 仅保留一行，再次导入时，此行的主键冲突将使批量执行出错，从而逐行重新导入
+			Integer keepId = expected.keySet().iterator().next();
+			deleteExcept(cn, TABLE_NAME_DATA_IMPORT, keepId);
+			clearTable(cn, TABLE_NAME_DATA_EXPORT);
+
+			final AtomicInteger ignoreCount = new AtomicInteger(0);
+
+			impt = new ExcelDataImport(new SimpleConnectionFactory(cn, false), dataFormat, valueDataImportOption,
+					excelFile);
+			impt.setListener(new MockValueDataImportListener()
+			{
+				@Override
+				public void onIgnore(DataIndex dataIndex, DataExchangeException e)
+				{
+					super.onIgnore(dataIndex, e);
+					ignoreCount.incrementAndGet();
+				}
+			});
+
+			this.excelDataImportService.exchange(impt);
+
+			assertEquals(1, ignoreCount.get());
+			assertEquals(expected, getIdNames(cn, TABLE_NAME_DATA_IMPORT));
+		}
+		finally
+		{
+			JdbcUtil.closeConnection(cn);
+		}
+	}
+
+	protected Map<Integer, String> getIdNames(Connection cn, String table) throws SQLException
+	{
+		Map<Integer, String> re = new HashMap<>();
+
+		Statement st = null;
+		ResultSet rs = null;
+
+		try
+		{
+			st = cn.createStatement();
+			rs = st.executeQuery("select ID, NAME from " + table);
+
+			while (rs.next())
+				re.put(rs.getInt(1), rs.getString(2));
+		}
+		finally
+		{
+			JdbcUtil.closeResultSet(rs);
+			JdbcUtil.closeStatement(st);
+		}
+
+		return re;
+	}
+
+	protected void deleteExcept(Connection cn, String table, Integer id) throws SQLException
+	{
+		Statement st = null;
+
+		try
+		{
+			st = cn.createStatement();
+			st.executeUpdate("delete from " + table + " where ID <> " + id);
+		}
+		finally
+		{
+			JdbcUtil.closeStatement(st);
+		}
+	}
+
 	protected File getClasspathFileForTest(String classpath)
 	{
 		if (!classpath.startsWith("/"))
@@ -92,4 +92,18 @@ public interface DataSetEntity
 	 * @param createTime
 	 */
 	void setCreateTime(Date createTime);
+
+	/**
+	 * 获取结果缓存秒数。
+	 * 
+	 * @return {@code <=0}表示不缓存
+	 */
+	int getCacheTtl();
+
+	/**
+	 * 设置结果缓存秒数。
+	 * 
+	 * @param cacheTtl
+	 */
+	void setCacheTtl(int cacheTtl);
 }
@@ -63,6 +63,24 @@ public class Schema extends AbstractStringIdEntity
 	/** 数据库驱动程序路径名 */
 	private DriverEntity driverEntity;
 
+	/** 查询结果集读取行数，等于0表示使用数据库默认值，小于0表示流式读取（参考{@linkplain org.datagear.util.JdbcSupport#FETCH_SIZE_STREAMING}） */
+	private int fetchSize = 0;
+
+	/** 连接池最大连接数，小于等于0表示使用默认值 */
+	private int poolMaxTotal = 0;
+
+	/** 连接池最小空闲连接数，小于等于0表示使用默认值 */
+	private int poolMinIdle = 0;
+
+	/** 获取连接最大等待毫秒数，小于等于0表示使用默认值 */
+	private int poolMaxWait = 0;
+
+	/** 空闲连接最大保留秒数，小于等于0表示不回收空闲连接 */
+	private int poolMaxIdleTime = 0;
+
+	/** 连接校验SQL，为空表示使用驱动程序的校验方式 */
+	private String poolValidationQuery;
+
 	/** 权限 */
 	private int dataPermission = PERMISSION_NOT_LOADED;
 
@@ -172,6 +190,66 @@ public class Schema extends AbstractStringIdEntity
 		this.driverEntity = driverEntity;
 	}
 
+	public int getFetchSize()
+	{
+		return fetchSize;
+	}
+
+	public void setFetchSize(int fetchSize)
+	{
+		this.fetchSize = fetchSize;
+	}
+
+	public int getPoolMaxTotal()
+	{
+		return poolMaxTotal;
+	}
+
+	public void setPoolMaxTotal(int poolMaxTotal)
+	{
+		this.poolMaxTotal = poolMaxTotal;
+	}
+
+	public int getPoolMinIdle()
+	{
+		return poolMinIdle;
+	}
+
+	public void setPoolMinIdle(int poolMinIdle)
+	{
+		this.poolMinIdle = poolMinIdle;
+	}
+
+	public int getPoolMaxWait()
+	{
+		return poolMaxWait;
+	}
+
+	public void setPoolMaxWait(int poolMaxWait)
+	{
+		this.poolMaxWait = poolMaxWait;
+	}
+
+	public int getPoolMaxIdleTime()
+	{
+		return poolMaxIdleTime;
+	}
+
+	public void setPoolMaxIdleTime(int poolMaxIdleTime)
+	{
+		this.poolMaxIdleTime = poolMaxIdleTime;
+	}
+
+	public String getPoolValidationQuery()
+	{
+		return poolValidationQuery;
+	}
+
+	public void setPoolValidationQuery(String poolValidationQuery)
+	{
+		this.poolValidationQuery = poolValidationQuery;
+	}
+
 	@Override
 	public int getDataPermission()
 	{
@@ -196,6 +274,19 @@ public class Schema extends AbstractStringIdEntity
 		this.password = null;
 	}
 
+	@Override
+	public Schema clone()
+	{
+		try
+		{
+			return (Schema) super.clone();
+		}
+		catch (CloneNotSupportedException e)
+		{
+			throw new IllegalStateException(e);
+		}
+	}
+
 	public static boolean isReadTableDataPermission(int permission)
 	{
 		return permission >= PERMISSION_TABLE_DATA_READ && permission < PERMISSION_TABLE_DATA_EDIT;
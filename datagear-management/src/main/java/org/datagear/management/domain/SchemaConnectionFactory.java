@@ -10,7 +10,9 @@ package org.datagear.management.domain;
 import java.sql.Connection;
 
 import org.datagear.connection.ConnectionSource;
+import org.datagear.connection.ConnectionSourceException;
 import org.datagear.management.util.SchemaConnectionSupport;
+import org.datagear.meta.resolver.DBMetaResolver;
 import org.datagear.util.JdbcUtil;
 import org.datagear.util.resource.ConnectionFactory;
 
@@ -38,6 +40,13 @@ public class SchemaConnectionFactory extends SchemaConnectionSupport implements
 		this.schema = schema;
 	}
 
+	public SchemaConnectionFactory(ConnectionSource connectionSource, Schema schema, DBMetaResolver dbMetaResolver)
+	{
+		super(dbMetaResolver);
+		this.connectionSource = connectionSource;
+		this.schema = schema;
+	}
+
 	public ConnectionSource getConnectionSource()
 	{
 		return connectionSource;
@@ -61,6 +70,9 @@ public class SchemaConnectionFactory extends SchemaConnectionSupport implements
 	@Override
 	public Connection get() throws Exception
 	{
+		if (this.schema == null)
+			throw new ConnectionSourceException("The schema is not found");
+
 		return super.getSchemaConnection(this.connectionSource, this.schema);
 	}
 
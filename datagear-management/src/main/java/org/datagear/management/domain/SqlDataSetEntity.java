@@ -12,6 +12,7 @@ import java.util.List;
 
 import org.datagear.analysis.DataSetProperty;
 import org.datagear.analysis.support.SqlDataSet;
+import org.datagear.util.JdbcSupport;
 import org.datagear.util.resource.ConnectionFactory;
 
 /**
@@ -20,7 +21,7 @@ import org.datagear.util.resource.ConnectionFactory;
  * @author datagear@163.com
  *
  */
-public class SqlDataSetEntity extends SqlDataSet implements DataSetEntity
+public class SqlDataSetEntity extends SqlDataSet implements DataSetEntity, Cloneable
 {
 	private static final long serialVersionUID = 1L;
 
@@ -64,6 +65,26 @@ public class SqlDataSetEntity extends SqlDataSet implements DataSetEntity
 		super.setConnectionFactory(connectionFactory);
 	}
 
+	/**
+	 * 获取结果集读取行数。
+	 * <p>
+	 * 使用{@linkplain Schema#getFetchSize()}，它小于{@code 0}时，返回{@linkplain JdbcSupport#FETCH_SIZE_STREAMING}。
+	 * </p>
+	 */
+	@Override
+	public int getFetchSize()
+	{
+		SchemaConnectionFactory connectionFactory = getConnectionFactory();
+		Schema schema = (connectionFactory == null ? null : connectionFactory.getSchema());
+
+		if (schema == null)
+			return super.getFetchSize();
+
+		int fetchSize = schema.getFetchSize();
+
+		return (fetchSize < 0 ? JdbcSupport.FETCH_SIZE_STREAMING : fetchSize);
+	}
+
 	public SchemaConnectionFactory getSchemaConnectionFactory()
 	{
 		return getConnectionFactory();
@@ -123,6 +144,25 @@ public class SqlDataSetEntity extends SqlDataSet implements DataSetEntity
 		this.dataPermission = dataPermission;
 	}
 
+	/**
+	 * 浅复制。
+	 * <p>
+	 * 参数、属性等引用类型的属性值与原对象共享。
+	 * </p>
+	 */
+	@Override
+	public SqlDataSetEntity clone()
+	{
+		try
+		{
+			return (SqlDataSetEntity) super.clone();
+		}
+		catch (CloneNotSupportedException e)
+		{
+			throw new IllegalStateException(e);
+		}
+	}
+
 	@Override
 	public AnalysisProject getAnalysisProject()
 	{
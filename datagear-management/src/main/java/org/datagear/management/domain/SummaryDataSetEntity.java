@@ -39,6 +39,8 @@ public class SummaryDataSetEntity extends AbstractDataSet implements DataSetEnti
 
 	private AnalysisProject analysisProject = null;
 
+	private int cacheTtl = 0;
+
 	public SummaryDataSetEntity()
 	{
 		super();
@@ -114,6 +116,18 @@ public class SummaryDataSetEntity extends AbstractDataSet implements DataSetEnti
 		this.analysisProject = analysisProject;
 	}
 
+	@Override
+	public int getCacheTtl()
+	{
+		return cacheTtl;
+	}
+
+	@Override
+	public void setCacheTtl(int cacheTtl)
+	{
+		this.cacheTtl = cacheTtl;
+	}
+
 	@Override
 	public DataSetResult getResult(Map<String, ?> paramValues) throws DataSetException
 	{
@@ -14,6 +14,8 @@ import org.datagear.persistence.PagingData;
 import org.datagear.persistence.PagingQuery;
 import org.datagear.persistence.Query;
 import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * 抽象基于Mybatis的{@linkplain EntityService}实现类。
@@ -24,6 +26,9 @@ import org.mybatis.spring.SqlSessionTemplate;
 public abstract class AbstractMybatisEntityService<ID, T extends Entity<ID>> extends AbstractMybatisService<T>
 		implements EntityService<ID, T>
 {
+	/** 缓存，为{@code null}表示不使用缓存 */
+	private ServiceCache cache = null;
+
 	public AbstractMybatisEntityService()
 	{
 		super();
@@ -39,6 +44,16 @@ public abstract class AbstractMybatisEntityService<ID, T extends Entity<ID>> ext
 		super(sqlSessionTemplate);
 	}
 
+	public ServiceCache getCache()
+	{
+		return cache;
+	}
+
+	public void setCache(ServiceCache cache)
+	{
+		this.cache = cache;
+	}
+
 	@Override
 	public boolean add(T entity)
 	{
@@ -137,4 +152,97 @@ public abstract class AbstractMybatisEntityService<ID, T extends Entity<ID>> ext
 	{
 		return super.pagingQuery(pagingQuery);
 	}
+
+	/**
+	 * 获取缓存版本号，用于{@linkplain #cachePut(Object, Object, long)}。
+	 * 
+	 * @return
+	 */
+	protected long cacheVersion()
+	{
+		return (this.cache == null ? 0 : this.cache.getVersion());
+	}
+
+	/**
+	 * 获取缓存值。
+	 * 
+	 * @param key
+	 * @return 返回{@code null}表示没有
+	 */
+	protected <V> V cacheGet(Object key)
+	{
+		return (this.cache == null ? null : this.cache.get(key));
+	}
+
+	/**
+	 * 添加缓存值。
+	 * 
+	 * @param key
+	 * @param value
+	 * @param version
+	 *            加载{@code value}前的{@linkplain #cacheVersion()}
+	 */
+	protected void cachePut(Object key, Object value, long version)
+	{
+		if (this.cache != null)
+			this.cache.put(key, value, version);
+	}
+
+	/**
+	 * 清除缓存值。
+	 * <p>
+	 * 如果在事务中，事务结束后还会再次清除，避免事务提交前被并发读取的旧值再次缓存。
+	 * </p>
+	 * 
+	 * @param key
+	 */
+	protected void cacheInvalidate(final Object key)
+	{
+		if (this.cache == null)
+			return;
+
+		final ServiceCache cache = this.cache;
+
+		cache.invalidate(key);
+
+		if (TransactionSynchronizationManager.isSynchronizationActive())
+		{
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter()
+			{
+				@Override
+				public void afterCompletion(int status)
+				{
+					cache.invalidate(key);
+				}
+			});
+		}
+	}
+
+	/**
+	 * 清除所有缓存值。
+	 * <p>
+	 * 如果在事务中，事务结束后还会再次清除。
+	 * </p>
+	 */
+	protected void cacheInvalidate()
+	{
+		if (this.cache == null)
+			return;
+
+		final ServiceCache cache = this.cache;
+
+		cache.invalidate();
+
+		if (TransactionSynchronizationManager.isSynchronizationActive())
+		{
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter()
+			{
+				@Override
+				public void afterCompletion(int status)
+				{
+					cache.invalidate();
+				}
+			});
+		}
+	}
 }
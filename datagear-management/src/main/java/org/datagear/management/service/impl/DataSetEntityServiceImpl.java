@@ -17,6 +17,13 @@ import org.apache.ibatis.session.SqlSessionFactory;
 import org.datagear.analysis.DataSet;
 import org.datagear.analysis.DataSetParam;
 import org.datagear.analysis.DataSetProperty;
+import org.datagear.analysis.support.AbstractCsvFileDataSet;
+import org.datagear.analysis.support.AbstractExcelDataSet;
+import org.datagear.analysis.support.AbstractJsonFileDataSet;
+import org.datagear.analysis.support.AbstractResolvableDataSet;
+import org.datagear.analysis.support.DataSetResultCache;
+import org.datagear.analysis.support.FileDataSetSourceCache;
+import org.datagear.analysis.support.LimitQuerySqlResolver;
 import org.datagear.analysis.support.ProfileDataSet;
 import org.datagear.connection.ConnectionSource;
 import org.datagear.management.domain.AnalysisProject;
@@ -28,6 +35,7 @@ import org.datagear.management.domain.ExcelDataSetEntity;
 import org.datagear.management.domain.HttpDataSetEntity;
 import org.datagear.management.domain.JsonFileDataSetEntity;
 import org.datagear.management.domain.JsonValueDataSetEntity;
+import org.datagear.management.domain.Schema;
 import org.datagear.management.domain.SchemaConnectionFactory;
 import org.datagear.management.domain.SqlDataSetEntity;
 import org.datagear.management.domain.SummaryDataSetEntity;
@@ -36,6 +44,7 @@ import org.datagear.management.service.AuthorizationService;
 import org.datagear.management.service.DataSetEntityService;
 import org.datagear.management.service.PermissionDeniedException;
 import org.datagear.management.service.SchemaService;
+import org.datagear.meta.resolver.DBMetaResolver;
 import org.datagear.persistence.PagingData;
 import org.datagear.persistence.PagingQuery;
 import org.datagear.util.FileUtil;
@@ -63,6 +72,18 @@ public class DataSetEntityServiceImpl extends AbstractMybatisDataPermissionEntit
 
 	private HttpClient httpClient;
 
+	/** 数据集结果缓存，为null表示不缓存 */
+	private DataSetResultCache dataSetResultCache = null;
+
+	/** 文件数据集源缓存，为null表示不缓存 */
+	private FileDataSetSourceCache fileDataSetSourceCache = null;
+
+	/** SQL数据集的限定结果行数查询SQL解析器，为null表示不在SQL中限定 */
+	private LimitQuerySqlResolver limitQuerySqlResolver = null;
+
+	/** SQL数据集连接绑定的元信息解析器，参考{@linkplain SchemaConnectionFactory}，允许为null */
+	private DBMetaResolver dbMetaResolver = null;
+
 	public DataSetEntityServiceImpl()
 	{
 		super();
@@ -143,28 +164,141 @@ public class DataSetEntityServiceImpl extends AbstractMybatisDataPermissionEntit
 		this.httpClient = httpClient;
 	}
 
+	public DataSetResultCache getDataSetResultCache()
+	{
+		return dataSetResultCache;
+	}
+
+	public void setDataSetResultCache(DataSetResultCache dataSetResultCache)
+	{
+		this.dataSetResultCache = dataSetResultCache;
+	}
+
+	public FileDataSetSourceCache getFileDataSetSourceCache()
+	{
+		return fileDataSetSourceCache;
+	}
+
+	public void setFileDataSetSourceCache(FileDataSetSourceCache fileDataSetSourceCache)
+	{
+		this.fileDataSetSourceCache = fileDataSetSourceCache;
+	}
+
+	public LimitQuerySqlResolver getLimitQuerySqlResolver()
+	{
+		return limitQuerySqlResolver;
+	}
+
+	public void setLimitQuerySqlResolver(LimitQuerySqlResolver limitQuerySqlResolver)
+	{
+		this.limitQuerySqlResolver = limitQuerySqlResolver;
+	}
+
+	public DBMetaResolver getDbMetaResolver()
+	{
+		return dbMetaResolver;
+	}
+
+	public void setDbMetaResolver(DBMetaResolver dbMetaResolver)
+	{
+		this.dbMetaResolver = dbMetaResolver;
+	}
+
 	@Override
 	public File getDataSetDirectory(String dataSetId)
 	{
 		return FileUtil.getDirectory(getDataSetRootDirectory(), dataSetId);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * 此方法会使用缓存，返回的数据集可能被多个线程共享，调用方不应修改它。
+	 * </p>
+	 * <p>
+	 * 对于{@linkplain SqlDataSetEntity}，因为数据源可能被修改或删除，每次都将返回绑定了最新数据源的副本，缓存的实体不会被修改。
+	 * </p>
+	 */
 	@Override
 	public DataSet getDataSet(String id)
 	{
-		DataSetEntity entity = getById(id);
+		DataSetEntity entity = cacheGet(id);
 
+		if (entity == null)
+		{
+			long version = cacheVersion();
+
+			entity = getById(id);
+
+			if (entity != null)
+				inflateDataSetDependencies(entity);
+
+			cachePut(id, entity, version);
+		}
+
+		if (entity instanceof SqlDataSetEntity)
+			entity = copyWithLatestSchema((SqlDataSetEntity) entity);
+
+		return entity;
+	}
+
+	/**
+	 * 为新加载的数据集设置依赖对象。
+	 * <p>
+	 * 此方法仅在数据集放入缓存前调用一次。
+	 * </p>
+	 * 
+	 * @param entity
+	 */
+	protected void inflateDataSetDependencies(DataSetEntity entity)
+	{
 		if (entity instanceof SqlDataSetEntity)
 		{
 			SqlDataSetEntity sqlDataSetEntity = (SqlDataSetEntity) entity;
 
 			SchemaConnectionFactory connectionFactory = sqlDataSetEntity.getConnectionFactory();
+			if (connectionFactory != null)
+			{
+				connectionFactory.setConnectionSource(this.connectionSource);
+				connectionFactory.setDbMetaResolver(this.dbMetaResolver);
+			}
 
-			connectionFactory.setSchema(this.schemaService.getById(connectionFactory.getSchema().getId()));
-			connectionFactory.setConnectionSource(this.connectionSource);
+			sqlDataSetEntity.setLimitQuerySqlResolver(this.limitQuerySqlResolver);
 		}
 
-		return entity;
+		if (entity instanceof AbstractResolvableDataSet)
+			((AbstractResolvableDataSet) entity).setResultCache(this.dataSetResultCache);
+
+		if (entity instanceof AbstractCsvFileDataSet)
+			((AbstractCsvFileDataSet) entity).setSourceCache(this.fileDataSetSourceCache);
+		else if (entity instanceof AbstractJsonFileDataSet)
+			((AbstractJsonFileDataSet) entity).setSourceCache(this.fileDataSetSourceCache);
+		else if (entity instanceof AbstractExcelDataSet)
+			((AbstractExcelDataSet) entity).setSourceCache(this.fileDataSetSourceCache);
+	}
+
+	/**
+	 * 复制{@linkplain SqlDataSetEntity}，并为副本绑定最新的数据源。
+	 * <p>
+	 * 缓存的实体仅用于保存数据源ID，不会被修改；数据源已被删除时，副本的数据源为{@code null}，获取连接时将报错。
+	 * </p>
+	 * 
+	 * @param entity
+	 * @return
+	 */
+	protected SqlDataSetEntity copyWithLatestSchema(SqlDataSetEntity entity)
+	{
+		SchemaConnectionFactory connectionFactory = entity.getConnectionFactory();
+		Schema schema = (connectionFactory == null ? null : connectionFactory.getSchema());
+
+		if (schema == null)
+			return entity;
+
+		SqlDataSetEntity copy = entity.clone();
+		copy.setConnectionFactory(new SchemaConnectionFactory(this.connectionSource,
+				this.schemaService.getById(schema.getId()), this.dbMetaResolver));
+
+		return copy;
 	}
 
 	@Override
@@ -188,7 +322,11 @@ public class DataSetEntityServiceImpl extends AbstractMybatisDataPermissionEntit
 		params.put("oldUserId", oldUserId);
 		params.put("newUserId", newUserId);
 
-		return updateMybatis("updateCreateUserId", params);
+		int count = updateMybatis("updateCreateUserId", params);
+
+		cacheInvalidate();
+
+		return count;
 	}
 
 	@Override
@@ -315,6 +453,11 @@ public class DataSetEntityServiceImpl extends AbstractMybatisDataPermissionEntit
 		if (success)
 			saveDataSetChildren(entity);
 
+		if (success && this.dataSetResultCache != null)
+			this.dataSetResultCache.invalidate(entity.getId());
+
+		cacheInvalidate(entity.getId());
+
 		return success;
 	}
 
@@ -394,8 +537,13 @@ public class DataSetEntityServiceImpl extends AbstractMybatisDataPermissionEntit
 		if (deleted)
 		{
 			this.authorizationService.deleteByResource(SqlDataSetEntity.AUTHORIZATION_RESOURCE_TYPE, id);
+
+			if (this.dataSetResultCache != null)
+				this.dataSetResultCache.invalidate(id);
 		}
 
+		cacheInvalidate(id);
+
 		return deleted;
 	}
 
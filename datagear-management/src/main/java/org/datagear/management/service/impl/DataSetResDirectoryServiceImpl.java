@@ -52,6 +52,27 @@ public class DataSetResDirectoryServiceImpl
 		return getById(user, id);
 	}
 
+	@Override
+	protected boolean update(DataSetResDirectory entity, Map<String, Object> params)
+	{
+		boolean success = super.update(entity, params);
+
+		// 缓存的文件数据集实体中包含目录，因此需要清除所有
+		cacheInvalidate();
+
+		return success;
+	}
+
+	@Override
+	protected boolean deleteById(String id, Map<String, Object> params)
+	{
+		boolean deleted = super.deleteById(id, params);
+
+		cacheInvalidate();
+
+		return deleted;
+	}
+
 	@Override
 	public int updateCreateUserId(String oldUserId, String newUserId)
 	{
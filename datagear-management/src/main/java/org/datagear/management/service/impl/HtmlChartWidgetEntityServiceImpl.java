@@ -18,6 +18,7 @@ import java.util.Set;
 
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.datagear.analysis.ChartDataSet;
+import org.datagear.analysis.ChartDefinition;
 import org.datagear.analysis.ChartPluginManager;
 import org.datagear.analysis.DataSet;
 import org.datagear.analysis.support.ChartWidget;
@@ -25,6 +26,7 @@ import org.datagear.analysis.support.JsonSupport;
 import org.datagear.analysis.support.html.HtmlChartPlugin;
 import org.datagear.management.domain.AnalysisProject;
 import org.datagear.management.domain.AnalysisProjectAwareEntity;
+import org.datagear.management.domain.Authorization;
 import org.datagear.management.domain.ChartDataSetVO;
 import org.datagear.management.domain.HtmlChartWidgetEntity;
 import org.datagear.management.domain.User;
@@ -109,27 +111,115 @@ public class HtmlChartWidgetEntityServiceImpl
 		this.authorizationService = authorizationService;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * 此方法会使用缓存的图表定义，但仍会对{@linkplain ChartWidgetSourceContext#getUser()}执行权限校验，
+	 * 图表插件、数据集在每次调用时重新设置。
+	 * </p>
+	 */
 	@Override
 	public ChartWidget getChartWidget(String id) throws Throwable
 	{
 		ChartWidgetSourceContext context = ChartWidgetSourceContext.get();
 
-		HtmlChartWidgetEntity entity = null;
+		int permission = PERMISSION_NOT_LOADED;
 
 		if (context.hasUser())
-			entity = getById(context.getUser(), id);
-		else
-			entity = getById(id);
+		{
+			permission = getPermission(context.getUser(), id);
 
-		if (entity == null)
+			if (!Authorization.canRead(permission))
+				throw new PermissionDeniedException();
+		}
+
+		CachedChartWidget cached = getCachedChartWidget(id);
+
+		if (cached == null)
 			return null;
 
+		HtmlChartWidgetEntity entity = copyHtmlChartWidgetEntity(cached.getEntity());
+		entity.setDataPermission(permission);
+
 		setHtmlChartPlugin(entity, true);
-		setChartDataSets(entity, true);
+
+		List<CachedChartDataSet> cachedChartDataSets = cached.getChartDataSets();
+		List<ChartDataSetVO> chartDataSets = new ArrayList<>(cachedChartDataSets.size());
+
+		for (CachedChartDataSet cachedChartDataSet : cachedChartDataSets)
+		{
+			ChartDataSetVO chartDataSet = cachedChartDataSet.toChartDataSet(this.dataSetEntityService);
+
+			if (chartDataSet != null)
+				chartDataSets.add(chartDataSet);
+		}
+
+		entity.setChartDataSets(chartDataSets.toArray(new ChartDataSetVO[chartDataSets.size()]));
 
 		return entity;
 	}
 
+	/**
+	 * 获取缓存的{@linkplain CachedChartWidget}，没有则从数据库加载。
+	 * 
+	 * @param id
+	 * @return 返回{@code null}表示没有
+	 */
+	protected CachedChartWidget getCachedChartWidget(String id)
+	{
+		CachedChartWidget cached = cacheGet(id);
+
+		if (cached != null)
+			return cached;
+
+		long version = cacheVersion();
+
+		HtmlChartWidgetEntity entity = getById(id, buildParamMap(), false);
+
+		if (entity == null)
+			return null;
+
+		Map<String, Object> sqlParams = buildParamMapWithIdentifierQuoteParameter();
+		sqlParams.put("widgetId", id);
+
+		List<WidgetDataSetRelation> relations = selectListMybatis("getDataSetRelations", sqlParams);
+		List<CachedChartDataSet> chartDataSets = new ArrayList<>(relations.size());
+
+		for (WidgetDataSetRelation relation : relations)
+		{
+			if (relation == null || StringUtil.isEmpty(relation.getDataSetId()))
+				continue;
+
+			chartDataSets.add(new CachedChartDataSet(relation.getDataSetId(), relation.getAlias(),
+					toPropertySigns(relation.getPropertySignsJson()), toParamValues(relation.getParamValuesJson())));
+		}
+
+		cached = new CachedChartWidget(entity, chartDataSets);
+		cachePut(id, cached, version);
+
+		return cached;
+	}
+
+	/**
+	 * 拷贝{@linkplain HtmlChartWidgetEntity}，使缓存对象不会被修改。
+	 * 
+	 * @param entity
+	 * @return
+	 */
+	protected HtmlChartWidgetEntity copyHtmlChartWidgetEntity(HtmlChartWidgetEntity entity)
+	{
+		HtmlChartWidgetEntity copy = new HtmlChartWidgetEntity();
+
+		ChartDefinition.copy(entity, copy);
+		copy.setHtmlChartPlugin(entity.getHtmlChartPlugin());
+		copy.setCreateUser(entity.getCreateUser());
+		copy.setCreateTime(entity.getCreateTime());
+		copy.setDataPermission(entity.getDataPermission());
+		copy.setAnalysisProject(entity.getAnalysisProject());
+
+		return copy;
+	}
+
 	@Override
 	public String getResourceType()
 	{
@@ -150,7 +240,11 @@ public class HtmlChartWidgetEntityServiceImpl
 		params.put("oldUserId", oldUserId);
 		params.put("newUserId", newUserId);
 
-		return updateMybatis("updateCreateUserId", params);
+		int count = updateMybatis("updateCreateUserId", params);
+
+		cacheInvalidate();
+
+		return count;
 	}
 
 	@Override
@@ -168,6 +262,8 @@ public class HtmlChartWidgetEntityServiceImpl
 		if (success)
 			saveWidgetDataSetRelations(entity);
 
+		cacheInvalidate(entity.getId());
+
 		return success;
 	}
 
@@ -179,6 +275,8 @@ public class HtmlChartWidgetEntityServiceImpl
 		if (success)
 			saveWidgetDataSetRelations(entity);
 
+		cacheInvalidate(entity.getId());
+
 		return success;
 	}
 
@@ -190,6 +288,8 @@ public class HtmlChartWidgetEntityServiceImpl
 		if (deleted)
 			this.authorizationService.deleteByResource(HtmlChartWidgetEntity.AUTHORIZATION_RESOURCE_TYPE, id);
 
+		cacheInvalidate(id);
+
 		return deleted;
 	}
 
@@ -398,6 +498,107 @@ public class HtmlChartWidgetEntityServiceImpl
 		return list;
 	}
 
+	/**
+	 * 缓存的图表定义。
+	 * <p>
+	 * 它不包含图表插件、数据集对象，它们在使用时才设置，以反映其变更。
+	 * </p>
+	 * 
+	 * @author datagear@163.com
+	 *
+	 */
+	protected static class CachedChartWidget
+	{
+		private final HtmlChartWidgetEntity entity;
+
+		private final List<CachedChartDataSet> chartDataSets;
+
+		public CachedChartWidget(HtmlChartWidgetEntity entity, List<CachedChartDataSet> chartDataSets)
+		{
+			super();
+			this.entity = entity;
+			this.chartDataSets = chartDataSets;
+		}
+
+		public HtmlChartWidgetEntity getEntity()
+		{
+			return entity;
+		}
+
+		public List<CachedChartDataSet> getChartDataSets()
+		{
+			return chartDataSets;
+		}
+	}
+
+	/**
+	 * 缓存的图表数据集定义，JSON属性已解析。
+	 * 
+	 * @author datagear@163.com
+	 *
+	 */
+	protected static class CachedChartDataSet
+	{
+		private final String dataSetId;
+
+		private final String alias;
+
+		private final Map<String, Set<String>> propertySigns;
+
+		private final Map<String, Object> paramValues;
+
+		public CachedChartDataSet(String dataSetId, String alias, Map<String, Set<String>> propertySigns,
+				Map<String, Object> paramValues)
+		{
+			super();
+			this.dataSetId = dataSetId;
+			this.alias = alias;
+			this.propertySigns = Collections.unmodifiableMap(propertySigns);
+			this.paramValues = Collections.unmodifiableMap(paramValues);
+		}
+
+		public String getDataSetId()
+		{
+			return dataSetId;
+		}
+
+		public String getAlias()
+		{
+			return alias;
+		}
+
+		public Map<String, Set<String>> getPropertySigns()
+		{
+			return propertySigns;
+		}
+
+		public Map<String, Object> getParamValues()
+		{
+			return paramValues;
+		}
+
+		/**
+		 * 转换为{@linkplain ChartDataSetVO}。
+		 * 
+		 * @param dataSetEntityService
+		 * @return 返回{@code null}表示数据集已不存在
+		 */
+		public ChartDataSetVO toChartDataSet(DataSetEntityService dataSetEntityService)
+		{
+			DataSet dataSet = dataSetEntityService.getDataSet(this.dataSetId);
+
+			if (dataSet == null)
+				return null;
+
+			ChartDataSetVO chartDataSet = new ChartDataSetVO(dataSet);
+			chartDataSet.setPropertySigns(this.propertySigns);
+			chartDataSet.setAlias(this.alias);
+			chartDataSet.setParamValues(this.paramValues);
+
+			return chartDataSet;
+		}
+	}
+
 	public static class WidgetDataSetRelation
 	{
 		private String widgetId;
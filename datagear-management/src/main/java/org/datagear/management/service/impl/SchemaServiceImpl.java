@@ -100,6 +100,41 @@ public class SchemaServiceImpl extends AbstractMybatisDataPermissionEntityServic
 		return super.getById(user, id);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * 此方法会使用缓存，返回的是缓存对象的拷贝，调用方可以修改它。
+	 * </p>
+	 */
+	@Override
+	public Schema getById(String id)
+	{
+		Schema schema = cacheGet(id);
+
+		if (schema != null)
+		{
+			// 驱动程序可能已变更，需重新设置
+			return postProcessSelect(schema.clone());
+		}
+
+		long version = cacheVersion();
+
+		schema = super.getById(id);
+		cachePut(id, schema, version);
+
+		return (schema == null ? null : schema.clone());
+	}
+
+	@Override
+	protected boolean update(Schema entity, Map<String, Object> params)
+	{
+		boolean success = super.update(entity, params);
+
+		cacheInvalidate(entity.getId());
+
+		return success;
+	}
+
 	@Override
 	protected boolean deleteById(String id, Map<String, Object> params)
 	{
@@ -108,6 +143,8 @@ public class SchemaServiceImpl extends AbstractMybatisDataPermissionEntityServic
 		if (deleted)
 			this.authorizationService.deleteByResource(Schema.AUTHORIZATION_RESOURCE_TYPE, id);
 
+		cacheInvalidate(id);
+
 		return deleted;
 	}
 
@@ -119,7 +156,11 @@ public class SchemaServiceImpl extends AbstractMybatisDataPermissionEntityServic
 		params.put("oldUserId", oldUserId);
 		params.put("newUserId", newUserId);
 
-		return updateMybatis("updateCreateUserId", params);
+		int count = updateMybatis("updateCreateUserId", params);
+
+		cacheInvalidate();
+
+		return count;
 	}
 
 	@Override
@@ -129,7 +170,11 @@ public class SchemaServiceImpl extends AbstractMybatisDataPermissionEntityServic
 		addIdentifierQuoteParameter(params);
 		params.put("userIds", userIds);
 
-		return updateMybatis("deleteByUserId", params);
+		int count = updateMybatis("deleteByUserId", params);
+
+		cacheInvalidate();
+
+		return count;
 	}
 
 	@Override
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.management.service.impl;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * 服务缓存。
+ * <p>
+ * 用于服务实现类缓存完整加载的实体，写操作时应调用{@linkplain #invalidate(Object)}或者{@linkplain #invalidate()}。
+ * </p>
+ * <p>
+ * 加载前应先调用{@linkplain #getVersion()}，加载后使用{@linkplain #put(Object, Object, long)}添加，
+ * 避免加载期间发生的写操作被加载结果覆盖。
+ * </p>
+ * <p>
+ * 此类是线程安全的。
+ * </p>
+ * 
+ * @author datagear@163.com
+ *
+ */
+public class ServiceCache
+{
+	/** 是否禁用 */
+	private boolean disabled = false;
+
+	/** 缓存的最大数 */
+	private int maximumSize = 1000;
+
+	/** 缓存过期分钟数 */
+	private int expireAfterAccessMinutes = 60 * 24;
+
+	private Cache<Object, Object> _cache = null;
+
+	private final AtomicLong _version = new AtomicLong(0);
+
+	public ServiceCache()
+	{
+		super();
+	}
+
+	public boolean isDisabled()
+	{
+		return disabled;
+	}
+
+	public void setDisabled(boolean disabled)
+	{
+		this.disabled = disabled;
+	}
+
+	public int getMaximumSize()
+	{
+		return maximumSize;
+	}
+
+	public void setMaximumSize(int maximumSize)
+	{
+		this.maximumSize = maximumSize;
+	}
+
+	public int getExpireAfterAccessMinutes()
+	{
+		return expireAfterAccessMinutes;
+	}
+
+	public void setExpireAfterAccessMinutes(int expireAfterAccessMinutes)
+	{
+		this.expireAfterAccessMinutes = expireAfterAccessMinutes;
+	}
+
+	/**
+	 * 初始化。
+	 */
+	public void init()
+	{
+		this._cache = CacheBuilder.newBuilder().maximumSize(this.maximumSize)
+				.expireAfterAccess(this.expireAfterAccessMinutes, TimeUnit.MINUTES).build();
+	}
+
+	/**
+	 * 获取缓存值。
+	 * 
+	 * @param key
+	 * @return 返回{@code null}表示没有
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T get(Object key)
+	{
+		if (this.disabled || this._cache == null)
+			return null;
+
+		return (T) this._cache.getIfPresent(key);
+	}
+
+	/**
+	 * 获取当前版本号，每次清除缓存值都会使其改变。
+	 * 
+	 * @return
+	 */
+	public long getVersion()
+	{
+		return this._version.get();
+	}
+
+	/**
+	 * 添加缓存值。
+	 * 
+	 * @param key
+	 * @param value
+	 *            为{@code null}时不会添加
+	 * @param version
+	 *            加载{@code value}前的{@linkplain #getVersion()}，如果期间有清除操作，将不会添加
+	 */
+	public void put(Object key, Object value, long version)
+	{
+		if (this.disabled || this._cache == null || value == null)
+			return;
+
+		this._cache.put(key, value);
+
+		// 添加期间有清除操作时，不能保留可能已过时的值
+		if (this._version.get() != version)
+			this._cache.invalidate(key);
+	}
+
+	/**
+	 * 清除缓存值。
+	 * 
+	 * @param key
+	 */
+	public void invalidate(Object key)
+	{
+		this._version.incrementAndGet();
+
+		if (this._cache == null)
+			return;
+
+		this._cache.invalidate(key);
+	}
+
+	/**
+	 * 清除所有缓存值。
+	 */
+	public void invalidate()
+	{
+		this._version.incrementAndGet();
+
+		if (this._cache == null)
+			return;
+
+		this._cache.invalidateAll();
+	}
+}
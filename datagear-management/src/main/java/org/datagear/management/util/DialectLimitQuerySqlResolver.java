@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2018 datagear.tech. All Rights Reserved.
+ */
+
+/**
+ * 
+ */
+package org.datagear.management.util;
+
+import java.sql.Connection;
+
+import org.datagear.analysis.support.LimitQuerySqlResolver;
+import org.datagear.analysis.support.SqlDataSet;
+import org.datagear.persistence.Dialect;
+import org.datagear.persistence.DialectSource;
+import org.datagear.util.Sql;
+
+/**
+ * 基于{@linkplain Dialect#toLimitQuerySql(Sql, int)}的{@linkplain LimitQuerySqlResolver}。
+ * <p>
+ * 它仅处理以{@code SELECT}、{@code WITH}开头的查询SQL，其他SQL（比如存储过程调用）由{@linkplain SqlDataSet}直接执行。
+ * </p>
+ * 
+ * @author datagear@163.com
+ *
+ */
+public class DialectLimitQuerySqlResolver implements LimitQuerySqlResolver
+{
+	private DialectSource dialectSource;
+
+	public DialectLimitQuerySqlResolver()
+	{
+		super();
+	}
+
+	public DialectLimitQuerySqlResolver(DialectSource dialectSource)
+	{
+		super();
+		this.dialectSource = dialectSource;
+	}
+
+	public DialectSource getDialectSource()
+	{
+		return dialectSource;
+	}
+
+	public void setDialectSource(DialectSource dialectSource)
+	{
+		this.dialectSource = dialectSource;
+	}
+
+	@Override
+	public Sql resolve(Connection cn, Sql query, int count) throws Throwable
+	{
+		if (query.hasParamValue())
+			return null;
+
+		String sql = trimQuerySql(query.getSqlValue());
+
+		if (!isSelectSql(sql))
+			return null;
+
+		Dialect dialect = this.dialectSource.getDialect(cn);
+
+		return dialect.toLimitQuerySql(Sql.valueOf(sql), count);
+	}
+
+	/**
+	 * 删除查询SQL首尾的空白符、结尾的{@code ;}。
+	 * 
+	 * @param sql
+	 * @return
+	 */
+	protected String trimQuerySql(String sql)
+	{
+		sql = sql.trim();
+
+		while (sql.endsWith(";"))
+			sql = sql.substring(0, sql.length() - 1).trim();
+
+		return sql;
+	}
+
+	/**
+	 * 是否是{@code SELECT}、{@code WITH}查询SQL。
+	 * 
+	 * @param sql
+	 * @return
+	 */
+	protected boolean isSelectSql(String sql)
+	{
+		String prefix = (sql.length() > 6 ? sql.substring(0, 6) : sql).toUpperCase();
+
+		return (prefix.startsWith("SELECT") || prefix.startsWith("WITH"));
+	}
+}
@@ -13,20 +13,47 @@ import org.datagear.connection.ConnectionOption;
 import org.datagear.connection.ConnectionSource;
 import org.datagear.connection.ConnectionSourceException;
 import org.datagear.connection.DriverEntity;
+import org.datagear.connection.PoolOption;
 import org.datagear.management.domain.Schema;
+import org.datagear.meta.resolver.CachingDBMetaResolver;
+import org.datagear.meta.resolver.DBMetaResolver;
 
 /**
  * {@linkplain Schema}数据库连接支持类。
+ * <p>
+ * 如果设置了{@linkplain #getDbMetaResolver()}，由{@linkplain #getSchemaConnection(ConnectionSource, Schema)}获取的连接，
+ * 都会以{@linkplain Schema}的URL、用户名作为连接标识绑定至{@linkplain CachingDBMetaResolver}，
+ * 使得{@linkplain #invalidateDbMetaResolver(Schema)}可以清除由这些连接缓存的所有元信息。
+ * </p>
  * 
  * @author datagear@163.com
  *
  */
 public class SchemaConnectionSupport
 {
+	/** 元信息解析器，允许为{@code null} */
+	private DBMetaResolver dbMetaResolver = null;
+
 	public SchemaConnectionSupport()
 	{
 	}
 
+	public SchemaConnectionSupport(DBMetaResolver dbMetaResolver)
+	{
+		super();
+		this.dbMetaResolver = dbMetaResolver;
+	}
+
+	public DBMetaResolver getDbMetaResolver()
+	{
+		return dbMetaResolver;
+	}
+
+	public void setDbMetaResolver(DBMetaResolver dbMetaResolver)
+	{
+		this.dbMetaResolver = dbMetaResolver;
+	}
+
 	/**
 	 * 获取指定{@linkplain Schema}的{@linkplain Connection}。
 	 * 
@@ -42,6 +69,7 @@ public class SchemaConnectionSupport
 
 		ConnectionOption connectionOption = ConnectionOption.valueOf(schema.getUrl(), schema.getUser(),
 				schema.getPassword());
+		connectionOption.setPoolOption(toPoolOption(schema));
 
 		if (schema.hasDriverEntity())
 		{
@@ -54,6 +82,41 @@ public class SchemaConnectionSupport
 			cn = connectionSource.getConnection(connectionOption);
 		}
 
+		if (this.dbMetaResolver instanceof CachingDBMetaResolver)
+			((CachingDBMetaResolver) this.dbMetaResolver).bindConnection(cn, schema.getUrl(), schema.getUser());
+
 		return cn;
 	}
+
+	/**
+	 * 清除{@linkplain #getDbMetaResolver()}中指定{@linkplain Schema}的所有元信息缓存（如果有）。
+	 * <p>
+	 * 数据源的URL、用户名变更、数据源被删除、执行了变更表结构的语句后，应调用此方法。
+	 * </p>
+	 * 
+	 * @param schema
+	 */
+	public void invalidateDbMetaResolver(Schema schema)
+	{
+		if (this.dbMetaResolver instanceof CachingDBMetaResolver)
+			((CachingDBMetaResolver) this.dbMetaResolver).invalidate(schema.getUrl(), schema.getUser());
+	}
+
+	/**
+	 * 获取指定{@linkplain Schema}的{@linkplain PoolOption}。
+	 * 
+	 * @param schema
+	 * @return 为{@code null}表示使用默认值
+	 */
+	public PoolOption toPoolOption(Schema schema)
+	{
+		PoolOption poolOption = new PoolOption();
+		poolOption.setMaxTotal(schema.getPoolMaxTotal());
+		poolOption.setMinIdle(schema.getPoolMinIdle());
+		poolOption.setMaxWaitMillis(schema.getPoolMaxWait());
+		poolOption.setMaxIdleTimeMillis(schema.getPoolMaxIdleTime() * 1000L);
+		poolOption.setValidationQuery(schema.getPoolValidationQuery());
+
+		return (poolOption.isDefault() ? null : poolOption);
+	}
 }
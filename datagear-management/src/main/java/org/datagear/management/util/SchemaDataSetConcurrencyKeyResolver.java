@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2018 datagear.tech. All Rights Reserved.
+ */
+
+/**
+ * 
+ */
+package org.datagear.management.util;
+
+import org.datagear.analysis.DataSet;
+import org.datagear.analysis.support.DataSetConcurrencyKeyResolver;
+import org.datagear.analysis.support.SqlDataSet;
+import org.datagear.management.domain.Schema;
+import org.datagear.management.domain.SchemaConnectionFactory;
+import org.datagear.util.resource.ConnectionFactory;
+
+/**
+ * 以{@linkplain Schema}为分组的{@linkplain DataSetConcurrencyKeyResolver}。
+ * <p>
+ * 使用{@linkplain SchemaConnectionFactory}的{@linkplain SqlDataSet}将以其{@linkplain Schema#getId()}为分组关键字，
+ * 其他数据集不限制并发数。
+ * </p>
+ * 
+ * @author datagear@163.com
+ *
+ */
+public class SchemaDataSetConcurrencyKeyResolver implements DataSetConcurrencyKeyResolver
+{
+	public SchemaDataSetConcurrencyKeyResolver()
+	{
+		super();
+	}
+
+	@Override
+	public String resolve(DataSet dataSet)
+	{
+		if (!(dataSet instanceof SqlDataSet))
+			return null;
+
+		ConnectionFactory connectionFactory = ((SqlDataSet) dataSet).getConnectionFactory();
+
+		if (!(connectionFactory instanceof SchemaConnectionFactory))
+			return null;
+
+		Schema schema = ((SchemaConnectionFactory) connectionFactory).getSchema();
+
+		return (schema == null ? null : schema.getId());
+	}
+}
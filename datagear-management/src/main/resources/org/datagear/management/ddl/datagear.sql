@@ -730,3 +730,24 @@ WHERE
 --version[2.1.1], DO NOT EDIT THIS LINE!
 -----------------------------------------
 
+
+
+-----------------------------------------
+--version[2.2.0], DO NOT EDIT THIS LINE!
+-----------------------------------------
+
+--2026-10-16
+--数据集添加结果缓存秒数字段
+ALTER TABLE DATAGEAR_DATA_SET ADD COLUMN DS_CACHE_TTL INTEGER DEFAULT 0;
+
+--2026-10-16
+--数据源添加查询结果集读取行数字段
+ALTER TABLE DATAGEAR_SCHEMA ADD COLUMN SCHEMA_FETCH_SIZE INTEGER DEFAULT 0;
+
+--2026-10-16
+--数据源添加连接池设置字段
+ALTER TABLE DATAGEAR_SCHEMA ADD COLUMN SCHEMA_POOL_MAX_TOTAL INTEGER DEFAULT 0;
+ALTER TABLE DATAGEAR_SCHEMA ADD COLUMN SCHEMA_POOL_MIN_IDLE INTEGER DEFAULT 0;
+ALTER TABLE DATAGEAR_SCHEMA ADD COLUMN SCHEMA_POOL_MAX_WAIT INTEGER DEFAULT 0;
+ALTER TABLE DATAGEAR_SCHEMA ADD COLUMN SCHEMA_POOL_MAX_IDLE_TIME INTEGER DEFAULT 0;
+ALTER TABLE DATAGEAR_SCHEMA ADD COLUMN SCHEMA_POOL_VALIDATION_QUERY VARCHAR(200);
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.management.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.datagear.management.service.impl.ServiceCache;
+import org.junit.Test;
+
+/**
+ * {@linkplain ServiceCache}单元测试类。
+ * 
+ * @author datagear@163.com
+ *
+ */
+public class ServiceCacheTest
+{
+	@Test
+	public void putTest()
+	{
+		ServiceCache cache = new ServiceCache();
+		cache.init();
+
+		long version = cache.getVersion();
+		cache.put("a", "va", version);
+
+		assertEquals("va", cache.get("a"));
+
+		cache.invalidate("a");
+		assertNull(cache.get("a"));
+	}
+
+	@Test
+	public void putTest_invalidatedWhileLoading()
+	{
+		ServiceCache cache = new ServiceCache();
+		cache.init();
+
+		long version = cache.getVersion();
+
+		// 加载期间发生写操作
+		cache.invalidate("a");
+
+		cache.put("a", "va", version);
+		assertNull(cache.get("a"));
+	}
+
+	@Test
+	public void putTest_disabled()
+	{
+		ServiceCache cache = new ServiceCache();
+		cache.setDisabled(true);
+		cache.init();
+
+		cache.put("a", "va", cache.getVersion());
+		assertNull(cache.get("a"));
+	}
+}
@@ -92,6 +92,16 @@ public abstract class AbstractDevotedDBMetaResolver extends JdbcSupport implemen
 		return getSimpleTables(cn, metaData, catalog, schema, null);
 	}
 
+	@Override
+	public List<SimpleTable> getSimpleTables(Connection cn, String tableNamePattern) throws DBMetaResolverException
+	{
+		String catalog = getCatalog(cn);
+		DatabaseMetaData metaData = getDatabaseMetaData(cn);
+		String schema = getSchema(cn, metaData);
+
+		return getSimpleTables(cn, metaData, catalog, schema, tableNamePattern);
+	}
+
 	@Override
 	public SimpleTable getRandomSimpleTable(Connection cn) throws DBMetaResolverException
 	{
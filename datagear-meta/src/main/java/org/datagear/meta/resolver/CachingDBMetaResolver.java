@@ -0,0 +1,626 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.meta.resolver;
+
+import java.io.Serializable;
+import java.sql.Connection;
+import java.sql.ResultSetMetaData;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.datagear.connection.ConnectionOption;
+import org.datagear.meta.Column;
+import org.datagear.meta.DataType;
+import org.datagear.meta.Database;
+import org.datagear.meta.PrimaryKey;
+import org.datagear.meta.SimpleTable;
+import org.datagear.meta.Table;
+import org.datagear.util.StringUtil;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * 缓存{@linkplain DBMetaResolver}。
+ * <p>
+ * 它包装另一个{@linkplain DBMetaResolver}（通常是{@linkplain GenericDBMetaResolver}），
+ * 以连接标识（URL、用户名）和表名为关键字，缓存{@linkplain #getTable(Connection, String)}、
+ * {@linkplain #getColumns(Connection, String)}、{@linkplain #getPrimaryKey(Connection, String)}、
+ * {@linkplain #getImportTables(Connection, String...)}、{@linkplain #getDatabase(Connection)}、
+ * {@linkplain #getDataTypes(Connection)}的结果，其他方法直接调用被包装的{@linkplain DBMetaResolver}。
+ * </p>
+ * <p>
+ * 数据库表结构变更后，应调用{@linkplain #invalidate(Connection, String)}、{@linkplain #invalidate(Connection)}、
+ * {@linkplain #invalidate(String, String)}清除缓存，否则只能等待缓存过期。
+ * </p>
+ * <p>
+ * 读取连接标识需要查询连接元信息，所以每个连接的标识只读取一次；已知连接标识时（比如由数据源获取的连接），
+ * 应调用{@linkplain #bindConnection(Connection, String, String)}直接绑定，从而不再读取连接元信息。
+ * </p>
+ * <p>
+ * 如果设置了{@linkplain #getNotFoundExpireSeconds()}，{@linkplain TableNotFoundException}也将被缓存，
+ * 避免反复查询不存在的表。
+ * </p>
+ * <p>
+ * 注意：返回的{@linkplain Table}等对象是共享的，调用方不应修改它们。
+ * </p>
+ *
+ * @author datagear@163.com
+ *
+ */
+public class CachingDBMetaResolver implements DBMetaResolver
+{
+	protected static final String TYPE_DATABASE = "database";
+
+	protected static final String TYPE_DATA_TYPES = "dataTypes";
+
+	protected static final String TYPE_TABLE = "table";
+
+	protected static final String TYPE_COLUMNS = "columns";
+
+	protected static final String TYPE_PRIMARY_KEY = "primaryKey";
+
+	protected static final String TYPE_IMPORT_TABLES = "importTables";
+
+	/** 表示{@code null}值的缓存值 */
+	protected static final Object NULL_VALUE = new Object();
+
+	private DBMetaResolver dbMetaResolver;
+
+	/** 缓存的最大数 */
+	private int maximumSize = 5000;
+
+	/** 缓存过期秒数 */
+	private int expireSeconds = 60 * 30;
+
+	/** 表不存在结果的缓存过期秒数，小于等于{@code 0}表示不缓存 */
+	private int notFoundExpireSeconds = 0;
+
+	private Cache<MetaCacheKey, Object> _cache = null;
+
+	private Cache<MetaCacheKey, TableNotFoundException> _notFoundCache = null;
+
+	/** 连接标识缓存，弱引用连接，连接被回收后自动清除 */
+	private Cache<Connection, ConnectionOption> _connectionIdentities = null;
+
+	public CachingDBMetaResolver()
+	{
+		super();
+	}
+
+	public CachingDBMetaResolver(DBMetaResolver dbMetaResolver)
+	{
+		super();
+		this.dbMetaResolver = dbMetaResolver;
+	}
+
+	public DBMetaResolver getDbMetaResolver()
+	{
+		return dbMetaResolver;
+	}
+
+	public void setDbMetaResolver(DBMetaResolver dbMetaResolver)
+	{
+		this.dbMetaResolver = dbMetaResolver;
+	}
+
+	public int getMaximumSize()
+	{
+		return maximumSize;
+	}
+
+	public void setMaximumSize(int maximumSize)
+	{
+		this.maximumSize = maximumSize;
+	}
+
+	public int getExpireSeconds()
+	{
+		return expireSeconds;
+	}
+
+	public void setExpireSeconds(int expireSeconds)
+	{
+		this.expireSeconds = expireSeconds;
+	}
+
+	public int getNotFoundExpireSeconds()
+	{
+		return notFoundExpireSeconds;
+	}
+
+	public void setNotFoundExpireSeconds(int notFoundExpireSeconds)
+	{
+		this.notFoundExpireSeconds = notFoundExpireSeconds;
+	}
+
+	/**
+	 * 初始化。
+	 */
+	public void init()
+	{
+		this._cache = CacheBuilder.newBuilder().maximumSize(this.maximumSize)
+				.expireAfterWrite(this.expireSeconds, TimeUnit.SECONDS).build();
+
+		if (this.notFoundExpireSeconds > 0)
+			this._notFoundCache = CacheBuilder.newBuilder().maximumSize(this.maximumSize)
+					.expireAfterWrite(this.notFoundExpireSeconds, TimeUnit.SECONDS).build();
+
+		this._connectionIdentities = CacheBuilder.newBuilder().weakKeys().build();
+	}
+
+	/**
+	 * 绑定连接的连接标识，之后此连接将使用它作为缓存关键字，而不再读取连接元信息。
+	 * 
+	 * @param cn
+	 * @param url
+	 * @param user
+	 *            允许为{@code null}
+	 */
+	public void bindConnection(Connection cn, String url, String user)
+	{
+		ConnectionOption connectionOption = toConnectionIdentity(url, user);
+
+		if (connectionOption != null)
+			this._connectionIdentities.put(cn, connectionOption);
+	}
+
+	@Override
+	public Database getDatabase(final Connection cn) throws DBMetaResolverException
+	{
+		return getCached(cn, TYPE_DATABASE, null, new Callable<Database>()
+		{
+			@Override
+			public Database call() throws Exception
+			{
+				return dbMetaResolver.getDatabase(cn);
+			}
+		});
+	}
+
+	@Override
+	public List<SimpleTable> getSimpleTables(Connection cn) throws DBMetaResolverException
+	{
+		return this.dbMetaResolver.getSimpleTables(cn);
+	}
+
+	@Override
+	public List<SimpleTable> getSimpleTables(Connection cn, String tableNamePattern) throws DBMetaResolverException
+	{
+		return this.dbMetaResolver.getSimpleTables(cn, tableNamePattern);
+	}
+
+	@Override
+	public SimpleTable getRandomSimpleTable(Connection cn) throws DBMetaResolverException
+	{
+		return this.dbMetaResolver.getRandomSimpleTable(cn);
+	}
+
+	@Override
+	public boolean isUserDataTable(Connection cn, SimpleTable table) throws DBMetaResolverException
+	{
+		return this.dbMetaResolver.isUserDataTable(cn, table);
+	}
+
+	@Override
+	public boolean isUserDataEntityTable(Connection cn, SimpleTable table) throws DBMetaResolverException
+	{
+		return this.dbMetaResolver.isUserDataEntityTable(cn, table);
+	}
+
+	@Override
+	public Table getTable(final Connection cn, final String tableName) throws DBMetaResolverException
+	{
+		return getCached(cn, TYPE_TABLE, tableName, new Callable<Table>()
+		{
+			@Override
+			public Table call() throws Exception
+			{
+				return dbMetaResolver.getTable(cn, tableName);
+			}
+		});
+	}
+
+	@Override
+	public Column[] getColumns(final Connection cn, final String tableName) throws DBMetaResolverException
+	{
+		// 优先使用已缓存的表
+		Table table = getIfPresent(cn, TYPE_TABLE, tableName);
+
+		if (table != null)
+			return table.getColumns().clone();
+
+		Column[] columns = getCached(cn, TYPE_COLUMNS, tableName, new Callable<Column[]>()
+		{
+			@Override
+			public Column[] call() throws Exception
+			{
+				return dbMetaResolver.getColumns(cn, tableName);
+			}
+		});
+
+		return (columns == null ? null : columns.clone());
+	}
+
+	@Override
+	public Column getRandomColumn(Connection cn, String tableName) throws DBMetaResolverException
+	{
+		return this.dbMetaResolver.getRandomColumn(cn, tableName);
+	}
+
+	@Override
+	public Column[] getColumns(Connection cn, ResultSetMetaData resultSetMetaData) throws DBMetaResolverException
+	{
+		return this.dbMetaResolver.getColumns(cn, resultSetMetaData);
+	}
+
+	@Override
+	public PrimaryKey getPrimaryKey(final Connection cn, final String tableName) throws DBMetaResolverException
+	{
+		// 优先使用已缓存的表
+		Table table = getIfPresent(cn, TYPE_TABLE, tableName);
+
+		if (table != null)
+			return table.getPrimaryKey();
+
+		return getCached(cn, TYPE_PRIMARY_KEY, tableName, new Callable<PrimaryKey>()
+		{
+			@Override
+			public PrimaryKey call() throws Exception
+			{
+				return dbMetaResolver.getPrimaryKey(cn, tableName);
+			}
+		});
+	}
+
+	@Override
+	public List<DataType> getDataTypes(final Connection cn) throws DBMetaResolverException
+	{
+		return getCached(cn, TYPE_DATA_TYPES, null, new Callable<List<DataType>>()
+		{
+			@Override
+			public List<DataType> call() throws Exception
+			{
+				return dbMetaResolver.getDataTypes(cn);
+			}
+		});
+	}
+
+	@Override
+	public List<String[]> getImportTables(final Connection cn, String... tableNames)
+	{
+		List<String[]> importTabless = new ArrayList<>(tableNames.length);
+
+		for (int i = 0; i < tableNames.length; i++)
+		{
+			final String tableName = tableNames[i];
+
+			String[] importTables = getCached(cn, TYPE_IMPORT_TABLES, tableName, new Callable<String[]>()
+			{
+				@Override
+				public String[] call() throws Exception
+				{
+					return dbMetaResolver.getImportTables(cn, tableName).get(0);
+				}
+			});
+
+			importTabless.add(importTables.clone());
+		}
+
+		return importTabless;
+	}
+
+	/**
+	 * 清除指定连接标识的所有缓存。
+	 *
+	 * @param cn
+	 */
+	public void invalidate(Connection cn)
+	{
+		ConnectionOption connectionOption = getConnectionIdentity(cn);
+
+		if (connectionOption == null)
+			return;
+
+		invalidate(this._cache, connectionOption, null);
+
+		if (this._notFoundCache != null)
+			invalidate(this._notFoundCache, connectionOption, null);
+	}
+
+	/**
+	 * 清除指定连接标识、表名的缓存。
+	 *
+	 * @param cn
+	 * @param tableName
+	 */
+	public void invalidate(Connection cn, String tableName)
+	{
+		ConnectionOption connectionOption = getConnectionIdentity(cn);
+
+		if (connectionOption == null)
+			return;
+
+		invalidate(this._cache, connectionOption, tableName);
+
+		if (this._notFoundCache != null)
+			invalidate(this._notFoundCache, connectionOption, tableName);
+	}
+
+	/**
+	 * 清除指定连接标识的所有缓存。
+	 * 
+	 * @param url
+	 * @param user
+	 *            允许为{@code null}
+	 */
+	public void invalidate(String url, String user)
+	{
+		ConnectionOption connectionOption = toConnectionIdentity(url, user);
+
+		if (connectionOption == null)
+			return;
+
+		invalidate(this._cache, connectionOption, null);
+
+		if (this._notFoundCache != null)
+			invalidate(this._notFoundCache, connectionOption, null);
+	}
+
+	/**
+	 * 清除所有缓存。
+	 */
+	public void invalidateAll()
+	{
+		this._cache.invalidateAll();
+
+		if (this._notFoundCache != null)
+			this._notFoundCache.invalidateAll();
+	}
+
+	protected void invalidate(Cache<MetaCacheKey, ?> cache, ConnectionOption connectionOption, String tableName)
+	{
+		Set<MetaCacheKey> myKeys = new HashSet<>();
+
+		for (MetaCacheKey key : cache.asMap().keySet())
+		{
+			if (key.getConnectionOption().equals(connectionOption)
+					&& (tableName == null || tableName.equals(key.getName())))
+				myKeys.add(key);
+		}
+
+		if (!myKeys.isEmpty())
+			cache.invalidateAll(myKeys);
+	}
+
+	@SuppressWarnings("unchecked")
+	protected <T> T getIfPresent(Connection cn, String type, String name)
+	{
+		ConnectionOption connectionOption = getConnectionIdentity(cn);
+
+		if (connectionOption == null)
+			return null;
+
+		Object value = this._cache.getIfPresent(new MetaCacheKey(connectionOption, type, name));
+
+		return (value == null || value == NULL_VALUE ? null : (T) value);
+	}
+
+	/**
+	 * 获取缓存值，没有时使用{@code loader}加载。
+	 * <p>
+	 * 无法获取连接标识时，将不使用缓存。
+	 * </p>
+	 *
+	 * @param cn
+	 * @param type
+	 * @param name
+	 *            允许为{@code null}
+	 * @param loader
+	 * @return
+	 * @throws DBMetaResolverException
+	 */
+	@SuppressWarnings("unchecked")
+	protected <T> T getCached(Connection cn, String type, String name, final Callable<T> loader)
+			throws DBMetaResolverException
+	{
+		ConnectionOption connectionOption = getConnectionIdentity(cn);
+
+		if (connectionOption == null)
+			return call(loader);
+
+		MetaCacheKey key = new MetaCacheKey(connectionOption, type, name);
+
+		if (this._notFoundCache != null)
+		{
+			TableNotFoundException notFound = this._notFoundCache.getIfPresent(key);
+
+			if (notFound != null)
+				throw new TableNotFoundException(notFound.getTableName());
+		}
+
+		Object value = null;
+
+		try
+		{
+			value = this._cache.get(key, new Callable<Object>()
+			{
+				@Override
+				public Object call() throws Exception
+				{
+					T value = loader.call();
+					return (value == null ? NULL_VALUE : value);
+				}
+			});
+		}
+		catch (ExecutionException | UncheckedExecutionException | ExecutionError e)
+		{
+			Throwable cause = e.getCause();
+
+			if (cause instanceof TableNotFoundException && this._notFoundCache != null)
+				this._notFoundCache.put(key, (TableNotFoundException) cause);
+
+			if (cause instanceof DBMetaResolverException)
+				throw (DBMetaResolverException) cause;
+			else if (cause instanceof Error)
+				throw (Error) cause;
+			else
+				throw new DBMetaResolverException(cause);
+		}
+
+		return (value == NULL_VALUE ? null : (T) value);
+	}
+
+	/**
+	 * 获取连接标识。
+	 * <p>
+	 * 优先使用已绑定的连接标识，没有时才读取连接元信息，并将其绑定至连接。
+	 * </p>
+	 * 
+	 * @param cn
+	 * @return {@code null}表示无法获取
+	 */
+	protected ConnectionOption getConnectionIdentity(Connection cn)
+	{
+		ConnectionOption connectionOption = this._connectionIdentities.getIfPresent(cn);
+
+		if (connectionOption == null)
+		{
+			connectionOption = ConnectionOption.valueOf(cn);
+
+			if (connectionOption != null)
+				this._connectionIdentities.put(cn, connectionOption);
+		}
+
+		return connectionOption;
+	}
+
+	/**
+	 * 构建连接标识，它应与{@linkplain ConnectionOption#valueOf(Connection)}的结构一致。
+	 * 
+	 * @param url
+	 * @param user
+	 *            允许为{@code null}
+	 * @return {@code null}表示{@code url}为空
+	 */
+	protected ConnectionOption toConnectionIdentity(String url, String user)
+	{
+		if (StringUtil.isEmpty(url))
+			return null;
+
+		return ConnectionOption.valueOf(url, (user == null ? "" : user));
+	}
+
+	protected <T> T call(Callable<T> loader) throws DBMetaResolverException
+	{
+		try
+		{
+			return loader.call();
+		}
+		catch (DBMetaResolverException e)
+		{
+			throw e;
+		}
+		catch (RuntimeException e)
+		{
+			throw e;
+		}
+		catch (Exception e)
+		{
+			throw new DBMetaResolverException(e);
+		}
+	}
+
+	protected static class MetaCacheKey implements Serializable
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final ConnectionOption connectionOption;
+		private final String type;
+		private final String name;
+
+		public MetaCacheKey(ConnectionOption connectionOption, String type, String name)
+		{
+			super();
+			this.connectionOption = connectionOption;
+			this.type = type;
+			this.name = name;
+		}
+
+		public ConnectionOption getConnectionOption()
+		{
+			return connectionOption;
+		}
+
+		public String getType()
+		{
+			return type;
+		}
+
+		public String getName()
+		{
+			return name;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			final int prime = 31;
+			int result = 1;
+			result = prime * result + ((connectionOption == null) ? 0 : connectionOption.hashCode());
+			result = prime * result + ((type == null) ? 0 : type.hashCode());
+			result = prime * result + ((name == null) ? 0 : name.hashCode());
+			return result;
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (this == obj)
+				return true;
+			if (obj == null)
+				return false;
+			if (getClass() != obj.getClass())
+				return false;
+			MetaCacheKey other = (MetaCacheKey) obj;
+			if (connectionOption == null)
+			{
+				if (other.connectionOption != null)
+					return false;
+			}
+			else if (!connectionOption.equals(other.connectionOption))
+				return false;
+			if (type == null)
+			{
+				if (other.type != null)
+					return false;
+			}
+			else if (!type.equals(other.type))
+				return false;
+			if (name == null)
+			{
+				if (other.name != null)
+					return false;
+			}
+			else if (!name.equals(other.name))
+				return false;
+			return true;
+		}
+
+		@Override
+		public String toString()
+		{
+			return getClass().getSimpleName() + " [connectionOption=" + connectionOption + ", type=" + type
+					+ ", name=" + name + "]";
+		}
+	}
+}
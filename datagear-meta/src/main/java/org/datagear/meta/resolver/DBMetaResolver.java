@@ -5,6 +5,7 @@
 package org.datagear.meta.resolver;
 
 import java.sql.Connection;
+import java.sql.DatabaseMetaData;
 import java.sql.ResultSetMetaData;
 import java.util.List;
 
@@ -41,6 +42,20 @@ public interface DBMetaResolver
 	 */
 	List<SimpleTable> getSimpleTables(Connection cn) throws DBMetaResolverException;
 
+	/**
+	 * 获取名称匹配指定模式的{@linkplain SimpleTable}。
+	 * <p>
+	 * 匹配由数据库执行，模式格式、大小写敏感性与{@linkplain DatabaseMetaData#getTables(String, String, String, String[])}的{@code tableNamePattern}参数一致。
+	 * </p>
+	 * 
+	 * @param cn
+	 * @param tableNamePattern
+	 *            为{@code null}或空则查询全部
+	 * @return
+	 * @throws DBMetaResolverException
+	 */
+	List<SimpleTable> getSimpleTables(Connection cn, String tableNamePattern) throws DBMetaResolverException;
+
 	/**
 	 * 随机获取一个{@linkplain SimpleTable}。
 	 * <p>
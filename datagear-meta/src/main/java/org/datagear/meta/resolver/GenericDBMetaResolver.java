@@ -70,6 +70,13 @@ public class GenericDBMetaResolver implements DBMetaResolver
 		return resolver.getSimpleTables(cn);
 	}
 
+	@Override
+	public List<SimpleTable> getSimpleTables(Connection cn, String tableNamePattern) throws DBMetaResolverException
+	{
+		DevotedDBMetaResolver resolver = doGetDevotedDBMetaResolverNotNull(cn);
+		return resolver.getSimpleTables(cn, tableNamePattern);
+	}
+
 	@Override
 	public SimpleTable getRandomSimpleTable(Connection cn) throws DBMetaResolverException
 	{
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.meta.resolver;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+
+import org.datagear.meta.PrimaryKey;
+import org.datagear.meta.Table;
+import org.datagear.meta.TableType;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * {@linkplain CachingDBMetaResolver}单元测试类。
+ * 
+ * @author datagear@163.com
+ *
+ */
+public class CachingDBMetaResolverTest
+{
+	@Test
+	public void getTableTest()
+	{
+		CountingDBMetaResolver delegate = new CountingDBMetaResolver();
+		CachingDBMetaResolver resolver = new CachingDBMetaResolver(delegate);
+		resolver.init();
+
+		Connection cn0 = createConnection("jdbc:test://host0/db", "user");
+		Connection cn1 = createConnection("jdbc:test://host1/db", "user");
+
+		Table t0 = resolver.getTable(cn0, "T_A");
+		Table t1 = resolver.getTable(createConnection("jdbc:test://host0/db", "user"), "T_A");
+
+		Assert.assertTrue(t0 == t1);
+		Assert.assertEquals(1, delegate.tableCount);
+
+		resolver.getTable(cn1, "T_A");
+		Assert.assertEquals(2, delegate.tableCount);
+
+		// 已缓存的表可用于主键
+		Assert.assertEquals("T_A", resolver.getPrimaryKey(cn0, "T_A").getColumnNames()[0]);
+		Assert.assertEquals(0, delegate.primaryKeyCount);
+
+		resolver.invalidate(cn0, "T_A");
+		resolver.getTable(cn0, "T_A");
+		Assert.assertEquals(3, delegate.tableCount);
+
+		resolver.invalidate(cn1);
+		resolver.getTable(cn1, "T_A");
+		Assert.assertEquals(4, delegate.tableCount);
+	}
+
+	@Test
+	public void getTableTest_bindConnection()
+	{
+		CountingDBMetaResolver delegate = new CountingDBMetaResolver();
+		CachingDBMetaResolver resolver = new CachingDBMetaResolver(delegate);
+		resolver.init();
+
+		Connection cn0 = createConnection("jdbc:test://host0/db", "user");
+		resolver.getTable(cn0, "T_A");
+
+		// 已绑定连接标识的连接不再读取连接元信息
+		Connection cn1 = createConnection(null, null);
+		resolver.bindConnection(cn1, "jdbc:test://host0/db", "user");
+
+		resolver.getTable(cn1, "T_A");
+		Assert.assertEquals(1, delegate.tableCount);
+
+		resolver.invalidate("jdbc:test://host0/db", "user");
+		resolver.getTable(cn1, "T_A");
+		Assert.assertEquals(2, delegate.tableCount);
+
+		resolver.getTable(cn0, "T_A");
+		Assert.assertEquals(2, delegate.tableCount);
+	}
+
+	@Test
+	public void getTableTest_notFound()
+	{
+		CountingDBMetaResolver delegate = new CountingDBMetaResolver();
+		CachingDBMetaResolver resolver = new CachingDBMetaResolver(delegate);
+		resolver.setNotFoundExpireSeconds(60);
+		resolver.init();
+
+		Connection cn = createConnection("jdbc:test://host0/db", "user");
+
+		for (int i = 0; i < 2; i++)
+		{
+			try
+			{
+				resolver.getTable(cn, "NOT_FOUND");
+				Assert.fail();
+			}
+			catch (TableNotFoundException e)
+			{
+				Assert.assertEquals("NOT_FOUND", e.getTableName());
+			}
+		}
+
+		Assert.assertEquals(1, delegate.tableCount);
+	}
+
+	@Test
+	public void getPrimaryKeyTest_null()
+	{
+		CountingDBMetaResolver delegate = new CountingDBMetaResolver();
+		CachingDBMetaResolver resolver = new CachingDBMetaResolver(delegate);
+		resolver.init();
+
+		Connection cn = createConnection("jdbc:test://host0/db", "user");
+
+		Assert.assertNull(resolver.getPrimaryKey(cn, "NO_PK"));
+		Assert.assertNull(resolver.getPrimaryKey(cn, "NO_PK"));
+		Assert.assertEquals(1, delegate.primaryKeyCount);
+	}
+
+	/**
+	 * 创建连接，{@code url}为{@code null}时，读取连接元信息将抛出异常。
+	 * 
+	 * @param url
+	 * @param user
+	 * @return
+	 */
+	protected Connection createConnection(final String url, final String user)
+	{
+		final DatabaseMetaData metaData = (DatabaseMetaData) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class<?>[] { DatabaseMetaData.class }, new InvocationHandler()
+				{
+					@Override
+					public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+					{
+						if ("getURL".equals(method.getName()))
+							return url;
+						else if ("getUserName".equals(method.getName()))
+							return user;
+
+						throw new UnsupportedOperationException();
+					}
+				});
+
+		return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class },
+				new InvocationHandler()
+				{
+					@Override
+					public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+					{
+						if ("getMetaData".equals(method.getName()) && url != null)
+							return metaData;
+
+						throw new UnsupportedOperationException();
+					}
+				});
+	}
+
+	protected static class CountingDBMetaResolver extends GenericDBMetaResolver
+	{
+		public int tableCount = 0;
+
+		public int primaryKeyCount = 0;
+
+		@Override
+		public Table getTable(Connection cn, String tableName) throws DBMetaResolverException
+		{
+			this.tableCount++;
+
+			if ("NOT_FOUND".equals(tableName))
+				throw new TableNotFoundException(tableName);
+
+			Table table = new Table(tableName, TableType.TABLE);
+			table.setPrimaryKey(new PrimaryKey(new String[] { tableName }));
+
+			return table;
+		}
+
+		@Override
+		public PrimaryKey getPrimaryKey(Connection cn, String tableName) throws DBMetaResolverException
+		{
+			this.primaryKeyCount++;
+			return null;
+		}
+	}
+}
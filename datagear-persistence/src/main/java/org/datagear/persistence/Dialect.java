@@ -85,6 +85,22 @@ public interface Dialect
 	 */
 	Sql toPagingQuerySql(Sql query, Order[] orders, long startRow, int count);
 
+	/**
+	 * 构建限定结果行数的查询SQL。
+	 * <p>
+	 * 使数据库只需计算、返回前{@code count}行，而不会改变{@code query}的结果列和排序。
+	 * 通常将{@code query}作为子查询，但子查询的{@code ORDER BY}可能会被数据库忽略，所以有顶层{@code ORDER BY}的{@code query}应直接追加限定语句。
+	 * 如果数据库不支持，返回{@code null}。
+	 * </p>
+	 * 
+	 * @param query
+	 *            查询SQL
+	 * @param count
+	 *            最大行数
+	 * @return
+	 */
+	Sql toLimitQuerySql(Sql query, int count);
+
 	/**
 	 * 获取作为关键字查询的列数。
 	 * 
@@ -116,4 +132,16 @@ public interface Dialect
 	 * @return
 	 */
 	Sql toOrderSql(Sql query, Order[] orders);
+
+	/**
+	 * 构建表行数估算SQL。
+	 * <p>
+	 * 此SQL应读取数据库的统计信息而非扫描表，查询结果为单行单列的估算行数。
+	 * 如果数据库不支持，返回{@code null}。
+	 * </p>
+	 * 
+	 * @param table
+	 * @return
+	 */
+	Sql toRowCountEstimateSql(Table table);
 }
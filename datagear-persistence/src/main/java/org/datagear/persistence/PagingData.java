@@ -5,6 +5,7 @@
 package org.datagear.persistence;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * 分页数据。
@@ -30,6 +31,12 @@ public class PagingData<T>
 	/** 分页信息 */
 	private Paging paging = new Paging();
 
+	/** 总记录数是否是估算值 */
+	private boolean totalEstimated = false;
+
+	/** 当前页最后一行的排序列、唯一键列值，用于下一页的键集分页，为{@code null}表示不支持 */
+	private Map<String, Object> seekValues = null;
+
 	public PagingData()
 	{
 		this(1, 0);
@@ -87,6 +94,26 @@ public class PagingData<T>
 		this.pages = pages;
 	}
 
+	public boolean isTotalEstimated()
+	{
+		return totalEstimated;
+	}
+
+	public void setTotalEstimated(boolean totalEstimated)
+	{
+		this.totalEstimated = totalEstimated;
+	}
+
+	public Map<String, Object> getSeekValues()
+	{
+		return seekValues;
+	}
+
+	public void setSeekValues(Map<String, Object> seekValues)
+	{
+		this.seekValues = seekValues;
+	}
+
 	public int getPage()
 	{
 		return this.paging.getPage();
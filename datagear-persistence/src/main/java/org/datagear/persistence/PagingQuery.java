@@ -5,9 +5,14 @@
 package org.datagear.persistence;
 
 import java.util.Arrays;
+import java.util.Map;
 
 /**
  * 分页查询。
+ * <p>
+ * 如果设置了{@linkplain #getSeekValues()}，且{@linkplain #getPage()}是{@linkplain #getSeekPage()}的下一页，
+ * 那么将尝试使用键集分页（即以上一页最后一行的排序列、唯一键列值作为查询条件），而不是跳过前面的行。
+ * </p>
  *
  * @author datagear@163.com
  *
@@ -19,6 +24,12 @@ public class PagingQuery extends Query
 	/** 分页信息 */
 	private Paging paging = new Paging();
 
+	/** 键集分页的上一页页码 */
+	private int seekPage = 0;
+
+	/** 键集分页的上一页最后一行的排序列、唯一键列值，参考{@linkplain PagingData#getSeekValues()} */
+	private Map<String, Object> seekValues = null;
+
 	public PagingQuery()
 	{
 		super();
@@ -71,6 +82,37 @@ public class PagingQuery extends Query
 		this.paging.setPageSize(pageSize);
 	}
 
+	public int getSeekPage()
+	{
+		return seekPage;
+	}
+
+	public void setSeekPage(int seekPage)
+	{
+		this.seekPage = seekPage;
+	}
+
+	public Map<String, Object> getSeekValues()
+	{
+		return seekValues;
+	}
+
+	public void setSeekValues(Map<String, Object> seekValues)
+	{
+		this.seekValues = seekValues;
+	}
+
+	/**
+	 * 是否可尝试键集分页。
+	 * 
+	 * @return
+	 */
+	public boolean isSeekable()
+	{
+		return (this.seekValues != null && !this.seekValues.isEmpty() && this.seekPage > 0
+				&& getPage() == this.seekPage + 1);
+	}
+
 	@Override
 	public String toString()
 	{
@@ -85,6 +127,8 @@ public class PagingQuery extends Query
 		final int prime = 31;
 		int result = super.hashCode();
 		result = prime * result + ((paging == null) ? 0 : paging.hashCode());
+		result = prime * result + seekPage;
+		result = prime * result + ((seekValues == null) ? 0 : seekValues.hashCode());
 		return result;
 	}
 
@@ -105,6 +149,15 @@ public class PagingQuery extends Query
 		}
 		else if (!paging.equals(other.paging))
 			return false;
+		if (seekPage != other.seekPage)
+			return false;
+		if (seekValues == null)
+		{
+			if (other.seekValues != null)
+				return false;
+		}
+		else if (!seekValues.equals(other.seekValues))
+			return false;
 		return true;
 	}
 }
@@ -6,6 +6,8 @@ package org.datagear.persistence.support;
 
 import java.math.BigDecimal;
 import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.datagear.meta.Column;
 import org.datagear.meta.SearchableType;
@@ -153,6 +155,18 @@ public abstract class AbstractDialect extends PersistenceSupport implements Dial
 		return Sql.valueOf().sql(query).sql(" ORDER BY ").sql(orderSql);
 	}
 
+	@Override
+	public Sql toLimitQuerySql(Sql query, int count)
+	{
+		return null;
+	}
+
+	@Override
+	public Sql toRowCountEstimateSql(Table table)
+	{
+		return null;
+	}
+
 	/**
 	 * 转换为排序SQL。
 	 * 
@@ -176,6 +190,101 @@ public abstract class AbstractDialect extends PersistenceSupport implements Dial
 		return orderSql;
 	}
 
+	/**
+	 * 获取SQL语句的顶层单词。
+	 * <p>
+	 * 顶层单词是指不在括号、字符串、引用标识、注释内的单词，返回的单词已转换为大写。
+	 * </p>
+	 * 
+	 * @param sql
+	 * @return
+	 */
+	protected List<String> getTopLevelWords(String sql)
+	{
+		List<String> words = new ArrayList<>();
+
+		int depth = 0;
+		int len = sql.length();
+		int i = 0;
+
+		while (i < len)
+		{
+			char c = sql.charAt(i);
+
+			if (c == '\'' || c == '"' || c == '`' || c == '[')
+			{
+				char end = (c == '[' ? ']' : c);
+				int endIdx = sql.indexOf(end, i + 1);
+				i = (endIdx < 0 ? len : endIdx + 1);
+			}
+			else if (c == '-' && i + 1 < len && sql.charAt(i + 1) == '-')
+			{
+				int endIdx = sql.indexOf('\n', i + 2);
+				i = (endIdx < 0 ? len : endIdx + 1);
+			}
+			else if (c == '/' && i + 1 < len && sql.charAt(i + 1) == '*')
+			{
+				int endIdx = sql.indexOf("*/", i + 2);
+				i = (endIdx < 0 ? len : endIdx + 2);
+			}
+			else if (c == '(')
+			{
+				depth++;
+				i++;
+			}
+			else if (c == ')')
+			{
+				depth--;
+				i++;
+			}
+			else if (Character.isLetterOrDigit(c) || c == '_')
+			{
+				int start = i;
+
+				while (i < len && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '_'))
+					i++;
+
+				if (depth == 0)
+					words.add(sql.substring(start, i).toUpperCase());
+			}
+			else
+				i++;
+		}
+
+		return words;
+	}
+
+	/**
+	 * 单词列表是否包含指定的连续单词。
+	 * 
+	 * @param words
+	 *            大写单词列表
+	 * @param sequence
+	 *            大写单词
+	 * @return
+	 */
+	protected boolean containsWords(List<String> words, String... sequence)
+	{
+		for (int i = 0, len = words.size() - sequence.length; i <= len; i++)
+		{
+			boolean matches = true;
+
+			for (int j = 0; j < sequence.length; j++)
+			{
+				if (!sequence[j].equals(words.get(i + j)))
+				{
+					matches = false;
+					break;
+				}
+			}
+
+			if (matches)
+				return true;
+		}
+
+		return false;
+	}
+
 	/**
 	 * SQL是否为空。
 	 * 
@@ -31,9 +31,9 @@ public abstract class AbstractLOBRowMapper extends AbstractRowMapper
 	}
 
 	@Override
-	protected Object mapColumn(Connection cn, Table table, ResultSet rs, int rowIndex, Column column) throws Throwable
+	protected Object mapColumn(Connection cn, Table table, ResultSet rs, int rowIndex, Column column,
+			int columnIndex) throws Throwable
 	{
-		String columnName = column.getName();
 		int sqlType = column.getType();
 
 		Object value = null;
@@ -90,7 +90,7 @@ public abstract class AbstractLOBRowMapper extends AbstractRowMapper
 			}
 
 			default:
-				value = getColumnValue(cn, rs, columnName, sqlType);
+				value = getColumnValue(cn, rs, columnIndex, sqlType);
 				break;
 		}
 
@@ -6,6 +6,7 @@ package org.datagear.persistence.support;
 
 import java.sql.Connection;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 
 import org.datagear.meta.Column;
 import org.datagear.meta.Table;
@@ -28,6 +29,36 @@ public abstract class AbstractRowMapper extends PersistenceSupport implements Ro
 
 	@Override
 	public Row map(Connection cn, Table table, ResultSet rs, int rowIndex) throws RowMapperException
+	{
+		int[] columnIndexes = null;
+
+		try
+		{
+			columnIndexes = getColumnIndexes(rs, table);
+		}
+		catch (SQLException e)
+		{
+			throw new RowMapperException(e);
+		}
+
+		return map(cn, table, rs, rowIndex, columnIndexes);
+	}
+
+	/**
+	 * 将结果集行映射为{@linkplain Row}。
+	 * 
+	 * @param cn
+	 * @param table
+	 * @param rs
+	 * @param rowIndex
+	 *            行号，以{@code 1}开始
+	 * @param columnIndexes
+	 *            {@linkplain #getColumnIndexes(ResultSet, Table)}的返回值
+	 * @return
+	 * @throws RowMapperException
+	 */
+	public Row map(Connection cn, Table table, ResultSet rs, int rowIndex, int[] columnIndexes)
+			throws RowMapperException
 	{
 		Row rowObj = new Row();
 
@@ -39,7 +70,7 @@ public abstract class AbstractRowMapper extends PersistenceSupport implements Ro
 				if (!supportsColumn(columns[i]))
 					continue;
 
-				Object value = mapColumn(cn, table, rs, rowIndex, columns[i]);
+				Object value = mapColumn(cn, table, rs, rowIndex, columns[i], columnIndexes[i]);
 				rowObj.put(columns[i].getName(), value);
 			}
 		}
@@ -66,9 +97,11 @@ public abstract class AbstractRowMapper extends PersistenceSupport implements Ro
 	 * @param rs
 	 * @param rowIndex
 	 * @param column
+	 * @param columnIndex
+	 *            列在结果集中的索引，以{@code 1}开始
 	 * @return
 	 * @throws Throwable
 	 */
-	protected abstract Object mapColumn(Connection cn, Table table, ResultSet rs, int rowIndex, Column column)
-			throws Throwable;
+	protected abstract Object mapColumn(Connection cn, Table table, ResultSet rs, int rowIndex, Column column,
+			int columnIndex) throws Throwable;
 }
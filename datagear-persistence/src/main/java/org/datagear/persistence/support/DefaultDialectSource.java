@@ -335,6 +335,15 @@ public class DefaultDialectSource extends PersistenceSupport implements DialectS
 
 			return this.toPagingQuerySqlDialect.toPagingQuerySql(query, orders, startRow, count);
 		}
+
+		@Override
+		public Sql toLimitQuerySql(Sql query, int count)
+		{
+			if (this.toPagingQuerySqlDialect == null)
+				return null;
+
+			return this.toPagingQuerySqlDialect.toLimitQuerySql(query, count);
+		}
 	}
 
 	protected static class CombinedDialectBuilder extends AbstractDialectBuilder
@@ -4,11 +4,13 @@
 
 package org.datagear.persistence.support;
 
+import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Types;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.regex.Pattern;
@@ -21,6 +23,7 @@ import org.datagear.persistence.Dialect;
 import org.datagear.persistence.DialectSource;
 import org.datagear.persistence.LiteralSqlParamValue;
 import org.datagear.persistence.NonUniqueResultException;
+import org.datagear.persistence.Order;
 import org.datagear.persistence.PagingData;
 import org.datagear.persistence.PagingQuery;
 import org.datagear.persistence.PersistenceException;
@@ -38,6 +41,12 @@ import org.slf4j.LoggerFactory;
 
 /**
  * 默认{@linkplain PersistenceManager}。
+ * <p>
+ * 分页查询时，如果表有主键或者唯一键，且排序列、键列都是非空的数值或字符类型，那么将在排序后追加键列以确保顺序稳定，
+ * 并在{@linkplain PagingData#getSeekValues()}中返回当前页最后一行的这些列值，请求下一页时可据此使用键集分页，
+ * 而不必跳过前面的行；设置了{@linkplain #getEstimateTotalThreshold()}时，对于无查询条件的大表，
+ * 将使用数据库统计信息估算总记录数，而不执行{@code COUNT(*)}。
+ * </p>
  * 
  * @author datagear@163.com
  *
@@ -48,6 +57,9 @@ public class DefaultPersistenceManager extends PersistenceSupport implements Per
 
 	private DialectSource dialectSource;
 
+	/** 使用估算总记录数的阈值，估算值不小于它时才使用，小于等于{@code 0}表示不估算 */
+	private long estimateTotalThreshold = 0;
+
 	public DefaultPersistenceManager()
 	{
 		super();
@@ -70,6 +82,16 @@ public class DefaultPersistenceManager extends PersistenceSupport implements Per
 		this.dialectSource = dialectSource;
 	}
 
+	public long getEstimateTotalThreshold()
+	{
+		return estimateTotalThreshold;
+	}
+
+	public void setEstimateTotalThreshold(long estimateTotalThreshold)
+	{
+		this.estimateTotalThreshold = estimateTotalThreshold;
+	}
+
 	@Override
 	public Row insert(Connection cn, Table table, Row row) throws PersistenceException
 	{
@@ -371,20 +393,78 @@ public class DefaultPersistenceManager extends PersistenceSupport implements Per
 
 		dialect = getDialect(cn, dialect);
 
+		Column[] seekColumns = getSeekColumns(table, pagingQuery.getOrders());
+		Order[] orders = (seekColumns == null ? pagingQuery.getOrders()
+				: toSeekOrders(seekColumns, pagingQuery.getOrders()));
+
 		Sql queryView = buildQuerySql(cn, dialect, table, pagingQuery, true);
 
-		long total = queryCount(cn, queryView);
+		long total = -1;
+		boolean totalEstimated = false;
+
+		if (this.estimateTotalThreshold > 0 && !pagingQuery.hasKeyword() && !pagingQuery.hasCondition())
+		{
+			total = queryCountEstimate(cn, dialect, table);
+			totalEstimated = (total >= this.estimateTotalThreshold);
+		}
+
+		// 估算值可能偏小，不应因此修正请求页码
+		if (totalEstimated)
+			total = Math.max(total, (long) (pagingQuery.getPage() - 1) * pagingQuery.getPageSize() + 1);
+		else
+			total = queryCount(cn, queryView);
 
 		PagingData<Row> pagingData = new PagingData<>(pagingQuery.getPage(), total, pagingQuery.getPageSize());
+		pagingData.setTotalEstimated(totalEstimated);
 
-		Sql query = null;
 		List<Row> rows = null;
+
+		if (seekColumns != null && pagingQuery.isSeekable() && pagingData.getPage() == pagingQuery.getPage())
+			rows = seekQuery(cn, dialect, table, pagingQuery, seekColumns, orders, pagingData.getPageSize(), mapper);
+
+		if (rows == null)
+			rows = offsetQuery(cn, dialect, table, queryView, orders, pagingData, mapper);
+
+		// 读取到末页时，可以得到准确的总记录数
+		if (totalEstimated && rows.size() < pagingData.getPageSize())
+		{
+			pagingData = new PagingData<>(pagingData.getPage(), pagingData.getStartIndex() + rows.size(),
+					pagingData.getPageSize());
+		}
+
+		pagingData.setItems(rows);
+
+		if (seekColumns != null && !rows.isEmpty() && rows.size() == pagingData.getPageSize())
+			pagingData.setSeekValues(getSeekValues(rows.get(rows.size() - 1), seekColumns));
+
+		return pagingData;
+	}
+
+	/**
+	 * 偏移分页查询。
+	 * 
+	 * @param cn
+	 * @param dialect
+	 * @param table
+	 * @param queryView
+	 * @param orders
+	 *            允许为{@code null}
+	 * @param pagingData
+	 * @param mapper
+	 *            允许为{@code null}
+	 * @return
+	 * @throws PersistenceException
+	 */
+	protected List<Row> offsetQuery(Connection cn, Dialect dialect, Table table, Sql queryView, Order[] orders,
+			PagingData<Row> pagingData, RowMapper mapper) throws PersistenceException
+	{
+		Sql query = null;
 		int startRow = pagingData.getStartRow();
 		int count = pagingData.getPageSize();
 
 		if (dialect.supportsPagingSql())
 		{
-			query = dialect.toPagingQuerySql(queryView, pagingQuery.getOrders(), startRow, count);
+			query = dialect.toPagingQuerySql(queryView, orders, startRow, count);
 
 			// 数据库分页
 			if (query != null)
@@ -400,14 +480,50 @@ public class DefaultPersistenceManager extends PersistenceSupport implements Per
 			if (LOGGER.isWarnEnabled())
 				LOGGER.warn("memory pagination will be used for [{}]", ConnectionOption.valueOfNonNull(cn));
 
-			query = dialect.toOrderSql(queryView, pagingQuery.getOrders());
+			query = dialect.toOrderSql(queryView, orders);
 		}
 
-		rows = executeListQuery(cn, table, query, ResultSet.TYPE_SCROLL_INSENSITIVE, startRow, count, mapper);
+		return executeListQuery(cn, table, query, ResultSet.TYPE_SCROLL_INSENSITIVE, startRow, count, mapper);
+	}
 
-		pagingData.setItems(rows);
+	/**
+	 * 键集分页查询。
+	 * <p>
+	 * 以{@linkplain PagingQuery#getSeekValues()}作为查询条件，只读取其后的{@code count}行。
+	 * </p>
+	 * 
+	 * @param cn
+	 * @param dialect
+	 * @param table
+	 * @param pagingQuery
+	 * @param seekColumns
+	 * @param seekOrders
+	 * @param count
+	 * @param mapper
+	 *            允许为{@code null}
+	 * @return 返回{@code null}表示无法使用键集分页
+	 * @throws PersistenceException
+	 */
+	protected List<Row> seekQuery(Connection cn, Dialect dialect, Table table, PagingQuery pagingQuery,
+			Column[] seekColumns, Order[] seekOrders, int count, RowMapper mapper) throws PersistenceException
+	{
+		Sql seekCondition = buildSeekCondition(dialect, seekColumns, seekOrders, pagingQuery.getSeekValues());
 
-		return pagingData;
+		if (seekCondition == null)
+			return null;
+
+		Sql queryView = buildQuerySql(cn, dialect, table, pagingQuery, true, seekCondition);
+
+		Sql query = null;
+
+		if (dialect.supportsPagingSql())
+			query = dialect.toPagingQuerySql(queryView, seekOrders, 1, count);
+
+		if (query == null)
+			query = dialect.toOrderSql(queryView, seekOrders);
+
+		// 只需读取结果集前面的行，无需可滚动结果集
+		return executeListQuery(cn, table, query, ResultSet.TYPE_FORWARD_ONLY, 1, count, mapper);
 	}
 
 	@Override
@@ -438,7 +554,51 @@ public class DefaultPersistenceManager extends PersistenceSupport implements Per
 		return re;
 	}
 
+	/**
+	 * 查询估算总记录数。
+	 * 
+	 * @param cn
+	 * @param dialect
+	 * @param table
+	 * @return 返回{@code -1}表示无法估算
+	 */
+	protected long queryCountEstimate(Connection cn, Dialect dialect, Table table)
+	{
+		Sql sql = dialect.toRowCountEstimateSql(table);
+
+		if (sql == null)
+			return -1;
+
+		try
+		{
+			return executeCountQuery(cn, sql);
+		}
+		catch (SQLException e)
+		{
+			LOGGER.debug("estimate row count of table [" + table.getName() + "] error :", e);
+			return -1;
+		}
+	}
+
 	protected Sql buildQuerySql(Connection cn, Dialect dialect, Table table, Query query, boolean parameterized)
+	{
+		return buildQuerySql(cn, dialect, table, query, parameterized, null);
+	}
+
+	/**
+	 * 构建查询SQL。
+	 * 
+	 * @param cn
+	 * @param dialect
+	 * @param table
+	 * @param query
+	 * @param parameterized
+	 * @param extraCondition
+	 *            附加查询条件，允许为{@code null}
+	 * @return
+	 */
+	protected Sql buildQuerySql(Connection cn, Dialect dialect, Table table, Query query, boolean parameterized,
+			Sql extraCondition)
 	{
 		Sql sql = Sql.valueOf().sql("SELECT ").delimit(",");
 
@@ -450,6 +610,11 @@ public class DefaultPersistenceManager extends PersistenceSupport implements Per
 		sql.sql(quote(dialect, table.getName()));
 		Sql condition = buildQueryCondition(cn, dialect, table, query, parameterized);
 
+		if (!Sql.isEmpty(condition) && !Sql.isEmpty(extraCondition))
+			condition = Sql.valueOf().sql("(").sql(condition).sql(") AND (").sql(extraCondition).sql(")");
+		else if (!Sql.isEmpty(extraCondition))
+			condition = extraCondition;
+
 		if (!Sql.isEmpty(condition))
 		{
 			sql.sql(" WHERE ");
@@ -459,6 +624,208 @@ public class DefaultPersistenceManager extends PersistenceSupport implements Per
 		return sql;
 	}
 
+	/**
+	 * 获取键集分页的列数组：排序列在前，主键或者唯一键列在后。
+	 * 
+	 * @param table
+	 * @param orders
+	 *            允许为{@code null}
+	 * @return 返回{@code null}表示不支持键集分页
+	 */
+	protected Column[] getSeekColumns(Table table, Order[] orders)
+	{
+		Column[] keyColumns = null;
+
+		if (table.hasPrimaryKey())
+			keyColumns = table.getColumns(table.getPrimaryKey().getColumnNames());
+		else if (table.hasUniqueKey())
+			keyColumns = table.getColumns(table.getUniqueKeys()[0].getColumnNames());
+
+		if (keyColumns == null || keyColumns.length == 0)
+			return null;
+
+		List<Column> re = new ArrayList<>();
+
+		if (orders != null)
+		{
+			for (Order order : orders)
+			{
+				Column column = table.getColumn(order.getName());
+
+				if (column == null || containsColumn(re, column.getName()))
+					return null;
+
+				re.add(column);
+			}
+		}
+
+		for (Column column : keyColumns)
+		{
+			if (column == null)
+				return null;
+
+			if (!containsColumn(re, column.getName()))
+				re.add(column);
+		}
+
+		for (Column column : re)
+		{
+			// 列值可能为null时，无法构建正确的比较条件
+			if (column.isNullable() || !isSeekableType(column))
+				return null;
+		}
+
+		return re.toArray(new Column[re.size()]);
+	}
+
+	/**
+	 * 获取键集分页的排序数组：原排序在前，键列升序在后。
+	 * 
+	 * @param seekColumns
+	 * @param orders
+	 *            允许为{@code null}
+	 * @return
+	 */
+	protected Order[] toSeekOrders(Column[] seekColumns, Order[] orders)
+	{
+		Order[] re = new Order[seekColumns.length];
+
+		int orderLen = (orders == null ? 0 : orders.length);
+
+		for (int i = 0; i < seekColumns.length; i++)
+		{
+			if (i < orderLen)
+				re[i] = orders[i];
+			else
+				re[i] = Order.valueOf(seekColumns[i].getName(), Order.ASC);
+		}
+
+		return re;
+	}
+
+	/**
+	 * 构建键集分页条件，格式为：
+	 * {@code (C0 > ?) OR (C0 = ? AND C1 > ?) OR (C0 = ? AND C1 = ? AND C2 > ?)}，降序列使用{@code <}。
+	 * 
+	 * @param dialect
+	 * @param seekColumns
+	 * @param seekOrders
+	 * @param seekValues
+	 * @return 返回{@code null}表示{@code seekValues}不合法
+	 */
+	protected Sql buildSeekCondition(Dialect dialect, Column[] seekColumns, Order[] seekOrders,
+			Map<String, ?> seekValues)
+	{
+		SqlParamValue[] paramValues = new SqlParamValue[seekColumns.length];
+
+		for (int i = 0; i < seekColumns.length; i++)
+		{
+			paramValues[i] = toSeekParamValue(seekColumns[i], seekValues.get(seekColumns[i].getName()));
+
+			if (paramValues[i] == null)
+				return null;
+		}
+
+		Sql sql = Sql.valueOf().delimit(" OR ");
+
+		for (int i = 0; i < seekColumns.length; i++)
+		{
+			Sql group = Sql.valueOf().delimit(" AND ");
+
+			for (int j = 0; j < i; j++)
+				group.sqld(quote(dialect, seekColumns[j].getName()) + "=?").param(paramValues[j]);
+
+			group.sqld(quote(dialect, seekColumns[i].getName()) + (seekOrders[i].isDesc() ? "<?" : ">?"))
+					.param(paramValues[i]);
+
+			sql.sqld(Sql.valueOf().sql("(").sql(group).sql(")"));
+		}
+
+		return sql;
+	}
+
+	/**
+	 * 获取行的键集分页列值。
+	 * 
+	 * @param row
+	 * @param seekColumns
+	 * @return
+	 */
+	protected Map<String, Object> getSeekValues(Row row, Column[] seekColumns)
+	{
+		Map<String, Object> re = new HashMap<>();
+
+		for (Column column : seekColumns)
+			re.put(column.getName(), row.get(column.getName()));
+
+		return re;
+	}
+
+	/**
+	 * 转换键集分页参数值。
+	 * <p>
+	 * {@linkplain PagingQuery#getSeekValues()}通常来自客户端，这里将其转换为列类型的精确值。
+	 * </p>
+	 * 
+	 * @param column
+	 * @param value
+	 *            允许为{@code null}
+	 * @return 返回{@code null}表示值不合法
+	 */
+	protected SqlParamValue toSeekParamValue(Column column, Object value)
+	{
+		if (value == null)
+			return null;
+
+		int type = column.getType();
+
+		try
+		{
+			if (Types.CHAR == type || Types.VARCHAR == type || Types.NCHAR == type || Types.NVARCHAR == type)
+				return new SqlParamValue(value.toString(), type);
+			else if (Types.NUMERIC == type || Types.DECIMAL == type)
+				return new SqlParamValue(new BigDecimal(value.toString()), type);
+			else
+				return new SqlParamValue(Long.valueOf(value.toString()), Types.BIGINT);
+		}
+		catch (NumberFormatException e)
+		{
+			return null;
+		}
+	}
+
+	/**
+	 * 是否可作为键集分页列的类型：字符类型、整数类型。
+	 * 
+	 * @param column
+	 * @return
+	 */
+	protected boolean isSeekableType(Column column)
+	{
+		int type = column.getType();
+
+		if (Types.CHAR == type || Types.VARCHAR == type || Types.NCHAR == type || Types.NVARCHAR == type
+				|| Types.TINYINT == type || Types.SMALLINT == type || Types.INTEGER == type || Types.BIGINT == type)
+			return true;
+
+		// 小数在客户端往返时可能丢失精度
+		if ((Types.NUMERIC == type || Types.DECIMAL == type) && column.getDecimalDigits() == 0)
+			return true;
+
+		return false;
+	}
+
+	protected boolean containsColumn(List<Column> columns, String name)
+	{
+		for (Column column : columns)
+		{
+			if (column.getName().equals(name))
+				return true;
+		}
+
+		return false;
+	}
+
 	/**
 	 * 构建查询条件。
 	 * 
@@ -6,11 +6,14 @@ package org.datagear.persistence.support;
 
 import java.sql.Connection;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.datagear.meta.Column;
 import org.datagear.meta.Table;
@@ -179,7 +182,7 @@ public class PersistenceSupport extends JdbcSupport
 
 		try
 		{
-			qrs = executeQuery(cn, sql, resultSetType);
+			qrs = executeQuery(cn, sql, resultSetType, 0);
 			ResultSet rs = qrs.getResultSet();
 
 			return mapToRows(cn, table, rs, startRow, count, mapper);
@@ -222,6 +225,7 @@ public class PersistenceSupport extends JdbcSupport
 			forwardBefore(rs, startRow);
 
 		int endRow = (count >= 0 ? startRow + count : -1);
+		int[] columnIndexes = getColumnIndexes(rs, table);
 
 		int rowIndex = startRow;
 		while (rs.next())
@@ -229,7 +233,7 @@ public class PersistenceSupport extends JdbcSupport
 			if (endRow >= 0 && rowIndex >= endRow)
 				break;
 
-			Row row = mapToRow(cn, table, rs, rowIndex, mapper);
+			Row row = mapToRow(cn, table, rs, rowIndex, mapper, columnIndexes);
 
 			resultList.add(row);
 
@@ -257,6 +261,9 @@ public class PersistenceSupport extends JdbcSupport
 
 	/**
 	 * 将结果集行映射为{@linkplain Row}对象。
+	 * <p>
+	 * 循环映射多行时，应使用{@linkplain #mapToRow(Connection, Table, ResultSet, int, RowMapper, int[])}，避免每行都解析列索引。
+	 * </p>
 	 * 
 	 * @param cn
 	 * @param table
@@ -271,7 +278,44 @@ public class PersistenceSupport extends JdbcSupport
 	public Row mapToRow(Connection cn, Table table, ResultSet rs, int rowIndex, RowMapper mapper)
 			throws RowMapperException
 	{
-		if (mapper != null)
+		if (mapper != null && !(mapper instanceof AbstractRowMapper))
+			return mapper.map(cn, table, rs, rowIndex);
+
+		int[] columnIndexes = null;
+
+		try
+		{
+			columnIndexes = getColumnIndexes(rs, table);
+		}
+		catch (SQLException e)
+		{
+			throw new RowMapperException(e);
+		}
+
+		return mapToRow(cn, table, rs, rowIndex, mapper, columnIndexes);
+	}
+
+	/**
+	 * 将结果集行映射为{@linkplain Row}对象。
+	 * 
+	 * @param cn
+	 * @param table
+	 * @param rs
+	 * @param rowIndex
+	 *            行号，以{@code 1}开头
+	 * @param mapper
+	 *            允许为{@code null}
+	 * @param columnIndexes
+	 *            {@linkplain #getColumnIndexes(ResultSet, Table)}的返回值
+	 * @return
+	 * @throws RowMapperException
+	 */
+	public Row mapToRow(Connection cn, Table table, ResultSet rs, int rowIndex, RowMapper mapper,
+			int[] columnIndexes) throws RowMapperException
+	{
+		if (mapper instanceof AbstractRowMapper)
+			return ((AbstractRowMapper) mapper).map(cn, table, rs, rowIndex, columnIndexes);
+		else if (mapper != null)
 			return mapper.map(cn, table, rs, rowIndex);
 		else
 		{
@@ -287,7 +331,7 @@ public class PersistenceSupport extends JdbcSupport
 					if (!supportsColumn(column))
 						continue;
 
-					Object value = getColumnValue(cn, rs, column);
+					Object value = getColumnValue(cn, rs, column, columnIndexes[i]);
 					row.put(column.getName(), value);
 				}
 			}
@@ -300,11 +344,70 @@ public class PersistenceSupport extends JdbcSupport
 		}
 	}
 
+	/**
+	 * 获取{@linkplain Table#getColumns()}在结果集中的列索引。
+	 * <p>
+	 * 结果集的列顺序不一定与{@linkplain Table#getColumns()}一致（比如某些数据库的分页查询会在首列添加行号列），
+	 * 所以这里由{@linkplain ResultSetMetaData}的列标签确定列索引。
+	 * </p>
+	 * 
+	 * @param rs
+	 * @param table
+	 * @return 与{@linkplain Table#getColumns()}一一对应的列索引数组，列索引以{@code 1}开始
+	 * @throws SQLException
+	 *             当结果集中没有某列时
+	 */
+	public int[] getColumnIndexes(ResultSet rs, Table table) throws SQLException
+	{
+		ResultSetMetaData metaData = rs.getMetaData();
+		int columnCount = metaData.getColumnCount();
+
+		Map<String, Integer> labelIndexes = new HashMap<>();
+
+		for (int i = 1; i <= columnCount; i++)
+		{
+			String label = getColumnName(metaData, i);
+
+			if (label != null && !labelIndexes.containsKey(label))
+				labelIndexes.put(label, i);
+		}
+
+		Column[] columns = table.getColumns();
+		int[] columnIndexes = new int[columns.length];
+
+		for (int i = 0; i < columns.length; i++)
+		{
+			String name = columns[i].getName();
+			Integer index = labelIndexes.get(name);
+
+			// 列标签大小写可能与列名不一致，由驱动程序查找
+			columnIndexes[i] = (index != null ? index : rs.findColumn(name));
+		}
+
+		return columnIndexes;
+	}
+
 	public Object getColumnValue(Connection cn, ResultSet rs, Column column) throws SQLException
 	{
 		return getColumnValue(cn, rs, column.getName(), column.getType());
 	}
 
+	/**
+	 * 获取列值。
+	 * 
+	 * @param cn
+	 * @param rs
+	 * @param column
+	 * @param columnIndex
+	 *            列在结果集中的索引，以{@code 1}开始
+	 * @return
+	 * @throws SQLException
+	 */
+	public Object getColumnValue(Connection cn, ResultSet rs, Column column, int columnIndex) throws SQLException
+	{
+		return getColumnValue(cn, rs, columnIndex, column.getType());
+	}
+
 	public SqlParamValue createSqlParamValue(Column column, Object value)
 	{
 		return new SqlParamValue(value, column.getType());
@@ -28,8 +28,9 @@ public class SimpleRowMapper extends AbstractRowMapper
 	}
 
 	@Override
-	protected Object mapColumn(Connection cn, Table table, ResultSet rs, int rowIndex, Column column) throws Throwable
+	protected Object mapColumn(Connection cn, Table table, ResultSet rs, int rowIndex, Column column,
+			int columnIndex) throws Throwable
 	{
-		return getColumnValue(cn, rs, column);
+		return getColumnValue(cn, rs, column, columnIndex);
 	}
 }
@@ -7,6 +7,7 @@ package org.datagear.persistence.support;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.datagear.meta.Column;
@@ -90,7 +91,7 @@ public class SqlSelectManager extends PersistenceSupport
 
 		try
 		{
-			qrs = executeQuery(cn, sqlo, ResultSet.TYPE_FORWARD_ONLY);
+			qrs = executeQuery(cn, sqlo, ResultSet.TYPE_FORWARD_ONLY, 0);
 			ResultSet rs = qrs.getResultSet();
 			Table table = buildTable(cn, rs);
 
@@ -146,6 +147,44 @@ public class SqlSelectManager extends PersistenceSupport
 		return new SqlSelectResult(sql, table, startRow, fetchSize, rows);
 	}
 
+	/**
+	 * 从结果集的当前位置继续读取SQL查询结果。
+	 * <p>
+	 * 与{@linkplain #select(Connection, String, ResultSet, int, int, RowMapper)}不同，此方法不会跳过行，
+	 * 也不会多读取行，读取后的结果集恰好位于下一页之前，因而可用于服务端游标的连续读取。
+	 * </p>
+	 * 
+	 * @param cn
+	 * @param sql
+	 * @param table
+	 *            {@linkplain #buildTable(Connection, ResultSet)}的返回值
+	 * @param rs
+	 * @param startRow
+	 *            结果集当前位置的下一行行号，以{@code 1}开头
+	 * @param fetchSize
+	 * @param rowMapper
+	 *            允许为{@code null}
+	 * @return
+	 * @throws SQLException
+	 */
+	public SqlSelectResult selectNext(Connection cn, String sql, Table table, ResultSet rs, int startRow,
+			int fetchSize, RowMapper rowMapper) throws SQLException
+	{
+		List<Row> rows = new ArrayList<>();
+		int[] columnIndexes = getColumnIndexes(rs, table);
+
+		int rowIndex = startRow;
+		for (int i = 0; i < fetchSize && rs.next(); i++)
+		{
+			Row row = mapToRow(cn, table, rs, rowIndex, rowMapper, columnIndexes);
+			rows.add(row);
+
+			rowIndex++;
+		}
+
+		return new SqlSelectResult(sql, table, startRow, fetchSize, rows);
+	}
+
 	public Table buildTable(Connection cn, ResultSet rs) throws SQLException
 	{
 		Column[] columns = this.dbMetaResolver.getColumns(cn, rs.getMetaData());
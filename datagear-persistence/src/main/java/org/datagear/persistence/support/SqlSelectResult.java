@@ -30,6 +30,9 @@ public class SqlSelectResult
 
 	private List<Row> rows;
 
+	/** 服务端保留的结果集游标ID，为{@code null}表示未保留 */
+	private String cursorId = null;
+
 	public SqlSelectResult()
 	{
 		super();
@@ -95,6 +98,16 @@ public class SqlSelectResult
 		this.rows = rows;
 	}
 
+	public String getCursorId()
+	{
+		return cursorId;
+	}
+
+	public void setCursorId(String cursorId)
+	{
+		this.cursorId = cursorId;
+	}
+
 	public boolean hasMoreRow()
 	{
 		return this.rows != null && this.rows.size() >= this.fetchSize;
@@ -4,9 +4,14 @@
 
 package org.datagear.persistence.support.dialect;
 
+import java.sql.Types;
+import java.util.List;
+
+import org.datagear.meta.Table;
 import org.datagear.persistence.Order;
 import org.datagear.persistence.support.AbstractDialect;
 import org.datagear.util.Sql;
+import org.datagear.util.SqlParamValue;
 
 /**
  * Mysql方言。
@@ -56,4 +61,32 @@ public class MysqlDialect extends AbstractDialect
 
 		return sql;
 	}
+
+	@Override
+	public Sql toLimitQuerySql(Sql query, int count)
+	{
+		List<String> words = getTopLevelWords(query.getSqlValue());
+
+		// 子查询的ORDER BY不保证外层结果的顺序，所以直接追加LIMIT
+		if (containsWords(words, "ORDER", "BY"))
+		{
+			if (containsWords(words, "LIMIT"))
+				return null;
+
+			return Sql.valueOf().sql(query).sql(" LIMIT " + count);
+		}
+
+		return Sql.valueOf().sql("SELECT * FROM (").sql(query).sql(") T LIMIT " + count);
+	}
+
+	@Override
+	public Sql toRowCountEstimateSql(Table table)
+	{
+		// InnoDB的TABLE_ROWS是估算值
+		Sql sql = Sql.valueOf().sql(
+				"SELECT TABLE_ROWS FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?");
+		sql.param(new SqlParamValue(table.getName(), Types.VARCHAR));
+
+		return sql;
+	}
 }
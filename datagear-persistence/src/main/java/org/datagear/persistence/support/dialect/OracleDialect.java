@@ -63,4 +63,10 @@ public class OracleDialect extends AbstractDialect
 
 		return sql;
 	}
+
+	@Override
+	public Sql toLimitQuerySql(Sql query, int count)
+	{
+		return Sql.valueOf().sql("SELECT * FROM (").sql(query).sql(") T WHERE ROWNUM <= " + count);
+	}
 }
@@ -4,9 +4,14 @@
 
 package org.datagear.persistence.support.dialect;
 
+import java.sql.Types;
+import java.util.List;
+
+import org.datagear.meta.Table;
 import org.datagear.persistence.Order;
 import org.datagear.persistence.support.AbstractDialect;
 import org.datagear.util.Sql;
+import org.datagear.util.SqlParamValue;
 
 /**
  * PostgreSQL方言。
@@ -56,4 +61,33 @@ public class PostgresqlDialect extends AbstractDialect
 
 		return sql;
 	}
+
+	@Override
+	public Sql toLimitQuerySql(Sql query, int count)
+	{
+		List<String> words = getTopLevelWords(query.getSqlValue());
+
+		// 子查询的ORDER BY不保证外层结果的顺序，所以直接追加LIMIT
+		if (containsWords(words, "ORDER", "BY"))
+		{
+			if (containsWords(words, "LIMIT") || containsWords(words, "OFFSET") || containsWords(words, "FETCH"))
+				return null;
+
+			return Sql.valueOf().sql(query).sql(" LIMIT " + count);
+		}
+
+		return Sql.valueOf().sql("SELECT * FROM (").sql(query).sql(") T LIMIT " + count);
+	}
+
+	@Override
+	public Sql toRowCountEstimateSql(Table table)
+	{
+		// reltuples由VACUUM、ANALYZE更新，未统计过的表为-1或者0
+		Sql sql = Sql.valueOf().sql("SELECT CAST(C.reltuples AS BIGINT) FROM pg_class C"
+				+ " JOIN pg_namespace N ON N.oid = C.relnamespace"
+				+ " WHERE C.relname = ? AND N.nspname = current_schema()");
+		sql.param(new SqlParamValue(table.getName(), Types.VARCHAR));
+
+		return sql;
+	}
 }
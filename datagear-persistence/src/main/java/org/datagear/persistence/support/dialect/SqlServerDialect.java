@@ -4,6 +4,8 @@
 
 package org.datagear.persistence.support.dialect;
 
+import java.util.List;
+
 import org.datagear.persistence.Order;
 import org.datagear.persistence.support.AbstractDialect;
 import org.datagear.util.Sql;
@@ -49,4 +51,25 @@ public class SqlServerDialect extends AbstractDialect
 
 		return sql;
 	}
+
+	@Override
+	public Sql toLimitQuerySql(Sql query, int count)
+	{
+		List<String> words = getTopLevelWords(query.getSqlValue());
+
+		// 子查询不能包含WITH
+		if (!words.isEmpty() && "WITH".equals(words.get(0)))
+			return null;
+
+		// 子查询不能包含ORDER BY，所以直接追加OFFSET FETCH（SqlServer 2012+）
+		if (containsWords(words, "ORDER", "BY"))
+		{
+			if (containsWords(words, "TOP") || containsWords(words, "OFFSET"))
+				return null;
+
+			return Sql.valueOf().sql(query).sql(" OFFSET 0 ROWS FETCH NEXT " + count + " ROWS ONLY");
+		}
+
+		return Sql.valueOf().sql("SELECT TOP " + count + " * FROM (").sql(query).sql(") T");
+	}
 }
@@ -79,4 +79,26 @@ public class DefaultPersistenceManagerTest extends PersistenceTestSupport
 
 		assertTrue(rows.size() <= 1);
 	}
+
+	@Test
+	public void pagingQueryTest_seek()
+	{
+		Table table = this.genericDBMetaResolver.getTable(this.connection, "T_ACCOUNT");
+
+		PagingData<Row> page1 = this.defaultPersistenceManager.pagingQuery(connection, table, new PagingQuery(1, 1));
+
+		if (page1.getSeekValues() == null)
+			return;
+
+		PagingData<Row> offsetPage2 = this.defaultPersistenceManager.pagingQuery(connection, table,
+				new PagingQuery(2, 1));
+
+		PagingQuery seekQuery = new PagingQuery(2, 1);
+		seekQuery.setSeekPage(1);
+		seekQuery.setSeekValues(page1.getSeekValues());
+
+		PagingData<Row> seekPage2 = this.defaultPersistenceManager.pagingQuery(connection, table, seekQuery);
+
+		assertEquals(offsetPage2.getItems(), seekPage2.getItems());
+	}
 }
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.persistence.support.dialect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.datagear.util.Sql;
+import org.junit.Test;
+
+/**
+ * {@linkplain MysqlDialect}、{@linkplain PostgresqlDialect}、{@linkplain SqlServerDialect}限定行数查询SQL单元测试类。
+ * 
+ * @author datagear@163.com
+ *
+ */
+public class LimitQuerySqlDialectTest
+{
+	@Test
+	public void toLimitQuerySqlTest_mysql()
+	{
+		MysqlDialect dialect = new MysqlDialect("`");
+
+		assertEquals("SELECT * FROM (SELECT * FROM T_A) T LIMIT 10",
+				dialect.toLimitQuerySql(Sql.valueOf("SELECT * FROM T_A"), 10).getSqlValue());
+
+		assertEquals("SELECT * FROM T_A ORDER BY ID DESC LIMIT 10",
+				dialect.toLimitQuerySql(Sql.valueOf("SELECT * FROM T_A ORDER BY ID DESC"), 10).getSqlValue());
+
+		// 括号、字符串、注释内的ORDER BY不是顶层排序
+		assertEquals(
+				"SELECT * FROM (SELECT ID, ROW_NUMBER() OVER (ORDER BY ID) AS R FROM T_A WHERE NAME = 'order by' /* order by */) T LIMIT 10",
+				dialect.toLimitQuerySql(Sql.valueOf(
+						"SELECT ID, ROW_NUMBER() OVER (ORDER BY ID) AS R FROM T_A WHERE NAME = 'order by' /* order by */"),
+						10).getSqlValue());
+
+		assertNull(dialect.toLimitQuerySql(Sql.valueOf("SELECT * FROM T_A ORDER BY ID LIMIT 5"), 10));
+	}
+
+	@Test
+	public void toLimitQuerySqlTest_postgresql()
+	{
+		PostgresqlDialect dialect = new PostgresqlDialect("\"");
+
+		assertEquals("SELECT * FROM (SELECT * FROM T_A) T LIMIT 10",
+				dialect.toLimitQuerySql(Sql.valueOf("SELECT * FROM T_A"), 10).getSqlValue());
+
+		assertEquals("SELECT * FROM T_A order by ID LIMIT 10",
+				dialect.toLimitQuerySql(Sql.valueOf("SELECT * FROM T_A order by ID"), 10).getSqlValue());
+
+		assertNull(dialect.toLimitQuerySql(Sql.valueOf("SELECT * FROM T_A ORDER BY ID OFFSET 5"), 10));
+	}
+
+	@Test
+	public void toLimitQuerySqlTest_sqlServer()
+	{
+		SqlServerDialect dialect = new SqlServerDialect("\"");
+
+		assertEquals("SELECT TOP 10 * FROM (SELECT * FROM T_A) T",
+				dialect.toLimitQuerySql(Sql.valueOf("SELECT * FROM T_A"), 10).getSqlValue());
+
+		assertEquals("SELECT * FROM T_A ORDER BY ID OFFSET 0 ROWS FETCH NEXT 10 ROWS ONLY",
+				dialect.toLimitQuerySql(Sql.valueOf("SELECT * FROM T_A ORDER BY ID"), 10).getSqlValue());
+
+		assertNull(dialect.toLimitQuerySql(Sql.valueOf("SELECT TOP 5 * FROM T_A ORDER BY ID"), 10));
+		assertNull(dialect.toLimitQuerySql(Sql.valueOf("WITH W AS (SELECT * FROM T_A) SELECT * FROM W"), 10));
+	}
+}
@@ -48,6 +48,19 @@ public class JdbcSupport
 {
 	private static final Logger LOGGER = LoggerFactory.getLogger(JdbcSupport.class);
 
+	/**
+	 * 默认结果集读取行数
+	 */
+	public static final int DEFAULT_FETCH_SIZE = 1000;
+
+	/**
+	 * 流式读取的结果集读取行数，目前仅MySQL驱动程序支持。
+	 * <p>
+	 * 流式读取时，结果集关闭前连接不能执行其他语句，提前关闭时驱动程序仍会读完剩余的行，所以不会默认使用，需由调用方显式指定。
+	 * </p>
+	 */
+	public static final int FETCH_SIZE_STREAMING = Integer.MIN_VALUE;
+
 	/**
 	 * 执行数目查询。
 	 * 
@@ -71,7 +84,7 @@ public class JdbcSupport
 			ResultSet rs = qrs.getResultSet();
 
 			if (rs.next())
-				count = rs.getInt(1);
+				count = rs.getLong(1);
 
 			return count;
 		}
@@ -93,7 +106,131 @@ public class JdbcSupport
 	 */
 	public QueryResultSet executeQuery(Connection cn, Sql sql, int resultSetType) throws SQLException
 	{
-		LOGGER.debug("execute {}, resultSetType={}", sql, resultSetType);
+		return doExecuteQuery(cn, sql, resultSetType, null);
+	}
+
+	/**
+	 * 执行查询，并设置结果集读取行数（{@linkplain Statement#setFetchSize(int)}），使驱动程序分批读取结果集，而不是一次性全部读入内存。
+	 * <p>
+	 * 此方法不会修改连接的自动提交，参考{@linkplain #executeQuery(Connection, Sql, int, int, int, boolean)}。
+	 * </p>
+	 * 
+	 * @param cn
+	 * @param sql
+	 * @param resultSetType
+	 *            {@code ResultSet.TYPE_*}
+	 * @param fetchSize
+	 *            结果集读取行数，小于等于{@code 0}（{@linkplain #FETCH_SIZE_STREAMING}除外）表示使用数据库默认值，参考{@linkplain #resolveFetchSize(Connection, int, int)}
+	 * @return
+	 * @throws SQLException
+	 */
+	public QueryResultSet executeQuery(Connection cn, Sql sql, int resultSetType, int fetchSize) throws SQLException
+	{
+		return executeQuery(cn, sql, resultSetType, fetchSize, 0);
+	}
+
+	/**
+	 * 执行查询，并设置结果集读取行数、最大行数（{@linkplain Statement#setMaxRows(int)}）。
+	 * <p>
+	 * 参考{@linkplain #executeQuery(Connection, Sql, int, int)}。
+	 * </p>
+	 * 
+	 * @param cn
+	 * @param sql
+	 * @param resultSetType
+	 *            {@code ResultSet.TYPE_*}
+	 * @param fetchSize
+	 *            结果集读取行数，小于等于{@code 0}（{@linkplain #FETCH_SIZE_STREAMING}除外）表示使用数据库默认值，参考{@linkplain #resolveFetchSize(Connection, int, int)}
+	 * @param maxRows
+	 *            结果集最大行数，小于等于{@code 0}表示不限制
+	 * @return
+	 * @throws SQLException
+	 */
+	public QueryResultSet executeQuery(Connection cn, Sql sql, int resultSetType, int fetchSize, int maxRows)
+			throws SQLException
+	{
+		return executeQuery(cn, sql, resultSetType, fetchSize, maxRows, false);
+	}
+
+	/**
+	 * 执行查询，并设置结果集读取行数、最大行数，可选游标读取。
+	 * <p>
+	 * 参考{@linkplain #executeQuery(Connection, Sql, int, int, int)}、{@linkplain #beginCursorFetch(Connection, int, int)}。
+	 * </p>
+	 * 
+	 * @param cn
+	 * @param sql
+	 * @param resultSetType
+	 *            {@code ResultSet.TYPE_*}
+	 * @param fetchSize
+	 *            结果集读取行数，小于等于{@code 0}（{@linkplain #FETCH_SIZE_STREAMING}除外）表示使用数据库默认值，参考{@linkplain #resolveFetchSize(Connection, int, int)}
+	 * @param maxRows
+	 *            结果集最大行数，小于等于{@code 0}表示不限制
+	 * @param cursorFetch
+	 *            是否游标读取，为{@code true}时，可能会临时关闭连接的自动提交，并在{@linkplain QueryResultSet#close()}时恢复，
+	 *            因而调用方应独占此连接，并在释放连接前关闭结果集
+	 * @return
+	 * @throws SQLException
+	 */
+	public QueryResultSet executeQuery(Connection cn, Sql sql, int resultSetType, int fetchSize, int maxRows,
+			boolean cursorFetch) throws SQLException
+	{
+		fetchSize = resolveFetchSize(cn, resultSetType, fetchSize);
+		cursorFetch = (cursorFetch && beginCursorFetch(cn, resultSetType, fetchSize));
+
+		QueryResultSet qrs = null;
+
+		try
+		{
+			qrs = doExecuteQuery(cn, sql, resultSetType, fetchSize, (maxRows > 0 ? maxRows : null));
+		}
+		finally
+		{
+			if (qrs == null && cursorFetch)
+				JdbcUtil.setAutoCommitIfSupports(cn, true);
+		}
+
+		if (cursorFetch)
+			qrs.setRestoreAutoCommitConnection(cn);
+
+		return qrs;
+	}
+
+	/**
+	 * 执行查询。
+	 * 
+	 * @param cn
+	 * @param sql
+	 * @param resultSetType
+	 * @param fetchSize
+	 *            为{@code null}时不设置
+	 * @return
+	 * @throws SQLException
+	 */
+	protected QueryResultSet doExecuteQuery(Connection cn, Sql sql, int resultSetType, Integer fetchSize)
+			throws SQLException
+	{
+		return doExecuteQuery(cn, sql, resultSetType, fetchSize, null);
+	}
+
+	/**
+	 * 执行查询。
+	 * 
+	 * @param cn
+	 * @param sql
+	 * @param resultSetType
+	 * @param fetchSize
+	 *            为{@code null}时不设置
+	 * @param maxRows
+	 *            为{@code null}时不设置
+	 * @return
+	 * @throws SQLException
+	 */
+	protected QueryResultSet doExecuteQuery(Connection cn, Sql sql, int resultSetType, Integer fetchSize,
+			Integer maxRows) throws SQLException
+	{
+		LOGGER.debug("execute {}, resultSetType={}, fetchSize={}, maxRows={}", sql, resultSetType, fetchSize,
+				maxRows);
 
 		Statement st = null;
 		ResultSet rs = null;
@@ -110,12 +247,20 @@ public class JdbcSupport
 				PreparedStatement pst = createQueryPreparedStatement(cn, sql.getSqlValue(), resultSetType);
 				st = pst;
 				setParams = setParamValues(cn, pst, sql);
+				if (fetchSize != null)
+					JdbcUtil.setFetchSizeIfSupports(pst, fetchSize);
+				if (maxRows != null)
+					JdbcUtil.setMaxRowsIfSupports(pst, maxRows);
 				rs = pst.executeQuery();
 			}
 			else
 			{
 				Statement stt = createQueryStatement(cn, resultSetType);
 				st = stt;
+				if (fetchSize != null)
+					JdbcUtil.setFetchSizeIfSupports(stt, fetchSize);
+				if (maxRows != null)
+					JdbcUtil.setMaxRowsIfSupports(stt, maxRows);
 				rs = stt.executeQuery(sql.getSqlValue());
 			}
 
@@ -151,12 +296,81 @@ public class JdbcSupport
 				LOGGER.debug("query is downgraded to [ResultSet.TYPE_FORWARD_ONLY] for exception :", e);
 
 				@JDBCCompatiblity("降级为ResultSet.TYPE_FORWARD_ONLY重新执行")
-				QueryResultSet qrs = executeQuery(cn, sql, ResultSet.TYPE_FORWARD_ONLY);
+				QueryResultSet qrs = doExecuteQuery(cn, sql, ResultSet.TYPE_FORWARD_ONLY, fetchSize, maxRows);
 				return qrs;
 			}
 		}
 	}
 
+	/**
+	 * 解析结果集读取行数。
+	 * 
+	 * @param cn
+	 * @param resultSetType
+	 * @param fetchSize
+	 *            指定的读取行数，小于等于{@code 0}（{@linkplain #FETCH_SIZE_STREAMING}除外）表示使用数据库默认值
+	 * @return
+	 */
+	public int resolveFetchSize(Connection cn, int resultSetType, int fetchSize)
+	{
+		if (fetchSize == FETCH_SIZE_STREAMING)
+			return (ResultSet.TYPE_FORWARD_ONLY == resultSetType ? fetchSize : DEFAULT_FETCH_SIZE);
+
+		if (fetchSize > 0)
+			return fetchSize;
+
+		return getDefaultFetchSize(cn, resultSetType);
+	}
+
+	/**
+	 * 获取默认的结果集读取行数。
+	 * <p>
+	 * 默认返回{@linkplain #DEFAULT_FETCH_SIZE}，不会返回{@linkplain #FETCH_SIZE_STREAMING}，
+	 * 也不会为了区分数据库而读取连接元信息，避免每次查询都额外调用驱动程序。
+	 * </p>
+	 * 
+	 * @param cn
+	 * @param resultSetType
+	 * @return
+	 */
+	public int getDefaultFetchSize(Connection cn, int resultSetType)
+	{
+		return DEFAULT_FETCH_SIZE;
+	}
+
+	/**
+	 * 开始游标读取。
+	 * <p>
+	 * 某些驱动程序（比如PostgreSQL）仅在非自动提交时才会使用游标分批读取结果集，否则会将结果集全部读入内存，
+	 * 因此此方法会临时关闭连接的自动提交。是否需要游标读取由调用方决定。
+	 * </p>
+	 * 
+	 * @param cn
+	 * @param resultSetType
+	 * @param fetchSize
+	 * @return 是否临时关闭了自动提交，为{@code true}时，调用方应在读取完成后恢复自动提交
+	 */
+	@JDBCCompatiblity("仅由调用方显式启用，避免修改连接池中连接的事务行为")
+	public boolean beginCursorFetch(Connection cn, int resultSetType, int fetchSize)
+	{
+		if (fetchSize <= 0 || ResultSet.TYPE_FORWARD_ONLY != resultSetType)
+			return false;
+
+		try
+		{
+			if (!cn.getAutoCommit())
+				return false;
+
+			cn.setAutoCommit(false);
+			return true;
+		}
+		catch (Throwable t)
+		{
+			LOGGER.debug("cursor fetch is ignored for exception :", t);
+			return false;
+		}
+	}
+
 	/**
 	 * 执行更新。
 	 * 
@@ -234,10 +448,8 @@ public class JdbcSupport
 						{
 							String name = autoGeneratedNames[i];
 
-							@JDBCCompatiblity("驱动程序返回结果集的列名不一定就是参数执行的名称，比如Mysql返回：GENERATED_KEY")
-							String keyColName = getColumnName(rsm, i + 1);
-
-							Object value = getColumnValue(cn, genKeys, keyColName, autoGeneratedTypes[i]);
+							@JDBCCompatiblity("驱动程序返回结果集的列名不一定就是参数执行的名称，比如Mysql返回：GENERATED_KEY，所以这里使用列索引")
+							Object value = getColumnValue(cn, genKeys, i + 1, autoGeneratedTypes[i]);
 							row.put(name, value);
 						}
 
@@ -952,6 +1164,30 @@ public class JdbcSupport
 	 */
 	@JDBCCompatiblity("某些驱动程序可能不支持ResultSet.getObject方法，所以这里没有使用")
 	public Object getColumnValue(Connection cn, ResultSet rs, String columnName, int sqlType) throws SQLException
+	{
+		return getColumnValue(cn, rs, rs.findColumn(columnName), sqlType);
+	}
+
+	/**
+	 * 获取列值。
+	 * <p>
+	 * 此方法实现参考自JDBC4.0规范“Data Type Conversion Tables”章节中的“Type Conversions
+	 * Supported by ResultSet getter Methods”表，并且使用其中的最佳方法。
+	 * </p>
+	 * <p>
+	 * 循环读取结果集时，应优先使用此方法，避免驱动程序每次都要由列名查找列索引。
+	 * </p>
+	 * 
+	 * @param cn
+	 * @param rs
+	 * @param columnIndex
+	 *            列索引，以{@code 1}开始
+	 * @param sqlType
+	 * @return
+	 * @throws SQLException
+	 */
+	@JDBCCompatiblity("某些驱动程序可能不支持ResultSet.getObject方法，所以这里没有使用")
+	public Object getColumnValue(Connection cn, ResultSet rs, int columnIndex, int sqlType) throws SQLException
 	{
 		Object value = null;
 
@@ -959,225 +1195,225 @@ public class JdbcSupport
 		{
 			case Types.ARRAY:
 			{
-				value = rs.getArray(columnName);
+				value = rs.getArray(columnIndex);
 				break;
 			}
 
 			case Types.BIGINT:
 			{
-				value = rs.getLong(columnName);
+				value = rs.getLong(columnIndex);
 				break;
 			}
 
 			case Types.BINARY:
 			{
-				value = rs.getBytes(columnName);
+				value = rs.getBytes(columnIndex);
 				break;
 			}
 
 			case Types.BIT:
 			{
-				value = rs.getBoolean(columnName);
+				value = rs.getBoolean(columnIndex);
 				break;
 			}
 
 			case Types.BLOB:
 			{
-				value = rs.getBlob(columnName);
+				value = rs.getBlob(columnIndex);
 				break;
 			}
 
 			case Types.BOOLEAN:
 			{
-				value = rs.getBoolean(columnName);
+				value = rs.getBoolean(columnIndex);
 				break;
 			}
 
 			case Types.CHAR:
 			{
-				value = rs.getString(columnName);
+				value = rs.getString(columnIndex);
 				break;
 			}
 
 			case Types.CLOB:
 			{
-				value = rs.getClob(columnName);
+				value = rs.getClob(columnIndex);
 				break;
 			}
 
 			case Types.DATALINK:
 			{
-				value = rs.getObject(columnName);
+				value = rs.getObject(columnIndex);
 				break;
 			}
 
 			case Types.DATE:
 			{
-				value = rs.getDate(columnName);
+				value = rs.getDate(columnIndex);
 				break;
 			}
 
 			case Types.DECIMAL:
 			{
-				value = rs.getBigDecimal(columnName);
+				value = rs.getBigDecimal(columnIndex);
 				break;
 			}
 
 			case Types.DISTINCT:
 			{
-				value = rs.getObject(columnName);
+				value = rs.getObject(columnIndex);
 				break;
 			}
 
 			case Types.DOUBLE:
 			{
-				value = rs.getDouble(columnName);
+				value = rs.getDouble(columnIndex);
 				break;
 			}
 
 			case Types.FLOAT:
 			{
-				value = rs.getFloat(columnName);
+				value = rs.getFloat(columnIndex);
 				break;
 			}
 
 			case Types.INTEGER:
 			{
-				value = rs.getInt(columnName);
+				value = rs.getInt(columnIndex);
 				break;
 			}
 
 			case Types.JAVA_OBJECT:
 			{
-				value = rs.getObject(columnName);
+				value = rs.getObject(columnIndex);
 				break;
 			}
 
 			case Types.LONGNVARCHAR:
 			{
-				value = rs.getNCharacterStream(columnName);
+				value = rs.getNCharacterStream(columnIndex);
 				break;
 			}
 
 			case Types.LONGVARBINARY:
 			{
-				value = rs.getBinaryStream(columnName);
+				value = rs.getBinaryStream(columnIndex);
 				break;
 			}
 
 			case Types.LONGVARCHAR:
 			{
-				value = rs.getCharacterStream(columnName);
+				value = rs.getCharacterStream(columnIndex);
 				break;
 			}
 
 			case Types.NCHAR:
 			{
-				value = rs.getNString(columnName);
+				value = rs.getNString(columnIndex);
 				break;
 			}
 
 			case Types.NCLOB:
 			{
-				value = rs.getNClob(columnName);
+				value = rs.getNClob(columnIndex);
 				break;
 			}
 
 			case Types.NUMERIC:
 			{
-				value = rs.getBigDecimal(columnName);
+				value = rs.getBigDecimal(columnIndex);
 				break;
 			}
 
 			case Types.NVARCHAR:
 			{
-				value = rs.getNString(columnName);
+				value = rs.getNString(columnIndex);
 				break;
 			}
 
 			case Types.OTHER:
 			{
-				value = rs.getObject(columnName);
+				value = rs.getObject(columnIndex);
 				break;
 			}
 
 			case Types.REAL:
 			{
-				value = rs.getFloat(columnName);
+				value = rs.getFloat(columnIndex);
 				break;
 			}
 
 			case Types.REF:
 			{
-				value = rs.getRef(columnName);
+				value = rs.getRef(columnIndex);
 				break;
 			}
 
 			case Types.REF_CURSOR:
 			{
-				value = rs.getObject(columnName);
+				value = rs.getObject(columnIndex);
 				break;
 			}
 
 			case Types.ROWID:
 			{
-				value = rs.getRowId(columnName);
+				value = rs.getRowId(columnIndex);
 				break;
 			}
 
 			case Types.SMALLINT:
 			{
-				value = rs.getShort(columnName);
+				value = rs.getShort(columnIndex);
 				break;
 			}
 
 			case Types.SQLXML:
 			{
-				value = rs.getSQLXML(columnName);
+				value = rs.getSQLXML(columnIndex);
 				break;
 			}
 
 			case Types.STRUCT:
 			{
-				value = rs.getObject(columnName);
+				value = rs.getObject(columnIndex);
 				break;
 			}
 
 			case Types.TIME:
 			case Types.TIME_WITH_TIMEZONE:
 			{
-				value = rs.getTime(columnName);
+				value = rs.getTime(columnIndex);
 				break;
 			}
 
 			case Types.TIMESTAMP:
 			case Types.TIMESTAMP_WITH_TIMEZONE:
 			{
-				value = rs.getTimestamp(columnName);
+				value = rs.getTimestamp(columnIndex);
 				break;
 			}
 
 			case Types.TINYINT:
 			{
-				value = rs.getByte(columnName);
+				value = rs.getByte(columnIndex);
 				break;
 			}
 
 			case Types.VARBINARY:
 			{
-				value = rs.getBytes(columnName);
+				value = rs.getBytes(columnIndex);
 				break;
 			}
 
 			case Types.VARCHAR:
 			{
-				value = rs.getString(columnName);
+				value = rs.getString(columnIndex);
 				break;
 			}
 
 			default:
 			{
-				value = getColumnValueExt(cn, rs, columnName, sqlType);
+				value = getColumnValueExt(cn, rs, columnIndex, sqlType);
 				break;
 			}
 		}
@@ -1203,6 +1439,25 @@ public class JdbcSupport
 		throw new UnsupportedOperationException("Get JDBC [" + sqlType + "] type value is not supported");
 	}
 
+	/**
+	 * 扩展获取列值。
+	 * <p>
+	 * 默认实现将由列索引获取列名，然后调用{@linkplain #getColumnValueExt(Connection, ResultSet, String, int)}。
+	 * </p>
+	 * 
+	 * @param cn
+	 * @param rs
+	 * @param columnIndex
+	 *            列索引，以{@code 1}开始
+	 * @param sqlType
+	 * @return
+	 * @throws SQLException
+	 */
+	protected Object getColumnValueExt(Connection cn, ResultSet rs, int columnIndex, int sqlType) throws SQLException
+	{
+		return getColumnValueExt(cn, rs, getColumnName(rs.getMetaData(), columnIndex), sqlType);
+	}
+
 	/**
 	 * 将一个未移动过游标的{@linkplain ResultSet}游标前移至指定行之前。
 	 * 
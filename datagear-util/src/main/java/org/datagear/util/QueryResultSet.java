@@ -4,6 +4,7 @@
 
 package org.datagear.util;
 
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.Statement;
@@ -23,6 +24,9 @@ public class QueryResultSet
 
 	private List<Object> params;
 
+	/** 关闭时需要恢复自动提交的连接 */
+	private Connection restoreAutoCommitConnection = null;
+
 	public QueryResultSet()
 	{
 		super();
@@ -78,6 +82,21 @@ public class QueryResultSet
 		this.params = params;
 	}
 
+	public Connection getRestoreAutoCommitConnection()
+	{
+		return restoreAutoCommitConnection;
+	}
+
+	/**
+	 * 设置关闭时需要恢复自动提交的连接。
+	 * 
+	 * @param restoreAutoCommitConnection
+	 */
+	public void setRestoreAutoCommitConnection(Connection restoreAutoCommitConnection)
+	{
+		this.restoreAutoCommitConnection = restoreAutoCommitConnection;
+	}
+
 	public boolean isPreparedStatement()
 	{
 		return (this.statement instanceof PreparedStatement);
@@ -101,6 +120,9 @@ public class QueryResultSet
 
 		JdbcUtil.closeResultSet(this.resultSet);
 		JdbcUtil.closeStatement(this.statement);
+
+		if (this.restoreAutoCommitConnection != null)
+			JdbcUtil.setAutoCommitIfSupports(this.restoreAutoCommitConnection, true);
 	}
 
 	/**
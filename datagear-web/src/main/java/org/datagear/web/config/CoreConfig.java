@@ -12,11 +12,16 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
-import org.apache.hc.client5.http.impl.classic.HttpClients;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.datagear.analysis.TemplateDashboardWidgetResManager;
+import org.datagear.analysis.support.DashboardDataSetResultLoader;
+import org.datagear.analysis.support.DataSetResultCache;
+import org.datagear.analysis.support.FileDataSetSourceCache;
 import org.datagear.analysis.support.FileTemplateDashboardWidgetResManager;
 import org.datagear.analysis.support.NameAsTemplateDashboardWidgetResManager;
 import org.datagear.analysis.support.html.DirectoryHtmlChartPluginManager;
@@ -34,6 +39,7 @@ import org.datagear.dataexchange.BatchDataExchange;
 import org.datagear.dataexchange.BatchDataExchangeService;
 import org.datagear.dataexchange.DevotedDataExchangeService;
 import org.datagear.dataexchange.GenericDataExchangeService;
+import org.datagear.dataexchange.SubDataExchangeScheduler;
 import org.datagear.dataexchange.support.CsvDataExportService;
 import org.datagear.dataexchange.support.CsvDataImportService;
 import org.datagear.dataexchange.support.ExcelDataExportService;
@@ -64,9 +70,14 @@ import org.datagear.management.service.impl.HtmlTplDashboardWidgetEntityServiceI
 import org.datagear.management.service.impl.RoleServiceImpl;
 import org.datagear.management.service.impl.RoleUserServiceImpl;
 import org.datagear.management.service.impl.SchemaServiceImpl;
+import org.datagear.management.service.impl.ServiceCache;
 import org.datagear.management.service.impl.SqlHistoryServiceImpl;
 import org.datagear.management.service.impl.UserPasswordEncoder;
 import org.datagear.management.service.impl.UserServiceImpl;
+import org.datagear.management.util.DialectLimitQuerySqlResolver;
+import org.datagear.management.util.SchemaConnectionSupport;
+import org.datagear.management.util.SchemaDataSetConcurrencyKeyResolver;
+import org.datagear.meta.resolver.CachingDBMetaResolver;
 import org.datagear.meta.resolver.DBMetaResolver;
 import org.datagear.meta.resolver.GenericDBMetaResolver;
 import org.datagear.persistence.DialectSource;
@@ -74,6 +85,7 @@ import org.datagear.persistence.PersistenceManager;
 import org.datagear.persistence.support.DefaultDialectSource;
 import org.datagear.persistence.support.DefaultPersistenceManager;
 import org.datagear.persistence.support.SqlSelectManager;
+import org.datagear.util.FileUtil;
 import org.datagear.util.IOUtil;
 import org.datagear.web.format.DateFormatter;
 import org.datagear.web.format.SqlDateFormatter;
@@ -86,12 +98,17 @@ import org.datagear.web.json.jackson.LocaleSqlTimestampSerializer;
 import org.datagear.web.json.jackson.ObjectMapperBuilder;
 import org.datagear.web.json.jackson.ObjectMapperBuilder.JsonSerializerConfig;
 import org.datagear.web.security.UserPasswordEncoderImpl;
+import org.datagear.web.sqlpad.SqlpadCursorRegistry;
 import org.datagear.web.sqlpad.SqlpadExecutionService;
 import org.datagear.web.util.ChangelogResolver;
 import org.datagear.web.util.DirectoryFactory;
 import org.datagear.web.util.DirectoryHtmlChartPluginManagerInitializer;
+import org.datagear.web.util.HtmlChartPluginScriptBundle;
+import org.datagear.web.util.HttpClientFactory;
+import org.datagear.web.util.SimpleDashboardDescriptorManager;
 import org.datagear.web.util.SqlDriverChecker;
 import org.datagear.web.util.TableCache;
+import org.datagear.web.util.TableCatalogCache;
 import org.datagear.web.util.XmlDriverEntityManagerInitializer;
 import org.mybatis.spring.SqlSessionFactoryBean;
 import org.springframework.beans.factory.BeanInitializationException;
@@ -273,7 +290,19 @@ public class CoreConfig implements InitializingBean
 	@Bean
 	public CloseableHttpClient httpClient()
 	{
-		return HttpClients.createDefault();
+		HttpClientFactory factory = new HttpClientFactory();
+		factory.setMaxConnTotal(environment.getProperty("httpClient.maxConnTotal", Integer.class, 200));
+		factory.setMaxConnPerRoute(environment.getProperty("httpClient.maxConnPerRoute", Integer.class, 50));
+		factory.setConnectTimeout(environment.getProperty("httpClient.connectTimeout", Long.class, 10000L));
+		factory.setResponseTimeout(environment.getProperty("httpClient.responseTimeout", Long.class, 60000L));
+		factory.setConnectionRequestTimeout(
+				environment.getProperty("httpClient.connectionRequestTimeout", Long.class, 10000L));
+		factory.setEvictIdleTime(environment.getProperty("httpClient.evictIdleTime", Long.class, 60000L));
+		factory.setCacheEnabled(environment.getProperty("httpClient.cacheEnabled", Boolean.class, false));
+		factory.setCacheMaxEntries(environment.getProperty("httpClient.cacheMaxEntries", Integer.class, 100));
+		factory.setCacheMaxObjectSize(environment.getProperty("httpClient.cacheMaxObjectSize", Long.class, 65536L));
+
+		return factory.create();
 	}
 
 	protected File createDirectory(String directoryName, boolean createIfInexistence)
@@ -320,10 +349,16 @@ public class CoreConfig implements InitializingBean
 		}
 	}
 
-	@Bean
+	@Bean(initMethod = "init")
 	public DBMetaResolver dbMetaResolver()
 	{
-		GenericDBMetaResolver bean = new GenericDBMetaResolver();
+		CachingDBMetaResolver bean = new CachingDBMetaResolver(new GenericDBMetaResolver());
+		bean.setMaximumSize(
+				environment.getProperty("dbMetaResolver.cache.maximumSize", Integer.class, bean.getMaximumSize()));
+		bean.setExpireSeconds(environment.getProperty("dbMetaResolver.cache.expireSeconds", Integer.class,
+				bean.getExpireSeconds()));
+		bean.setNotFoundExpireSeconds(environment.getProperty("dbMetaResolver.cache.notFoundExpireSeconds",
+				Integer.class, bean.getNotFoundExpireSeconds()));
 		return bean;
 	}
 
@@ -353,10 +388,21 @@ public class CoreConfig implements InitializingBean
 				Arrays.asList(new MySqlDevotedPropertiesProcessor(), new OracleDevotedPropertiesProcessor()));
 
 		bean.setPropertiesProcessor(genericPropertiesProcessor);
+		bean.setMaxInternalDataSourceCount(environment.getProperty("connectionSource.maxDataSourceCount",
+				Integer.class, DefaultConnectionSource.DEFAULT_MAX_INTERNAL_DATA_SOURCE_COUNT));
+		bean.setDriverEntityUrlIndexFile(
+				FileUtil.getFile(environment.getProperty("connectionSource.driverUrlIndexFile")));
 
 		return bean;
 	}
 
+	@Bean
+	public SchemaConnectionSupport schemaConnectionSupport()
+	{
+		SchemaConnectionSupport bean = new SchemaConnectionSupport(this.dbMetaResolver());
+		return bean;
+	}
+
 	@Bean(initMethod = "init")
 	public TableCache tableCache()
 	{
@@ -364,6 +410,15 @@ public class CoreConfig implements InitializingBean
 		return bean;
 	}
 
+	@Bean(initMethod = "init", destroyMethod = "shutdown")
+	public TableCatalogCache tableCatalogCache()
+	{
+		TableCatalogCache bean = new TableCatalogCache();
+		bean.setRefreshAfterSeconds(environment.getProperty("tableCatalogCache.refreshAfterSeconds", Integer.class,
+				bean.getRefreshAfterSeconds()));
+		return bean;
+	}
+
 	@Bean
 	public DialectSource dialectSource()
 	{
@@ -375,6 +430,8 @@ public class CoreConfig implements InitializingBean
 	public PersistenceManager persistenceManager()
 	{
 		DefaultPersistenceManager bean = new DefaultPersistenceManager(this.dialectSource());
+		bean.setEstimateTotalThreshold(
+				environment.getProperty("persistence.estimateTotalThreshold", Long.class, 0L));
 		return bean;
 	}
 
@@ -416,7 +473,30 @@ public class CoreConfig implements InitializingBean
 	{
 		SchemaServiceImpl bean = new SchemaServiceImpl(this.sqlSessionFactory(), this.driverEntityManager(),
 				this.authorizationService());
+		bean.setCache(this.schemaServiceCache());
+
+		return bean;
+	}
+
+	@Bean(initMethod = "init")
+	public ServiceCache schemaServiceCache()
+	{
+		return createServiceCache();
+	}
 
+	/**
+	 * 创建{@linkplain ServiceCache}。
+	 * 
+	 * @return
+	 */
+	protected ServiceCache createServiceCache()
+	{
+		ServiceCache bean = new ServiceCache();
+		bean.setDisabled(environment.getProperty("service.cache.disabled", Boolean.class, bean.isDisabled()));
+		bean.setMaximumSize(
+				environment.getProperty("service.cache.maximumSize", Integer.class, bean.getMaximumSize()));
+		bean.setExpireAfterAccessMinutes(environment.getProperty("service.cache.expireAfterAccessMinutes",
+				Integer.class, bean.getExpireAfterAccessMinutes()));
 		return bean;
 	}
 
@@ -449,6 +529,60 @@ public class CoreConfig implements InitializingBean
 	{
 		DataSetEntityServiceImpl bean = new DataSetEntityServiceImpl(this.sqlSessionFactory(), this.connectionSource(),
 				this.schemaService(), this.authorizationService(), this.dataSetRootDirectory(), this.httpClient());
+		bean.setDataSetResultCache(this.dataSetResultCache());
+		bean.setFileDataSetSourceCache(this.fileDataSetSourceCache());
+		bean.setLimitQuerySqlResolver(new DialectLimitQuerySqlResolver(this.dialectSource()));
+		bean.setDbMetaResolver(this.dbMetaResolver());
+		bean.setCache(this.dataSetEntityServiceCache());
+		return bean;
+	}
+
+	@Bean(initMethod = "init")
+	public ServiceCache dataSetEntityServiceCache()
+	{
+		return createServiceCache();
+	}
+
+	@Bean(initMethod = "init")
+	public DataSetResultCache dataSetResultCache()
+	{
+		DataSetResultCache bean = new DataSetResultCache();
+		bean.setMaximumWeight(environment.getProperty("dataSetResultCache.maximumWeight", Long.class, 100000L));
+		return bean;
+	}
+
+	@Bean(initMethod = "init")
+	public FileDataSetSourceCache fileDataSetSourceCache()
+	{
+		FileDataSetSourceCache bean = new FileDataSetSourceCache();
+		bean.setMaximumWeight(environment.getProperty("fileDataSetSourceCache.maximumWeight", Long.class, 500000L));
+		return bean;
+	}
+
+	@Bean(destroyMethod = "shutdown")
+	public DashboardDataSetResultLoader dashboardDataSetResultLoader()
+	{
+		DashboardDataSetResultLoader bean = new DashboardDataSetResultLoader();
+
+		int poolSize = environment.getProperty("dashboardData.concurrent.poolSize", Integer.class, 0);
+
+		// 线程池满时由请求线程自行加载，避免无限制排队
+		if (poolSize > 0)
+		{
+			int queueSize = environment.getProperty("dashboardData.concurrent.queueSize", Integer.class, 100);
+
+			ThreadPoolExecutor executorService = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<Runnable>(queueSize), new ThreadPoolExecutor.CallerRunsPolicy());
+			executorService.allowCoreThreadTimeOut(true);
+
+			bean.setExecutorService(executorService);
+		}
+
+		bean.setChartTimeout(environment.getProperty("dashboardData.concurrent.chartTimeout", Long.class, -1L));
+		bean.setConcurrencyPerKey(
+				environment.getProperty("dashboardData.concurrent.schemaConcurrency", Integer.class, -1));
+		bean.setConcurrencyKeyResolver(new SchemaDataSetConcurrencyKeyResolver());
+
 		return bean;
 	}
 
@@ -480,7 +614,31 @@ public class CoreConfig implements InitializingBean
 	{
 		HtmlChartWidgetEntityServiceImpl bean = new HtmlChartWidgetEntityServiceImpl(this.sqlSessionFactory(),
 				this.directoryHtmlChartPluginManager(), this.dataSetEntityService(), this.authorizationService());
+		bean.setCache(this.htmlChartWidgetEntityServiceCache());
+
+		return bean;
+	}
+
+	@Bean(initMethod = "init")
+	public ServiceCache htmlChartWidgetEntityServiceCache()
+	{
+		return createServiceCache();
+	}
 
+	@Bean(initMethod = "init")
+	public SimpleDashboardDescriptorManager dashboardDescriptorManager()
+	{
+		SimpleDashboardDescriptorManager bean = new SimpleDashboardDescriptorManager();
+		bean.setMaximumSize(environment.getProperty("dashboardDescriptor.maximumSize", Integer.class, 10000));
+		bean.setExpireAfterAccessMinutes(
+				environment.getProperty("dashboardDescriptor.expireAfterAccessMinutes", Integer.class, 60 * 24));
+		return bean;
+	}
+
+	@Bean
+	public HtmlChartPluginScriptBundle htmlChartPluginScriptBundle()
+	{
+		HtmlChartPluginScriptBundle bean = new HtmlChartPluginScriptBundle(this.directoryHtmlChartPluginManager());
 		return bean;
 	}
 
@@ -495,6 +653,7 @@ public class CoreConfig implements InitializingBean
 		bean.setDashboardImports(this.buildHtmlTplDashboardWidgetRendererd_dshboardImports());
 		bean.setImportHtmlChartPluginVarNameResolver(
 				this.buildHtmlTplDashboardWidgetRendererd_importHtmlChartPluginVarNameResolver());
+		bean.setChartPluginVersionResolver(this.htmlChartPluginScriptBundle());
 
 		return bean;
 	}
@@ -508,6 +667,9 @@ public class CoreConfig implements InitializingBean
 		bean.setDashboardImports(this.buildHtmlTplDashboardWidgetRendererd_dshboardImports());
 		bean.setImportHtmlChartPluginVarNameResolver(
 				this.buildHtmlTplDashboardWidgetRendererd_importHtmlChartPluginVarNameResolver());
+		bean.setChartPluginVersionResolver(this.htmlChartPluginScriptBundle());
+		bean.setCompiledTemplateCacheSize(
+				environment.getProperty("dashboard.compiledTemplateCacheSize", Integer.class, 500));
 
 		return bean;
 	}
@@ -518,6 +680,7 @@ public class CoreConfig implements InitializingBean
 
 		String cp = HtmlTplDashboardWidgetRenderer.DEFAULT_CONTEXT_PATH_PLACE_HOLDER;
 		String vp = HtmlTplDashboardWidgetRenderer.DEFAULT_VERSION_PLACE_HOLDER;
+		String cpvp = HtmlTplDashboardWidgetRenderer.DEFAULT_CHART_PLUGIN_VERSION_PLACE_HOLDER;
 
 		String staticPrefix = cp + "/static";
 		String cssPrefix = staticPrefix + "/css";
@@ -572,7 +735,7 @@ public class CoreConfig implements InitializingBean
 
 		imports.add(new HtmlTplDashboardImport("chartPluginManager",
 				"<script type='text/javascript' res-name='chartPluginManager' src='" + cp
-						+ "/analysis/chartPlugin/chartPluginManager.js?v=" + vp + "'></script>"));
+						+ "/analysis/chartPlugin/chartPluginManager.js?v=" + cpvp + "'></script>"));
 
 		return imports;
 	}
@@ -606,7 +769,9 @@ public class CoreConfig implements InitializingBean
 	@Bean
 	public DataSetResDirectoryService dataSetResDirectoryService()
 	{
-		DataSetResDirectoryService bean = new DataSetResDirectoryServiceImpl(this.sqlSessionFactory());
+		DataSetResDirectoryServiceImpl bean = new DataSetResDirectoryServiceImpl(this.sqlSessionFactory());
+		// 数据集实体缓存中包含目录，目录变更时需清除它
+		bean.setCache(this.dataSetEntityServiceCache());
 		return bean;
 	}
 
@@ -635,6 +800,17 @@ public class CoreConfig implements InitializingBean
 	{
 		SqlpadExecutionService bean = new SqlpadExecutionService(this.connectionSource(), this.messageSource(),
 				this.sqlHistoryService(), this.sqlSelectManager());
+		bean.setSchemaConnectionSupport(this.schemaConnectionSupport());
+		bean.setSqlpadCursorRegistry(this.sqlpadCursorRegistry());
+		return bean;
+	}
+
+	@Bean(destroyMethod = "closeAll")
+	public SqlpadCursorRegistry sqlpadCursorRegistry()
+	{
+		SqlpadCursorRegistry bean = new SqlpadCursorRegistry(this.sqlSelectManager());
+		bean.setMaxIdleSeconds(environment.getProperty("sqlpad.cursor.maxIdleSeconds", Integer.class, 300));
+		bean.setMaxCursorsPerUser(environment.getProperty("sqlpad.cursor.maxPerUser", Integer.class, 5));
 		return bean;
 	}
 
@@ -660,6 +836,16 @@ public class CoreConfig implements InitializingBean
 	{
 		BatchDataExchangeService<BatchDataExchange> bean = new BatchDataExchangeService<>();
 		bean.setSubDataExchangeService(this.dataExchangeService());
+
+		int poolSize = environment.getProperty("dataExchange.concurrent.poolSize", Integer.class, 10);
+		SubDataExchangeScheduler scheduler = new SubDataExchangeScheduler(poolSize);
+		scheduler.setConcurrencyPerKey(
+				environment.getProperty("dataExchange.concurrent.schemaConcurrency", Integer.class, -1));
+		bean.setSubDataExchangeScheduler(scheduler);
+
+		bean.setMaxRunningCountPerBatch(
+				environment.getProperty("dataExchange.concurrent.maxRunningPerBatch", Integer.class, -1));
+
 		return bean;
 	}
 
@@ -70,4 +70,10 @@ public class SchedulingConfig
 	{
 		this.tempDirectoryCleaner().clean();
 	}
+
+	@Scheduled(fixedDelay = 30000)
+	public void closeExpiredSqlpadCursors()
+	{
+		this.coreConfig.sqlpadCursorRegistry().closeExpired();
+	}
 }
@@ -181,6 +181,8 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter
 				// 编辑
 				.antMatchers("/schema/add", "/schema/saveadd", "/schema/edit", "/schema/saveedit", "/schema/delete")
 				.access(disableAnonymous ? AUTH_USER_ADMIN_AND_DATA_ADMIN : AUTH_ANONYMOUS_USER_ADMIN_AND_DATA_ADMIN)
+				// 连接池指标
+				.antMatchers("/schema/poolMetrics").access(AUTH_ADMIN)
 				// 其他
 				.antMatchers("/schema/**")
 				.access(disableAnonymous ? AUTH_USER_ADMIN_AND_DATA_ADMIN_ANALYST
@@ -198,6 +200,8 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter
 				.antMatchers("/analysis/dataSet/addFor*", "/analysis/dataSet/saveAddFor*", "/analysis/dataSet/edit",
 						"/analysis/dataSet/saveEditFor*", "/analysis/dataSet/delete", "/analysis/dataSet/uploadFile")
 				.access(disableAnonymous ? AUTH_USER_ADMIN_AND_DATA_ADMIN : AUTH_ANONYMOUS_USER_ADMIN_AND_DATA_ADMIN)
+				// 模板解析指标
+				.antMatchers("/analysis/dataSet/resolveMetrics").access(AUTH_ADMIN)
 				// 其他
 				.antMatchers("/analysis/dataSet/**")
 				.access(disableAnonymous ? AUTH_USER_ADMIN_AND_DATA_ADMIN_ANALYST
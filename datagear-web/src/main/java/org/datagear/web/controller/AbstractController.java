@@ -28,6 +28,8 @@ import org.datagear.util.JDBCCompatiblity;
 import org.datagear.util.StringUtil;
 import org.datagear.web.config.support.DeliverContentTypeExceptionHandlerExceptionResolver;
 import org.datagear.web.freemarker.WriteJsonTemplateDirectiveModel;
+import org.datagear.web.util.MessageChannel;
+import org.datagear.web.util.MessageChannel.MessageReceiver;
 import org.datagear.web.util.OperationMessage;
 import org.datagear.web.util.WebUtils;
 import org.datagear.web.vo.APIDDataFilterPagingQuery;
@@ -38,6 +40,7 @@ import org.springframework.context.NoSuchMessageException;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import freemarker.template.TemplateModel;
 
@@ -75,6 +78,9 @@ public abstract class AbstractController
 
 	public static final String ERROR_PAGE_URL = "/error";
 
+	/** 拉取消息时的最大等待秒数 */
+	public static final int MAX_MESSAGE_WAIT_SECONDS = 30;
+
 	@Autowired
 	private ConversionService conversionService;
 
@@ -785,6 +791,60 @@ public abstract class AbstractController
 		return new String(fileName.getBytes(RESPONSE_ENCODING), IOUtil.CHARSET_ISO_8859_1);
 	}
 
+	/**
+	 * 拉取消息通道中的消息。
+	 * <p>
+	 * {@code waitSeconds}大于{@code 0}时，如果暂无消息，将异步等待最多这些秒数（长轮询），等待期间不占用请求线程。
+	 * </p>
+	 * 
+	 * @param messageChannel
+	 * @param channel
+	 * @param messageCount
+	 * @param waitSeconds
+	 * @return
+	 */
+	protected DeferredResult<List<Object>> pullMessages(final MessageChannel messageChannel, final String channel,
+			int messageCount, int waitSeconds)
+	{
+		if (waitSeconds <= 0)
+		{
+			DeferredResult<List<Object>> result = new DeferredResult<>();
+			List<Object> messages = messageChannel.pull(channel, messageCount);
+			result.setResult(messages);
+
+			return result;
+		}
+
+		if (waitSeconds > MAX_MESSAGE_WAIT_SECONDS)
+			waitSeconds = MAX_MESSAGE_WAIT_SECONDS;
+
+		final DeferredResult<List<Object>> result = new DeferredResult<>(waitSeconds * 1000L,
+				new ArrayList<Object>(0));
+
+		final MessageReceiver<Object> receiver = new MessageReceiver<Object>()
+		{
+			@Override
+			public boolean receive(List<Object> messages)
+			{
+				return result.setResult(messages);
+			}
+		};
+
+		// 超时、出错（比如客户端断开）时都需移除等待的接收器
+		result.onCompletion(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				messageChannel.cancel(channel, receiver);
+			}
+		});
+
+		messageChannel.pull(channel, messageCount, receiver);
+
+		return result;
+	}
+
 	/**
 	 * 判断对象、字符串、数组、集合、Map是否为空。
 	 * 
@@ -8,7 +8,6 @@
 package org.datagear.web.controller;
 
 import java.io.IOException;
-import java.io.Serializable;
 import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -22,9 +21,9 @@ import java.util.Set;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import javax.servlet.http.HttpSession;
 
 import org.datagear.analysis.Chart;
+import org.datagear.analysis.ChartDefinition;
 import org.datagear.analysis.ChartDataSet;
 import org.datagear.analysis.Dashboard;
 import org.datagear.analysis.DashboardTheme;
@@ -32,6 +31,10 @@ import org.datagear.analysis.DashboardThemeSource;
 import org.datagear.analysis.DataSetParam;
 import org.datagear.analysis.DataSetResult;
 import org.datagear.analysis.RenderContext;
+import org.datagear.analysis.support.ChartWidget;
+import org.datagear.analysis.support.ChartWidgetSource;
+import org.datagear.analysis.support.DashboardDataSetResultLoader;
+import org.datagear.analysis.support.DataSetResultsHandler;
 import org.datagear.analysis.support.DataSetParamValueConverter;
 import org.datagear.analysis.support.DefaultRenderContext;
 import org.datagear.analysis.support.SimpleDashboardThemeSource;
@@ -39,8 +42,18 @@ import org.datagear.analysis.support.html.HtmlTplDashboard;
 import org.datagear.analysis.support.html.HtmlTplDashboardRenderAttr;
 import org.datagear.analysis.support.html.HtmlTplDashboardRenderAttr.WebContext;
 import org.datagear.analysis.support.html.HtmlTplDashboardWidgetRenderer;
+import org.datagear.management.domain.User;
+import org.datagear.management.service.HtmlChartWidgetEntityService.ChartWidgetSourceContext;
 import org.datagear.util.StringUtil;
+import org.datagear.web.json.jackson.ObjectMapperBuilder;
+import org.datagear.web.util.DashboardDescriptor;
+import org.datagear.web.util.DashboardDescriptorManager;
 import org.datagear.web.util.WebUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 /**
  * 抽象数据分析控制器。
@@ -68,6 +81,27 @@ public abstract class AbstractDataAnalysisController extends AbstractController
 
 	private DashboardThemeSource dashboardThemeSource = new SimpleDashboardThemeSource();
 
+	@Autowired
+	private DashboardDataSetResultLoader dashboardDataSetResultLoader;
+
+	@Autowired
+	private DashboardDescriptorManager dashboardDescriptorManager;
+
+	@Autowired
+	private ChartWidgetSource chartWidgetSource;
+
+	/** 是否流式输出看板数据 */
+	@Value("${dashboardData.stream}")
+	private boolean dashboardDataStream = true;
+
+	/** 流式输出看板数据的响应缓冲字节数 */
+	@Value("${dashboardData.streamBufferSize}")
+	private int dashboardDataStreamBufferSize = 8192;
+
+	private ObjectMapperBuilder objectMapperBuilder;
+
+	private ObjectMapper _objectMapper;
+
 	public AbstractDataAnalysisController()
 	{
 		super();
@@ -93,6 +127,68 @@ public abstract class AbstractDataAnalysisController extends AbstractController
 		this.dashboardThemeSource = dashboardThemeSource;
 	}
 
+	public DashboardDataSetResultLoader getDashboardDataSetResultLoader()
+	{
+		return dashboardDataSetResultLoader;
+	}
+
+	public void setDashboardDataSetResultLoader(DashboardDataSetResultLoader dashboardDataSetResultLoader)
+	{
+		this.dashboardDataSetResultLoader = dashboardDataSetResultLoader;
+	}
+
+	public DashboardDescriptorManager getDashboardDescriptorManager()
+	{
+		return dashboardDescriptorManager;
+	}
+
+	public void setDashboardDescriptorManager(DashboardDescriptorManager dashboardDescriptorManager)
+	{
+		this.dashboardDescriptorManager = dashboardDescriptorManager;
+	}
+
+	public ChartWidgetSource getChartWidgetSource()
+	{
+		return chartWidgetSource;
+	}
+
+	public void setChartWidgetSource(ChartWidgetSource chartWidgetSource)
+	{
+		this.chartWidgetSource = chartWidgetSource;
+	}
+
+	public boolean isDashboardDataStream()
+	{
+		return dashboardDataStream;
+	}
+
+	public void setDashboardDataStream(boolean dashboardDataStream)
+	{
+		this.dashboardDataStream = dashboardDataStream;
+	}
+
+	public int getDashboardDataStreamBufferSize()
+	{
+		return dashboardDataStreamBufferSize;
+	}
+
+	public void setDashboardDataStreamBufferSize(int dashboardDataStreamBufferSize)
+	{
+		this.dashboardDataStreamBufferSize = dashboardDataStreamBufferSize;
+	}
+
+	public ObjectMapperBuilder getObjectMapperBuilder()
+	{
+		return objectMapperBuilder;
+	}
+
+	@Autowired
+	public void setObjectMapperBuilder(ObjectMapperBuilder objectMapperBuilder)
+	{
+		this.objectMapperBuilder = objectMapperBuilder;
+		this._objectMapper = this.objectMapperBuilder.build();
+	}
+
 	protected RenderContext createHtmlRenderContext(HttpServletRequest request, HttpServletResponse response,
 			HtmlTplDashboardRenderAttr renderAttr, WebContext webContext,
 			HtmlTplDashboardWidgetRenderer htmlTplDashboardWidgetRenderer) throws IOException
@@ -168,23 +264,84 @@ public abstract class AbstractDataAnalysisController extends AbstractController
 	protected Map<String, DataSetResult[]> getDashboardData(HttpServletRequest request, HttpServletResponse response,
 			org.springframework.ui.Model model, WebContext webContext, Map<String, ?> dashboardParams) throws Exception
 	{
-		String dashboardId = (String) dashboardParams.get(UPDATE_DASHBOARD_PARAM_DASHBOARD_ID);
 		Collection<String> chartIds = (Collection<String>) dashboardParams.get(UPDATE_DASHBOARD_PARAM_CHART_IDS);
 		Map<String, ? extends List<? extends Map<String, ?>>> chartsParamValues = (Map<String, ? extends List<? extends Map<String, ?>>>) dashboardParams
 				.get(UPDATE_DASHBOARD_PARAM_CHARTS_PARAM_VALUES);
 
-		if (StringUtil.isEmpty(dashboardId))
-			throw new IllegalInputException();
+		HtmlTplDashboard dashboard = getDashboardForData(request, dashboardParams);
 
-		SessionHtmlTplDashboardManager dashboardManager = getSessionHtmlTplDashboardManagerNotNull(request);
+		if (chartIds == null || chartIds.isEmpty())
+			return this.dashboardDataSetResultLoader.load(dashboard);
+		else
+		{
+			if (chartsParamValues == null)
+				chartsParamValues = Collections.EMPTY_MAP;
 
-		HtmlTplDashboard dashboard = dashboardManager.get(dashboardId);
+			Set<String> chartIdSet = new HashSet<>(chartIds.size());
+			chartIdSet.addAll(chartIds);
 
-		if (dashboard == null)
-			throw new RecordNotFoundException();
+			return this.dashboardDataSetResultLoader.load(dashboard, chartIdSet,
+					convertChartsParamValues(dashboard, chartsParamValues));
+		}
+	}
+
+	/**
+	 * 写出看板数据JSON。
+	 * <p>
+	 * 如果{@linkplain #isDashboardDataStream()}为{@code true}，每加载完一个图表即写出其数据并刷新响应，
+	 * 响应内存占用仅取决于缓冲大小，首个图表的数据也能尽早到达客户端；否则，加载完所有图表数据后再一次写出。
+	 * </p>
+	 * 
+	 * @param request
+	 * @param response
+	 * @param model
+	 * @param webContext
+	 * @param dashboardParams
+	 * @throws Exception
+	 */
+	@SuppressWarnings("unchecked")
+	protected void writeDashboardData(HttpServletRequest request, HttpServletResponse response,
+			org.springframework.ui.Model model, WebContext webContext, Map<String, ?> dashboardParams) throws Exception
+	{
+		if (!this.dashboardDataStream)
+		{
+			Map<String, DataSetResult[]> data = getDashboardData(request, response, model, webContext,
+					dashboardParams);
+
+			response.setContentType(CONTENT_TYPE_JSON);
+			this._objectMapper.writeValue(response.getWriter(), data);
+
+			return;
+		}
+
+		Collection<String> chartIds = (Collection<String>) dashboardParams.get(UPDATE_DASHBOARD_PARAM_CHART_IDS);
+		Map<String, ? extends List<? extends Map<String, ?>>> chartsParamValues = (Map<String, ? extends List<? extends Map<String, ?>>>) dashboardParams
+				.get(UPDATE_DASHBOARD_PARAM_CHARTS_PARAM_VALUES);
+
+		HtmlTplDashboard dashboard = getDashboardForData(request, dashboardParams);
+
+		response.setContentType(CONTENT_TYPE_JSON);
+
+		if (this.dashboardDataStreamBufferSize > 0)
+			response.setBufferSize(this.dashboardDataStreamBufferSize);
+
+		final JsonGenerator generator = this._objectMapper.getFactory().createGenerator(response.getWriter());
+
+		DataSetResultsHandler handler = new DataSetResultsHandler()
+		{
+			@Override
+			public void handle(Chart chart, DataSetResult[] results) throws IOException
+			{
+				generator.writeFieldName(chart.getId());
+				generator.writeObject(results);
+				generator.flush();
+			}
+		};
+
+		generator.writeStartObject();
 
 		if (chartIds == null || chartIds.isEmpty())
-			return dashboard.getDataSetResults();
+			this.dashboardDataSetResultLoader.load(dashboard, handler);
 		else
 		{
 			if (chartsParamValues == null)
@@ -193,27 +350,130 @@ public abstract class AbstractDataAnalysisController extends AbstractController
 			Set<String> chartIdSet = new HashSet<>(chartIds.size());
 			chartIdSet.addAll(chartIds);
 
-			return dashboard.getDataSetResults(chartIdSet, convertChartsParamValues(dashboard, chartsParamValues));
+			this.dashboardDataSetResultLoader.load(dashboard, chartIdSet,
+					convertChartsParamValues(dashboard, chartsParamValues), handler);
 		}
+
+		generator.writeEndObject();
+		generator.flush();
+	}
+
+	/**
+	 * 存储已渲染看板的{@linkplain DashboardDescriptor}，用于之后的看板数据请求。
+	 * 
+	 * @param dashboard
+	 * @param user
+	 *            获取图表部件时使用的权限用户
+	 */
+	protected void putDashboardDescriptor(HtmlTplDashboard dashboard, User user)
+	{
+		this.dashboardDescriptorManager.put(DashboardDescriptor.valueOf(dashboard, user));
+	}
+
+	/**
+	 * 获取看板数据请求对应的看板。
+	 * <p>
+	 * 看板由{@linkplain DashboardDescriptor}重建，且仅包含请求的图表。
+	 * </p>
+	 * 
+	 * @param request
+	 * @param dashboardParams
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	protected HtmlTplDashboard getDashboardForData(HttpServletRequest request, Map<String, ?> dashboardParams)
+	{
+		String dashboardId = (String) dashboardParams.get(UPDATE_DASHBOARD_PARAM_DASHBOARD_ID);
+
+		if (StringUtil.isEmpty(dashboardId))
+			throw new IllegalInputException();
+
+		DashboardDescriptor descriptor = this.dashboardDescriptorManager.get(dashboardId);
+
+		if (descriptor == null)
+			throw new RecordNotFoundException();
+
+		Collection<String> chartIds = (Collection<String>) dashboardParams.get(UPDATE_DASHBOARD_PARAM_CHART_IDS);
+
+		return buildDashboardForData(descriptor, chartIds);
 	}
 
-	protected SessionHtmlTplDashboardManager getSessionHtmlTplDashboardManagerNotNull(HttpServletRequest request)
+	/**
+	 * 由{@linkplain DashboardDescriptor}重建用于加载数据的看板。
+	 * 
+	 * @param descriptor
+	 * @param chartIds
+	 *            为{@code null}或空时包含所有图表
+	 * @return
+	 */
+	protected HtmlTplDashboard buildDashboardForData(DashboardDescriptor descriptor, Collection<String> chartIds)
 	{
-		HttpSession session = request.getSession();
+		HtmlTplDashboard dashboard = new HtmlTplDashboard();
+		dashboard.setId(descriptor.getId());
+		dashboard.setTemplate(descriptor.getTemplate());
+
+		List<Chart> charts = new ArrayList<>();
 
-		SessionHtmlTplDashboardManager dashboardManager = (SessionHtmlTplDashboardManager) session
-				.getAttribute(SessionHtmlTplDashboardManager.class.getName());
+		ChartWidgetSourceContext.set(new ChartWidgetSourceContext(descriptor.getUser()));
 
-		synchronized (session)
+		try
 		{
-			if (dashboardManager == null)
+			for (Map.Entry<String, String> entry : descriptor.getChartWidgetIds().entrySet())
 			{
-				dashboardManager = new SessionHtmlTplDashboardManager();
-				session.setAttribute(SessionHtmlTplDashboardManager.class.getName(), dashboardManager);
+				String chartId = entry.getKey();
+
+				if (chartIds != null && !chartIds.isEmpty() && !chartIds.contains(chartId))
+					continue;
+
+				charts.add(buildChartForData(chartId, entry.getValue()));
 			}
 		}
+		finally
+		{
+			ChartWidgetSourceContext.remove();
+		}
+
+		dashboard.setCharts(charts);
 
-		return dashboardManager;
+		return dashboard;
+	}
+
+	/**
+	 * 重建用于加载数据的图表。
+	 * <p>
+	 * 如果图表部件不存在或者获取出错，将返回没有数据集的图表，与看板渲染时的处理方式一致。
+	 * </p>
+	 * 
+	 * @param chartId
+	 * @param chartWidgetId
+	 * @return
+	 */
+	protected Chart buildChartForData(String chartId, String chartWidgetId)
+	{
+		ChartWidget chartWidget = null;
+
+		if (!StringUtil.isEmpty(chartWidgetId))
+		{
+			try
+			{
+				chartWidget = this.chartWidgetSource.getChartWidget(chartWidgetId);
+			}
+			catch (Throwable t)
+			{
+				chartWidget = null;
+			}
+		}
+
+		ChartDefinition chartDefinition = new ChartDefinition();
+
+		if (chartWidget != null)
+			ChartDefinition.copy(chartWidget, chartDefinition);
+		else
+			chartDefinition.setChartDataSets(ChartDefinition.EMPTY_CHART_DATA_SET);
+
+		chartDefinition.setId(chartId);
+
+		return new Chart(chartDefinition, (chartWidget == null ? null : chartWidget.getPlugin()), null);
 	}
 
 	@SuppressWarnings("unchecked")
@@ -228,6 +488,10 @@ public abstract class AbstractDataAnalysisController extends AbstractController
 		for (Map.Entry<String, ? extends List<? extends Map<String, ?>>> entry : chartsParamValues.entrySet())
 		{
 			Chart chart = dashboard.getChart(entry.getKey());
+
+			if (chart == null)
+				continue;
+
 			ChartDataSet[] chartDataSets = chart.getChartDataSets();
 
 			if (chartDataSets == null || chartDataSets.length == 0)
@@ -274,32 +538,4 @@ public abstract class AbstractDataAnalysisController extends AbstractController
 	{
 		return WebUtils.addJsessionidParam(url, sessionId);
 	}
-
-	protected static class SessionHtmlTplDashboardManager implements Serializable
-	{
-		private static final long serialVersionUID = 1L;
-
-		private transient Map<String, HtmlTplDashboard> htmlTplDashboards;
-
-		public SessionHtmlTplDashboardManager()
-		{
-			super();
-		}
-
-		public synchronized HtmlTplDashboard get(String htmlTplDashboardId)
-		{
-			if (this.htmlTplDashboards == null)
-				return null;
-
-			return this.htmlTplDashboards.get(htmlTplDashboardId);
-		}
-
-		public synchronized void put(HtmlTplDashboard dashboard)
-		{
-			if (this.htmlTplDashboards == null)
-				this.htmlTplDashboards = new HashMap<>();
-
-			this.htmlTplDashboards.put(dashboard.getId(), dashboard);
-		}
-	}
 }
@@ -39,7 +39,8 @@ public abstract class AbstractSchemaConnController extends AbstractController
 	@Autowired
 	private ConnectionSource connectionSource;
 
-	private SchemaConnectionSupport schemaConnectionSupport = new SchemaConnectionSupport();
+	@Autowired
+	private SchemaConnectionSupport schemaConnectionSupport;
 
 	public AbstractSchemaConnController()
 	{
@@ -148,6 +149,16 @@ public abstract class AbstractSchemaConnController extends AbstractController
 		return this.schemaConnectionSupport.getSchemaConnection(this.connectionSource, schema);
 	}
 
+	/**
+	 * 清除指定{@linkplain Schema}的所有元信息缓存，参考{@linkplain SchemaConnectionSupport#invalidateDbMetaResolver(Schema)}。
+	 * 
+	 * @param schema
+	 */
+	protected void invalidateDbMetaResolver(Schema schema)
+	{
+		this.schemaConnectionSupport.invalidateDbMetaResolver(schema);
+	}
+
 	protected void checkReadTableDataPermission(Schema schema, User user)
 	{
 		if (!Schema.canReadTableData(schema.getDataPermission()))
@@ -4,11 +4,14 @@
 
 package org.datagear.web.controller;
 
+import java.sql.Connection;
+
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.datagear.management.domain.Schema;
 import org.datagear.meta.Table;
+import org.datagear.meta.resolver.CachingDBMetaResolver;
 import org.datagear.meta.resolver.DBMetaResolver;
 import org.datagear.persistence.support.NoColumnDefinedException;
 import org.datagear.web.util.TableCache;
@@ -53,6 +56,18 @@ public abstract class AbstractSchemaConnTableController extends AbstractSchemaCo
 		this.tableCache = tableCache;
 	}
 
+	/**
+	 * 清除{@linkplain #getDbMetaResolver()}中指定表的元信息缓存（如果有）。
+	 * 
+	 * @param cn
+	 * @param tableName
+	 */
+	protected void invalidateDbMetaResolver(Connection cn, String tableName)
+	{
+		if (this.dbMetaResolver instanceof CachingDBMetaResolver)
+			((CachingDBMetaResolver) this.dbMetaResolver).invalidate(cn, tableName);
+	}
+
 	/**
 	 * 抽象数据库表执行器。
 	 * 
@@ -63,6 +78,9 @@ public abstract class AbstractSchemaConnTableController extends AbstractSchemaCo
 	{
 		private String tableName;
 
+		/** 是否忽略缓存，重新加载表 */
+		private boolean reloadTable = false;
+
 		public AbstractSchemaConnTableExecutor(HttpServletRequest request, HttpServletResponse response,
 				org.springframework.ui.Model springModel, String schemaId, String tableName, boolean readonly)
 		{
@@ -78,12 +96,28 @@ public abstract class AbstractSchemaConnTableController extends AbstractSchemaCo
 			this.tableName = tableName;
 		}
 
+		public boolean isReloadTable()
+		{
+			return reloadTable;
+		}
+
+		public void setReloadTable(boolean reloadTable)
+		{
+			this.reloadTable = reloadTable;
+		}
+
 		@Override
 		protected void doExecute(HttpServletRequest request, HttpServletResponse response,
 				org.springframework.ui.Model springModel, Schema schema) throws Throwable
 		{
 			springModel.addAttribute("tableName", this.tableName);
 
+			if (this.reloadTable)
+			{
+				getTableCache().invalidate(schema.getId(), this.tableName);
+				invalidateDbMetaResolver(getConnection(), this.tableName);
+			}
+
 			Table table = getTableCache().get(schema.getId(), this.tableName);
 			if (table == null)
 			{
@@ -18,7 +18,6 @@ import javax.servlet.http.HttpSession;
 
 import org.datagear.analysis.ChartPluginManager;
 import org.datagear.analysis.DataSetParam;
-import org.datagear.analysis.DataSetResult;
 import org.datagear.analysis.RenderContext;
 import org.datagear.analysis.TemplateDashboardWidgetResManager;
 import org.datagear.analysis.support.html.HtmlChartPlugin;
@@ -376,12 +375,11 @@ public class ChartController extends AbstractChartPluginAwareController implemen
 	 * @throws Exception
 	 */
 	@RequestMapping(value = "/showData", produces = CONTENT_TYPE_JSON)
-	@ResponseBody
-	public Map<String, DataSetResult[]> showData(HttpServletRequest request, HttpServletResponse response,
+	public void showData(HttpServletRequest request, HttpServletResponse response,
 			org.springframework.ui.Model model, @RequestBody Map<String, ?> paramData) throws Exception
 	{
 		WebContext webContext = createWebContext(request);
-		return getDashboardData(request, response, model, webContext, paramData);
+		writeDashboardData(request, response, model, webContext, paramData);
 	}
 
 	/**
@@ -423,8 +421,7 @@ public class ChartController extends AbstractChartPluginAwareController implemen
 
 		HtmlTplDashboard dashboard = dashboardWidget.render(renderContext);
 
-		SessionHtmlTplDashboardManager dashboardManager = getSessionHtmlTplDashboardManagerNotNull(request);
-		dashboardManager.put(dashboard);
+		putDashboardDescriptor(dashboard, user);
 	}
 
 	protected WebContext createWebContext(HttpServletRequest request)
@@ -8,7 +8,6 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -26,13 +25,14 @@ import org.datagear.analysis.support.CategorizationResolver.Categorization;
 import org.datagear.analysis.support.html.HtmlChartPlugin;
 import org.datagear.analysis.support.html.HtmlChartPluginLoadException;
 import org.datagear.analysis.support.html.HtmlChartPluginLoader;
-import org.datagear.analysis.support.html.HtmlChartPluginScriptObjectWriter;
 import org.datagear.analysis.support.html.HtmlTplDashboardWidgetRenderer;
 import org.datagear.management.service.HtmlTplDashboardWidgetEntityService;
 import org.datagear.persistence.PagingQuery;
 import org.datagear.util.FileUtil;
 import org.datagear.util.IOUtil;
 import org.datagear.util.StringUtil;
+import org.datagear.web.util.HtmlChartPluginScriptBundle;
+import org.datagear.web.util.HtmlChartPluginScriptBundle.Bundle;
 import org.datagear.web.util.OperationMessage;
 import org.datagear.web.util.WebUtils;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -56,13 +56,17 @@ import org.springframework.web.multipart.MultipartFile;
 @RequestMapping("/analysis/chartPlugin")
 public class ChartPluginController extends AbstractChartPluginAwareController
 {
+	/** 长期缓存时间：一年 */
+	public static final int IMMUTABLE_CACHE_MAX_AGE_SECONDS = 60 * 60 * 24 * 365;
+
 	@Autowired
 	private File tempDirectory;
 
 	@Autowired
 	private HtmlTplDashboardWidgetEntityService htmlTplDashboardWidgetEntityService;
 
-	private HtmlChartPluginScriptObjectWriter htmlChartPluginScriptObjectWriter = new HtmlChartPluginScriptObjectWriter();
+	@Autowired
+	private HtmlChartPluginScriptBundle htmlChartPluginScriptBundle;
 
 	public ChartPluginController()
 	{
@@ -90,15 +94,14 @@ public class ChartPluginController extends AbstractChartPluginAwareController
 		this.htmlTplDashboardWidgetEntityService = htmlTplDashboardWidgetEntityService;
 	}
 
-	public HtmlChartPluginScriptObjectWriter getHtmlChartPluginScriptObjectWriter()
+	public HtmlChartPluginScriptBundle getHtmlChartPluginScriptBundle()
 	{
-		return htmlChartPluginScriptObjectWriter;
+		return htmlChartPluginScriptBundle;
 	}
 
-	public void setHtmlChartPluginScriptObjectWriter(
-			HtmlChartPluginScriptObjectWriter htmlChartPluginScriptObjectWriter)
+	public void setHtmlChartPluginScriptBundle(HtmlChartPluginScriptBundle htmlChartPluginScriptBundle)
 	{
-		this.htmlChartPluginScriptObjectWriter = htmlChartPluginScriptObjectWriter;
+		this.htmlChartPluginScriptBundle = htmlChartPluginScriptBundle;
 	}
 
 	@RequestMapping("/upload")
@@ -289,65 +292,35 @@ public class ChartPluginController extends AbstractChartPluginAwareController
 		}
 	}
 
+	/**
+	 * 获取图表插件脚本。
+	 * <p>
+	 * 如果请求参数<code>v</code>是当前插件脚本包的版本号（{@linkplain HtmlChartPluginScriptBundle.Bundle#getVersion()}，即内容摘要），
+	 * 由于此地址的内容不会再改变，将设置长期缓存响应头，浏览器无需再校验；否则，仅支持协商缓存。
+	 * </p>
+	 */
 	@RequestMapping("/chartPluginManager.js")
-	public void getChartPluginManagerJs(HttpServletRequest request, HttpServletResponse response, WebRequest webRequest)
-			throws Exception
+	public void getChartPluginManagerJs(HttpServletRequest request, HttpServletResponse response, WebRequest webRequest,
+			@RequestParam(value = "v", required = false) String version) throws Exception
 	{
-		List<HtmlChartPlugin> plugins = getDirectoryHtmlChartPluginManager().getAll(HtmlChartPlugin.class);
-
-		List<HtmlChartPlugin> htmlChartPlugins = new ArrayList<>(plugins.size());
-		long lastModified = -1;
-
-		if (plugins != null)
-		{
-			for (HtmlChartPlugin plugin : plugins)
-			{
-				htmlChartPlugins.add(plugin);
-				lastModified = Math.max(lastModified, plugin.getLastModified());
-			}
-		}
-
 		HtmlTplDashboardWidgetRenderer renderer = getHtmlTplDashboardWidgetEntityService()
 				.getHtmlTplDashboardWidgetRenderer();
 
-		HtmlChartPlugin htmlChartPluginForGetWidgetException = renderer.getHtmlChartPluginForGetWidgetException();
-		htmlChartPlugins.add(htmlChartPluginForGetWidgetException);
-		lastModified = Math.max(lastModified, htmlChartPluginForGetWidgetException.getLastModified());
-
-		if (webRequest.checkNotModified(lastModified))
-			return;
-
-		response.setContentType(CONTENT_TYPE_JAVASCRIPT);
-
-		PrintWriter out = response.getWriter();
-
-		out.println("(function(global)");
-		out.println("{");
-
-		out.println("var chartFactory = (global.chartFactory || (global.chartFactory = {}));");
-		out.println(
-				"var chartPluginManager = (chartFactory.chartPluginManager || (chartFactory.chartPluginManager = {}));");
-		out.println("chartPluginManager.plugins = (chartPluginManager.plugins || {});");
-
-		out.println();
-		out.println("//@deprecated 兼容1.8.1版本的window.chartPluginManager变量名，未来版本会移除");
-		out.println("global.chartPluginManager = chartPluginManager;");
+		Bundle bundle = this.htmlChartPluginScriptBundle.getBundle(renderer);
 
-		out.println();
-		out.println("chartPluginManager.get = function(id){ return this.plugins[id]; };");
-		out.println();
+		if (bundle.getVersion().equals(version))
+			response.setHeader("Cache-Control", "public, max-age=" + IMMUTABLE_CACHE_MAX_AGE_SECONDS + ", immutable");
 
-		for (int i = 0, len = htmlChartPlugins.size(); i < len; i++)
-		{
-			HtmlChartPlugin plugin = htmlChartPlugins.get(i);
-			String pluginVar = "plugin" + i;
+		if (webRequest.checkNotModified(bundle.getVersion(), bundle.getLastModified()))
+			return;
 
-			this.htmlChartPluginScriptObjectWriter.write(out, plugin, pluginVar);
+		byte[] content = bundle.getContent();
 
-			out.println("chartPluginManager.plugins[\"" + WebUtils.escapeJavaScriptStringValue(plugin.getId())
-					+ "\"] = " + pluginVar + ";");
-		}
+		response.setContentType(CONTENT_TYPE_JAVASCRIPT);
+		response.setCharacterEncoding(IOUtil.CHARSET_UTF_8);
+		response.setContentLength(content.length);
 
-		out.println("})(this);");
+		OutputStream out = response.getOutputStream();
+		out.write(content);
 	}
 }
@@ -24,7 +24,6 @@ import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 
 import org.datagear.analysis.Chart;
-import org.datagear.analysis.DataSetResult;
 import org.datagear.analysis.RenderContext;
 import org.datagear.analysis.TemplateDashboardWidgetResManager;
 import org.datagear.analysis.support.ChartWidget;
@@ -49,6 +48,7 @@ import org.datagear.util.FileUtil;
 import org.datagear.util.IDUtil;
 import org.datagear.util.IOUtil;
 import org.datagear.util.StringUtil;
+import org.datagear.web.util.DashboardDescriptor;
 import org.datagear.web.util.OperationMessage;
 import org.datagear.web.util.WebUtils;
 import org.datagear.web.vo.APIDDataFilterPagingQuery;
@@ -816,8 +816,7 @@ public class DashboardController extends AbstractDataAnalysisController implemen
 
 			HtmlTplDashboard dashboard = dashboardWidget.render(renderContext, template);
 
-			SessionHtmlTplDashboardManager dashboardManager = getSessionHtmlTplDashboardManagerNotNull(request);
-			dashboardManager.put(dashboard);
+			putDashboardDescriptor(dashboard, dashboardWidget.getCreateUser());
 		}
 		finally
 		{
@@ -835,12 +834,11 @@ public class DashboardController extends AbstractDataAnalysisController implemen
 	 * @throws Exception
 	 */
 	@RequestMapping(value = "/showData", produces = CONTENT_TYPE_JSON)
-	@ResponseBody
-	public Map<String, DataSetResult[]> showData(HttpServletRequest request, HttpServletResponse response,
+	public void showData(HttpServletRequest request, HttpServletResponse response,
 			org.springframework.ui.Model model, @RequestBody Map<String, ?> paramData) throws Exception
 	{
 		WebContext webContext = createWebContext(request);
-		return getDashboardData(request, response, model, webContext, paramData);
+		writeDashboardData(request, response, model, webContext, paramData);
 	}
 
 	/**
@@ -858,16 +856,13 @@ public class DashboardController extends AbstractDataAnalysisController implemen
 			@RequestParam(LOAD_CHART_PARAM_CHART_WIDGET_ID) String chartWidgetId,
 			@RequestParam(LOAD_CHART_PARAM_CHART_ELEMENT_ID) String chartElementId) throws Throwable
 	{
-		SessionHtmlTplDashboardManager dashboardManager = getSessionHtmlTplDashboardManagerNotNull(request);
-		HtmlTplDashboard dashboard = dashboardManager.get(dashboardId);
+		DashboardDescriptor descriptor = getDashboardDescriptorManager().get(dashboardId);
 
-		if (dashboard == null)
+		if (descriptor == null)
 			throw new RecordNotFoundException();
 
-		HtmlTplDashboardWidgetEntity dashboardWidget = (HtmlTplDashboardWidgetEntity) dashboard.getWidget();
-
 		// 确保看板创建用户对看板模板内定义的图表有权限
-		ChartWidgetSourceContext.set(new ChartWidgetSourceContext(dashboardWidget.getCreateUser()));
+		ChartWidgetSourceContext.set(new ChartWidgetSourceContext(descriptor.getUser()));
 
 		ChartWidgetSource chartWidgetSource = getHtmlTplDashboardWidgetEntityService()
 				.getHtmlTplDashboardWidgetRenderer().getChartWidgetSource();
@@ -896,13 +891,7 @@ public class DashboardController extends AbstractDataAnalysisController implemen
 
 		Chart chart = chartWidget.render(renderContext);
 
-		synchronized (dashboard)
-		{
-			List<Chart> charts = dashboard.getCharts();
-			List<Chart> newCharts = (charts == null || charts.isEmpty() ? new ArrayList<>() : new ArrayList<>(charts));
-			newCharts.add(chart);
-			dashboard.setCharts(newCharts);
-		}
+		getDashboardDescriptorManager().addChart(dashboardId, chart.getId(), chartWidgetId);
 	}
 
 	/**
@@ -89,6 +89,7 @@ import org.datagear.web.util.MessageChannel;
 import org.datagear.web.util.OperationMessage;
 import org.datagear.web.util.WebUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -97,6 +98,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.async.DeferredResult;
 import org.springframework.web.multipart.MultipartFile;
 
 /**
@@ -125,6 +127,14 @@ public class DataExchangeController extends AbstractSchemaConnController
 
 	private MessageChannel messageChannel = new MessageChannel();
 
+	/** 数据导入的JDBC批量插入行数 */
+	@Value("${dataExchange.import.batchSize}")
+	private int importBatchSize = 0;
+
+	/** 数据导入的事务提交间隔行数 */
+	@Value("${dataExchange.import.commitInterval}")
+	private int importCommitInterval = 0;
+
 	public DataExchangeController()
 	{
 		super();
@@ -170,6 +180,26 @@ public class DataExchangeController extends AbstractSchemaConnController
 		this.tempDirectory = tempDirectory;
 	}
 
+	public int getImportBatchSize()
+	{
+		return importBatchSize;
+	}
+
+	public void setImportBatchSize(int importBatchSize)
+	{
+		this.importBatchSize = importBatchSize;
+	}
+
+	public int getImportCommitInterval()
+	{
+		return importCommitInterval;
+	}
+
+	public void setImportCommitInterval(int importCommitInterval)
+	{
+		this.importCommitInterval = importCommitInterval;
+	}
+
 	@RequestMapping("/{schemaId}/import")
 	public String impt(HttpServletRequest request, HttpServletResponse response,
 			org.springframework.ui.Model springModel, @PathVariable("schemaId") String schemaId) throws Throwable
@@ -243,6 +273,8 @@ public class DataExchangeController extends AbstractSchemaConnController
 				|| dataImportForm.getSubDataExchangeIds().length != dataImportForm.getTableNames().length)
 			throw new IllegalInputException();
 
+		setValueDataImportOption(dataImportForm.getImportOption());
+
 		final User user = WebUtils.getUser(request, response);
 
 		String dataExchangeId = dataImportForm.getDataExchangeId();
@@ -309,7 +341,7 @@ public class DataExchangeController extends AbstractSchemaConnController
 		Set<SubDataExchange> subDataExchangeSet = new HashSet<>(subDataExchangeIds.length);
 		Collections.addAll(subDataExchangeSet, subDataExchanges);
 
-		BatchDataExchange batchDataExchange = buildBatchDataExchange(connectionFactory, subDataExchangeSet,
+		BatchDataExchange batchDataExchange = buildBatchDataExchange(schema, connectionFactory, subDataExchangeSet,
 				dataExchangeId, locale);
 
 		this.dataExchangeService.exchange(batchDataExchange);
@@ -423,7 +455,7 @@ public class DataExchangeController extends AbstractSchemaConnController
 		Set<SubDataExchange> subDataExchangeSet = new HashSet<>(subDataExchangeIds.length);
 		Collections.addAll(subDataExchangeSet, subDataExchanges);
 
-		BatchDataExchange batchDataExchange = buildBatchDataExchange(connectionFactory, subDataExchangeSet,
+		BatchDataExchange batchDataExchange = buildBatchDataExchange(schema, connectionFactory, subDataExchangeSet,
 				dataExchangeId, locale);
 
 		this.dataExchangeService.exchange(batchDataExchange);
@@ -488,6 +520,7 @@ public class DataExchangeController extends AbstractSchemaConnController
 			throw new IllegalInputException();
 
 		JsonDataImportOption importOption = importForm.getImportOption();
+		setValueDataImportOption(importOption);
 
 		if (JsonDataFormat.ROW_ARRAY.equals(importOption.getJsonDataFormat()))
 		{
@@ -566,7 +599,7 @@ public class DataExchangeController extends AbstractSchemaConnController
 		Set<SubDataExchange> subDataExchangeSet = new HashSet<>(subDataExchangeIds.length);
 		Collections.addAll(subDataExchangeSet, subDataExchanges);
 
-		BatchDataExchange batchDataExchange = buildBatchDataExchange(connectionFactory, subDataExchangeSet,
+		BatchDataExchange batchDataExchange = buildBatchDataExchange(schema, connectionFactory, subDataExchangeSet,
 				dataExchangeId, locale);
 
 		this.dataExchangeService.exchange(batchDataExchange);
@@ -629,6 +662,8 @@ public class DataExchangeController extends AbstractSchemaConnController
 				|| dataImportForm.getSubDataExchangeIds().length != dataImportForm.getTableNames().length)
 			throw new IllegalInputException();
 
+		setValueDataImportOption(dataImportForm.getImportOption());
+
 		final User user = WebUtils.getUser(request, response);
 
 		String dataExchangeId = dataImportForm.getDataExchangeId();
@@ -693,7 +728,7 @@ public class DataExchangeController extends AbstractSchemaConnController
 		Set<SubDataExchange> subDataExchangeSet = new HashSet<>(subDataExchangeIds.length);
 		Collections.addAll(subDataExchangeSet, subDataExchanges);
 
-		BatchDataExchange batchDataExchange = buildBatchDataExchange(connectionFactory, subDataExchangeSet,
+		BatchDataExchange batchDataExchange = buildBatchDataExchange(schema, connectionFactory, subDataExchangeSet,
 				dataExchangeId, locale);
 
 		this.dataExchangeService.exchange(batchDataExchange);
@@ -932,7 +967,7 @@ public class DataExchangeController extends AbstractSchemaConnController
 			subDataExchanges.add(subDataExchange);
 		}
 
-		BatchDataExchange batchDataExchange = buildBatchDataExchange(connectionFactory, subDataExchanges,
+		BatchDataExchange batchDataExchange = buildBatchDataExchange(schema, connectionFactory, subDataExchanges,
 				dataExchangeId, locale);
 
 		this.dataExchangeService.exchange(batchDataExchange);
@@ -1035,7 +1070,7 @@ public class DataExchangeController extends AbstractSchemaConnController
 			subDataExchanges.add(subDataExchange);
 		}
 
-		BatchDataExchange batchDataExchange = buildBatchDataExchange(connectionFactory, subDataExchanges,
+		BatchDataExchange batchDataExchange = buildBatchDataExchange(schema, connectionFactory, subDataExchanges,
 				dataExchangeId, locale);
 
 		this.dataExchangeService.exchange(batchDataExchange);
@@ -1148,7 +1183,7 @@ public class DataExchangeController extends AbstractSchemaConnController
 			subDataExchanges.add(subDataExchange);
 		}
 
-		BatchDataExchange batchDataExchange = buildBatchDataExchange(connectionFactory, subDataExchanges,
+		BatchDataExchange batchDataExchange = buildBatchDataExchange(schema, connectionFactory, subDataExchanges,
 				dataExchangeId, locale);
 
 		this.dataExchangeService.exchange(batchDataExchange);
@@ -1266,7 +1301,7 @@ public class DataExchangeController extends AbstractSchemaConnController
 			subDataExchanges.add(subDataExchange);
 		}
 
-		BatchDataExchange batchDataExchange = buildBatchDataExchange(connectionFactory, subDataExchanges,
+		BatchDataExchange batchDataExchange = buildBatchDataExchange(schema, connectionFactory, subDataExchanges,
 				dataExchangeId, locale);
 
 		this.dataExchangeService.exchange(batchDataExchange);
@@ -1334,17 +1369,20 @@ public class DataExchangeController extends AbstractSchemaConnController
 
 	@RequestMapping(value = "/{schemaId}/message", produces = CONTENT_TYPE_JSON)
 	@ResponseBody
-	public List<Object> message(HttpServletRequest request, HttpServletResponse response,
+	public DeferredResult<List<Object>> message(HttpServletRequest request, HttpServletResponse response,
 			org.springframework.ui.Model springModel, @PathVariable("schemaId") String schemaId,
 			@RequestParam("dataExchangeId") String dataExchangeId,
-			@RequestParam(value = "messageCount", required = false) Integer messageCount) throws Throwable
+			@RequestParam(value = "messageCount", required = false) Integer messageCount,
+			@RequestParam(value = "waitSeconds", required = false) Integer waitSeconds) throws Throwable
 	{
 		if (messageCount == null)
 			messageCount = 50;
 		if (messageCount < 1)
 			messageCount = 1;
+		if (waitSeconds == null)
+			waitSeconds = 0;
 
-		return this.messageChannel.pull(dataExchangeId, messageCount);
+		return pullMessages(this.messageChannel, dataExchangeId, messageCount, waitSeconds);
 	}
 
 	protected String[] setParamInitSqlsAttribute(HttpServletRequest request, org.springframework.ui.Model springModel)
@@ -1358,6 +1396,17 @@ public class DataExchangeController extends AbstractSchemaConnController
 		return initSqls;
 	}
 
+	/**
+	 * 设置{@linkplain ValueDataImportOption}的批量插入、提交间隔配置。
+	 * 
+	 * @param importOption
+	 */
+	protected void setValueDataImportOption(ValueDataImportOption importOption)
+	{
+		importOption.setBatchSize(this.importBatchSize);
+		importOption.setCommitInterval(this.importCommitInterval);
+	}
+
 	/**
 	 * 根据表依赖关系填充依赖编号。
 	 * 
@@ -1519,13 +1568,24 @@ public class DataExchangeController extends AbstractSchemaConnController
 		return fileInfos;
 	}
 
-	protected BatchDataExchange buildBatchDataExchange(ConnectionFactory connectionFactory,
+	protected BatchDataExchange buildBatchDataExchange(final Schema schema, ConnectionFactory connectionFactory,
 			Set<SubDataExchange> subDataExchanges, String channel, Locale locale)
 	{
 		BatchDataExchange batchDataExchange = new SimpleBatchDataExchange(connectionFactory, subDataExchanges);
+		batchDataExchange.setConcurrencyKey(schema.getId());
 
 		MessageBatchDataExchangeListener listener = new MessageBatchDataExchangeListener(this.messageChannel, channel,
-				getMessageSource(), locale);
+				getMessageSource(), locale)
+		{
+			@Override
+			public void onFinish()
+			{
+				// 导入（比如SQL导入）可能变更表结构
+				invalidateDbMetaResolver(schema);
+
+				super.onFinish();
+			}
+		};
 		batchDataExchange.setListener(listener);
 
 		return batchDataExchange;
@@ -25,6 +25,7 @@ import org.datagear.analysis.ResolvedDataSetResult;
 import org.datagear.analysis.support.AbstractDataSet;
 import org.datagear.analysis.support.CsvValueDataSet;
 import org.datagear.analysis.support.DataSetFmkTemplateResolver;
+import org.datagear.analysis.support.DataSetFmkTemplateResolver.ResolveMetrics;
 import org.datagear.analysis.support.DataSetParamValueConverter;
 import org.datagear.analysis.support.JsonValueDataSet;
 import org.datagear.analysis.support.ProfileDataSet;
@@ -698,6 +699,20 @@ public class DataSetController extends AbstractSchemaConnController
 		return pagingData;
 	}
 
+	/**
+	 * 获取数据集模板解析统计信息。
+	 * 
+	 * @param request
+	 * @param response
+	 * @return
+	 */
+	@RequestMapping(value = "/resolveMetrics", produces = CONTENT_TYPE_JSON)
+	@ResponseBody
+	public ResolveMetrics resolveMetrics(HttpServletRequest request, HttpServletResponse response)
+	{
+		return getDataSetFmkTemplateResolver().getResolveMetrics();
+	}
+
 	@RequestMapping(value = "/previewSql", produces = CONTENT_TYPE_JSON)
 	@ResponseBody
 	public TemplateResolvedDataSetResult previewSql(HttpServletRequest request, HttpServletResponse response,
@@ -714,7 +729,8 @@ public class DataSetController extends AbstractSchemaConnController
 		// 如果数据集已创建，则使用数据集权限；如果数据集未创建，则需使用数据源权限
 		Schema schema = (notFound ? getSchemaForUserNotNull(user, schemaId) : getSchemaNotNull(schemaId));
 
-		SchemaConnectionFactory connectionFactory = new SchemaConnectionFactory(getConnectionSource(), schema);
+		SchemaConnectionFactory connectionFactory = new SchemaConnectionFactory(getConnectionSource(), schema,
+				getSchemaConnectionSupport().getDbMetaResolver());
 		dataSet.setConnectionFactory(connectionFactory);
 
 		Map<String, Object> convertedParamValues = getDataSetParamValueConverter().convert(preview.getParamValues(),
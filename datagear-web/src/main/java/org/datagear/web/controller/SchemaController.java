@@ -13,8 +13,11 @@ import java.util.List;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.datagear.connection.ConnectionSource;
+import org.datagear.connection.DefaultConnectionSource;
 import org.datagear.connection.DriverEntity;
 import org.datagear.connection.DriverEntityManager;
+import org.datagear.connection.InternalDataSourceMetrics;
 import org.datagear.management.domain.Schema;
 import org.datagear.management.domain.User;
 import org.datagear.meta.SimpleTable;
@@ -27,6 +30,9 @@ import org.datagear.util.IDUtil;
 import org.datagear.util.JdbcUtil;
 import org.datagear.web.util.KeywordMatcher;
 import org.datagear.web.util.OperationMessage;
+import org.datagear.web.util.TableCatalogCache;
+import org.datagear.web.util.TableCatalogCache.TableCatalog;
+import org.datagear.web.util.TableCatalogCache.TableCatalogLoader;
 import org.datagear.web.util.WebUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -52,6 +58,9 @@ public class SchemaController extends AbstractSchemaConnTableController
 	@Autowired
 	private DriverEntityManager driverEntityManager;
 
+	@Autowired
+	private TableCatalogCache tableCatalogCache;
+
 	public SchemaController()
 	{
 		super();
@@ -67,6 +76,16 @@ public class SchemaController extends AbstractSchemaConnTableController
 		this.driverEntityManager = driverEntityManager;
 	}
 
+	public TableCatalogCache getTableCatalogCache()
+	{
+		return tableCatalogCache;
+	}
+
+	public void setTableCatalogCache(TableCatalogCache tableCatalogCache)
+	{
+		this.tableCatalogCache = tableCatalogCache;
+	}
+
 	@RequestMapping("/add")
 	public String add(org.springframework.ui.Model model,
 			@RequestParam(value = "copyId", required = false) String copyId)
@@ -149,7 +168,11 @@ public class SchemaController extends AbstractSchemaConnTableController
 		// 如果URL或者用户变更了，则需要清除缓存
 		if (updated && old != null
 				&& (!schema.getUrl().equals(old.getUrl()) || !schema.getUser().equals(old.getUser())))
+		{
 			getTableCache().invalidate(schema.getId());
+			this.tableCatalogCache.invalidate(schema.getId());
+			invalidateDbMetaResolver(old);
+		}
 
 		return buildOperationMessageSaveSuccessResponseEntity(request, schema);
 	}
@@ -185,11 +208,19 @@ public class SchemaController extends AbstractSchemaConnTableController
 		{
 			String id = ids[i];
 
+			Schema old = getSchemaService().getById(id);
+
 			boolean deleted = getSchemaService().deleteById(user, id);
 
 			// 清除缓存
 			if (deleted)
+			{
 				getTableCache().invalidate(id);
+				this.tableCatalogCache.invalidate(id);
+
+				if (old != null)
+					invalidateDbMetaResolver(old);
+			}
 		}
 
 		return buildOperationMessageDeleteSuccessResponseEntity(request);
@@ -272,33 +303,81 @@ public class SchemaController extends AbstractSchemaConnTableController
 		return schemas;
 	}
 
+	/**
+	 * 获取数据源连接池运行指标。
+	 * 
+	 * @param request
+	 * @param response
+	 * @return
+	 */
+	@RequestMapping(value = "/poolMetrics", produces = CONTENT_TYPE_JSON)
+	@ResponseBody
+	public List<InternalDataSourceMetrics> poolMetrics(HttpServletRequest request, HttpServletResponse response)
+	{
+		ConnectionSource connectionSource = getConnectionSource();
+
+		if (connectionSource instanceof DefaultConnectionSource)
+			return ((DefaultConnectionSource) connectionSource).getInternalDataSourceMetrics();
+
+		return Collections.emptyList();
+	}
+
 	@RequestMapping(value = "/{schemaId}/pagingQueryTable", produces = CONTENT_TYPE_JSON)
 	@ResponseBody
 	public PagingData<SimpleTable> pagingQueryTable(HttpServletRequest request, HttpServletResponse response,
 			org.springframework.ui.Model springModel, @PathVariable("schemaId") String schemaId,
-			@RequestBody PagingQuery pagingQueryParam) throws Throwable
+			@RequestBody PagingQuery pagingQueryParam,
+			@RequestParam(value = "reload", required = false) Boolean forceReload) throws Throwable
 	{
 		final PagingQuery pagingQuery = inflatePagingQuery(request, pagingQueryParam, COOKIE_PAGINATION_SIZE);
 
-		List<SimpleTable> tables = new ReturnSchemaConnExecutor<List<SimpleTable>>(request, response, springModel,
-				schemaId, true)
+		if (Boolean.TRUE.equals(forceReload))
+			this.tableCatalogCache.invalidate(schemaId);
+
+		List<SimpleTable> keywordTables = new ReturnSchemaConnExecutor<List<SimpleTable>>(request, response,
+				springModel, schemaId, true)
 		{
 			@Override
 			protected List<SimpleTable> execute(HttpServletRequest request, HttpServletResponse response,
 					org.springframework.ui.Model springModel, Schema schema) throws Throwable
 			{
+				// 刷新时表结构可能已变更
+				if (Boolean.TRUE.equals(forceReload))
+					invalidateDbMetaResolver(schema);
+
+				TableCatalogLoader loader = buildTableCatalogLoader(schema);
+
+				TableCatalog catalog = tableCatalogCache.get(schema.getId(), loader);
+
+				if (catalog != null)
+					return catalog.find(pagingQuery.getKeyword());
+
 				Connection cn = getConnection();
 
+				// 没有缓存时，如果可以，由数据库按关键字查找，完整的表目录则在后台加载
+				String tableNamePattern = tableCatalogCache.toTableNamePattern(cn.getMetaData(),
+						pagingQuery.getKeyword());
+
+				if (tableNamePattern != null)
+				{
+					List<SimpleTable> tables = getDbMetaResolver().getSimpleTables(cn, tableNamePattern);
+					tables = TableType.filterUserDataTables(cn, getDbMetaResolver(), tables);
+					sortByTableName(tables);
+
+					tableCatalogCache.loadAsync(schema.getId(), loader);
+
+					return tables;
+				}
+
 				List<SimpleTable> tables = getDbMetaResolver().getSimpleTables(cn);
-				return TableType.filterUserDataTables(cn, getDbMetaResolver(), tables);
+				tables = TableType.filterUserDataTables(cn, getDbMetaResolver(), tables);
+				catalog = tableCatalogCache.put(schema.getId(), tables);
+
+				return catalog.find(pagingQuery.getKeyword());
 			}
 
 		}.execute();
 
-		sortByTableName(tables);
-
-		List<SimpleTable> keywordTables = findByKeyword(tables, pagingQuery.getKeyword());
-
 		PagingData<SimpleTable> pagingData = new PagingData<>(pagingQuery.getPage(), keywordTables.size(),
 				pagingQuery.getPageSize());
 
@@ -316,9 +395,6 @@ public class SchemaController extends AbstractSchemaConnTableController
 			@PathVariable("tableName") String tableName,
 			@RequestParam(value = "reload", required = false) Boolean forceReload) throws Throwable
 	{
-		if (Boolean.TRUE.equals(forceReload))
-			getTableCache().invalidate(schemaId, tableName);
-
 		ReturnSchemaConnTableExecutor<Table> executor = new ReturnSchemaConnTableExecutor<Table>(request, response,
 				springModel, schemaId, tableName, true)
 		{
@@ -330,9 +406,41 @@ public class SchemaController extends AbstractSchemaConnTableController
 			}
 		};
 
+		executor.setReloadTable(Boolean.TRUE.equals(forceReload));
+
 		return executor.execute();
 	}
 
+	/**
+	 * 构建在后台加载表目录的{@linkplain TableCatalogLoader}，它自行获取、关闭数据库连接。
+	 * 
+	 * @param schema
+	 * @return
+	 */
+	protected TableCatalogLoader buildTableCatalogLoader(final Schema schema)
+	{
+		return new TableCatalogLoader()
+		{
+			@Override
+			public List<SimpleTable> load() throws Throwable
+			{
+				Connection cn = null;
+
+				try
+				{
+					cn = getSchemaConnection(schema);
+
+					List<SimpleTable> tables = getDbMetaResolver().getSimpleTables(cn);
+					return TableType.filterUserDataTables(cn, getDbMetaResolver(), tables);
+				}
+				finally
+				{
+					JdbcUtil.closeConnection(cn);
+				}
+			}
+		};
+	}
+
 	/**
 	 * 处理展示。
 	 * 
@@ -32,6 +32,7 @@ import org.datagear.util.IOUtil;
 import org.datagear.util.SqlScriptParser;
 import org.datagear.util.SqlScriptParser.SqlStatement;
 import org.datagear.util.StringUtil;
+import org.datagear.web.sqlpad.SqlpadCursorRegistry;
 import org.datagear.web.sqlpad.SqlpadExecutionService;
 import org.datagear.web.sqlpad.SqlpadExecutionService.CommitMode;
 import org.datagear.web.sqlpad.SqlpadExecutionService.ExceptionHandleMode;
@@ -47,6 +48,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.async.DeferredResult;
 import org.springframework.web.multipart.MultipartFile;
 
 /**
@@ -67,6 +69,9 @@ public class SqlpadController extends AbstractSchemaConnController
 	@Autowired
 	private SqlpadExecutionService sqlpadExecutionService;
 
+	@Autowired
+	private SqlpadCursorRegistry sqlpadCursorRegistry;
+
 	@Autowired
 	private SqlHistoryService sqlHistoryService;
 
@@ -100,6 +105,16 @@ public class SqlpadController extends AbstractSchemaConnController
 		this.sqlpadExecutionService = sqlpadExecutionService;
 	}
 
+	public SqlpadCursorRegistry getSqlpadCursorRegistry()
+	{
+		return sqlpadCursorRegistry;
+	}
+
+	public void setSqlpadCursorRegistry(SqlpadCursorRegistry sqlpadCursorRegistry)
+	{
+		this.sqlpadCursorRegistry = sqlpadCursorRegistry;
+	}
+
 	public SqlHistoryService getSqlHistoryService()
 	{
 		return sqlHistoryService;
@@ -220,17 +235,20 @@ public class SqlpadController extends AbstractSchemaConnController
 
 	@RequestMapping(value = "/{schemaId}/message", produces = CONTENT_TYPE_JSON)
 	@ResponseBody
-	public List<Object> message(HttpServletRequest request, HttpServletResponse response,
+	public DeferredResult<List<Object>> message(HttpServletRequest request, HttpServletResponse response,
 			org.springframework.ui.Model springModel, @PathVariable("schemaId") String schemaId,
 			@RequestParam("sqlpadId") String sqlpadId,
-			@RequestParam(value = "messageCount", required = false) Integer messageCount) throws Throwable
+			@RequestParam(value = "messageCount", required = false) Integer messageCount,
+			@RequestParam(value = "waitSeconds", required = false) Integer waitSeconds) throws Throwable
 	{
 		if (messageCount == null)
 			messageCount = 50;
 		if (messageCount < 1)
 			messageCount = 1;
+		if (waitSeconds == null)
+			waitSeconds = 0;
 
-		return this.sqlpadExecutionService.message(sqlpadId, messageCount);
+		return pullMessages(this.sqlpadExecutionService.getMessageChannel(), sqlpadId, messageCount, waitSeconds);
 	}
 
 	@RequestMapping(value = "/{schemaId}/select", produces = CONTENT_TYPE_JSON)
@@ -240,7 +258,8 @@ public class SqlpadController extends AbstractSchemaConnController
 			@RequestParam("sqlpadId") String sqlpadId, @RequestParam("sql") final String sql,
 			@RequestParam(value = "startRow", required = false) Integer startRow,
 			@RequestParam(value = "fetchSize", required = false) Integer fetchSize,
-			@RequestParam(value = "returnMeta", required = false) Boolean returnMeta) throws Throwable
+			@RequestParam(value = "returnMeta", required = false) Boolean returnMeta,
+			@RequestParam(value = "cursorId", required = false) String cursorId) throws Throwable
 	{
 		final User user = WebUtils.getUser(request, response);
 
@@ -259,21 +278,35 @@ public class SqlpadController extends AbstractSchemaConnController
 		final int startRowFinal = startRow;
 		final int fetchSizeFinal = fetchSize;
 
-		SqlSelectResult result = new ReturnSchemaConnExecutor<SqlSelectResult>(request, response, springModel, schemaId,
-				true)
+		SqlSelectResult result = null;
+
+		// 优先从执行SQL时保留的游标继续读取，游标不可用时再重新执行SQL
+		if (!isEmpty(cursorId))
 		{
-			@Override
-			protected SqlSelectResult execute(HttpServletRequest request, HttpServletResponse response,
-					Model springModel, Schema schema) throws Throwable
+			Schema schema = getSchemaForUserNotNull(user, schemaId);
+			checkReadTableDataPermission(schema, user);
+
+			result = this.sqlpadCursorRegistry.select(cursorId, user.getId(), sqlpadId, sql, startRowFinal,
+					fetchSizeFinal);
+		}
+
+		if (result == null)
+		{
+			result = new ReturnSchemaConnExecutor<SqlSelectResult>(request, response, springModel, schemaId, true)
 			{
-				checkReadTableDataPermission(schema, user);
+				@Override
+				protected SqlSelectResult execute(HttpServletRequest request, HttpServletResponse response,
+						Model springModel, Schema schema) throws Throwable
+				{
+					checkReadTableDataPermission(schema, user);
 
-				SqlSelectResult result = getSqlSelectManager().select(getConnection(), sql, startRowFinal,
-						fetchSizeFinal, buildDefaultLOBRowMapper());
+					SqlSelectResult result = getSqlSelectManager().select(getConnection(), sql, startRowFinal,
+							fetchSizeFinal, buildDefaultLOBRowMapper());
 
-				return result;
-			}
-		}.execute();
+					return result;
+				}
+			}.execute();
+		}
 
 		if (!Boolean.TRUE.equals(returnMeta))
 			result.setTable(null);
@@ -17,9 +17,12 @@ import org.datagear.dataexchange.DataIndex;
 import org.datagear.dataexchange.ExceptionResolve;
 import org.datagear.util.IOUtil;
 import org.datagear.web.dataexchange.MessageBatchDataExchangeListener.SubSubmitSuccess;
+import org.datagear.web.util.CoalescibleMessage;
 import org.datagear.web.util.MessageChannel;
 import org.springframework.context.MessageSource;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 /**
  * 发送消息的子数据交换{@linkplain DataExchangeListener}。
  * 
@@ -387,7 +390,7 @@ public abstract class MessageSubDataExchangeListener extends MessageDataExchange
 	 * @author datagear@163.com
 	 *
 	 */
-	public static class SubExchangingWithCount extends SubDataExchangeMessage
+	public static class SubExchangingWithCount extends SubDataExchangeMessage implements CoalescibleMessage
 	{
 		public static final int ORDER = SubStart.ORDER + 1;
 
@@ -426,6 +429,13 @@ public abstract class MessageSubDataExchangeListener extends MessageDataExchange
 		{
 			this.failCount = failCount;
 		}
+
+		@JsonIgnore
+		@Override
+		public Object getCoalesceKey()
+		{
+			return getType() + "-" + getSubDataExchangeId();
+		}
 	}
 
 	/**
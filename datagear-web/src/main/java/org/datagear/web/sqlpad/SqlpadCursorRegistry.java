@@ -0,0 +1,523 @@
+/*
+ * Copyright (c) 2018 datagear.tech. All Rights Reserved.
+ */
+
+/**
+ * 
+ */
+package org.datagear.web.sqlpad;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.datagear.meta.Table;
+import org.datagear.persistence.RowMapper;
+import org.datagear.persistence.support.SqlSelectManager;
+import org.datagear.persistence.support.SqlSelectResult;
+import org.datagear.util.JdbcUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * SQL工作台结果集游标注册表。
+ * <p>
+ * 它保留{@linkplain SqlpadExecutionService}执行查询SQL时打开的{@linkplain Statement}、{@linkplain ResultSet}，
+ * 使得SQL工作台“加载更多”时可以从游标当前位置继续读取，而不必重新执行SQL并跳过前面的行。
+ * </p>
+ * <p>
+ * 游标在空闲超过{@linkplain #getMaxIdleSeconds()}秒后，由{@linkplain #closeExpired()}关闭；
+ * 每个用户最多保留{@linkplain #getMaxCursorsPerUser()}个游标，超过时将关闭其最久未访问的游标。
+ * 游标读取失败（比如驱动程序在事务提交时关闭了结果集）时，游标将被关闭，调用方应回退为重新执行SQL。
+ * </p>
+ * <p>
+ * 关闭游标需要在其{@linkplain CursorConnection}上同步，为了避免死锁，此类不会在持有注册表锁时关闭游标，
+ * 持有某个{@linkplain CursorConnection}锁的调用方也应使用{@linkplain #register(SqlpadCursor, List)}，在释放锁后再关闭被淘汰的游标。
+ * </p>
+ * 
+ * @author datagear@163.com
+ *
+ */
+public class SqlpadCursorRegistry
+{
+	private static final Logger LOGGER = LoggerFactory.getLogger(SqlpadCursorRegistry.class);
+
+	private SqlSelectManager sqlSelectManager;
+
+	/** 游标最大空闲秒数 */
+	private int maxIdleSeconds = 300;
+
+	/** 每个用户最多保留的游标数，小于等于{@code 0}表示不保留游标 */
+	private int maxCursorsPerUser = 5;
+
+	private ConcurrentMap<String, SqlpadCursor> _cursors = new ConcurrentHashMap<>();
+
+	public SqlpadCursorRegistry()
+	{
+		super();
+	}
+
+	public SqlpadCursorRegistry(SqlSelectManager sqlSelectManager)
+	{
+		super();
+		this.sqlSelectManager = sqlSelectManager;
+	}
+
+	public SqlSelectManager getSqlSelectManager()
+	{
+		return sqlSelectManager;
+	}
+
+	public void setSqlSelectManager(SqlSelectManager sqlSelectManager)
+	{
+		this.sqlSelectManager = sqlSelectManager;
+	}
+
+	public int getMaxIdleSeconds()
+	{
+		return maxIdleSeconds;
+	}
+
+	public void setMaxIdleSeconds(int maxIdleSeconds)
+	{
+		this.maxIdleSeconds = maxIdleSeconds;
+	}
+
+	public int getMaxCursorsPerUser()
+	{
+		return maxCursorsPerUser;
+	}
+
+	public void setMaxCursorsPerUser(int maxCursorsPerUser)
+	{
+		this.maxCursorsPerUser = maxCursorsPerUser;
+	}
+
+	/**
+	 * 是否启用游标保留。
+	 * 
+	 * @return
+	 */
+	public boolean isEnabled()
+	{
+		return (this.maxCursorsPerUser > 0);
+	}
+
+	/**
+	 * 注册游标。
+	 * <p>
+	 * 注册成功后，游标的{@linkplain Statement}、{@linkplain ResultSet}即由此注册表负责关闭，
+	 * 调用方不应再关闭它们。
+	 * </p>
+	 * <p>
+	 * 此方法会关闭超过用户游标数限制而被淘汰的游标，调用方不应持有任何{@linkplain CursorConnection}锁。
+	 * </p>
+	 * 
+	 * @param cursor
+	 * @return {@code false}表示未启用游标保留，游标未注册
+	 */
+	public boolean register(SqlpadCursor cursor)
+	{
+		List<SqlpadCursor> evicted = new ArrayList<>();
+
+		boolean registered = register(cursor, evicted);
+
+		for (SqlpadCursor c : evicted)
+			close(c);
+
+		return registered;
+	}
+
+	/**
+	 * 注册游标，但不关闭超过用户游标数限制而被淘汰的游标。
+	 * <p>
+	 * 被淘汰的游标已从注册表中移除，并被加入{@code evicted}，调用方应在释放其持有的{@linkplain CursorConnection}锁后，
+	 * 使用{@linkplain #close(SqlpadCursor)}关闭它们。
+	 * </p>
+	 * 
+	 * @param cursor
+	 * @param evicted
+	 *            用于接收被淘汰的游标
+	 * @return {@code false}表示未启用游标保留，游标未注册
+	 */
+	public synchronized boolean register(SqlpadCursor cursor, List<SqlpadCursor> evicted)
+	{
+		if (!isEnabled())
+			return false;
+
+		List<SqlpadCursor> userCursors = new ArrayList<>();
+		for (SqlpadCursor c : this._cursors.values())
+		{
+			if (c.getUserId().equals(cursor.getUserId()))
+				userCursors.add(c);
+		}
+
+		// 超过用户游标数限制时，关闭最久未访问的游标
+		while (userCursors.size() >= this.maxCursorsPerUser)
+		{
+			SqlpadCursor eldest = userCursors.get(0);
+			for (SqlpadCursor c : userCursors)
+			{
+				if (c.getLastAccessTime() < eldest.getLastAccessTime())
+					eldest = c;
+			}
+
+			userCursors.remove(eldest);
+
+			if (this._cursors.remove(eldest.getId(), eldest))
+				evicted.add(eldest);
+		}
+
+		cursor.getConnection().retain();
+		this._cursors.put(cursor.getId(), cursor);
+
+		return true;
+	}
+
+	/**
+	 * 从游标继续读取SQL查询结果。
+	 * <p>
+	 * 如果游标不存在、不属于指定用户和SQL工作台、当前位置不是{@code startRow}，或者读取出错，将返回{@code null}，
+	 * 调用方应回退为重新执行SQL；读取到结果集末尾时，游标将被关闭。
+	 * </p>
+	 * 
+	 * @param cursorId
+	 * @param userId
+	 * @param sqlpadId
+	 * @param sql
+	 * @param startRow
+	 * @param fetchSize
+	 * @return
+	 */
+	public SqlSelectResult select(String cursorId, String userId, String sqlpadId, String sql, int startRow,
+			int fetchSize)
+	{
+		SqlpadCursor cursor = this._cursors.get(cursorId);
+
+		if (cursor == null)
+			return null;
+
+		if (!cursor.getUserId().equals(userId) || !cursor.getSqlpadId().equals(sqlpadId)
+				|| !cursor.getSql().equals(sql))
+			return null;
+
+		SqlSelectResult result = null;
+
+		synchronized (cursor.getConnection())
+		{
+			if (cursor.isClosed())
+				return null;
+
+			// 不是从游标当前位置读取（比如刷新），游标已无用
+			if (cursor.getNextRow() != startRow)
+			{
+				close(cursor);
+				return null;
+			}
+
+			try
+			{
+				result = this.sqlSelectManager.selectNext(cursor.getConnection().getConnection(), cursor.getSql(),
+						cursor.getTable(), cursor.getResultSet(), startRow, fetchSize, cursor.getRowMapper());
+			}
+			catch (Throwable t)
+			{
+				LOGGER.debug("read cursor [" + cursorId + "] error, it will be closed :", t);
+
+				close(cursor);
+				return null;
+			}
+
+			cursor.setNextRow(result.getNextStartRow());
+			cursor.setLastAccessTime(System.currentTimeMillis());
+		}
+
+		if (result.hasMoreRow())
+			result.setCursorId(cursorId);
+		else
+			close(cursor);
+
+		return result;
+	}
+
+	/**
+	 * 关闭游标。
+	 * 
+	 * @param cursorId
+	 */
+	public void close(String cursorId)
+	{
+		SqlpadCursor cursor = this._cursors.get(cursorId);
+
+		if (cursor != null)
+			close(cursor);
+	}
+
+	/**
+	 * 关闭所有空闲超时的游标。
+	 */
+	public void closeExpired()
+	{
+		long expiredTime = System.currentTimeMillis() - this.maxIdleSeconds * 1000L;
+
+		for (SqlpadCursor cursor : this._cursors.values())
+		{
+			if (cursor.getLastAccessTime() < expiredTime)
+				close(cursor);
+		}
+	}
+
+	/**
+	 * 关闭所有游标。
+	 */
+	public void closeAll()
+	{
+		for (SqlpadCursor cursor : this._cursors.values())
+			close(cursor);
+	}
+
+	/**
+	 * 获取当前保留的游标数。
+	 * 
+	 * @return
+	 */
+	public int getCursorCount()
+	{
+		return this._cursors.size();
+	}
+
+	/**
+	 * 关闭游标。
+	 * <p>
+	 * 此方法会在游标的{@linkplain CursorConnection}上同步，调用方不应持有其他{@linkplain CursorConnection}锁。
+	 * </p>
+	 * 
+	 * @param cursor
+	 */
+	public void close(SqlpadCursor cursor)
+	{
+		this._cursors.remove(cursor.getId(), cursor);
+
+		CursorConnection connection = cursor.getConnection();
+
+		synchronized (connection)
+		{
+			if (cursor.isClosed())
+				return;
+
+			JdbcUtil.closeResultSet(cursor.getResultSet());
+			JdbcUtil.closeStatement(cursor.getStatement());
+			cursor.setClosed(true);
+		}
+
+		connection.release();
+	}
+
+	/**
+	 * 可被多个游标共享的{@linkplain Connection}。
+	 * <p>
+	 * 它使用引用计数，在最后一个持有者释放时才关闭{@linkplain Connection}，
+	 * 使得SQL执行结束后，仍可从保留的游标读取数据。
+	 * </p>
+	 * <p>
+	 * 使用同一{@linkplain Connection}的操作应在此对象上同步。
+	 * </p>
+	 * 
+	 * @author datagear@163.com
+	 *
+	 */
+	public static class CursorConnection
+	{
+		private final Connection connection;
+
+		private int referenceCount = 1;
+
+		/**
+		 * 创建实例，创建者即为第一个持有者。
+		 * 
+		 * @param connection
+		 */
+		public CursorConnection(Connection connection)
+		{
+			super();
+			this.connection = connection;
+		}
+
+		public Connection getConnection()
+		{
+			return connection;
+		}
+
+		/**
+		 * 结束当前事务，并恢复自动提交。
+		 * <p>
+		 * SQL执行结束后，连接可能仍被保留的游标使用，此时应调用此方法，避免连接在游标保留期间一直持有未结束的事务。
+		 * 未提交的修改将被回滚，与直接关闭连接的行为一致。
+		 * </p>
+		 */
+		public synchronized void endTransaction()
+		{
+			try
+			{
+				if (!this.connection.getAutoCommit())
+				{
+					JdbcUtil.rollbackIfSupports(this.connection);
+					JdbcUtil.setAutoCommitIfSupports(this.connection, true);
+				}
+			}
+			catch (Throwable t)
+			{
+				LOGGER.debug("end transaction of cursor connection error :", t);
+			}
+		}
+
+		/**
+		 * 增加一个持有者。
+		 */
+		public synchronized void retain()
+		{
+			this.referenceCount++;
+		}
+
+		/**
+		 * 释放一个持有者，没有持有者时将关闭{@linkplain Connection}。
+		 */
+		public synchronized void release()
+		{
+			this.referenceCount--;
+
+			if (this.referenceCount == 0)
+				JdbcUtil.closeConnection(this.connection);
+		}
+	}
+
+	/**
+	 * SQL工作台结果集游标。
+	 * 
+	 * @author datagear@163.com
+	 *
+	 */
+	public static class SqlpadCursor
+	{
+		private final String id;
+
+		private final String userId;
+
+		private final String sqlpadId;
+
+		private final String sql;
+
+		private final Table table;
+
+		private final CursorConnection connection;
+
+		private final Statement statement;
+
+		private final ResultSet resultSet;
+
+		private final RowMapper rowMapper;
+
+		/** 下一次读取的起始行号，以{@code 1}开头 */
+		private volatile int nextRow;
+
+		private volatile long lastAccessTime = System.currentTimeMillis();
+
+		private volatile boolean closed = false;
+
+		public SqlpadCursor(String id, String userId, String sqlpadId, String sql, Table table,
+				CursorConnection connection, Statement statement, ResultSet resultSet, RowMapper rowMapper,
+				int nextRow)
+		{
+			super();
+			this.id = id;
+			this.userId = userId;
+			this.sqlpadId = sqlpadId;
+			this.sql = sql;
+			this.table = table;
+			this.connection = connection;
+			this.statement = statement;
+			this.resultSet = resultSet;
+			this.rowMapper = rowMapper;
+			this.nextRow = nextRow;
+		}
+
+		public String getId()
+		{
+			return id;
+		}
+
+		public String getUserId()
+		{
+			return userId;
+		}
+
+		public String getSqlpadId()
+		{
+			return sqlpadId;
+		}
+
+		public String getSql()
+		{
+			return sql;
+		}
+
+		public Table getTable()
+		{
+			return table;
+		}
+
+		public CursorConnection getConnection()
+		{
+			return connection;
+		}
+
+		public Statement getStatement()
+		{
+			return statement;
+		}
+
+		public ResultSet getResultSet()
+		{
+			return resultSet;
+		}
+
+		public RowMapper getRowMapper()
+		{
+			return rowMapper;
+		}
+
+		public int getNextRow()
+		{
+			return nextRow;
+		}
+
+		public void setNextRow(int nextRow)
+		{
+			this.nextRow = nextRow;
+		}
+
+		public long getLastAccessTime()
+		{
+			return lastAccessTime;
+		}
+
+		public void setLastAccessTime(long lastAccessTime)
+		{
+			this.lastAccessTime = lastAccessTime;
+		}
+
+		public boolean isClosed()
+		{
+			return closed;
+		}
+
+		public void setClosed(boolean closed)
+		{
+			this.closed = closed;
+		}
+	}
+}
@@ -24,12 +24,16 @@ import org.datagear.connection.ConnectionSourceException;
 import org.datagear.management.domain.Schema;
 import org.datagear.management.service.SqlHistoryService;
 import org.datagear.management.util.SchemaConnectionSupport;
+import org.datagear.meta.Table;
 import org.datagear.persistence.support.PersistenceSupport;
 import org.datagear.persistence.support.SqlSelectManager;
 import org.datagear.persistence.support.SqlSelectResult;
+import org.datagear.util.IDUtil;
 import org.datagear.util.JdbcUtil;
 import org.datagear.util.SqlScriptParser.SqlStatement;
 import org.datagear.web.controller.SqlpadController.SqlpadFileDirectory;
+import org.datagear.web.sqlpad.SqlpadCursorRegistry.CursorConnection;
+import org.datagear.web.sqlpad.SqlpadCursorRegistry.SqlpadCursor;
 import org.datagear.web.util.MessageChannel;
 import org.datagear.web.util.OperationMessage;
 import org.springframework.context.MessageSource;
@@ -55,6 +59,9 @@ public class SqlpadExecutionService extends PersistenceSupport
 
 	private SchemaConnectionSupport schemaConnectionSupport = new SchemaConnectionSupport();
 
+	/** 结果集游标注册表，为{@code null}表示不保留游标 */
+	private SqlpadCursorRegistry sqlpadCursorRegistry = null;
+
 	private MessageChannel _messageChannel = new MessageChannel(
 			SqlpadExecutionSubmit.MAX_PAUSE_OVER_TIME_THREASHOLD_MINUTES * 60);
 
@@ -97,7 +104,7 @@ public class SqlpadExecutionService extends PersistenceSupport
 		this.messageSource = messageSource;
 	}
 
-	protected MessageChannel getMessageChannel()
+	public MessageChannel getMessageChannel()
 	{
 		return this._messageChannel;
 	}
@@ -142,6 +149,16 @@ public class SqlpadExecutionService extends PersistenceSupport
 		this.schemaConnectionSupport = schemaConnectionSupport;
 	}
 
+	public SqlpadCursorRegistry getSqlpadCursorRegistry()
+	{
+		return sqlpadCursorRegistry;
+	}
+
+	public void setSqlpadCursorRegistry(SqlpadCursorRegistry sqlpadCursorRegistry)
+	{
+		this.sqlpadCursorRegistry = sqlpadCursorRegistry;
+	}
+
 	/**
 	 * 提交SQL执行。
 	 * 
@@ -215,6 +232,21 @@ public class SqlpadExecutionService extends PersistenceSupport
 		return this.schemaConnectionSupport.getSchemaConnection(this.connectionSource, schema);
 	}
 
+	/**
+	 * 是否是变更表结构的DDL语句，比如：{@code CREATE}、{@code ALTER}、{@code DROP}。
+	 * 
+	 * @param sqlStatement
+	 * @return
+	 */
+	protected boolean isDdl(SqlStatement sqlStatement)
+	{
+		String sqlAction = this.sqlPermissionChecker.resolveSqlAction(sqlStatement.getSql());
+
+		return ("CREATE".equalsIgnoreCase(sqlAction) || "ALTER".equalsIgnoreCase(sqlAction)
+				|| "DROP".equalsIgnoreCase(sqlAction) || "RENAME".equalsIgnoreCase(sqlAction)
+				|| "COMMENT".equalsIgnoreCase(sqlAction));
+	}
+
 	/**
 	 * 发送执行开始消息。
 	 * 
@@ -473,6 +505,15 @@ public class SqlpadExecutionService extends PersistenceSupport
 		/** 发送给此Runnable的SQL命令 */
 		private volatile SqlCommand sqlCommand;
 
+		/** 等待SQL命令时使用的锁 */
+		private final Object sqlCommandLock = new Object();
+
+		/** 保留结果集游标时使用的共享连接，为{@code null}表示不保留游标 */
+		private CursorConnection cursorConnection = null;
+
+		/** 注册游标时被淘汰的游标，需在释放{@linkplain #cursorConnection}锁后关闭 */
+		private final List<SqlpadCursor> evictedCursors = new ArrayList<>();
+
 		public SqlpadExecutionRunnable()
 		{
 			super();
@@ -490,7 +531,11 @@ public class SqlpadExecutionService extends PersistenceSupport
 
 		public void setSqlCommand(SqlCommand sqlCommand)
 		{
-			this.sqlCommand = sqlCommand;
+			synchronized (this.sqlCommandLock)
+			{
+				this.sqlCommand = sqlCommand;
+				this.sqlCommandLock.notifyAll();
+			}
 		}
 
 		@Override
@@ -506,6 +551,10 @@ public class SqlpadExecutionService extends PersistenceSupport
 				cn = getSchemaConnection(getSchema());
 				JdbcUtil.setAutoCommitIfSupports(cn, false);
 				JdbcUtil.setReadonlyIfSupports(cn, false);
+
+				if (isRetainCursor())
+					this.cursorConnection = new CursorConnection(cn);
+
 				st = createStatement(cn);
 			}
 			catch (Throwable t)
@@ -527,6 +576,8 @@ public class SqlpadExecutionService extends PersistenceSupport
 
 			List<String> sqlHistories = new ArrayList<>();
 
+			boolean ddlExecuted = false;
+
 			try
 			{
 				for (int i = 0; i < totalCount; i++)
@@ -548,10 +599,16 @@ public class SqlpadExecutionService extends PersistenceSupport
 					{
 						try
 						{
-							execute(sqlExecutionStat, sqlpadFileDirectory, cn, st, sqlStatement, i);
+							// 结果集被游标保留时，后续SQL需使用新的Statement执行，避免关闭游标的结果集
+							if (execute(sqlExecutionStat, sqlpadFileDirectory, cn, st, sqlStatement, i))
+								st = createStatement(cn);
+
 							sqlExecutionStat.increaseSuccessCount();
 
 							sqlHistories.add(sqlStatement.getSql());
+
+							if (!ddlExecuted && isDdl(sqlStatement))
+								ddlExecuted = true;
 						}
 						catch (SQLException e)
 						{
@@ -593,7 +650,19 @@ public class SqlpadExecutionService extends PersistenceSupport
 			finally
 			{
 				JdbcUtil.closeStatement(st);
-				JdbcUtil.closeConnection(cn);
+
+				// 连接可能仍被保留的游标使用，由最后一个持有者关闭
+				if (this.cursorConnection != null)
+				{
+					this.cursorConnection.endTransaction();
+					this.cursorConnection.release();
+				}
+				else
+					JdbcUtil.closeConnection(cn);
+
+				// 执行DDL后表结构可能已变更
+				if (ddlExecuted)
+					SqlpadExecutionService.this.schemaConnectionSupport.invalidateDbMetaResolver(getSchema());
 
 				sqlExecutionStat.setTaskDuration(System.currentTimeMillis() - startTime);
 
@@ -631,11 +700,10 @@ public class SqlpadExecutionService extends PersistenceSupport
 				if (sendMessageIfPause)
 					sendSqlCommandMessage(this.sqlCommand, getOverTimeThreashold());
 
-				long waitStartTime = System.currentTimeMillis();
+				long waitEndTime = System.currentTimeMillis() + getOverTimeThreashold() * 60 * 1000;
 
-				while (SqlCommand.PAUSE.equals(this.sqlCommand)
-						&& (System.currentTimeMillis() - waitStartTime) <= getOverTimeThreashold() * 60 * 1000)
-					sleepForSqlCommand();
+				while (SqlCommand.PAUSE.equals(this.sqlCommand) && System.currentTimeMillis() < waitEndTime)
+					sleepForSqlCommand(SqlCommand.PAUSE, waitEndTime);
 
 				// 暂停超时
 				if (SqlCommand.PAUSE.equals(this.sqlCommand))
@@ -704,10 +772,12 @@ public class SqlpadExecutionService extends PersistenceSupport
 		{
 			boolean sendWatingMessage = false;
 
-			long waitStartTime = System.currentTimeMillis();
+			long waitEndTime = System.currentTimeMillis() + getOverTimeThreashold() * 60 * 1000;
+
+			SqlCommand sqlCommand = null;
 
-			while (!SqlCommand.COMMIT.equals(this.sqlCommand) && !SqlCommand.ROLLBACK.equals(this.sqlCommand)
-					&& (System.currentTimeMillis() - waitStartTime) <= getOverTimeThreashold() * 60 * 1000)
+			while (!SqlCommand.COMMIT.equals(sqlCommand = this.sqlCommand) && !SqlCommand.ROLLBACK.equals(sqlCommand)
+					&& System.currentTimeMillis() < waitEndTime)
 			{
 				if (!sendWatingMessage)
 				{
@@ -718,7 +788,7 @@ public class SqlpadExecutionService extends PersistenceSupport
 					sendWatingMessage = true;
 				}
 
-				sleepForSqlCommand();
+				sleepForSqlCommand(sqlCommand, waitEndTime);
 			}
 
 			// 等待超时
@@ -754,11 +824,46 @@ public class SqlpadExecutionService extends PersistenceSupport
 		 * @param st
 		 * @param sqlStatement
 		 * @param sqlStatementIndex
+		 * @return {@code true}表示{@code st}已被结果集游标保留，不能再用于执行SQL
 		 * @throws SQLException
 		 */
-		protected void execute(SQLExecutionStat sqlExecutionStat, SqlpadFileDirectory sqlpadFileDirectory,
+		protected boolean execute(SQLExecutionStat sqlExecutionStat, SqlpadFileDirectory sqlpadFileDirectory,
 				Connection cn, Statement st, SqlStatement sqlStatement, int sqlStatementIndex) throws SQLException
 		{
+			if (this.cursorConnection == null)
+				return doExecute(sqlExecutionStat, sqlpadFileDirectory, cn, st, sqlStatement, sqlStatementIndex);
+
+			try
+			{
+				// 游标可能正在被其他线程读取
+				synchronized (this.cursorConnection)
+				{
+					return doExecute(sqlExecutionStat, sqlpadFileDirectory, cn, st, sqlStatement, sqlStatementIndex);
+				}
+			}
+			finally
+			{
+				// 关闭游标需在其连接上同步，所以在释放此连接的锁后再关闭，避免与其他执行线程死锁
+				closeEvictedCursors();
+			}
+		}
+
+		protected void closeEvictedCursors()
+		{
+			if (this.evictedCursors.isEmpty())
+				return;
+
+			for (SqlpadCursor cursor : this.evictedCursors)
+				SqlpadExecutionService.this.sqlpadCursorRegistry.close(cursor);
+
+			this.evictedCursors.clear();
+		}
+
+		protected boolean doExecute(SQLExecutionStat sqlExecutionStat, SqlpadFileDirectory sqlpadFileDirectory,
+				Connection cn, Statement st, SqlStatement sqlStatement, int sqlStatementIndex) throws SQLException
+		{
+			boolean retained = false;
+
 			long startTime = System.currentTimeMillis();
 
 			// 禁用插入文件功能，因为没有应用场景
@@ -775,8 +880,32 @@ public class SqlpadExecutionService extends PersistenceSupport
 			{
 				ResultSet rs = st.getResultSet();
 
-				SqlSelectResult sqlSelectResult = SqlpadExecutionService.this.sqlSelectManager.select(cn, sql, rs, 1,
-						getResultsetFetchSize(), getResultsetRowMapper());
+				SqlSelectResult sqlSelectResult = null;
+
+				if (this.cursorConnection != null)
+				{
+					SqlSelectManager sqlSelectManager = SqlpadExecutionService.this.sqlSelectManager;
+
+					Table table = sqlSelectManager.buildTable(cn, rs);
+					sqlSelectResult = sqlSelectManager.selectNext(cn, sql, table, rs, 1, getResultsetFetchSize(),
+							getResultsetRowMapper());
+
+					if (sqlSelectResult.hasMoreRow())
+					{
+						SqlpadCursor cursor = new SqlpadCursor(IDUtil.uuid(), getUser().getId(), getSqlpadId(), sql,
+								table, this.cursorConnection, st, rs, getResultsetRowMapper(),
+								sqlSelectResult.getNextStartRow());
+
+						if (SqlpadExecutionService.this.sqlpadCursorRegistry.register(cursor, this.evictedCursors))
+						{
+							sqlSelectResult.setCursorId(cursor.getId());
+							retained = true;
+						}
+					}
+				}
+				else
+					sqlSelectResult = SqlpadExecutionService.this.sqlSelectManager.select(cn, sql, rs, 1,
+							getResultsetFetchSize(), getResultsetRowMapper());
 
 				sendSqlSuccessMessage(getSqlpadId(), sqlStatement, sqlStatementIndex, sqlSelectResult);
 			}
@@ -795,6 +924,8 @@ public class SqlpadExecutionService extends PersistenceSupport
 					sendSqlSuccessMessage(getSqlpadId(), sqlStatement, sqlStatementIndex);
 				}
 			}
+
+			return retained;
 		}
 
 		/**
@@ -823,20 +954,63 @@ public class SqlpadExecutionService extends PersistenceSupport
 			// 某些查询SQL语句并不支持ResultSet.TYPE_SCROLL_*（比如SQLServer的聚集列存储索引），
 			// 而这里调用的结果集都是从第一行开始，不会用到ResultSet.TYPE_SCROLL_*特性，
 			// 因而采用ResultSet.TYPE_FORWARD_ONLY，避免遇到上述情况而抛出异常
-			Statement st = createUpdateStatement(cn);
+			Statement st = null;
+
+			// 保留游标时，尽量使结果集在事务提交后仍然可读，驱动程序不支持时，读取游标失败将回退为重新执行SQL
+			if (this.cursorConnection != null)
+			{
+				try
+				{
+					st = cn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY,
+							ResultSet.HOLD_CURSORS_OVER_COMMIT);
+				}
+				catch (SQLException e)
+				{
+					st = null;
+				}
+			}
+
+			if (st == null)
+				st = createUpdateStatement(cn);
+
 			JdbcUtil.setFetchSizeIfSupports(st, getResultsetFetchSize());
 
 			return st;
 		}
 
 		/**
-		 * 睡眠等待SQL命令。
+		 * 是否保留查询结果集游标。
 		 * 
+		 * @return
+		 */
+		protected boolean isRetainCursor()
+		{
+			SqlpadCursorRegistry sqlpadCursorRegistry = SqlpadExecutionService.this.sqlpadCursorRegistry;
+			return (sqlpadCursorRegistry != null && sqlpadCursorRegistry.isEnabled());
+		}
+
+		/**
+		 * 阻塞等待SQL命令。
+		 * <p>
+		 * 当SQL命令不再是{@code current}，或者到达{@code waitEndTime}时返回。
+		 * </p>
+		 * 
+		 * @param current
+		 *            调用方最近读取的SQL命令，允许为{@code null}
+		 * @param waitEndTime
+		 *            等待截止时间毫秒数
 		 * @throws InterruptedException
 		 */
-		protected void sleepForSqlCommand() throws InterruptedException
+		protected void sleepForSqlCommand(SqlCommand current, long waitEndTime) throws InterruptedException
 		{
-			Thread.sleep(10);
+			synchronized (this.sqlCommandLock)
+			{
+				// 在锁内再次检查，避免错过等待前刚设置的命令
+				long waitTime = waitEndTime - System.currentTimeMillis();
+
+				if (this.sqlCommand == current && waitTime > 0)
+					this.sqlCommandLock.wait(waitTime);
+			}
 		}
 	}
 
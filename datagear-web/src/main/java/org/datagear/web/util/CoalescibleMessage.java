@@ -0,0 +1,25 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.web.util;
+
+/**
+ * 可合并的消息。
+ * <p>
+ * 用于进度之类的状态消息：推入{@linkplain MessageChannel}时，通道中尚未被拉取的、相同合并关键字的旧消息将被移除，
+ * 通道消息过多时，它也可以被丢弃。
+ * </p>
+ * 
+ * @author datagear@163.com
+ *
+ */
+public interface CoalescibleMessage
+{
+	/**
+	 * 获取合并关键字，不能为{@code null}。
+	 * 
+	 * @return
+	 */
+	Object getCoalesceKey();
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.web.util;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.datagear.analysis.Chart;
+import org.datagear.analysis.support.html.HtmlChart;
+import org.datagear.analysis.support.html.HtmlTplDashboard;
+import org.datagear.management.domain.User;
+
+/**
+ * 看板描述。
+ * <p>
+ * 它是已渲染{@linkplain HtmlTplDashboard}的精简描述，仅包含看板ID、模板、图表ID与图表部件ID的映射，
+ * 以及获取图表部件时使用的权限用户，可依此重建处理看板数据请求所需的{@linkplain HtmlTplDashboard}，
+ * 而无需保存整个{@linkplain HtmlTplDashboard}对象图。
+ * </p>
+ *
+ * @author datagear@163.com
+ *
+ */
+public class DashboardDescriptor implements Serializable
+{
+	private static final long serialVersionUID = 1L;
+
+	/** 看板ID */
+	private String id;
+
+	/** 看板部件ID */
+	private String widgetId;
+
+	/** 看板模板 */
+	private String template;
+
+	/** 获取图表部件时使用的权限用户 */
+	private User user;
+
+	/** 图表ID-图表部件ID映射表 */
+	private volatile Map<String, String> chartWidgetIds = Collections.emptyMap();
+
+	public DashboardDescriptor()
+	{
+		super();
+	}
+
+	public DashboardDescriptor(String id, String widgetId, String template, User user)
+	{
+		super();
+		this.id = id;
+		this.widgetId = widgetId;
+		this.template = template;
+		this.user = user;
+	}
+
+	public String getId()
+	{
+		return id;
+	}
+
+	public void setId(String id)
+	{
+		this.id = id;
+	}
+
+	public String getWidgetId()
+	{
+		return widgetId;
+	}
+
+	public void setWidgetId(String widgetId)
+	{
+		this.widgetId = widgetId;
+	}
+
+	public String getTemplate()
+	{
+		return template;
+	}
+
+	public void setTemplate(String template)
+	{
+		this.template = template;
+	}
+
+	public User getUser()
+	{
+		return user;
+	}
+
+	public void setUser(User user)
+	{
+		this.user = user;
+	}
+
+	/**
+	 * 获取图表ID-图表部件ID映射表。
+	 *
+	 * @return 不可修改的映射表
+	 */
+	public Map<String, String> getChartWidgetIds()
+	{
+		return chartWidgetIds;
+	}
+
+	public synchronized void setChartWidgetIds(Map<String, String> chartWidgetIds)
+	{
+		this.chartWidgetIds = Collections.unmodifiableMap(new LinkedHashMap<>(chartWidgetIds));
+	}
+
+	/**
+	 * 获取图表对应的图表部件ID。
+	 *
+	 * @param chartId
+	 * @return 返回{@code null}表示没有
+	 */
+	public String getChartWidgetId(String chartId)
+	{
+		return this.chartWidgetIds.get(chartId);
+	}
+
+	/**
+	 * 添加图表。
+	 *
+	 * @param chartId
+	 * @param chartWidgetId
+	 */
+	public synchronized void addChart(String chartId, String chartWidgetId)
+	{
+		Map<String, String> chartWidgetIds = new LinkedHashMap<>(this.chartWidgetIds);
+		chartWidgetIds.put(chartId, chartWidgetId);
+
+		this.chartWidgetIds = Collections.unmodifiableMap(chartWidgetIds);
+	}
+
+	@Override
+	public String toString()
+	{
+		return getClass().getSimpleName() + " [id=" + id + ", widgetId=" + widgetId + ", template=" + template
+				+ ", chartWidgetIds=" + chartWidgetIds + "]";
+	}
+
+	/**
+	 * 构建{@linkplain DashboardDescriptor}。
+	 *
+	 * @param dashboard
+	 * @param user
+	 *            获取图表部件时使用的权限用户，允许为{@code null}
+	 * @return
+	 */
+	public static DashboardDescriptor valueOf(HtmlTplDashboard dashboard, User user)
+	{
+		DashboardDescriptor descriptor = new DashboardDescriptor(dashboard.getId(),
+				(dashboard.getWidget() == null ? null : dashboard.getWidget().getId()), dashboard.getTemplate(),
+				(user == null ? null : User.copyWithoutPassword(user)));
+
+		Map<String, String> chartWidgetIds = new LinkedHashMap<>();
+
+		if (dashboard.getCharts() != null)
+		{
+			for (Chart chart : dashboard.getCharts())
+			{
+				if (chart instanceof HtmlChart)
+					chartWidgetIds.put(chart.getId(), ((HtmlChart) chart).getWidgetId());
+			}
+		}
+
+		descriptor.setChartWidgetIds(chartWidgetIds);
+
+		return descriptor;
+	}
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.web.util;
+
+/**
+ * {@linkplain DashboardDescriptor}管理器。
+ * <p>
+ * 看板展示时存储其{@linkplain DashboardDescriptor}，之后的看板数据请求依此重建看板。
+ * 实现类可以是本地的有界存储，也可以是多个节点共享的存储，以使看板数据请求可由任一节点处理。
+ * </p>
+ * <p>
+ * 实现类应是线程安全的。
+ * </p>
+ *
+ * @author datagear@163.com
+ *
+ */
+public interface DashboardDescriptorManager
+{
+	/**
+	 * 存储{@linkplain DashboardDescriptor}。
+	 *
+	 * @param descriptor
+	 */
+	void put(DashboardDescriptor descriptor);
+
+	/**
+	 * 获取{@linkplain DashboardDescriptor}。
+	 *
+	 * @param id
+	 *            看板ID
+	 * @return 返回{@code null}表示不存在或已过期
+	 */
+	DashboardDescriptor get(String id);
+
+	/**
+	 * 为指定看板添加图表。
+	 *
+	 * @param id
+	 *            看板ID
+	 * @param chartId
+	 * @param chartWidgetId
+	 * @return {@code false}表示看板不存在或已过期
+	 */
+	boolean addChart(String id, String chartId, String chartWidgetId);
+}
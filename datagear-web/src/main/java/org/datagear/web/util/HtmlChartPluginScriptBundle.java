@@ -0,0 +1,251 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.web.util;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.datagear.analysis.support.html.DirectoryHtmlChartPluginManager;
+import org.datagear.analysis.support.html.HtmlChartPlugin;
+import org.datagear.analysis.support.html.HtmlChartPluginScriptObjectWriter;
+import org.datagear.analysis.support.html.HtmlTplDashboardWidgetRenderer;
+import org.datagear.analysis.support.html.HtmlTplDashboardWidgetRenderer.ChartPluginVersionResolver;
+import org.springframework.util.DigestUtils;
+
+/**
+ * {@linkplain HtmlChartPlugin}脚本包。
+ * <p>
+ * 此类将{@linkplain DirectoryHtmlChartPluginManager}中的所有{@linkplain HtmlChartPlugin}，
+ * 以及{@linkplain HtmlTplDashboardWidgetRenderer#getHtmlChartPluginForGetWidgetException()}渲染为一个JS脚本（<code>chartPluginManager.js</code>），
+ * 并以脚本内容摘要作为版本号，看板仅需通过带版本号的地址引入它，浏览器即可长期缓存，而无需每次内联或重新校验。
+ * </p>
+ * <p>
+ * 脚本内容会被缓存，仅在插件集合（ID、最后修改时间）改变时才重新渲染。
+ * </p>
+ * <p>
+ * 此类是线程安全的。
+ * </p>
+ *
+ * @author datagear@163.com
+ *
+ */
+public class HtmlChartPluginScriptBundle implements ChartPluginVersionResolver
+{
+	private DirectoryHtmlChartPluginManager directoryHtmlChartPluginManager;
+
+	private HtmlChartPluginScriptObjectWriter htmlChartPluginScriptObjectWriter = new HtmlChartPluginScriptObjectWriter();
+
+	private volatile Bundle _bundle = null;
+
+	public HtmlChartPluginScriptBundle()
+	{
+		super();
+	}
+
+	public HtmlChartPluginScriptBundle(DirectoryHtmlChartPluginManager directoryHtmlChartPluginManager)
+	{
+		super();
+		this.directoryHtmlChartPluginManager = directoryHtmlChartPluginManager;
+	}
+
+	public DirectoryHtmlChartPluginManager getDirectoryHtmlChartPluginManager()
+	{
+		return directoryHtmlChartPluginManager;
+	}
+
+	public void setDirectoryHtmlChartPluginManager(DirectoryHtmlChartPluginManager directoryHtmlChartPluginManager)
+	{
+		this.directoryHtmlChartPluginManager = directoryHtmlChartPluginManager;
+	}
+
+	public HtmlChartPluginScriptObjectWriter getHtmlChartPluginScriptObjectWriter()
+	{
+		return htmlChartPluginScriptObjectWriter;
+	}
+
+	public void setHtmlChartPluginScriptObjectWriter(
+			HtmlChartPluginScriptObjectWriter htmlChartPluginScriptObjectWriter)
+	{
+		this.htmlChartPluginScriptObjectWriter = htmlChartPluginScriptObjectWriter;
+	}
+
+	@Override
+	public String resolve(HtmlTplDashboardWidgetRenderer renderer)
+	{
+		return getBundle(renderer).getVersion();
+	}
+
+	/**
+	 * 获取脚本包。
+	 *
+	 * @param renderer
+	 * @return
+	 */
+	public Bundle getBundle(HtmlTplDashboardWidgetRenderer renderer)
+	{
+		List<HtmlChartPlugin> plugins = getHtmlChartPlugins(renderer);
+		String signature = buildSignature(plugins);
+
+		Bundle bundle = this._bundle;
+
+		if (bundle != null && bundle.getSignature().equals(signature))
+			return bundle;
+
+		synchronized (this)
+		{
+			bundle = this._bundle;
+
+			if (bundle == null || !bundle.getSignature().equals(signature))
+			{
+				bundle = buildBundle(plugins, signature);
+				this._bundle = bundle;
+			}
+		}
+
+		return bundle;
+	}
+
+	protected List<HtmlChartPlugin> getHtmlChartPlugins(HtmlTplDashboardWidgetRenderer renderer)
+	{
+		List<HtmlChartPlugin> plugins = this.directoryHtmlChartPluginManager.getAll(HtmlChartPlugin.class);
+
+		List<HtmlChartPlugin> htmlChartPlugins = new ArrayList<>((plugins == null ? 0 : plugins.size()) + 1);
+
+		if (plugins != null)
+			htmlChartPlugins.addAll(plugins);
+
+		htmlChartPlugins.add(renderer.getHtmlChartPluginForGetWidgetException());
+
+		return htmlChartPlugins;
+	}
+
+	/**
+	 * 构建插件集合签名，签名不变则表示脚本内容不变。
+	 *
+	 * @param plugins
+	 * @return
+	 */
+	protected String buildSignature(List<HtmlChartPlugin> plugins)
+	{
+		StringBuilder sb = new StringBuilder();
+
+		for (HtmlChartPlugin plugin : plugins)
+			sb.append(plugin.getId()).append('@').append(plugin.getLastModified()).append(';');
+
+		return sb.toString();
+	}
+
+	protected Bundle buildBundle(List<HtmlChartPlugin> plugins, String signature)
+	{
+		long lastModified = -1;
+
+		for (HtmlChartPlugin plugin : plugins)
+			lastModified = Math.max(lastModified, plugin.getLastModified());
+
+		StringWriter stringWriter = new StringWriter();
+		PrintWriter out = new PrintWriter(stringWriter);
+
+		try
+		{
+			writeScript(out, plugins);
+		}
+		catch (IOException e)
+		{
+			throw new HtmlChartPluginScriptBundleException(e);
+		}
+
+		out.flush();
+
+		byte[] content = stringWriter.toString().getBytes(StandardCharsets.UTF_8);
+		String version = DigestUtils.md5DigestAsHex(content);
+
+		return new Bundle(signature, version, lastModified, content);
+	}
+
+	protected void writeScript(PrintWriter out, List<HtmlChartPlugin> plugins) throws IOException
+	{
+		out.println("(function(global)");
+		out.println("{");
+
+		out.println("var chartFactory = (global.chartFactory || (global.chartFactory = {}));");
+		out.println(
+				"var chartPluginManager = (chartFactory.chartPluginManager || (chartFactory.chartPluginManager = {}));");
+		out.println("chartPluginManager.plugins = (chartPluginManager.plugins || {});");
+
+		out.println();
+		out.println("//@deprecated 兼容1.8.1版本的window.chartPluginManager变量名，未来版本会移除");
+		out.println("global.chartPluginManager = chartPluginManager;");
+
+		out.println();
+		out.println("chartPluginManager.get = function(id){ return this.plugins[id]; };");
+		out.println();
+
+		for (int i = 0, len = plugins.size(); i < len; i++)
+		{
+			HtmlChartPlugin plugin = plugins.get(i);
+			String pluginVar = "plugin" + i;
+
+			this.htmlChartPluginScriptObjectWriter.write(out, plugin, pluginVar);
+
+			out.println("chartPluginManager.plugins[\"" + WebUtils.escapeJavaScriptStringValue(plugin.getId())
+					+ "\"] = " + pluginVar + ";");
+		}
+
+		out.println("})(this);");
+	}
+
+	/**
+	 * 脚本包。
+	 *
+	 * @author datagear@163.com
+	 *
+	 */
+	public static class Bundle
+	{
+		private final String signature;
+
+		/** 版本号：内容的MD5摘要 */
+		private final String version;
+
+		/** 插件集合的最后修改时间 */
+		private final long lastModified;
+
+		/** UTF-8编码的脚本内容 */
+		private final byte[] content;
+
+		public Bundle(String signature, String version, long lastModified, byte[] content)
+		{
+			super();
+			this.signature = signature;
+			this.version = version;
+			this.lastModified = lastModified;
+			this.content = content;
+		}
+
+		public String getSignature()
+		{
+			return signature;
+		}
+
+		public String getVersion()
+		{
+			return version;
+		}
+
+		public long getLastModified()
+		{
+			return lastModified;
+		}
+
+		public byte[] getContent()
+		{
+			return content;
+		}
+	}
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.web.util;
+
+/**
+ * {@linkplain HtmlChartPluginScriptBundle}异常。
+ * 
+ * @author datagear@163.com
+ *
+ */
+public class HtmlChartPluginScriptBundleException extends RuntimeException
+{
+	private static final long serialVersionUID = 1L;
+
+	public HtmlChartPluginScriptBundleException()
+	{
+		super();
+	}
+
+	public HtmlChartPluginScriptBundleException(String message)
+	{
+		super(message);
+	}
+
+	public HtmlChartPluginScriptBundleException(Throwable cause)
+	{
+		super(cause);
+	}
+
+	public HtmlChartPluginScriptBundleException(String message, Throwable cause)
+	{
+		super(message, cause);
+	}
+
+	public HtmlChartPluginScriptBundleException(String message, Throwable cause, boolean enableSuppression,
+			boolean writableStackTrace)
+	{
+		super(message, cause, enableSuppression, writableStackTrace);
+	}
+}
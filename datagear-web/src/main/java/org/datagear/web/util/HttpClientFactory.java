@@ -0,0 +1,204 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.web.util;
+
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.cache.CacheConfig;
+import org.apache.hc.client5.http.impl.cache.CachingHttpClients;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+/**
+ * HTTP客户端工厂。
+ * <p>
+ * 它创建使用连接池的{@linkplain CloseableHttpClient}，可设置连接池大小、超时时间、空闲连接回收时间，
+ * 并且可选启用遵循响应{@code ETag}、{@code Last-Modified}、{@code Cache-Control}等缓存头的HTTP缓存。
+ * </p>
+ * 
+ * @author datagear@163.com
+ * 
+ */
+public class HttpClientFactory
+{
+	/** 连接池最大连接数 */
+	private int maxConnTotal = 200;
+
+	/** 每个路由（目标主机）的最大连接数 */
+	private int maxConnPerRoute = 50;
+
+	/** 建立连接超时毫秒数 */
+	private long connectTimeout = 10000;
+
+	/** 等待响应超时毫秒数 */
+	private long responseTimeout = 60000;
+
+	/** 从连接池获取连接超时毫秒数 */
+	private long connectionRequestTimeout = 10000;
+
+	/** 空闲连接回收毫秒数，小于等于{@code 0}表示不回收 */
+	private long evictIdleTime = 60000;
+
+	/** 是否启用HTTP缓存 */
+	private boolean cacheEnabled = false;
+
+	/** HTTP缓存的最大条目数 */
+	private int cacheMaxEntries = 100;
+
+	/** HTTP缓存单个响应的最大字节数 */
+	private long cacheMaxObjectSize = 65536;
+
+	public HttpClientFactory()
+	{
+		super();
+	}
+
+	public int getMaxConnTotal()
+	{
+		return maxConnTotal;
+	}
+
+	public void setMaxConnTotal(int maxConnTotal)
+	{
+		this.maxConnTotal = maxConnTotal;
+	}
+
+	public int getMaxConnPerRoute()
+	{
+		return maxConnPerRoute;
+	}
+
+	public void setMaxConnPerRoute(int maxConnPerRoute)
+	{
+		this.maxConnPerRoute = maxConnPerRoute;
+	}
+
+	public long getConnectTimeout()
+	{
+		return connectTimeout;
+	}
+
+	public void setConnectTimeout(long connectTimeout)
+	{
+		this.connectTimeout = connectTimeout;
+	}
+
+	public long getResponseTimeout()
+	{
+		return responseTimeout;
+	}
+
+	public void setResponseTimeout(long responseTimeout)
+	{
+		this.responseTimeout = responseTimeout;
+	}
+
+	public long getConnectionRequestTimeout()
+	{
+		return connectionRequestTimeout;
+	}
+
+	public void setConnectionRequestTimeout(long connectionRequestTimeout)
+	{
+		this.connectionRequestTimeout = connectionRequestTimeout;
+	}
+
+	public long getEvictIdleTime()
+	{
+		return evictIdleTime;
+	}
+
+	public void setEvictIdleTime(long evictIdleTime)
+	{
+		this.evictIdleTime = evictIdleTime;
+	}
+
+	public boolean isCacheEnabled()
+	{
+		return cacheEnabled;
+	}
+
+	/**
+	 * 设置是否启用HTTP缓存。
+	 * <p>
+	 * HTTP缓存是共享缓存，仅缓存响应头允许缓存的响应，并且在缓存过期后使用{@code ETag}、{@code Last-Modified}进行条件请求验证。
+	 * </p>
+	 * <p>
+	 * 缓存保存在内存中，最多约占用{@linkplain #getCacheMaxEntries()}乘以{@linkplain #getCacheMaxObjectSize()}字节，默认不启用。
+	 * </p>
+	 * 
+	 * @param cacheEnabled
+	 */
+	public void setCacheEnabled(boolean cacheEnabled)
+	{
+		this.cacheEnabled = cacheEnabled;
+	}
+
+	public int getCacheMaxEntries()
+	{
+		return cacheMaxEntries;
+	}
+
+	public void setCacheMaxEntries(int cacheMaxEntries)
+	{
+		this.cacheMaxEntries = cacheMaxEntries;
+	}
+
+	public long getCacheMaxObjectSize()
+	{
+		return cacheMaxObjectSize;
+	}
+
+	public void setCacheMaxObjectSize(long cacheMaxObjectSize)
+	{
+		this.cacheMaxObjectSize = cacheMaxObjectSize;
+	}
+
+	/**
+	 * 创建{@linkplain CloseableHttpClient}。
+	 * 
+	 * @return
+	 */
+	public CloseableHttpClient create()
+	{
+		HttpClientBuilder builder = null;
+
+		if (this.cacheEnabled)
+			builder = CachingHttpClients.custom().setCacheConfig(buildCacheConfig());
+		else
+			builder = HttpClientBuilder.create();
+
+		builder.setConnectionManager(buildConnectionManager());
+		builder.setDefaultRequestConfig(buildRequestConfig());
+		builder.evictExpiredConnections();
+
+		if (this.evictIdleTime > 0)
+			builder.evictIdleConnections(TimeValue.ofMilliseconds(this.evictIdleTime));
+
+		return builder.build();
+	}
+
+	protected PoolingHttpClientConnectionManager buildConnectionManager()
+	{
+		return PoolingHttpClientConnectionManagerBuilder.create().setMaxConnTotal(this.maxConnTotal)
+				.setMaxConnPerRoute(this.maxConnPerRoute).build();
+	}
+
+	protected RequestConfig buildRequestConfig()
+	{
+		return RequestConfig.custom().setConnectTimeout(Timeout.ofMilliseconds(this.connectTimeout))
+				.setResponseTimeout(Timeout.ofMilliseconds(this.responseTimeout))
+				.setConnectionRequestTimeout(Timeout.ofMilliseconds(this.connectionRequestTimeout)).build();
+	}
+
+	protected CacheConfig buildCacheConfig()
+	{
+		return CacheConfig.custom().setMaxCacheEntries(this.cacheMaxEntries)
+				.setMaxObjectSize(this.cacheMaxObjectSize).setSharedCache(true).build();
+	}
+}
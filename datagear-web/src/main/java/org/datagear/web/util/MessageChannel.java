@@ -4,10 +4,11 @@
 
 package org.datagear.web.util;
 
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 
 import com.google.common.cache.CacheBuilder;
@@ -17,6 +18,16 @@ import com.google.common.cache.LoadingCache;
 /**
  * 消息通道。
  * <p>
+ * 每个通道的消息队列是有界的：推入{@linkplain CoalescibleMessage}时，将移除队列中相同合并关键字的旧消息；
+ * 队列消息数超过{@linkplain #getMaxQueueSize()}时，将优先丢弃最早的{@linkplain CoalescibleMessage}；
+ * 如果仍然超出（比如客户端长时间未拉取大量不可合并的消息），将丢弃最早的其他消息，
+ * 并在队列头部放置一个{@linkplain TruncatedMessage}，告知客户端有消息被丢弃。
+ * </p>
+ * <p>
+ * 除了立即拉取，还支持通过{@linkplain #pull(String, int, MessageReceiver)}等待拉取，
+ * 用于实现长轮询，避免客户端频繁空轮询。
+ * </p>
+ * <p>
  * 此类是线程安全的。
  * </p>
  * 
@@ -25,7 +36,12 @@ import com.google.common.cache.LoadingCache;
  */
 public class MessageChannel
 {
-	private LoadingCache<String, LinkedBlockingQueue<Object>> _cache;
+	public static final int DEFAULT_MAX_QUEUE_SIZE = 1000;
+
+	/** 每个通道的最大消息数 */
+	private int maxQueueSize = DEFAULT_MAX_QUEUE_SIZE;
+
+	private LoadingCache<String, ChannelQueue> _cache;
 
 	public MessageChannel()
 	{
@@ -39,16 +55,32 @@ public class MessageChannel
 		// 消息通道只允许超时，不允许被其他情况移除
 		this._cache = CacheBuilder.newBuilder().maximumSize(Integer.MAX_VALUE)
 				.expireAfterAccess(channelExpireSeconds, TimeUnit.SECONDS)
-				.build(new CacheLoader<String, LinkedBlockingQueue<Object>>()
+				.build(new CacheLoader<String, ChannelQueue>()
 				{
 					@Override
-					public LinkedBlockingQueue<Object> load(String key) throws Exception
+					public ChannelQueue load(String key) throws Exception
 					{
-						return new LinkedBlockingQueue<Object>();
+						return new ChannelQueue();
 					}
 				});
 	}
 
+	public MessageChannel(int channelExpireSeconds, int maxQueueSize)
+	{
+		this(channelExpireSeconds);
+		this.maxQueueSize = maxQueueSize;
+	}
+
+	public int getMaxQueueSize()
+	{
+		return maxQueueSize;
+	}
+
+	public void setMaxQueueSize(int maxQueueSize)
+	{
+		this.maxQueueSize = maxQueueSize;
+	}
+
 	/**
 	 * 推入消息。
 	 * 
@@ -57,10 +89,12 @@ public class MessageChannel
 	 */
 	public void push(String channel, Object... messages)
 	{
-		LinkedBlockingQueue<Object> queue = getChannelQueueNonNull(channel);
+		ChannelQueue queue = getChannelQueueNonNull(channel);
 
 		for (int i = 0; i < messages.length; i++)
-			queue.add(messages[i]);
+			queue.add(messages[i], this.maxQueueSize);
+
+		queue.notifyReceiver();
 	}
 
 	/**
@@ -73,9 +107,11 @@ public class MessageChannel
 	@SuppressWarnings("unchecked")
 	public <T> T pull(String channel)
 	{
-		LinkedBlockingQueue<Object> queue = getChannelQueueNonNull(channel);
+		ChannelQueue queue = getChannelQueueNonNull(channel);
+
+		List<Object> messages = queue.poll(1);
 
-		return (T) queue.poll();
+		return (messages.isEmpty() ? null : (T) messages.get(0));
 	}
 
 	/**
@@ -86,25 +122,48 @@ public class MessageChannel
 	 * @param count
 	 * @return 消息对象列表，返回空列表表示无消息
 	 */
+	@SuppressWarnings("unchecked")
 	public <T> List<T> pull(String channel, int count)
 	{
-		LinkedBlockingQueue<Object> queue = getChannelQueueNonNull(channel);
+		ChannelQueue queue = getChannelQueueNonNull(channel);
 
-		List<T> list = new LinkedList<T>();
+		return (List<T>) queue.poll(count);
+	}
 
-		for (int i = 0; i < count; i++)
-		{
-			@SuppressWarnings("unchecked")
-			T msg = (T) queue.poll();
+	/**
+	 * 等待拉取最多指定数量的消息。
+	 * <p>
+	 * 如果当前有消息，将立即交给{@code receiver}；否则，将在有消息推入时再交给它。
+	 * 每个通道同时只有一个等待的{@linkplain MessageReceiver}，新的将使旧的立即接收空消息列表。
+	 * 调用方应在等待超时时调用{@linkplain #cancel(String, MessageReceiver)}。
+	 * </p>
+	 * 
+	 * @param <T>
+	 * @param channel
+	 * @param count
+	 * @param receiver
+	 */
+	public <T> void pull(String channel, int count, MessageReceiver<T> receiver)
+	{
+		ChannelQueue queue = getChannelQueueNonNull(channel);
 
-			if (msg != null)
-				list.add(msg);
-		}
+		queue.setReceiver(receiver, count);
+		queue.notifyReceiver();
+	}
 
-		return list;
+	/**
+	 * 取消等待拉取。
+	 * 
+	 * @param channel
+	 * @param receiver
+	 */
+	public void cancel(String channel, MessageReceiver<?> receiver)
+	{
+		ChannelQueue queue = getChannelQueueNonNull(channel);
+		queue.removeReceiver(receiver);
 	}
 
-	protected LinkedBlockingQueue<Object> getChannelQueueNonNull(String channel)
+	protected ChannelQueue getChannelQueueNonNull(String channel)
 	{
 		try
 		{
@@ -115,4 +174,218 @@ public class MessageChannel
 			throw new MessageChannelException(e);
 		}
 	}
+
+	/**
+	 * 消息接收器。
+	 * 
+	 * @author datagear@163.com
+	 *
+	 * @param <T>
+	 */
+	public static interface MessageReceiver<T>
+	{
+		/**
+		 * 接收消息。
+		 * 
+		 * @param messages
+		 *            可能为空列表
+		 * @return {@code false}表示未能接收（比如已超时），消息将被放回通道
+		 */
+		boolean receive(List<T> messages);
+	}
+
+	/**
+	 * 消息丢弃通知。
+	 * <p>
+	 * 通道队列溢出而丢弃不可合并的消息时，此消息将被放在队列头部，连续的丢弃将合并至同一个通知。
+	 * </p>
+	 * 
+	 * @author datagear@163.com
+	 *
+	 */
+	public static class TruncatedMessage
+	{
+		public static final String TYPE = "TRUNCATED";
+
+		private int droppedCount = 0;
+
+		public TruncatedMessage()
+		{
+			super();
+		}
+
+		public String getType()
+		{
+			return TYPE;
+		}
+
+		/**
+		 * 获取被丢弃的消息数。
+		 * 
+		 * @return
+		 */
+		public int getDroppedCount()
+		{
+			return droppedCount;
+		}
+
+		protected void increaseDroppedCount()
+		{
+			this.droppedCount++;
+		}
+
+		@Override
+		public String toString()
+		{
+			return getClass().getSimpleName() + " [droppedCount=" + droppedCount + "]";
+		}
+	}
+
+	/**
+	 * 通道消息队列。
+	 * 
+	 * @author datagear@163.com
+	 *
+	 */
+	protected static class ChannelQueue
+	{
+		private final LinkedList<Object> messages = new LinkedList<>();
+
+		private MessageReceiver<?> receiver = null;
+
+		private int receiverCount = 0;
+
+		public ChannelQueue()
+		{
+			super();
+		}
+
+		public synchronized void add(Object message, int maxSize)
+		{
+			if (message instanceof CoalescibleMessage)
+			{
+				Object key = ((CoalescibleMessage) message).getCoalesceKey();
+
+				Iterator<Object> it = this.messages.iterator();
+				while (it.hasNext())
+				{
+					Object queued = it.next();
+
+					// 移除旧消息，新消息追加在末尾，以保持与其他消息的先后顺序
+					if (queued instanceof CoalescibleMessage
+							&& key.equals(((CoalescibleMessage) queued).getCoalesceKey()))
+					{
+						it.remove();
+						break;
+					}
+				}
+			}
+
+			this.messages.add(message);
+
+			// 超出时丢弃最早的可合并消息，它们的状态会被后续消息覆盖
+			if (this.messages.size() > maxSize)
+			{
+				Iterator<Object> it = this.messages.iterator();
+				while (this.messages.size() > maxSize && it.hasNext())
+				{
+					if (it.next() instanceof CoalescibleMessage)
+						it.remove();
+				}
+			}
+
+			// 仍超出时丢弃最早的其他消息，最新的消息（比如完成消息）总是被保留
+			if (this.messages.size() > maxSize)
+			{
+				TruncatedMessage truncated = null;
+
+				if (this.messages.getFirst() instanceof TruncatedMessage)
+					truncated = (TruncatedMessage) this.messages.removeFirst();
+				else
+					truncated = new TruncatedMessage();
+
+				// 为丢弃通知预留位置
+				int remainSize = Math.max(maxSize - 1, 1);
+
+				while (this.messages.size() > remainSize)
+				{
+					this.messages.removeFirst();
+					truncated.increaseDroppedCount();
+				}
+
+				this.messages.addFirst(truncated);
+			}
+		}
+
+		public synchronized List<Object> poll(int count)
+		{
+			if (this.messages.isEmpty())
+				return Collections.emptyList();
+
+			List<Object> list = new LinkedList<>();
+
+			for (int i = 0; i < count && !this.messages.isEmpty(); i++)
+				list.add(this.messages.poll());
+
+			return list;
+		}
+
+		public synchronized void addFirst(List<Object> messages)
+		{
+			for (int i = messages.size() - 1; i >= 0; i--)
+				this.messages.addFirst(messages.get(i));
+		}
+
+		public void setReceiver(MessageReceiver<?> receiver, int count)
+		{
+			MessageReceiver<?> prev = null;
+
+			synchronized (this)
+			{
+				prev = this.receiver;
+
+				this.receiver = receiver;
+				this.receiverCount = count;
+			}
+
+			if (prev != null)
+				deliver(prev, Collections.emptyList());
+		}
+
+		public synchronized void removeReceiver(MessageReceiver<?> receiver)
+		{
+			if (this.receiver == receiver)
+				this.receiver = null;
+		}
+
+		/**
+		 * 如果有等待的接收器且有消息，则将消息交给它。
+		 */
+		public void notifyReceiver()
+		{
+			MessageReceiver<?> receiver = null;
+			List<Object> messages = null;
+
+			synchronized (this)
+			{
+				if (this.receiver == null || this.messages.isEmpty())
+					return;
+
+				receiver = this.receiver;
+				this.receiver = null;
+
+				messages = poll(this.receiverCount);
+			}
+
+			// 在锁外交付，避免接收器的处理阻塞消息推入
+			if (!deliver(receiver, messages))
+				addFirst(messages);
+		}
+
+		@SuppressWarnings("unchecked")
+		protected boolean deliver(MessageReceiver<?> receiver, List<Object> messages)
+		{
+			return ((MessageReceiver<Object>) receiver).receive(messages);
+		}
+	}
 }
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.web.util;
+
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * 简单{@linkplain DashboardDescriptorManager}。
+ * <p>
+ * 它将{@linkplain DashboardDescriptor}存储在本地内存中，存储数超过{@linkplain #getMaximumSize()}时，
+ * 将移除最近最少访问的，超过{@linkplain #getExpireAfterAccessMinutes()}未被访问的也将被移除。
+ * </p>
+ * <p>
+ * 创建此类的实例后，需要调用{@linkplain #init()}执行初始化。
+ * </p>
+ * <p>
+ * 此类是线程安全的。
+ * </p>
+ *
+ * @author datagear@163.com
+ *
+ */
+public class SimpleDashboardDescriptorManager implements DashboardDescriptorManager
+{
+	/** 存储的最大数 */
+	private int maximumSize = 10000;
+
+	/** 过期分钟数 */
+	private int expireAfterAccessMinutes = 60 * 24;
+
+	private Cache<String, DashboardDescriptor> _cache = null;
+
+	public SimpleDashboardDescriptorManager()
+	{
+		super();
+	}
+
+	public int getMaximumSize()
+	{
+		return maximumSize;
+	}
+
+	public void setMaximumSize(int maximumSize)
+	{
+		this.maximumSize = maximumSize;
+	}
+
+	public int getExpireAfterAccessMinutes()
+	{
+		return expireAfterAccessMinutes;
+	}
+
+	public void setExpireAfterAccessMinutes(int expireAfterAccessMinutes)
+	{
+		this.expireAfterAccessMinutes = expireAfterAccessMinutes;
+	}
+
+	/**
+	 * 初始化。
+	 */
+	public void init()
+	{
+		this._cache = CacheBuilder.newBuilder().maximumSize(this.maximumSize)
+				.expireAfterAccess(this.expireAfterAccessMinutes, TimeUnit.MINUTES).build();
+	}
+
+	@Override
+	public void put(DashboardDescriptor descriptor)
+	{
+		this._cache.put(descriptor.getId(), descriptor);
+	}
+
+	@Override
+	public DashboardDescriptor get(String id)
+	{
+		return this._cache.getIfPresent(id);
+	}
+
+	@Override
+	public boolean addChart(String id, String chartId, String chartWidgetId)
+	{
+		DashboardDescriptor descriptor = this._cache.getIfPresent(id);
+
+		if (descriptor == null)
+			return false;
+
+		descriptor.addChart(chartId, chartWidgetId);
+
+		return true;
+	}
+}
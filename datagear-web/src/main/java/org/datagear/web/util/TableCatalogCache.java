@@ -0,0 +1,550 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.web.util;
+
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.datagear.management.domain.Schema;
+import org.datagear.meta.SimpleTable;
+import org.datagear.web.util.KeywordMatcher.KeywordInfo;
+import org.datagear.web.util.KeywordMatcher.MatchType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * {@linkplain Schema}表目录缓存。
+ * <p>
+ * 它缓存每个{@linkplain Schema}的{@linkplain SimpleTable}列表，并为其建立表名前缀、三元组索引，
+ * 使得按关键字查找表时无需每次都读取数据库元信息并逐一匹配。
+ * </p>
+ * <p>
+ * 缓存超过{@linkplain #getRefreshAfterSeconds()}秒后，仍会返回旧的表目录，同时在后台重新加载；
+ * 数据库表变更后，也可以通过{@linkplain #invalidate(String)}使其立即失效。
+ * </p>
+ *
+ * @author datagear@163.com
+ *
+ */
+public class TableCatalogCache
+{
+	private static final Logger LOGGER = LoggerFactory.getLogger(TableCatalogCache.class);
+
+	/** 缓存的最大表目录数 */
+	private int maximumSize = 100;
+
+	/** 缓存过期分钟数 */
+	private int expireAfterAccessMinutes = 60 * 72;
+
+	/** 缓存在后台重新加载的秒数，小于等于{@code 0}表示不重新加载 */
+	private int refreshAfterSeconds = 60 * 5;
+
+	private Cache<String, TableCatalog> _cache = null;
+
+	private ExecutorService _loadExecutor = null;
+
+	private ConcurrentMap<String, Boolean> _loadings = new ConcurrentHashMap<>();
+
+	/** 失效计数，用于丢弃失效前开始的后台加载结果 */
+	private AtomicLong _invalidateCount = new AtomicLong(0);
+
+	public TableCatalogCache()
+	{
+		super();
+	}
+
+	public int getMaximumSize()
+	{
+		return maximumSize;
+	}
+
+	public void setMaximumSize(int maximumSize)
+	{
+		this.maximumSize = maximumSize;
+	}
+
+	public int getExpireAfterAccessMinutes()
+	{
+		return expireAfterAccessMinutes;
+	}
+
+	public void setExpireAfterAccessMinutes(int expireAfterAccessMinutes)
+	{
+		this.expireAfterAccessMinutes = expireAfterAccessMinutes;
+	}
+
+	public int getRefreshAfterSeconds()
+	{
+		return refreshAfterSeconds;
+	}
+
+	public void setRefreshAfterSeconds(int refreshAfterSeconds)
+	{
+		this.refreshAfterSeconds = refreshAfterSeconds;
+	}
+
+	/**
+	 * 初始化。
+	 */
+	public void init()
+	{
+		this._cache = CacheBuilder.newBuilder().maximumSize(this.maximumSize)
+				.expireAfterAccess(this.expireAfterAccessMinutes * 60, TimeUnit.SECONDS).build();
+
+		this._loadExecutor = Executors.newSingleThreadExecutor(new ThreadFactory()
+		{
+			@Override
+			public Thread newThread(Runnable r)
+			{
+				Thread thread = new Thread(r, TableCatalogCache.class.getSimpleName());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * 关闭。
+	 */
+	public void shutdown()
+	{
+		if (this._loadExecutor != null)
+			this._loadExecutor.shutdownNow();
+	}
+
+	/**
+	 * 获取{@linkplain TableCatalog}。
+	 * <p>
+	 * 如果缓存已超过{@linkplain #getRefreshAfterSeconds()}秒，将返回它，并使用{@code loader}在后台重新加载。
+	 * </p>
+	 *
+	 * @param schemaId
+	 * @param loader
+	 *            后台加载器，它应自行获取、关闭数据库连接
+	 * @return 返回{@code null}表示没有缓存
+	 */
+	public TableCatalog get(String schemaId, TableCatalogLoader loader)
+	{
+		TableCatalog catalog = this._cache.getIfPresent(schemaId);
+
+		if (catalog != null && this.refreshAfterSeconds > 0
+				&& System.currentTimeMillis() - catalog.getLoadTime() > this.refreshAfterSeconds * 1000L)
+			loadAsync(schemaId, loader);
+
+		return catalog;
+	}
+
+	/**
+	 * 将表列表添加至缓存。
+	 *
+	 * @param schemaId
+	 * @param tables
+	 * @return
+	 */
+	public TableCatalog put(String schemaId, List<SimpleTable> tables)
+	{
+		TableCatalog catalog = new TableCatalog(tables);
+		this._cache.put(schemaId, catalog);
+
+		return catalog;
+	}
+
+	/**
+	 * 在后台加载{@linkplain TableCatalog}。
+	 * <p>
+	 * 同一{@linkplain Schema}同时只会有一个后台加载。
+	 * </p>
+	 *
+	 * @param schemaId
+	 * @param loader
+	 *            后台加载器，它应自行获取、关闭数据库连接
+	 */
+	public void loadAsync(final String schemaId, final TableCatalogLoader loader)
+	{
+		if (this._loadings.putIfAbsent(schemaId, Boolean.TRUE) != null)
+			return;
+
+		final long invalidateCount = this._invalidateCount.get();
+
+		try
+		{
+			this._loadExecutor.submit(new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					try
+					{
+						List<SimpleTable> tables = loader.load();
+
+						// 加载期间缓存已失效，那么加载结果可能已过时
+						if (invalidateCount == _invalidateCount.get())
+							put(schemaId, tables);
+					}
+					catch (Throwable t)
+					{
+						LOGGER.error("load table catalog for schema [" + schemaId + "] error", t);
+					}
+					finally
+					{
+						_loadings.remove(schemaId);
+					}
+				}
+			});
+		}
+		catch (RuntimeException e)
+		{
+			this._loadings.remove(schemaId);
+			throw e;
+		}
+	}
+
+	/**
+	 * 清除指定{@linkplain Schema} ID的表目录缓存。
+	 *
+	 * @param schemaId
+	 */
+	public void invalidate(String schemaId)
+	{
+		this._invalidateCount.incrementAndGet();
+		this._cache.invalidate(schemaId);
+	}
+
+	/**
+	 * 将关键字转换为{@linkplain DatabaseMetaData#getTables(String, String, String, String[])}的表名模式。
+	 * <p>
+	 * 只有数据库不区分未引用标识符的大小写时，模式匹配结果才与{@linkplain KeywordMatcher}一致，否则返回{@code null}。
+	 * </p>
+	 *
+	 * @param metaData
+	 * @param keyword
+	 *            允许为{@code null}
+	 * @return 返回{@code null}表示无法转换
+	 * @throws SQLException
+	 */
+	public String toTableNamePattern(DatabaseMetaData metaData, String keyword) throws SQLException
+	{
+		KeywordInfo keywordInfo = KeywordMatcher.resolveKeywordInfo(keyword);
+
+		if (keywordInfo == null)
+			return null;
+
+		if (metaData.supportsMixedCaseIdentifiers())
+			return null;
+
+		String pattern = keywordInfo.getKeyword();
+
+		if (metaData.storesUpperCaseIdentifiers())
+			pattern = pattern.toUpperCase();
+		else if (metaData.storesLowerCaseIdentifiers())
+			pattern = pattern.toLowerCase();
+
+		if (pattern.indexOf('_') > -1 || pattern.indexOf('%') > -1)
+		{
+			String escape = metaData.getSearchStringEscape();
+
+			if (escape == null || escape.isEmpty())
+				return null;
+
+			pattern = pattern.replace(escape, escape + escape).replace("_", escape + "_").replace("%", escape + "%");
+		}
+
+		if (MatchType.START.equals(keywordInfo.getMatchType()))
+			pattern = pattern + "%";
+		else if (MatchType.END.equals(keywordInfo.getMatchType()))
+			pattern = "%" + pattern;
+		else
+			pattern = "%" + pattern + "%";
+
+		return pattern;
+	}
+
+	/**
+	 * 表目录加载器。
+	 *
+	 * @author datagear@163.com
+	 *
+	 */
+	public static interface TableCatalogLoader
+	{
+		/**
+		 * 加载表列表。
+		 *
+		 * @return
+		 * @throws Throwable
+		 */
+		List<SimpleTable> load() throws Throwable;
+	}
+
+	/**
+	 * 表目录。
+	 * <p>
+	 * 表按名称排序，并建立了大写表名的前缀索引（排序数组）和三元组倒排索引。
+	 * </p>
+	 *
+	 * @author datagear@163.com
+	 *
+	 */
+	public static class TableCatalog
+	{
+		private static final int GRAM_LENGTH = 3;
+
+		private static final Comparator<SimpleTable> NAME_COMPARATOR = new Comparator<SimpleTable>()
+		{
+			@Override
+			public int compare(SimpleTable o1, SimpleTable o2)
+			{
+				return o1.getName().compareTo(o2.getName());
+			}
+		};
+
+		private final List<SimpleTable> tables;
+
+		private final long loadTime;
+
+		private final String[] upperNames;
+
+		/** 按大写表名排序的表索引 */
+		private final int[] prefixIndexes;
+
+		/** 三元组倒排索引，值为升序的表索引 */
+		private final Map<String, int[]> gramIndexes;
+
+		public TableCatalog(List<SimpleTable> tables)
+		{
+			super();
+
+			List<SimpleTable> sorted = new ArrayList<>(tables);
+			Collections.sort(sorted, NAME_COMPARATOR);
+
+			this.tables = Collections.unmodifiableList(sorted);
+			this.loadTime = System.currentTimeMillis();
+
+			int size = sorted.size();
+
+			this.upperNames = new String[size];
+			for (int i = 0; i < size; i++)
+				this.upperNames[i] = sorted.get(i).getName().toUpperCase();
+
+			Integer[] prefixIndexes = new Integer[size];
+			for (int i = 0; i < size; i++)
+				prefixIndexes[i] = i;
+
+			Arrays.sort(prefixIndexes, new Comparator<Integer>()
+			{
+				@Override
+				public int compare(Integer o1, Integer o2)
+				{
+					return upperNames[o1].compareTo(upperNames[o2]);
+				}
+			});
+
+			this.prefixIndexes = new int[size];
+			for (int i = 0; i < size; i++)
+				this.prefixIndexes[i] = prefixIndexes[i];
+
+			this.gramIndexes = buildGramIndexes(this.upperNames);
+		}
+
+		/**
+		 * 获取按名称排序的所有表。
+		 *
+		 * @return
+		 */
+		public List<SimpleTable> getTables()
+		{
+			return tables;
+		}
+
+		public long getLoadTime()
+		{
+			return loadTime;
+		}
+
+		/**
+		 * 按关键字查找表，关键字语法与{@linkplain KeywordMatcher}一致。
+		 *
+		 * @param keyword
+		 *            允许为{@code null}
+		 * @return 按名称排序的表列表
+		 */
+		public List<SimpleTable> find(String keyword)
+		{
+			KeywordInfo keywordInfo = KeywordMatcher.resolveKeywordInfo(keyword);
+
+			if (keywordInfo == null)
+				return this.tables;
+
+			String upperKeyword = keywordInfo.getUpperKeyword();
+
+			if (MatchType.START.equals(keywordInfo.getMatchType()))
+				return findByPrefix(upperKeyword);
+			else
+				return findByGram(upperKeyword, MatchType.END.equals(keywordInfo.getMatchType()));
+		}
+
+		protected List<SimpleTable> findByPrefix(String upperKeyword)
+		{
+			int low = 0;
+			int high = this.prefixIndexes.length;
+
+			// 第一个不小于关键字的位置
+			while (low < high)
+			{
+				int mid = (low + high) >>> 1;
+
+				if (this.upperNames[this.prefixIndexes[mid]].compareTo(upperKeyword) < 0)
+					low = mid + 1;
+				else
+					high = mid;
+			}
+
+			List<Integer> indexes = new ArrayList<>();
+
+			for (int i = low; i < this.prefixIndexes.length; i++)
+			{
+				int index = this.prefixIndexes[i];
+
+				if (!this.upperNames[index].startsWith(upperKeyword))
+					break;
+
+				indexes.add(index);
+			}
+
+			Collections.sort(indexes);
+
+			return toTables(indexes);
+		}
+
+		protected List<SimpleTable> findByGram(String upperKeyword, boolean endsWith)
+		{
+			int[] candidates = null;
+
+			if (upperKeyword.length() >= GRAM_LENGTH)
+			{
+				for (int i = 0; i + GRAM_LENGTH <= upperKeyword.length(); i++)
+				{
+					int[] postings = this.gramIndexes.get(upperKeyword.substring(i, i + GRAM_LENGTH));
+
+					if (postings == null)
+						return Collections.emptyList();
+
+					candidates = (candidates == null ? postings : intersect(candidates, postings));
+
+					if (candidates.length == 0)
+						return Collections.emptyList();
+				}
+			}
+
+			List<Integer> indexes = new ArrayList<>();
+
+			int count = (candidates == null ? this.upperNames.length : candidates.length);
+
+			for (int i = 0; i < count; i++)
+			{
+				int index = (candidates == null ? i : candidates[i]);
+				String upperName = this.upperNames[index];
+
+				if (endsWith ? upperName.endsWith(upperKeyword) : upperName.contains(upperKeyword))
+					indexes.add(index);
+			}
+
+			return toTables(indexes);
+		}
+
+		protected List<SimpleTable> toTables(List<Integer> indexes)
+		{
+			List<SimpleTable> re = new ArrayList<>(indexes.size());
+
+			for (Integer index : indexes)
+				re.add(this.tables.get(index));
+
+			return re;
+		}
+
+		protected int[] intersect(int[] a, int[] b)
+		{
+			int[] re = new int[Math.min(a.length, b.length)];
+			int count = 0;
+
+			for (int i = 0, j = 0; i < a.length && j < b.length;)
+			{
+				if (a[i] == b[j])
+				{
+					re[count++] = a[i];
+					i++;
+					j++;
+				}
+				else if (a[i] < b[j])
+					i++;
+				else
+					j++;
+			}
+
+			return Arrays.copyOf(re, count);
+		}
+
+		protected static Map<String, int[]> buildGramIndexes(String[] upperNames)
+		{
+			Map<String, List<Integer>> grams = new HashMap<>();
+
+			for (int i = 0; i < upperNames.length; i++)
+			{
+				String upperName = upperNames[i];
+				Set<String> nameGrams = new HashSet<>();
+
+				for (int j = 0; j + GRAM_LENGTH <= upperName.length(); j++)
+					nameGrams.add(upperName.substring(j, j + GRAM_LENGTH));
+
+				for (String gram : nameGrams)
+				{
+					List<Integer> postings = grams.get(gram);
+
+					if (postings == null)
+					{
+						postings = new ArrayList<>();
+						grams.put(gram, postings);
+					}
+
+					postings.add(i);
+				}
+			}
+
+			Map<String, int[]> re = new HashMap<>(grams.size());
+
+			for (Map.Entry<String, List<Integer>> entry : grams.entrySet())
+			{
+				List<Integer> postings = entry.getValue();
+				int[] array = new int[postings.size()];
+
+				for (int i = 0; i < array.length; i++)
+					array[i] = postings.get(i);
+
+				re.put(entry.getKey(), array);
+			}
+
+			return re;
+		}
+	}
+}
@@ -1214,6 +1214,13 @@
 	{
 		try
 		{
+			//服务端并发加载图表数据出错或者超时时，对应的数据集结果会包含errorMessage
+			for(var i=0; i<(results ? results.length : 0); i++)
+			{
+				if(results[i] && results[i].errorMessage != null)
+					throw new Error(results[i].errorMessage);
+			}
+			
 			this._doUpdateChart(chart, results);
 		}
 		catch(e)
@@ -24,6 +24,9 @@
 			//可选，总记录数
 			total: 0,
 			
+			//可选，总记录数是否是估算值，为true时将显示为"~总记录数"
+			totalEstimated: false,
+			
 			//可选，页大小选项
 			pageSizeOptions : [[5, 10], [20, 50], [100, 200], [500, 1000]],
 			
@@ -282,7 +285,7 @@
 			var pages =  ( pageSize < 1 ? 0 : Math.ceil(total/pageSize));
 			
 			var label = $(".label", this.element);
-			$(".label-rt", label).text(total);
+			$(".label-rt", label).text((this.options.totalEstimated ? "~" : "") + total);
 			$(".label-ps", label).text(pageSize);
 			$(".label-cp", label).text(page);
 			$(".label-tp", label).text(pages);
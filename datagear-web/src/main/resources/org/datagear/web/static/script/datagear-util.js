@@ -3477,6 +3477,8 @@
 					autoSuspendExpireSeconds: 10,
 					//自动挂起状态时的轮询间隔
 					autoSuspendInterval: 1500,
+					//长轮询秒数：服务端暂无消息时最多等待这些秒数再返回，0 表示不等待
+					waitSeconds: 0,
 					//ajax设置项
 					ajaxOptions: {}
 				},
@@ -3553,11 +3555,15 @@
 			
 			var taskClient = this;
 			
+			var data = this.options.data;
+			if(this.options.waitSeconds > 0)
+				data = $.extend({}, data, { waitSeconds: this.options.waitSeconds });
+			
 			var ajaxOptions = $.extend({}, this.options.ajaxOptions,
 					{
 						type : "POST",
 						url : this.url,
-						data : this.options.data,
+						data : data,
 						success : function(messages)
 						{
 							if(messages == null)
@@ -1,5 +1,5 @@
 <#--
-数据集表单页：名称输入框片段
+数据集表单页：名称、缓存秒数输入框片段
 -->
 <input type="hidden" name="id" value="${(dataSet.id)!''}" />
 <div class="form-item form-item-name form-item-analysisProjectAware">
@@ -10,4 +10,12 @@
 		<input type="text" name="name" value="${(dataSet.name)!''}" class="ui-widget ui-widget-content" />
 	</div>
 	<#include "../../include/analysisProjectAware_form_select.ftl" >
+</div>
+<div class="form-item form-item-cacheTtl">
+	<div class="form-item-label">
+		<label title="<@spring.message code='dataSet.cacheTtl.desc' />"><@spring.message code='dataSet.cacheTtl' /></label>
+	</div>
+	<div class="form-item-value">
+		<input type="text" name="cacheTtl" value="${((dataSet.cacheTtl)!0)?c}" class="ui-widget ui-widget-content digits" />
+	</div>
 </div>
\ No newline at end of file
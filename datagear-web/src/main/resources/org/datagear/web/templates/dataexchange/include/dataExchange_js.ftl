@@ -57,7 +57,8 @@ po.subDataExchangeStatusColumnIndex 子数据交换表格中状态列索引
 				return po.handleDataExchangeMessage(message);
 			},
 			{
-				data: { dataExchangeId: po.dataExchangeId }
+				data: { dataExchangeId: po.dataExchangeId },
+				waitSeconds: 20
 			}
 		);
 	
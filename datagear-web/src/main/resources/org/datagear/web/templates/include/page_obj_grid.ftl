@@ -47,7 +47,7 @@ page_js_obj.jsp
 	po.dataTableAjaxSuccess = function(pagingData, textStatus, jqXHR)
 	{
 		if(po.refreshPagination)
-			po.refreshPagination(pagingData.total, pagingData.page, pagingData.pageSize);
+			po.refreshPagination(pagingData.total, pagingData.page, pagingData.pageSize, pagingData.totalEstimated);
 		
 		po.pageParamCall("dataTableAjaxSuccess", pagingData, textStatus, jqXHR);
 	};
@@ -123,6 +123,8 @@ page_js_obj.jsp
 				
 				var param = $.extend({ "orders" : nameOrder }, myData);
 				
+				po.setPagingSeekParam(param);
+				
 				$.ajaxJson(
 				{
 					url : url,
@@ -135,6 +137,8 @@ page_js_obj.jsp
 						
 						if(isPagingData)
 						{
+							po.updatePagingSeek(param, data);
+							
 							data.data = data.items;
 							callback(data);
 						}
@@ -155,6 +159,49 @@ page_js_obj.jsp
 		return po.buildDataTableSettings(settings);
 	};
 	
+	/**
+	 * 如果请求的是上一次分页数据的下一页，且查询条件、排序未变，则添加键集分页参数。
+	 */
+	po.setPagingSeekParam = function(param)
+	{
+		var seek = po.pagingSeek;
+		
+		if(seek && param.page == seek.page + 1 && param.pageSize == seek.pageSize
+				&& seek.queryJson == po.pagingSeekQueryJson(param))
+		{
+			param.seekPage = seek.page;
+			param.seekValues = seek.values;
+		}
+	};
+	
+	po.updatePagingSeek = function(param, pagingData)
+	{
+		if(pagingData.seekValues)
+		{
+			po.pagingSeek =
+			{
+				"page" : pagingData.page,
+				"pageSize" : pagingData.pageSize,
+				"values" : pagingData.seekValues,
+				"queryJson" : po.pagingSeekQueryJson(param)
+			};
+		}
+		else
+			po.pagingSeek = null;
+	};
+	
+	po.pagingSeekQueryJson = function(param)
+	{
+		var query = $.extend({}, param);
+		
+		delete query.page;
+		delete query.pageSize;
+		delete query.seekPage;
+		delete query.seekValues;
+		
+		return $.toJsonString(query);
+	};
+	
 	/**
 	 * 构建本地数据表格选项。
 	 * @param columns 必选，列元数据
@@ -46,10 +46,11 @@ po.paging = undefined;
 		});
 	};
 	
-	po.refreshPagination = function(total, page, pageSize)
+	po.refreshPagination = function(total, page, pageSize, totalEstimated)
 	{
 		po.pagination()
 		.pagination("option", "total", total)
+		.pagination("option", "totalEstimated", (totalEstimated == true))
 		.pagination("option", "pageSize", pageSize)
 		.pagination("option", "page", page)
 		.pagination("refresh");
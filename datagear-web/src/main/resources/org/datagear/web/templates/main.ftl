@@ -361,6 +361,9 @@ ${detectNewVersionScript?no_esc}
 		$tree.jstree(true).refresh(true);
 	};
 	
+	//需要重新加载表目录的数据源ID
+	po.reloadTableSchemaIds = {};
+	
 	po.initSchemaPanelContent = function($element)
 	{
 		$element.jstree
@@ -385,7 +388,15 @@ ${detectNewVersionScript?no_esc}
 						}
 						else if(po.isSchemaNode(node))
 						{
-							$.ajaxJson(po.concatContextPath("schema", node.id, "pagingQueryTable"),
+							var url = po.concatContextPath("schema", node.id, "pagingQueryTable");
+							
+							if(po.reloadTableSchemaIds[node.id])
+							{
+								delete po.reloadTableSchemaIds[node.id];
+								url += "?reload=true";
+							}
+							
+							$.ajaxJson(url,
 							{
 								data: po.getSearchSchemaFormDataForTable(),
 								success: function(pagingData)
@@ -1188,7 +1199,10 @@ ${detectNewVersionScript?no_esc}
 						for(var i=0; i<selNodes.length; i++)
 						{
 							if(po.isSchemaNode(selNodes[i]))
+							{
+								po.reloadTableSchemaIds[selNodes[i].id] = true;
 								jstree.refresh_node(selNodes[i]);
+							}
 						}
 					}
 				}
@@ -83,7 +83,7 @@ readonly 是否只读操作，允许为null
 				</div>
 			</div>
 			</#if>
-			<div class="form-item" id="schemaDriverEntityFormItem">
+			<div class="form-item schema-advanced-form-item" id="schemaDriverEntityFormItem">
 				<div class="form-item-label">
 					<label title="<@spring.message code='schema.driverEntity.desc' />">
 						<@spring.message code='schema.driverEntity' />
@@ -102,6 +102,66 @@ readonly 是否只读操作，允许为null
 					</#if>
 				</div>
 			</div>
+			<div class="form-item schema-advanced-form-item">
+				<div class="form-item-label">
+					<label title="<@spring.message code='schema.fetchSize.desc' />">
+						<@spring.message code='schema.fetchSize' />
+					</label>
+				</div>
+				<div class="form-item-value">
+					<input type="text" name="fetchSize" value="${((schema.fetchSize)!0)?c}" class="ui-widget ui-widget-content" />
+				</div>
+			</div>
+			<div class="form-item schema-advanced-form-item">
+				<div class="form-item-label">
+					<label title="<@spring.message code='schema.poolMaxTotal.desc' />">
+						<@spring.message code='schema.poolMaxTotal' />
+					</label>
+				</div>
+				<div class="form-item-value">
+					<input type="text" name="poolMaxTotal" value="${((schema.poolMaxTotal)!0)?c}" class="ui-widget ui-widget-content" />
+				</div>
+			</div>
+			<div class="form-item schema-advanced-form-item">
+				<div class="form-item-label">
+					<label title="<@spring.message code='schema.poolMinIdle.desc' />">
+						<@spring.message code='schema.poolMinIdle' />
+					</label>
+				</div>
+				<div class="form-item-value">
+					<input type="text" name="poolMinIdle" value="${((schema.poolMinIdle)!0)?c}" class="ui-widget ui-widget-content" />
+				</div>
+			</div>
+			<div class="form-item schema-advanced-form-item">
+				<div class="form-item-label">
+					<label title="<@spring.message code='schema.poolMaxWait.desc' />">
+						<@spring.message code='schema.poolMaxWait' />
+					</label>
+				</div>
+				<div class="form-item-value">
+					<input type="text" name="poolMaxWait" value="${((schema.poolMaxWait)!0)?c}" class="ui-widget ui-widget-content" />
+				</div>
+			</div>
+			<div class="form-item schema-advanced-form-item">
+				<div class="form-item-label">
+					<label title="<@spring.message code='schema.poolMaxIdleTime.desc' />">
+						<@spring.message code='schema.poolMaxIdleTime' />
+					</label>
+				</div>
+				<div class="form-item-value">
+					<input type="text" name="poolMaxIdleTime" value="${((schema.poolMaxIdleTime)!0)?c}" class="ui-widget ui-widget-content" />
+				</div>
+			</div>
+			<div class="form-item schema-advanced-form-item">
+				<div class="form-item-label">
+					<label title="<@spring.message code='schema.poolValidationQuery.desc' />">
+						<@spring.message code='schema.poolValidationQuery' />
+					</label>
+				</div>
+				<div class="form-item-value">
+					<input type="text" name="poolValidationQuery" value="${(schema.poolValidationQuery)!''}" class="ui-widget ui-widget-content" />
+				</div>
+			</div>
 			<#if !readonly>
 			<div class="form-item">
 				<div class="form-item-label">
@@ -129,8 +189,14 @@ readonly 是否只读操作，允许为null
 (function(po)
 {
 	po.driverEntityFormItemValue = function(){ return this.element("#driverEntityFormItemValue"); };
-	po.schemaDriverEntityFormItem = function(){ return this.element("#schemaDriverEntityFormItem"); };
+	po.schemaAdvancedFormItems = function(){ return this.element(".schema-advanced-form-item"); };
 	po.isDriverEntityEmpty = (po.element("input[name='driverEntity.id']").val() == "");
+	po.isFetchSizeDefault = (po.element("input[name='fetchSize']").val() == "0");
+	po.isPoolDefault = (po.element("input[name='poolMaxTotal']").val() == "0"
+			&& po.element("input[name='poolMinIdle']").val() == "0"
+			&& po.element("input[name='poolMaxWait']").val() == "0"
+			&& po.element("input[name='poolMaxIdleTime']").val() == "0"
+			&& po.element("input[name='poolValidationQuery']").val() == "");
 	
 	po.element("#schemaBuildUrlHelp").click(function()
 	{
@@ -197,12 +263,42 @@ readonly 是否只读操作，允许为null
 		rules :
 		{
 			title : "required",
-			url : "required"
+			url : "required",
+			fetchSize : {"required": true, "integer": true},
+			poolMaxTotal : {"required": true, "integer": true},
+			poolMinIdle : {"required": true, "integer": true},
+			poolMaxWait : {"required": true, "integer": true},
+			poolMaxIdleTime : {"required": true, "integer": true}
 		},
 		messages :
 		{
 			title : "<@spring.message code='validation.required' />",
-			url : "<@spring.message code='validation.required' />"
+			url : "<@spring.message code='validation.required' />",
+			fetchSize :
+			{
+				"required" : "<@spring.message code='validation.required' />",
+				"integer" : "<@spring.message code='validation.integer' />"
+			},
+			poolMaxTotal :
+			{
+				"required" : "<@spring.message code='validation.required' />",
+				"integer" : "<@spring.message code='validation.integer' />"
+			},
+			poolMinIdle :
+			{
+				"required" : "<@spring.message code='validation.required' />",
+				"integer" : "<@spring.message code='validation.integer' />"
+			},
+			poolMaxWait :
+			{
+				"required" : "<@spring.message code='validation.required' />",
+				"integer" : "<@spring.message code='validation.integer' />"
+			},
+			poolMaxIdleTime :
+			{
+				"required" : "<@spring.message code='validation.required' />",
+				"integer" : "<@spring.message code='validation.integer' />"
+			}
 		},
 		submitHandler : function(form)
 		{
@@ -250,17 +346,17 @@ readonly 是否只读操作，允许为null
 	
 	$.initButtons(po.element());
 	
-	if(po.isDriverEntityEmpty)
-		po.schemaDriverEntityFormItem().hide();
+	if(po.isDriverEntityEmpty && po.isFetchSizeDefault && po.isPoolDefault)
+		po.schemaAdvancedFormItems().hide();
 	
 	$("#schemaAdvancedSet", po.page).button(
 	{
-		icon: (po.schemaDriverEntityFormItem().is(":hidden") ? "ui-icon-triangle-1-s" : "ui-icon-triangle-1-n"),
+		icon: (po.schemaAdvancedFormItems().is(":hidden") ? "ui-icon-triangle-1-s" : "ui-icon-triangle-1-n"),
 		showLabel: false
 	})
 	.click(function()
 	{
-		var item = po.schemaDriverEntityFormItem();
+		var item = po.schemaAdvancedFormItems();
 		
 		if(item.is(":hidden"))
 		{
@@ -195,7 +195,8 @@ Schema schema 数据库，不允许为null
 				return po.handleMessage(message);
 			},
 			{
-				data: { sqlpadId: po.sqlpadId }
+				data: { sqlpadId: po.sqlpadId },
+				waitSeconds: 20
 			}
 		);
 	
@@ -521,6 +522,13 @@ Schema schema 数据库，不允许为null
 			$("<div />").html(msgData.text).appendTo($msgContent);
 			po.appendSQLExecutionStatMessage($msgContent, msgData.sqlExecutionStat);
 		}
+		else if(msgDataType == "TRUNCATED")
+		{
+			$msgDiv.addClass("execution-exception");
+			
+			<#assign messageArgs=['"+msgData.droppedCount+"'] />
+			$("<div />").html("<@spring.messageArgs code='sqlpad.executionMessageTruncated' args=messageArgs />").appendTo($msgContent);
+		}
 		else if(msgDataType == "FINISH")
 		{
 			isFinish = true;
@@ -672,6 +680,7 @@ Schema schema 数据库，不允许为null
 	    $("<textarea name='sql' />").val(sql).appendTo(form);
 	    $("<input name='startRow' type='hidden' />").val(sqlSelectResult.nextStartRow).appendTo(form);
 	    $("<input name='fetchSize' type='hidden' />").val(sqlSelectResult.fetchSize).appendTo(form);
+	    $("<input name='cursorId' type='hidden' />").val(sqlSelectResult.cursorId || "").appendTo(form);
 
 	    if(sqlSelectResult.rows == null || sqlSelectResult.rows.length < sqlSelectResult.fetchSize)
 	    {
@@ -702,6 +711,7 @@ Schema schema 数据库，不允许为null
 	   				success : function(sqlSelectResult, statusText, xhr, $form)
 	   				{
 	   					$("input[name='startRow']", $form).val(sqlSelectResult.nextStartRow);
+	   					$("input[name='cursorId']", $form).val(sqlSelectResult.cursorId || "");
 	   					
 	   					var tabId = $form.attr("tab-id");
 	   					var tabPanel = po.getTabsTabPanelByTabId(po.sqlResultTabs, tabId);
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.web.util;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+
+import org.datagear.analysis.support.html.DirectoryHtmlChartPluginManager;
+import org.datagear.analysis.support.html.HtmlChartPlugin;
+import org.datagear.analysis.support.html.HtmlTplDashboardWidgetHtmlRenderer;
+import org.datagear.analysis.support.html.StringJsChartRenderer;
+import org.datagear.util.FileUtil;
+import org.datagear.util.i18n.Label;
+import org.datagear.web.util.HtmlChartPluginScriptBundle.Bundle;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * {@linkplain HtmlChartPluginScriptBundle}单元测试类。
+ * 
+ * @author datagear@163.com
+ *
+ */
+public class HtmlChartPluginScriptBundleTest
+{
+	@Test
+	public void getBundleTest() throws Exception
+	{
+		File directory = FileUtil.getDirectory("target/HtmlChartPluginScriptBundleTest", true);
+		FileUtil.clearDirectory(directory);
+
+		DirectoryHtmlChartPluginManager pluginManager = new DirectoryHtmlChartPluginManager(directory);
+		pluginManager.init();
+
+		HtmlChartPluginScriptBundle scriptBundle = new HtmlChartPluginScriptBundle(pluginManager);
+		HtmlTplDashboardWidgetHtmlRenderer renderer = new HtmlTplDashboardWidgetHtmlRenderer();
+
+		Bundle bundle0 = scriptBundle.getBundle(renderer);
+		Bundle bundle1 = scriptBundle.getBundle(renderer);
+
+		// 插件未改变，复用脚本包
+		Assert.assertTrue(bundle0 == bundle1);
+		Assert.assertEquals(bundle0.getVersion(), scriptBundle.resolve(renderer));
+
+		HtmlChartPlugin plugin = new HtmlChartPlugin("testPlugin", new Label("testPlugin"),
+				new StringJsChartRenderer("{ render: function(chart){} }"));
+		plugin.setLastModified(System.currentTimeMillis());
+		pluginManager.register(plugin);
+
+		Bundle bundle2 = scriptBundle.getBundle(renderer);
+
+		// 插件改变，版本号随之改变
+		Assert.assertFalse(bundle0 == bundle2);
+		Assert.assertNotEquals(bundle0.getVersion(), bundle2.getVersion());
+
+		String content = new String(bundle2.getContent(), StandardCharsets.UTF_8);
+		Assert.assertTrue(content.contains("chartPluginManager.plugins[\"testPlugin\"]"));
+		Assert.assertTrue(content.contains(renderer.getHtmlChartPluginForGetWidgetException().getId()));
+	}
+}
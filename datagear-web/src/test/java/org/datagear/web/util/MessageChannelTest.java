@@ -0,0 +1,144 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.web.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.datagear.web.util.MessageChannel.MessageReceiver;
+import org.datagear.web.util.MessageChannel.TruncatedMessage;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * {@linkplain MessageChannel}单元测试类。
+ *
+ * @author datagear@163.com
+ *
+ */
+public class MessageChannelTest
+{
+	@Test
+	public void pushTest_coalesce()
+	{
+		MessageChannel messageChannel = new MessageChannel();
+
+		messageChannel.push("c", "start", new Progress("a", 1), new Progress("b", 1), new Progress("a", 2), "finish");
+
+		List<Object> messages = messageChannel.pull("c", 10);
+
+		Assert.assertEquals(4, messages.size());
+		Assert.assertEquals("start", messages.get(0));
+		Assert.assertEquals("b", ((Progress) messages.get(1)).key);
+		Assert.assertEquals(2, ((Progress) messages.get(2)).count);
+		Assert.assertEquals("finish", messages.get(3));
+	}
+
+	@Test
+	public void pushTest_bounded()
+	{
+		MessageChannel messageChannel = new MessageChannel(60, 3);
+
+		messageChannel.push("c", "start", new Progress("a", 1), new Progress("b", 1), new Progress("c", 1), "e0",
+				"e1");
+
+		List<Object> messages = messageChannel.pull("c", 10);
+
+		// 优先丢弃可合并消息
+		Assert.assertEquals(3, messages.size());
+		Assert.assertEquals("start", messages.get(0));
+		Assert.assertEquals("e0", messages.get(1));
+		Assert.assertEquals("e1", messages.get(2));
+	}
+
+	@Test
+	public void pushTest_truncated()
+	{
+		MessageChannel messageChannel = new MessageChannel(60, 3);
+
+		messageChannel.push("c", "start", new Progress("a", 1), "e0", "e1", "e2", "e3", "finish");
+
+		List<Object> messages = messageChannel.pull("c", 10);
+
+		// 丢弃最早的消息，并在头部放置合并的丢弃通知
+		Assert.assertEquals(3, messages.size());
+		Assert.assertEquals(4, ((TruncatedMessage) messages.get(0)).getDroppedCount());
+		Assert.assertEquals("e3", messages.get(1));
+		Assert.assertEquals("finish", messages.get(2));
+	}
+
+	@Test
+	public void pullTest_receiver()
+	{
+		MessageChannel messageChannel = new MessageChannel();
+
+		final List<Object> received = new ArrayList<>();
+
+		MessageReceiver<Object> receiver = new MessageReceiver<Object>()
+		{
+			@Override
+			public boolean receive(List<Object> messages)
+			{
+				received.addAll(messages);
+				return true;
+			}
+		};
+
+		messageChannel.pull("c", 10, receiver);
+		Assert.assertTrue(received.isEmpty());
+
+		messageChannel.push("c", "m0");
+		Assert.assertEquals(1, received.size());
+
+		// 已接收过，不会再接收
+		messageChannel.push("c", "m1");
+		Assert.assertEquals(1, received.size());
+		Assert.assertEquals("m1", messageChannel.pull("c"));
+	}
+
+	@Test
+	public void pullTest_receiverRejected()
+	{
+		MessageChannel messageChannel = new MessageChannel();
+
+		MessageReceiver<Object> receiver = new MessageReceiver<Object>()
+		{
+			@Override
+			public boolean receive(List<Object> messages)
+			{
+				return false;
+			}
+		};
+
+		messageChannel.pull("c", 10, receiver);
+		messageChannel.push("c", "m0", "m1");
+
+		List<Object> messages = messageChannel.pull("c", 10);
+
+		Assert.assertEquals(2, messages.size());
+		Assert.assertEquals("m0", messages.get(0));
+		Assert.assertEquals("m1", messages.get(1));
+	}
+
+	private static class Progress implements CoalescibleMessage
+	{
+		private final String key;
+
+		private final int count;
+
+		public Progress(String key, int count)
+		{
+			super();
+			this.key = key;
+			this.count = count;
+		}
+
+		@Override
+		public Object getCoalesceKey()
+		{
+			return this.key;
+		}
+	}
+}
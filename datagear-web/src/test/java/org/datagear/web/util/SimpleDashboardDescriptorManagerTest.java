@@ -0,0 +1,78 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.web.util;
+
+import java.util.Arrays;
+
+import org.datagear.analysis.Chart;
+import org.datagear.analysis.support.html.HtmlChart;
+import org.datagear.analysis.support.html.HtmlTplDashboard;
+import org.datagear.management.domain.User;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * {@linkplain SimpleDashboardDescriptorManager}单元测试类。
+ * 
+ * @author datagear@163.com
+ *
+ */
+public class SimpleDashboardDescriptorManagerTest
+{
+	@Test
+	public void putTest()
+	{
+		SimpleDashboardDescriptorManager manager = new SimpleDashboardDescriptorManager();
+		manager.setMaximumSize(2);
+		manager.init();
+
+		manager.put(createDashboardDescriptor("d0"));
+		manager.put(createDashboardDescriptor("d1"));
+		manager.get("d0");
+		manager.put(createDashboardDescriptor("d2"));
+
+		// 超过最大数时移除最近最少访问的
+		Assert.assertNotNull(manager.get("d0"));
+		Assert.assertNull(manager.get("d1"));
+		Assert.assertNotNull(manager.get("d2"));
+	}
+
+	@Test
+	public void addChartTest()
+	{
+		SimpleDashboardDescriptorManager manager = new SimpleDashboardDescriptorManager();
+		manager.init();
+
+		manager.put(createDashboardDescriptor("d0"));
+
+		Assert.assertTrue(manager.addChart("d0", "c2", "w2"));
+		Assert.assertFalse(manager.addChart("d1", "c2", "w2"));
+
+		DashboardDescriptor descriptor = manager.get("d0");
+
+		Assert.assertEquals(3, descriptor.getChartWidgetIds().size());
+		Assert.assertEquals("w0", descriptor.getChartWidgetId("c0"));
+		Assert.assertEquals("w2", descriptor.getChartWidgetId("c2"));
+		Assert.assertNull(descriptor.getUser().getPassword());
+	}
+
+	protected DashboardDescriptor createDashboardDescriptor(String id)
+	{
+		HtmlChart chart0 = new HtmlChart();
+		chart0.setId("c0");
+		chart0.setWidgetId("w0");
+
+		HtmlChart chart1 = new HtmlChart();
+		chart1.setId("c1");
+		chart1.setWidgetId("w1");
+
+		HtmlTplDashboard dashboard = new HtmlTplDashboard();
+		dashboard.setId(id);
+		dashboard.setTemplate("index.html");
+		dashboard.setCharts(Arrays.<Chart> asList(chart0, chart1));
+
+		return DashboardDescriptor.valueOf(dashboard, new User("u0", "admin", "password"));
+	}
+}
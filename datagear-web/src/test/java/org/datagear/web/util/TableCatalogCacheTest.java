@@ -0,0 +1,80 @@
+/*
+ * Copyright 2018 datagear.tech. All Rights Reserved.
+ */
+
+package org.datagear.web.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.datagear.meta.SimpleTable;
+import org.datagear.web.util.TableCatalogCache.TableCatalog;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * {@linkplain TableCatalogCache}单元测试类。
+ *
+ * @author datagear@163.com
+ *
+ */
+public class TableCatalogCacheTest
+{
+	@Test
+	public void findTest()
+	{
+		List<SimpleTable> tables = new ArrayList<>();
+		tables.add(new SimpleTable("T_ORDER_ITEM", "TABLE"));
+		tables.add(new SimpleTable("t_account", "TABLE"));
+		tables.add(new SimpleTable("T_ORDER", "TABLE"));
+		tables.add(new SimpleTable("V_ACCOUNT_ORDER", "VIEW"));
+		tables.add(new SimpleTable("AB", "TABLE"));
+
+		TableCatalog catalog = new TableCatalog(tables);
+
+		Assert.assertEquals(5, catalog.find(null).size());
+		Assert.assertEquals("AB", catalog.find("").get(0).getName());
+
+		assertNames(catalog.find("t_order%"), "T_ORDER", "T_ORDER_ITEM");
+		assertNames(catalog.find("%account"), "t_account");
+		assertNames(catalog.find("account"), "V_ACCOUNT_ORDER", "t_account");
+		assertNames(catalog.find("%ORDER%"), "T_ORDER", "T_ORDER_ITEM", "V_ACCOUNT_ORDER");
+		assertNames(catalog.find("b"), "AB");
+		assertNames(catalog.find("xyz"));
+	}
+
+	@Test
+	public void findTest_sameAsKeywordMatcher()
+	{
+		List<SimpleTable> tables = new ArrayList<>();
+		for (int i = 0; i < 500; i++)
+			tables.add(new SimpleTable("TABLE_" + Integer.toString(i * 7919, 36), "TABLE"));
+
+		TableCatalog catalog = new TableCatalog(tables);
+
+		String[] keywords = { "1", "ab", "table_1%", "%z", "%e_3%", "LE_A", "1a" };
+
+		for (String keyword : keywords)
+		{
+			List<SimpleTable> expected = KeywordMatcher.match(catalog.getTables(), keyword,
+					new KeywordMatcher.MatchValue<SimpleTable>()
+					{
+						@Override
+						public String[] get(SimpleTable t)
+						{
+							return new String[] { t.getName() };
+						}
+					});
+
+			Assert.assertEquals(keyword, expected, catalog.find(keyword));
+		}
+	}
+
+	protected void assertNames(List<SimpleTable> tables, String... names)
+	{
+		Assert.assertEquals(names.length, tables.size());
+
+		for (int i = 0; i < names.length; i++)
+			Assert.assertEquals(names[i], tables.get(i).getName());
+	}
+}